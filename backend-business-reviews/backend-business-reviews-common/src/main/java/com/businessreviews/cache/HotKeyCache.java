@@ -0,0 +1,335 @@
+package com.businessreviews.cache;
+
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.model.dto.HotKeyMessageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点Key本地副本
+ * <p>
+ * 单个爆款笔记或秒杀门店的读请求会集中到同一个 Redis Key 和同一条连接上。
+ * {@link com.businessreviews.util.RedisUtil} 的字符串读取经过本类：
+ * - 每次读取记入滑动窗口 Count-Min Sketch（见 {@link HotKeyDetector}），
+ *   窗口内估算读取次数超过阈值的Key被提升为热点Key
+ * - 热点Key的值在本地保留短期副本，过期前的读取不再访问 Redis
+ * - 提升通过 Redis Pub/Sub 广播，所有实例对同一个Key建立副本
+ * - 通过 RedisUtil 写入或删除热点Key时清除本地副本并广播其他实例清除
+ * </p>
+ * <p>
+ * 副本过期时间很短（见 {@link CacheExpireConstants#HOT_KEY_REPLICA}），
+ * 广播丢失或读写交错时的最长不一致时间即为该值。
+ * 热点状态持续 {@link CacheExpireConstants#HOT_KEY_PROMOTION}，仍然热的Key到期前自动续期。
+ * </p>
+ * <p>
+ * 只有业务缓存前缀（见 {@link #CACHE_PREFIXES}）下的Key参与探测和副本，
+ * 验证码、Token黑名单、锁和计数等Key一律直接读取 Redis；统计结果中的Key只保留前缀，其余部分脱敏。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotKeyCache implements MessageListener {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 热点Key广播频道
+     */
+    public static final String HOT_KEY_CHANNEL = "cache:hotkey";
+
+    /**
+     * 当前服务器ID（用于忽略自己发布的消息）
+     */
+    private static final String SERVER_ID = UUID.randomUUID().toString();
+
+    /** 探测窗口（毫秒） */
+    private static final long WINDOW_MILLIS = 10_000L;
+
+    /** 窗口切分的时间片数 */
+    private static final int WINDOW_SLICES = 10;
+
+    /** Count-Min Sketch 行数 */
+    private static final int SKETCH_DEPTH = 4;
+
+    /** Count-Min Sketch 每行计数器个数 */
+    private static final int SKETCH_WIDTH = 4096;
+
+    /** 同时存在的热点Key上限 */
+    private static final int MAX_HOT_KEYS = 1000;
+
+    /** 来源：本实例探测 */
+    private static final String SOURCE_LOCAL = "local";
+
+    /** 来源：其他实例广播 */
+    private static final String SOURCE_REMOTE = "remote";
+
+    /** 参与热点探测的业务缓存Key前缀 */
+    private static final List<String> CACHE_PREFIXES = List.of(
+            RedisKeyConstants.SHOP_INFO,
+            RedisKeyConstants.SHOP_ITEM,
+            RedisKeyConstants.NOTE_DETAIL,
+            RedisKeyConstants.NOTES_RECOMMENDED_PAGE,
+            RedisKeyConstants.NOTES_RECOMMENDED_SNAPSHOT_CURRENT,
+            RedisKeyConstants.USER_BASIC_INFO,
+            RedisKeyConstants.CATEGORIES,
+            RedisKeyConstants.CATEGORIES_ENABLED,
+            RedisKeyConstants.HOT_TOPICS_CACHE,
+            RedisKeyConstants.HOT_SEARCHES_CACHE);
+
+    /** 窗口内读取次数阈值（单实例） */
+    @Value("${cache.hot-key.threshold:500}")
+    private long threshold;
+
+    private final HotKeyDetector detector = new HotKeyDetector(SKETCH_DEPTH, SKETCH_WIDTH, WINDOW_MILLIS,
+            WINDOW_SLICES);
+
+    private final Cache<String, String> replicas = Caffeine.newBuilder()
+            .maximumSize(MAX_HOT_KEYS)
+            .expireAfterWrite(Duration.ofSeconds(CacheExpireConstants.HOT_KEY_REPLICA))
+            .build();
+
+    /** 热点Key -> 热点状态 */
+    private final Map<String, HotKey> hotKeys = new ConcurrentHashMap<>();
+
+    private final LongAdder localPromotions = new LongAdder();
+    private final LongAdder remotePromotions = new LongAdder();
+    private final LongAdder replicaHits = new LongAdder();
+    private final LongAdder replicaLoads = new LongAdder();
+
+    /** 最近一个统计周期（1分钟）内的提升次数 */
+    private volatile long promotionsLastMinute;
+    private long promotionsAtLastTick;
+
+    /**
+     * 热点Key状态
+     */
+    private record HotKey(String source, long promotedAt, long expireAt) {
+    }
+
+    /**
+     * 热点Key统计快照
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        /** 窗口内读取次数阈值 */
+        private Long threshold;
+        /** 探测窗口（秒） */
+        private Long windowSeconds;
+        /** 本实例探测到的提升次数（累计） */
+        private Long localPromotions;
+        /** 收到其他实例广播的提升次数（累计） */
+        private Long remotePromotions;
+        /** 最近1分钟的提升次数（本实例探测） */
+        private Long promotionsLastMinute;
+        /** 副本命中次数 */
+        private Long replicaHits;
+        /** 副本回源次数 */
+        private Long replicaLoads;
+        /** 当前热点Key，按窗口内读取次数降序 */
+        private List<HotKeyStat> hotKeys;
+    }
+
+    /**
+     * 单个热点Key统计
+     */
+    @Data
+    @AllArgsConstructor
+    public static class HotKeyStat {
+        /** 脱敏后的Key（前缀 + 其余部分的哈希） */
+        private String key;
+        /** 窗口内估算读取次数（本实例） */
+        private Long estimatedReads;
+        /** 来源：local / remote */
+        private String source;
+        /** 提升时间（毫秒时间戳） */
+        private Long promotedAt;
+        /** 热点状态到期时间（毫秒时间戳） */
+        private Long expireAt;
+        /** 本地是否持有副本 */
+        private Boolean replicated;
+    }
+
+    /**
+     * 记录一次读取，热点Key有本地副本时返回副本
+     *
+     * @return 本地副本，非热点Key或副本不存在时返回null（调用方读取 Redis 后调用 {@link #putReplica}）
+     */
+    public String getReplica(String key) {
+        if (!isCacheKey(key)) {
+            return null;
+        }
+        long reads = detector.record(key);
+        long now = System.currentTimeMillis();
+        HotKey hotKey = hotKeys.get(key);
+        if (hotKey != null && hotKey.expireAt() <= now) {
+            hotKeys.remove(key, hotKey);
+            replicas.invalidate(key);
+            hotKey = null;
+        }
+        if (reads >= threshold && (hotKey == null || hotKey.expireAt() - now < promotionMillis() / 2)) {
+            promote(key, now);
+            hotKey = hotKeys.get(key);
+        }
+        if (hotKey == null) {
+            return null;
+        }
+        String value = replicas.getIfPresent(key);
+        if (value != null) {
+            replicaHits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 写入本地副本（仅热点Key，值为null时不写入）
+     */
+    public void putReplica(String key, String value) {
+        if (value != null && hotKeys.containsKey(key)) {
+            replicas.put(key, value);
+            replicaLoads.increment();
+        }
+    }
+
+    /**
+     * Key被写入或删除时清除本地副本，并广播其他实例清除
+     */
+    public void invalidate(String key) {
+        if (hotKeys.containsKey(key)) {
+            replicas.invalidate(key);
+            publish(HotKeyMessageDTO.TYPE_INVALIDATE, key);
+        }
+    }
+
+    /**
+     * 获取热点Key统计
+     */
+    public Stats getStats() {
+        long now = System.currentTimeMillis();
+        List<HotKeyStat> keys = new ArrayList<>();
+        hotKeys.forEach((key, hotKey) -> {
+            if (hotKey.expireAt() > now) {
+                keys.add(new HotKeyStat(maskKey(key), detector.estimate(key), hotKey.source(), hotKey.promotedAt(),
+                        hotKey.expireAt(), replicas.getIfPresent(key) != null));
+            }
+        });
+        keys.sort(Comparator.comparing(HotKeyStat::getEstimatedReads).reversed());
+        return new Stats(threshold, WINDOW_MILLIS / 1000, localPromotions.sum(), remotePromotions.sum(),
+                promotionsLastMinute, replicaHits.sum(), replicaLoads.sum(), keys);
+    }
+
+    /**
+     * 每分钟统计一次提升速率并清理过期的热点状态
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void tick() {
+        long total = localPromotions.sum();
+        promotionsLastMinute = total - promotionsAtLastTick;
+        promotionsAtLastTick = total;
+
+        long now = System.currentTimeMillis();
+        hotKeys.entrySet().removeIf(entry -> entry.getValue().expireAt() <= now);
+        if (promotionsLastMinute > 0) {
+            log.info("热点Key统计: promotionsLastMinute={}, hotKeys={}, replicaHits={}, replicaLoads={}",
+                    promotionsLastMinute, hotKeys.size(), replicaHits.sum(), replicaLoads.sum());
+        }
+    }
+
+    @Override
+    public void onMessage(@org.springframework.lang.NonNull Message message,
+            @org.springframework.lang.Nullable byte[] pattern) {
+        try {
+            HotKeyMessageDTO dto = objectMapper.readValue(new String(message.getBody()), HotKeyMessageDTO.class);
+            if (SERVER_ID.equals(dto.getSourceServerId())) {
+                return;
+            }
+            if (HotKeyMessageDTO.TYPE_PROMOTE.equals(dto.getType()) && isCacheKey(dto.getKey())) {
+                if (hotKeys.size() < MAX_HOT_KEYS || hotKeys.containsKey(dto.getKey())) {
+                    long now = System.currentTimeMillis();
+                    hotKeys.put(dto.getKey(), new HotKey(SOURCE_REMOTE, now, now + promotionMillis()));
+                    remotePromotions.increment();
+                }
+            } else if (HotKeyMessageDTO.TYPE_INVALIDATE.equals(dto.getType())) {
+                replicas.invalidate(dto.getKey());
+            }
+        } catch (Exception e) {
+            log.error("处理热点Key消息失败", e);
+        }
+    }
+
+    private void promote(String key, long now) {
+        boolean renewal = hotKeys.containsKey(key);
+        if (!renewal && hotKeys.size() >= MAX_HOT_KEYS) {
+            return;
+        }
+        hotKeys.put(key, new HotKey(SOURCE_LOCAL, now, now + promotionMillis()));
+        if (!renewal) {
+            localPromotions.increment();
+            log.info("发现热点Key: key={}, threshold={}", key, threshold);
+        }
+        publish(HotKeyMessageDTO.TYPE_PROMOTE, key);
+    }
+
+    private void publish(String type, String key) {
+        try {
+            String json = objectMapper.writeValueAsString(new HotKeyMessageDTO(type, key, SERVER_ID));
+            redisTemplate.convertAndSend(HOT_KEY_CHANNEL, json);
+        } catch (Exception e) {
+            // 广播失败时其他实例依赖各自的探测和副本过期时间收敛
+            log.warn("发布热点Key消息失败: type={}, key={}, error={}", type, key, e.getMessage());
+        }
+    }
+
+    /**
+     * 是否为参与热点探测的业务缓存Key
+     */
+    static boolean isCacheKey(String key) {
+        if (key == null) {
+            return false;
+        }
+        for (String prefix : CACHE_PREFIXES) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Key脱敏：保留最后一个冒号之前的前缀，其余部分替换为哈希值
+     */
+    static String maskKey(String key) {
+        int separator = key.lastIndexOf(':');
+        String prefix = separator >= 0 ? key.substring(0, separator + 1) : "";
+        return prefix + "#" + Integer.toHexString(key.substring(prefix.length()).hashCode());
+    }
+
+    private static long promotionMillis() {
+        return CacheExpireConstants.HOT_KEY_PROMOTION * 1000L;
+    }
+}
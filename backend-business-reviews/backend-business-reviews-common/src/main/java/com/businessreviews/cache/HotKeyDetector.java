@@ -0,0 +1,119 @@
+package com.businessreviews.cache;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 滑动窗口 Count-Min Sketch 热点Key探测器
+ * <p>
+ * 窗口被切分为若干个时间片，每个时间片一个 depth x width 的计数矩阵，
+ * 时间片过期后在下一次写入时整体清零复用。
+ * 估算值为各行在窗口内所有时间片计数之和的最小值，只会高估、不会低估，
+ * 内存占用与Key的数量无关。
+ * </p>
+ *
+ * @author businessreviews
+ */
+public class HotKeyDetector {
+
+    private final int depth;
+    private final int width;
+    private final long sliceMillis;
+    private final Slice[] slices;
+
+    /**
+     * @param depth        哈希函数个数（矩阵行数）
+     * @param width        每行计数器个数
+     * @param windowMillis 窗口长度（毫秒）
+     * @param sliceCount   窗口切分的时间片数
+     */
+    public HotKeyDetector(int depth, int width, long windowMillis, int sliceCount) {
+        this.depth = depth;
+        this.width = width;
+        this.sliceMillis = Math.max(1L, windowMillis / sliceCount);
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice(depth * width);
+        }
+    }
+
+    /**
+     * 记录一次访问并返回窗口内的估算访问次数
+     */
+    public long record(String key) {
+        long epoch = System.currentTimeMillis() / sliceMillis;
+        int[] columns = columns(key);
+        Slice current = slices[(int) (epoch % slices.length)];
+        current.rotate(epoch);
+        for (int row = 0; row < depth; row++) {
+            current.counters.incrementAndGet(row * width + columns[row]);
+        }
+        return estimate(columns, epoch);
+    }
+
+    /**
+     * 窗口内的估算访问次数（不记录访问）
+     */
+    public long estimate(String key) {
+        return estimate(columns(key), System.currentTimeMillis() / sliceMillis);
+    }
+
+    private long estimate(int[] columns, long epoch) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long sum = 0;
+            for (Slice slice : slices) {
+                if (epoch - slice.epoch < slices.length) {
+                    sum += slice.counters.get(row * width + columns[row]);
+                }
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    private int[] columns(String key) {
+        long hash1 = mix(key.hashCode());
+        long hash2 = mix(hash1) | 1L;
+        int[] columns = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            columns[row] = (int) Math.floorMod(hash1 + row * hash2, (long) width);
+        }
+        return columns;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 时间片
+     */
+    private static final class Slice {
+        private final AtomicIntegerArray counters;
+        private volatile long epoch = Long.MIN_VALUE / 2;
+
+        private Slice(int size) {
+            this.counters = new AtomicIntegerArray(size);
+        }
+
+        /**
+         * 时间片已属于更早的周期时清零（并发下个别计数可能落入被清零的旧周期，对热点判定无影响）
+         */
+        private void rotate(long currentEpoch) {
+            if (epoch == currentEpoch) {
+                return;
+            }
+            synchronized (this) {
+                if (epoch != currentEpoch) {
+                    for (int i = 0; i < counters.length(); i++) {
+                        counters.set(i, 0);
+                    }
+                    epoch = currentEpoch;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.businessreviews.cache;
+
+import com.businessreviews.util.RedisUtil;
+
+import java.util.Collection;
+
+/**
+ * 基于 Redis Bitmap 的布隆过滤器（元素为 Long 类型ID）
+ * <p>
+ * 位数组存放在 Redis 中，多个实例共享，任一实例写入的ID其他实例立即可见。
+ * 位数和哈希函数个数按预期元素数和误判率计算：
+ * m = -n * ln(p) / (ln2)^2，k = m / n * ln2。
+ * 哈希采用双重哈希 g_i(x) = h1(x) + i * h2(x)，一次查询的 k 个 GETBIT 通过管道一次往返发送。
+ * </p>
+ * <p>
+ * 布隆过滤器只会误判"存在"，不会误判"不存在"（前提是所有ID都已写入），且不支持删除。
+ * </p>
+ *
+ * @author businessreviews
+ */
+public class RedisBloomFilter {
+
+    private final String key;
+    private final long bitSize;
+    private final int hashCount;
+    private final RedisUtil redisUtil;
+
+    /**
+     * @param key                Redis Key
+     * @param expectedInsertions 预期元素数
+     * @param fpp                期望误判率（0~1）
+     */
+    public RedisBloomFilter(String key, long expectedInsertions, double fpp, RedisUtil redisUtil) {
+        this(key, optimalBitSize(expectedInsertions, fpp),
+                optimalHashCount(expectedInsertions, optimalBitSize(expectedInsertions, fpp)), redisUtil);
+    }
+
+    private RedisBloomFilter(String key, long bitSize, int hashCount, RedisUtil redisUtil) {
+        this.key = key;
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+        this.redisUtil = redisUtil;
+    }
+
+    /**
+     * 使用相同参数、不同 Key 的过滤器（重建时写入临时 Key）
+     */
+    public RedisBloomFilter withKey(String otherKey) {
+        return new RedisBloomFilter(otherKey, bitSize, hashCount, redisUtil);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 判断ID是否可能存在
+     *
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(long id) {
+        for (boolean bit : redisUtil.getBits(key, offsets(id))) {
+            if (!bit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 写入ID
+     */
+    public void put(long id) {
+        redisUtil.setBits(key, offsets(id));
+    }
+
+    /**
+     * 批量写入ID（一次管道往返）
+     */
+    public void putAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        long[] offsets = new long[ids.size() * hashCount];
+        int i = 0;
+        for (Long id : ids) {
+            long[] idOffsets = offsets(id);
+            System.arraycopy(idOffsets, 0, offsets, i, hashCount);
+            i += hashCount;
+        }
+        redisUtil.setBits(key, offsets);
+    }
+
+    private long[] offsets(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1) | 1L;
+        long[] offsets = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            offsets[i] = Math.floorMod(hash1 + i * hash2, bitSize);
+        }
+        return offsets;
+    }
+
+    /**
+     * SplitMix64 混淆，连续ID映射到分散的位置
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long optimalBitSize(long expectedInsertions, double fpp) {
+        return (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+    }
+
+    private static int optimalHashCount(long expectedInsertions, long bitSize) {
+        return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+}
@@ -0,0 +1,357 @@
+package com.businessreviews.cache;
+
+import com.businessreviews.util.RedisUtil;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 防击穿的 Redis 缓存加载器
+ * <p>
+ * 在 {@link RedisUtil} 之上提供 Cache-Aside 读取，避免热点Key过期瞬间大量请求同时回源：
+ * - 进程内合并加载（single-flight）：同一Key同一时刻只有一个线程回源，其余线程等待其结果
+ * - 分布式租约（可选）：回源前以 SET NX PX 抢占租约，未抢到的实例短暂轮询 Redis 等待其他实例回填
+ * - 概率提前刷新（XFetch）：缓存值记录回源耗时，临近过期时按
+ *   {@code now - delta * BETA * ln(rand) >= expireAt} 让个别请求提前回源，其余请求继续使用旧值
+ * - 过期时间抖动：写入时在基础过期时间上随机浮动，避免同一批写入的Key同时过期
+ * </p>
+ * <p>
+ * 缓存值以 {@link CacheEnvelope} 格式存储（值 + 回源耗时 + 逻辑过期时间），
+ * 读取到旧格式的值时视为未命中并覆盖。加载函数返回 null 时不缓存。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisCacheLoader {
+
+    private final RedisUtil redisUtil;
+    private final ObjectMapper objectMapper;
+
+    /** XFetch 提前刷新系数，越大越早刷新 */
+    private static final double BETA = 1.0D;
+
+    /** 过期时间抖动比例（±10%） */
+    private static final double TTL_JITTER_RATIO = 0.1D;
+
+    /** 分布式租约有效期（毫秒），应大于一次回源的耗时 */
+    private static final long LEASE_MILLIS = 3000L;
+
+    /** 未抢到租约时轮询 Redis 的间隔（毫秒） */
+    private static final long LEASE_POLL_INTERVAL_MILLIS = 50L;
+
+    /** 等待同进程其他线程回源的最长时间（秒），超时后自行回源 */
+    private static final long SINGLE_FLIGHT_WAIT_SECONDS = 5L;
+
+    /** 租约Key后缀 */
+    private static final String LEASE_SUFFIX = ":lease";
+
+    /** 正在回源的Key -> 回源结果 */
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /** 合并到其他线程回源结果的请求数 */
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /** 提前刷新次数 */
+    private final AtomicLong earlyRefreshCount = new AtomicLong();
+
+    /** 等待其他实例租约的次数 */
+    private final AtomicLong leaseWaitCount = new AtomicLong();
+
+    /**
+     * 缓存值存储格式
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CacheEnvelope {
+        /** 缓存值 */
+        private Object value;
+        /** 回源耗时（毫秒） */
+        private Long delta;
+        /** 逻辑过期时间（毫秒时间戳） */
+        private Long expireAt;
+    }
+
+    /**
+     * 读取缓存，未命中时合并回源并写入
+     *
+     * @param key        Redis Key
+     * @param type       值类型
+     * @param ttlSeconds 基础过期时间（秒，写入时抖动）
+     * @param lease      是否启用分布式租约（回源代价高的Key使用）
+     * @param loader     加载函数
+     * @return 缓存值，加载函数返回null时为null
+     */
+    public <T> T get(String key, JavaType type, long ttlSeconds, boolean lease, Supplier<T> loader) {
+        Decoded<T> cached = read(key, type);
+        if (cached != null) {
+            if (!shouldRefreshEarly(cached)) {
+                return cached.value;
+            }
+            return refreshEarly(key, ttlSeconds, lease, loader, cached.value);
+        }
+        return singleFlight(key, () -> loadAndStore(key, type, ttlSeconds, lease, loader));
+    }
+
+    /**
+     * 读取缓存（不启用分布式租约）
+     */
+    public <T> T get(String key, Class<T> type, long ttlSeconds, Supplier<T> loader) {
+        return get(key, objectMapper.getTypeFactory().constructType(type), ttlSeconds, false, loader);
+    }
+
+    /**
+     * 进程内合并执行：同一Key同一时刻只执行一次，其余调用方等待并共享结果（包括异常）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T singleFlight(String key, Supplier<T> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            try {
+                return (T) existing.get(SINGLE_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                log.warn("等待合并回源超时，自行回源: key={}", key);
+                return loader.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return loader.get();
+            }
+        }
+
+        try {
+            T value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 写入缓存（过期时间抖动）
+     *
+     * @param computeMillis 本次回源耗时，用于计算提前刷新概率
+     */
+    public void put(String key, Object value, long ttlSeconds, long computeMillis) {
+        long ttl = jitter(ttlSeconds);
+        try {
+            CacheEnvelope envelope = new CacheEnvelope(value, computeMillis,
+                    System.currentTimeMillis() + ttl * 1000L);
+            redisUtil.set(key, objectMapper.writeValueAsString(envelope), ttl);
+        } catch (Exception e) {
+            log.warn("写入缓存失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 解析缓存值（批量读取时使用，旧格式或解析失败时返回null）
+     */
+    public <T> T decode(String raw, JavaType type) {
+        Decoded<T> decoded = decodeEnvelope(raw, type);
+        return decoded != null ? decoded.value : null;
+    }
+
+    /**
+     * 过期时间随机浮动 ±{@link #TTL_JITTER_RATIO}
+     */
+    public static long jitter(long ttlSeconds) {
+        long range = (long) (ttlSeconds * TTL_JITTER_RATIO);
+        if (range <= 0) {
+            return ttlSeconds;
+        }
+        return ttlSeconds + ThreadLocalRandom.current().nextLong(-range, range + 1);
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getEarlyRefreshCount() {
+        return earlyRefreshCount.get();
+    }
+
+    public long getLeaseWaitCount() {
+        return leaseWaitCount.get();
+    }
+
+    private <T> T refreshEarly(String key, long ttlSeconds, boolean lease, Supplier<T> loader, T staleValue) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            // 已有线程在刷新，继续使用旧值
+            return staleValue;
+        }
+        String token = null;
+        try {
+            if (lease) {
+                token = tryAcquireLease(key);
+                if (token == null) {
+                    future.complete(staleValue);
+                    return staleValue;
+                }
+            }
+            earlyRefreshCount.incrementAndGet();
+            long start = System.currentTimeMillis();
+            T value = loader.get();
+            if (value == null) {
+                // 数据源暂时返回空时沿用旧值，旧值到期后由正常回源处理
+                future.complete(staleValue);
+                return staleValue;
+            }
+            put(key, value, ttlSeconds, System.currentTimeMillis() - start);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            // 提前刷新失败不影响本次读取
+            log.warn("提前刷新缓存失败，使用旧值: key={}, error={}", key, e.getMessage());
+            future.complete(staleValue);
+            return staleValue;
+        } finally {
+            releaseLease(key, token);
+            inFlight.remove(key, future);
+        }
+    }
+
+    private <T> T loadAndStore(String key, JavaType type, long ttlSeconds, boolean lease, Supplier<T> loader) {
+        // 上一轮回源可能刚刚写入
+        Decoded<T> cached = read(key, type);
+        if (cached != null) {
+            return cached.value;
+        }
+
+        String token = null;
+        try {
+            if (lease) {
+                token = tryAcquireLease(key);
+                if (token == null) {
+                    leaseWaitCount.incrementAndGet();
+                    T value = waitForValue(key, type);
+                    if (value != null) {
+                        return value;
+                    }
+                    // 等待超时（持有者可能已失败），自行回源
+                }
+            }
+            long start = System.currentTimeMillis();
+            T value = loader.get();
+            if (value != null) {
+                put(key, value, ttlSeconds, System.currentTimeMillis() - start);
+            }
+            return value;
+        } finally {
+            releaseLease(key, token);
+        }
+    }
+
+    private <T> T waitForValue(String key, JavaType type) {
+        long deadline = System.currentTimeMillis() + LEASE_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LEASE_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Decoded<T> cached = read(key, type);
+            if (cached != null) {
+                return cached.value;
+            }
+        }
+        return null;
+    }
+
+    private String tryAcquireLease(String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            return Boolean.TRUE.equals(redisUtil.setIfAbsentMillis(key + LEASE_SUFFIX, token, LEASE_MILLIS))
+                    ? token : null;
+        } catch (Exception e) {
+            // Redis 不可用时不做跨实例协调，直接回源
+            log.warn("获取缓存租约失败: key={}, error={}", key, e.getMessage());
+            return token;
+        }
+    }
+
+    private void releaseLease(String key, String token) {
+        if (token == null) {
+            return;
+        }
+        try {
+            redisUtil.deleteIfEquals(key + LEASE_SUFFIX, token);
+        } catch (Exception e) {
+            log.warn("释放缓存租约失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * XFetch：剩余时间越短、回源越慢，提前刷新的概率越高
+     */
+    private boolean shouldRefreshEarly(Decoded<?> cached) {
+        if (cached.delta <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        double gap = -cached.delta * BETA * Math.log(Math.max(random, Double.MIN_VALUE));
+        return System.currentTimeMillis() + gap >= cached.expireAt;
+    }
+
+    private <T> Decoded<T> read(String key, JavaType type) {
+        try {
+            return decodeEnvelope(redisUtil.get(key), type);
+        } catch (Exception e) {
+            log.warn("读取缓存失败: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> Decoded<T> decodeEnvelope(String raw, JavaType type) {
+        if (raw == null) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(raw);
+            JsonNode expireAt = node.get("expireAt");
+            JsonNode value = node.get("value");
+            if (expireAt == null || value == null || value.isNull()) {
+                return null;
+            }
+            JsonNode delta = node.get("delta");
+            T decoded = objectMapper.readerFor(type).readValue(value);
+            return new Decoded<>(decoded, delta != null ? delta.asLong() : 0L, expireAt.asLong());
+        } catch (Exception e) {
+            log.debug("缓存值格式无法解析，视为未命中: error={}", e.getMessage());
+            return null;
+        }
+    }
+
+    private record Decoded<T>(T value, long delta, long expireAt) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.businessreviews.cache;
+
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
+import com.fasterxml.jackson.databind.JavaType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 二级缓存（进程内 Caffeine 一级缓存 + Redis 二级缓存）
+ * <p>
+ * 读取顺序：本地缓存 -> Redis -> 加载函数（通常查库），逐级回填。
+ * Redis 层通过 {@link RedisCacheLoader} 读写，具备合并回源、提前刷新和过期时间抖动能力，
+ * 回源代价高的缓存可通过 {@link #withDistributedLease()} 开启跨实例租约。
+ * 本地缓存按条数限制容量，过期时间短于 Redis，
+ * 即使某条失效广播丢失，各实例的本地数据也会在本地过期时间内收敛。
+ * </p>
+ * <p>
+ * 失效：{@link #evict} 删除 Redis 中的数据和本地数据，并通过 {@link TieredCacheManager}
+ * 广播给其他实例清除各自的本地缓存；在事务中调用时于事务提交后执行，避免提交前被旧数据回填。
+ * </p>
+ * <p>
+ * 注意：本地缓存命中时返回的是同一个对象实例，调用方不得修改返回值，需要补充字段时先复制。
+ * 加载函数返回 null 时不缓存。
+ * </p>
+ *
+ * @param <V> 缓存值类型
+ * @author businessreviews
+ */
+@Slf4j
+public class TieredCache<V> {
+
+    private final String name;
+    private final String keyPrefix;
+    private final JavaType valueType;
+    private final long ttlSeconds;
+    private final Cache<String, V> localCache;
+    private final RedisUtil redisUtil;
+    private final RedisCacheLoader cacheLoader;
+    private final TieredCacheManager manager;
+
+    /** 是否启用分布式租约 */
+    private volatile boolean distributedLease;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 命中率统计快照
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private String name;
+        private Long localHits;
+        private Long remoteHits;
+        private Long misses;
+        private Long localSize;
+
+        /** 本地缓存命中率（占全部请求） */
+        public Double getLocalHitRatio() {
+            long total = localHits + remoteHits + misses;
+            return total == 0 ? 0D : (double) localHits / total;
+        }
+
+        /** Redis 命中率（占本地未命中的请求） */
+        public Double getRemoteHitRatio() {
+            long total = remoteHits + misses;
+            return total == 0 ? 0D : (double) remoteHits / total;
+        }
+    }
+
+    TieredCache(String name, String keyPrefix, JavaType valueType, long ttlSeconds,
+            long localMaxSize, long localTtlSeconds, RedisUtil redisUtil, RedisCacheLoader cacheLoader,
+            TieredCacheManager manager) {
+        this.name = name;
+        this.keyPrefix = keyPrefix;
+        this.valueType = valueType;
+        this.ttlSeconds = ttlSeconds;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(Math.min(localTtlSeconds, ttlSeconds)))
+                .build();
+        this.redisUtil = redisUtil;
+        this.cacheLoader = cacheLoader;
+        this.manager = manager;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 开启分布式租约：Redis 未命中时只有抢到租约的实例回源，其他实例等待其回填
+     */
+    public TieredCache<V> withDistributedLease() {
+        this.distributedLease = true;
+        return this;
+    }
+
+    /**
+     * 读取缓存，未命中时调用加载函数并回填两级缓存
+     *
+     * @param key    缓存Key（不含前缀）
+     * @param loader 加载函数
+     * @return 缓存值，加载函数返回null时为null
+     */
+    public V get(String key, Supplier<V> loader) {
+        V value = localCache.getIfPresent(key);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+
+        boolean[] loaded = {false};
+        value = cacheLoader.get(redisKey(key), valueType, ttlSeconds, distributedLease, () -> {
+            loaded[0] = true;
+            return loader.get();
+        });
+        if (loaded[0]) {
+            misses.increment();
+        } else {
+            remoteHits.increment();
+        }
+        if (value != null) {
+            localCache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 批量读取缓存，本地未命中的Key通过一次 MGET 读取 Redis，仍未命中的交给加载函数批量加载
+     *
+     * @param keys   缓存Key集合（不含前缀）
+     * @param loader 批量加载函数，返回 Key -> 值（不存在的Key可不返回）
+     * @return Key -> 值
+     */
+    public Map<String, V> getAll(Collection<String> keys, Function<Collection<String>, Map<String, V>> loader) {
+        Map<String, V> result = new HashMap<>(localCache.getAllPresent(keys));
+        localHits.add(result.size());
+
+        List<String> remaining = keys.stream().distinct().filter(key -> !result.containsKey(key)).toList();
+        if (remaining.isEmpty()) {
+            return result;
+        }
+
+        List<String> missed = new ArrayList<>();
+        try {
+            List<String> jsons = redisUtil.multiGet(remaining.stream().map(this::redisKey).toList());
+            for (int i = 0; i < remaining.size(); i++) {
+                String key = remaining.get(i);
+                V value = jsons != null ? cacheLoader.decode(jsons.get(i), valueType) : null;
+                if (value != null) {
+                    result.put(key, value);
+                    localCache.put(key, value);
+                } else {
+                    missed.add(key);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("批量读取二级缓存失败: cache={}, error={}", name, e.getMessage());
+            missed = new ArrayList<>(remaining);
+        }
+        remoteHits.add(remaining.size() - missed.size());
+        misses.add(missed.size());
+
+        if (!missed.isEmpty()) {
+            Map<String, V> loaded = loader.apply(missed);
+            if (loaded != null) {
+                loaded.forEach((key, value) -> {
+                    if (value != null) {
+                        result.put(key, value);
+                        localCache.put(key, value);
+                        putRemote(key, value);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 写入缓存，并通知其他实例清除旧的本地数据
+     */
+    public void put(String key, V value) {
+        if (value == null) {
+            evictNow(key);
+            return;
+        }
+        putRemote(key, value);
+        localCache.put(key, value);
+        manager.publishInvalidation(name, key);
+    }
+
+    /**
+     * 清除缓存（Redis 和所有实例的本地缓存，事务中调用时在提交后生效）
+     */
+    public void evict(String key) {
+        TransactionUtil.afterCommit(() -> evictNow(key));
+    }
+
+    private void evictNow(String key) {
+        try {
+            redisUtil.delete(redisKey(key));
+        } catch (Exception e) {
+            log.warn("删除二级缓存失败: cache={}, key={}, error={}", name, key, e.getMessage());
+        }
+        localCache.invalidate(key);
+        manager.publishInvalidation(name, key);
+    }
+
+    /**
+     * 清除本地缓存（收到其他实例的失效广播时调用）
+     *
+     * @param key 缓存Key，为null时清空整个本地缓存
+     */
+    public void invalidateLocal(String key) {
+        if (key == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    /**
+     * 获取命中率统计
+     */
+    public Stats getStats() {
+        return new Stats(name, localHits.sum(), remoteHits.sum(), misses.sum(), localCache.estimatedSize());
+    }
+
+    private void putRemote(String key, V value) {
+        cacheLoader.put(redisKey(key), value, ttlSeconds, 0L);
+    }
+
+    private String redisKey(String key) {
+        return keyPrefix + key;
+    }
+}
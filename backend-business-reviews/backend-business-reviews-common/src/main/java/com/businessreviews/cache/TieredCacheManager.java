@@ -0,0 +1,163 @@
+package com.businessreviews.cache;
+
+import com.businessreviews.model.dto.CacheInvalidationDTO;
+import com.businessreviews.util.RedisUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二级缓存管理器
+ * <p>
+ * 负责创建 {@link TieredCache}、通过 Redis Pub/Sub 广播本地缓存失效消息，
+ * 并监听其他实例的失效消息清除本实例对应的本地缓存。
+ * 各缓存的命中率统计定期输出日志，也可通过 {@link #getAllStats()} 获取。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TieredCacheManager implements MessageListener {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisUtil redisUtil;
+    private final RedisCacheLoader cacheLoader;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 缓存失效广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+    /**
+     * 当前服务器ID（用于忽略自己发布的失效消息）
+     */
+    private static final String SERVER_ID = UUID.randomUUID().toString();
+
+    private final Map<String, TieredCache<?>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * 创建二级缓存
+     *
+     * @param name            缓存名称（全局唯一，用于失效广播和统计，见 {@link TieredCacheNames}）
+     * @param keyPrefix       Redis Key前缀
+     * @param valueType       缓存值类型
+     * @param ttlSeconds      Redis 过期时间（秒）
+     * @param localMaxSize    本地缓存最大条数
+     * @param localTtlSeconds 本地缓存过期时间（秒，不超过 Redis 过期时间）
+     */
+    public <V> TieredCache<V> create(String name, String keyPrefix, Class<V> valueType, long ttlSeconds,
+            long localMaxSize, long localTtlSeconds) {
+        return register(name, keyPrefix, objectMapper.getTypeFactory().constructType(valueType), ttlSeconds,
+                localMaxSize, localTtlSeconds);
+    }
+
+    /**
+     * 创建二级缓存（泛型值类型，如 List&lt;CategoryVO&gt;）
+     */
+    public <V> TieredCache<V> create(String name, String keyPrefix, TypeReference<V> valueType, long ttlSeconds,
+            long localMaxSize, long localTtlSeconds) {
+        return register(name, keyPrefix, objectMapper.getTypeFactory().constructType(valueType), ttlSeconds,
+                localMaxSize, localTtlSeconds);
+    }
+
+    private <V> TieredCache<V> register(String name, String keyPrefix, JavaType valueType, long ttlSeconds,
+            long localMaxSize, long localTtlSeconds) {
+        TieredCache<V> cache = new TieredCache<>(name, keyPrefix, valueType, ttlSeconds, localMaxSize,
+                localTtlSeconds, redisUtil, cacheLoader, this);
+        if (caches.putIfAbsent(name, cache) != null) {
+            throw new IllegalStateException("二级缓存名称重复: " + name);
+        }
+        return cache;
+    }
+
+    /**
+     * 按名称清除缓存（缓存所在服务之外的写入方使用）
+     *
+     * @param cacheName 缓存名称，见 {@link TieredCacheNames}
+     * @param key       缓存Key
+     */
+    public void evict(String cacheName, String key) {
+        TieredCache<?> cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * 广播本地缓存失效消息
+     *
+     * @param cacheName 缓存名称
+     * @param key       缓存Key，为null时表示清空整个缓存
+     */
+    void publishInvalidation(String cacheName, String key) {
+        try {
+            String json = objectMapper.writeValueAsString(new CacheInvalidationDTO(cacheName, key, SERVER_ID));
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, json);
+        } catch (Exception e) {
+            // 广播失败时其他实例的本地缓存依赖本地过期时间收敛
+            log.warn("发布缓存失效消息失败: cache={}, key={}, error={}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(@org.springframework.lang.NonNull Message message,
+            @org.springframework.lang.Nullable byte[] pattern) {
+        try {
+            CacheInvalidationDTO dto = objectMapper.readValue(new String(message.getBody()),
+                    CacheInvalidationDTO.class);
+            if (SERVER_ID.equals(dto.getSourceServerId())) {
+                return;
+            }
+            TieredCache<?> cache = caches.get(dto.getCacheName());
+            if (cache != null) {
+                cache.invalidateLocal(dto.getKey());
+                log.debug("收到缓存失效消息: cache={}, key={}, sourceServer={}",
+                        dto.getCacheName(), dto.getKey(), dto.getSourceServerId());
+            }
+        } catch (Exception e) {
+            log.error("处理缓存失效消息失败", e);
+        }
+    }
+
+    /**
+     * 获取所有二级缓存的命中率统计
+     */
+    public List<TieredCache.Stats> getAllStats() {
+        List<TieredCache.Stats> stats = new ArrayList<>();
+        caches.values().forEach(cache -> stats.add(cache.getStats()));
+        return stats;
+    }
+
+    /**
+     * 每5分钟输出一次命中率统计
+     */
+    @Scheduled(fixedDelay = 300_000, initialDelay = 300_000)
+    public void logStats() {
+        for (TieredCache.Stats stats : getAllStats()) {
+            if (stats.getLocalHits() + stats.getRemoteHits() + stats.getMisses() == 0) {
+                continue;
+            }
+            log.info("二级缓存统计: cache={}, localHits={}, remoteHits={}, misses={}, localHitRatio={}, "
+                            + "remoteHitRatio={}, localSize={}",
+                    stats.getName(), stats.getLocalHits(), stats.getRemoteHits(), stats.getMisses(),
+                    String.format("%.3f", stats.getLocalHitRatio()), String.format("%.3f", stats.getRemoteHitRatio()),
+                    stats.getLocalSize());
+        }
+    }
+}
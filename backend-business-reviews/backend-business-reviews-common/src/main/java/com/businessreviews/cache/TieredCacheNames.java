@@ -0,0 +1,41 @@
+package com.businessreviews.cache;
+
+/**
+ * 二级缓存名称常量类
+ * <p>
+ * 缓存名称用于跨实例失效广播和命中率统计，各实例必须一致。
+ * </p>
+ */
+public final class TieredCacheNames {
+
+    private TieredCacheNames() {
+        // 私有构造函数，防止实例化
+    }
+
+    /** 用户基础信息 */
+    public static final String USER_BASIC = "userBasic";
+
+    /** 店铺详情 */
+    public static final String SHOP_DETAIL = "shopDetail";
+
+    /** 店铺列表项 */
+    public static final String SHOP_ITEM = "shopItem";
+
+    /** 分类列表 */
+    public static final String CATEGORIES = "categories";
+
+    /** 热门话题 */
+    public static final String HOT_TOPICS = "hotTopics";
+
+    /** 热门搜索词 */
+    public static final String HOT_SEARCHES = "hotSearches";
+
+    /** 推荐笔记快照分页 */
+    public static final String RECOMMENDED_PAGE = "recommendedPage";
+
+    /** 商家身份（商家ID -> 身份） */
+    public static final String MERCHANT_IDENTITY = "merchantIdentity";
+
+    /** 用户关联的商家身份（用户ID -> 身份） */
+    public static final String USER_MERCHANT = "userMerchant";
+}
@@ -0,0 +1,102 @@
+package com.businessreviews.cache;
+
+import com.businessreviews.util.RedisUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * 写回式增量落库工具
+ * <p>
+ * 计数类数据先用 HINCRBY 累加到 Redis Hash，由定时任务批量写回数据库。本类封装各业务共用的落库流程：
+ * - 通过分布式锁保证同一时刻只有一个实例落库，锁值为随机UUID，结束时按值原子释放
+ * - 落库前先将增量Key整体 RENAME 为 flushing Key，新的增量继续写入原Key，互不干扰
+ * - flushing Key 在写库完成后才删除，进程在落库中途崩溃时它会保留下来，
+ *   下次落库（包括启动时）先重放 flushing Key，再处理新的增量
+ * - 写库完成与删除 flushing Key 之间崩溃会导致该批重复累加一次，计数场景可以接受
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WriteBehindFlusher {
+
+    private final RedisUtil redisUtil;
+
+    /**
+     * 落库中的增量Key后缀
+     */
+    public static final String FLUSHING_SUFFIX = ":flushing";
+
+    /**
+     * 持有落库锁执行落库任务
+     * <p>
+     * 未抢到锁或获取锁失败时直接返回；任务抛出的异常在此记录，未落库的增量仍在 Redis 中，下次重试。
+     * </p>
+     *
+     * @param lockKey     落库锁Key
+     * @param lockSeconds 锁过期时间（秒），防止持锁实例崩溃后死锁
+     * @param task        落库任务
+     * @return 是否抢到锁并执行了任务
+     */
+    public boolean withLock(String lockKey, long lockSeconds, Runnable task) {
+        String lockValue = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.setIfAbsent(lockKey, lockValue, lockSeconds))) {
+                return false;
+            }
+        } catch (Exception e) {
+            log.warn("获取落库锁失败: lock={}, error={}", lockKey, e.getMessage());
+            return false;
+        }
+
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.error("增量落库失败，等待下次重试: lock={}, error={}", lockKey, e.getMessage(), e);
+        } finally {
+            try {
+                redisUtil.deleteIfEquals(lockKey, lockValue);
+            } catch (Exception e) {
+                log.warn("释放落库锁失败: lock={}, error={}", lockKey, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 落库一个增量Key：先重放遗留的 flushing Key，再处理当前增量
+     * <p>
+     * 须在 {@link #withLock} 的任务中调用。写库失败时异常向上抛出，flushing Key 保留到下次重放。
+     * </p>
+     *
+     * @param deltaKey 增量Key（Hash）
+     * @param writer   将 Hash 内容写回数据库，返回写入的行数
+     * @return 写入的行数
+     */
+    public int flushKey(String deltaKey, ToIntFunction<Map<String, String>> writer) {
+        String flushingKey = deltaKey + FLUSHING_SUFFIX;
+        int rows = 0;
+        if (Boolean.TRUE.equals(redisUtil.hasKey(flushingKey))) {
+            log.info("重放未完成的增量落库: {}", flushingKey);
+            rows += applyFlushingKey(flushingKey, writer);
+        }
+        if (Boolean.TRUE.equals(redisUtil.hasKey(deltaKey))) {
+            redisUtil.rename(deltaKey, flushingKey);
+            rows += applyFlushingKey(flushingKey, writer);
+        }
+        return rows;
+    }
+
+    private int applyFlushingKey(String flushingKey, ToIntFunction<Map<String, String>> writer) {
+        int rows = writer.applyAsInt(redisUtil.hGetAll(flushingKey));
+        redisUtil.delete(flushingKey);
+        return rows;
+    }
+}
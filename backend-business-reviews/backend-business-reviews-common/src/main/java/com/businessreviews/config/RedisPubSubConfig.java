@@ -1,5 +1,7 @@
 package com.businessreviews.config;
 
+import com.businessreviews.cache.HotKeyCache;
+import com.businessreviews.cache.TieredCacheManager;
 import com.businessreviews.pubsub.WebSocketMessagePublisher;
 import com.businessreviews.pubsub.WebSocketMessageSubscriber;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +14,7 @@ import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 /**
  * Redis Pub/Sub 配置
  * <p>
- * 配置 Redis 消息监听容器，用于 WebSocket 跨实例消息广播。
+ * 配置 Redis 消息监听容器，用于 WebSocket 跨实例消息广播、二级缓存失效广播和热点Key广播。
  * </p>
  *
  * @author businessreviews
@@ -22,11 +24,15 @@ import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 public class RedisPubSubConfig {
 
     private final WebSocketMessageSubscriber webSocketMessageSubscriber;
+    private final TieredCacheManager tieredCacheManager;
+    private final HotKeyCache hotKeyCache;
 
     /**
      * Redis 消息监听容器
      * <p>
-     * 订阅 WebSocket 消息频道，实现多实例间的消息广播。
+     * 订阅 WebSocket 消息频道，实现多实例间的消息广播；
+     * 订阅缓存失效频道，清除其他实例变更后的本地缓存；
+     * 订阅热点Key频道，与其他实例同步热点Key和本地副本。
      * </p>
      */
     @Bean
@@ -42,6 +48,16 @@ public class RedisPubSubConfig {
                 webSocketMessageSubscriber,
                 new ChannelTopic(WebSocketMessagePublisher.WEBSOCKET_CHANNEL));
 
+        // 订阅二级缓存失效频道
+        container.addMessageListener(
+                tieredCacheManager,
+                new ChannelTopic(TieredCacheManager.INVALIDATION_CHANNEL));
+
+        // 订阅热点Key频道
+        container.addMessageListener(
+                hotKeyCache,
+                new ChannelTopic(HotKeyCache.HOT_KEY_CHANNEL));
+
         return container;
     }
 }
@@ -22,15 +22,60 @@ public final class CacheExpireConstants {
     /** 用户信息缓存：30分钟 */
     public static final long USER_INFO = 1800;
 
-    /** 商家信息缓存：1小时 */
-    public static final long SHOP_INFO = 3600;
+    /** 商家信息缓存：6小时（变更由 ShopCacheCoordinator 刷新，过期只作兜底） */
+    public static final long SHOP_INFO = 21600;
 
-    /** 分类列表缓存：1天 */
-    public static final long CATEGORIES = 86400;
+    /** 用户基础信息缓存：15分钟 */
+    public static final long USER_BASIC_INFO = 900;
 
-    /** 推荐笔记缓存：5分钟 */
+    /** 商家身份缓存：30分钟 */
+    public static final long MERCHANT_IDENTITY = 1800;
+
+    /** 分类列表缓存：1小时 */
+    public static final long CATEGORIES = 3600;
+
+    /** 推荐笔记快照轮换周期：5分钟 */
     public static final long NOTES_RECOMMENDED = 300;
 
-    /** 热门搜索词缓存：1小时 */
-    public static final long HOT_SEARCH = 3600;
+    /** 推荐笔记快照保留时间：30分钟（保证翻页期间快照不失效） */
+    public static final long NOTES_RECOMMENDED_SNAPSHOT = 1800;
+
+    /** 商家列表排序快照轮换周期：5分钟 */
+    public static final long SHOP_LIST_SNAPSHOT_PERIOD = 300;
+
+    /** 商家列表排序快照保留时间：30分钟（保证翻页期间快照不失效） */
+    public static final long SHOP_LIST_SNAPSHOT = 1800;
+
+    /** 关注流收件箱：7天（不活跃用户的收件箱自然过期，再次访问时重建） */
+    public static final long NOTES_INBOX = 604800;
+
+    /** 热门搜索词缓存：1分钟（与最短热搜窗口的刷新周期一致） */
+    public static final long HOT_SEARCH = 60;
+
+    /** 热门话题缓存：30分钟 */
+    public static final long HOT_TOPICS = 1800;
+
+    /** 二级缓存的本地缓存过期时间：1分钟（失效广播丢失时本地数据的最长不一致时间） */
+    public static final long LOCAL_CACHE = 60;
+
+    /** 用户互动集合（点赞、收藏、关注）：1天（过期后按需从数据库重新加载） */
+    public static final long USER_INTERACTIONS = 86400;
+
+    /** 笔记详情聚合缓存：1小时 */
+    public static final long NOTE_DETAIL = 3600;
+
+    /** 笔记详情版本号：7天（须长于详情缓存） */
+    public static final long NOTE_DETAIL_VERSION = 604800;
+
+    /** 笔记数据库计数快照：5分钟（落库后按序号失效，过期时间只兜底 Redis 故障时直接写库的计数） */
+    public static final long NOTE_COUNTS = 300;
+
+    /** 不存在实体ID的本地负缓存：1分钟（其他实例新增的同ID实体最长不可见时间） */
+    public static final long ENTITY_MISSING = 60;
+
+    /** 热点Key本地副本：5秒（写入广播丢失时的最长不一致时间） */
+    public static final long HOT_KEY_REPLICA = 5;
+
+    /** 热点Key状态持续时间：1分钟（仍然热的Key到期前自动续期） */
+    public static final long HOT_KEY_PROMOTION = 60;
 }
@@ -46,14 +46,38 @@ public final class RedisKeyConstants {
     /** 用户点赞评论集合 */
     public static final String USER_COMMENT_LIKES = "user:comment:likes:";
 
+    /** 用户关注的用户集合 */
+    public static final String USER_FOLLOWINGS = "user:followings:";
+
+    /** 用户互动集合版本号Key后缀 (拼接在互动集合Key之后, 写操作时递增, 防止懒加载回填旧数据) */
+    public static final String USER_INTERACTION_VERSION_SUFFIX = ":version";
+
     /** 商家信息缓存 */
     public static final String SHOP_INFO = "shop:info:";
 
     /** 分类列表缓存 */
     public static final String CATEGORIES = "categories:all";
 
-    /** 推荐笔记缓存 */
-    public static final String NOTES_RECOMMENDED = "notes:recommended:page:";
+    /** 推荐笔记热度排行 (ZSet, member=笔记ID, score=时间衰减热度) */
+    public static final String NOTES_HOT_RANK = "notes:rank:hot";
+
+    /** 待重算热度的笔记ID集合 */
+    public static final String NOTES_HOT_RANK_DIRTY = "notes:rank:dirty";
+
+    /** 推荐笔记热度排行重建锁（持有期间增量更新记入待重算集合，重建完成后重放） */
+    public static final String NOTES_HOT_RANK_REBUILD_LOCK = "notes:rank:rebuild:lock";
+
+    /** 推荐笔记快照 (List, 后面拼接快照ID) */
+    public static final String NOTES_RECOMMENDED_SNAPSHOT = "notes:recommended:snapshot:";
+
+    /** 推荐笔记快照分页缓存 (后面拼接 快照ID:偏移量:数量) */
+    public static final String NOTES_RECOMMENDED_PAGE = "notes:recommended:page:";
+
+    /** 当前推荐笔记快照ID */
+    public static final String NOTES_RECOMMENDED_SNAPSHOT_CURRENT = "notes:recommended:snapshot:current";
+
+    /** 发现页笔记排序快照 (List, 游标分页按快照翻页, 后面拼接快照ID) */
+    public static final String NOTES_EXPLORE_SNAPSHOT = "notes:explore:snapshot:";
 
     /** 热门搜索词 */
     public static final String HOT_SEARCHES = "search:hot";
@@ -61,9 +85,105 @@ public final class RedisKeyConstants {
     /** 热门话题 */
     public static final String HOT_TOPICS = "topics:hot";
 
+    /** 关注流收件箱 (ZSet, member=笔记ID, score=发布时间戳, 后面拼接用户ID) */
+    public static final String NOTES_INBOX = "notes:inbox:";
+
+    /** 作者发件箱 (ZSet, 作者近期笔记, 后面拼接作者ID) */
+    public static final String NOTES_OUTBOX = "notes:outbox:";
+
+    /** 收件箱/发件箱已构建标记 (后面拼接收件箱或发件箱Key，存在即表示时间线已从数据库构建) */
+    public static final String NOTES_TIMELINE_BUILT = "notes:built:";
+
+    /** 大V作者集合 (粉丝数超过阈值，关注流改为读时拉取) */
+    public static final String NOTES_BIG_AUTHORS = "notes:big:authors";
+
     /** 商家地理位置 (Redis GEO) */
     public static final String SHOP_GEO = "shop:geo";
 
+    /** 分类商家地理位置 (Redis GEO, 后面拼接分类ID) */
+    public static final String SHOP_GEO_CATEGORY = "shop:geo:category:";
+
+    /** 商家排行 (ZSet, member=商家ID, 后面拼接 排序方式:分类ID 或 排序方式:all) */
+    public static final String SHOP_RANKING = "shop:ranking:";
+
+    /** 商家排行重建锁 */
+    public static final String SHOP_RANKING_REBUILD_LOCK = "shop:ranking:rebuild:lock";
+
+    /** 商家列表排序快照 (List, 游标分页按快照翻页, 后面拼接快照ID) */
+    public static final String SHOP_LIST_SNAPSHOT = "shop:list:snapshot:";
+
+    /** 店铺列表项缓存 (后面拼接商家ID) */
+    public static final String SHOP_ITEM = "shop:item:";
+
+    /** 笔记地理位置 (Redis GEO, 仅包含已发布且带经纬度的笔记) */
+    public static final String NOTES_GEO = "notes:geo";
+
+    /** 笔记计数待落库增量 (Hash, field=笔记ID:计数类型, value=增量) */
+    public static final String NOTE_COUNTER_DELTA = "counter:note:delta";
+
+    /** 用户统计待落库增量 (Hash, field=用户ID:计数类型, value=增量) */
+    public static final String USER_COUNTER_DELTA = "counter:user:delta";
+
+    /** 计数增量落库锁 (多实例部署时同一时刻只允许一个实例落库) */
+    public static final String COUNTER_FLUSH_LOCK = "counter:flush:lock";
+
+    /** 最早一条未落库计数增量的写入时间 (毫秒时间戳, 落库时取走, 用于计算积压时长) */
+    public static final String COUNTER_PENDING_SINCE = "counter:pending:since";
+
+    /** 最近一次计数增量落库统计 (Hash, field=lastFlushAt/lastFlushRows) */
+    public static final String COUNTER_FLUSH_STATS = "counter:flush:stats";
+
+    /** 笔记计数落库序号 (每次笔记计数落库后递增, 用于判断笔记计数快照是否落后于数据库) */
+    public static final String NOTE_COUNTER_FLUSH_SEQ = "counter:note:flush:seq";
+
+    /** 笔记数据库计数快照 (落库序号:点赞:收藏:评论:浏览, 后面拼接笔记ID) */
+    public static final String NOTE_COUNTS = "counter:note:counts:";
+
+    /** 笔记详情聚合缓存 (与用户无关的部分, 后面拼接笔记ID) */
+    public static final String NOTE_DETAIL = "note:detail:";
+
+    /** 笔记详情缓存版本号 (后面拼接笔记ID) */
+    public static final String NOTE_DETAIL_VERSION = "note:detail:version:";
+
+    /** 实体ID布隆过滤器 (Bitmap, 后面拼接实体类型) */
+    public static final String ENTITY_BLOOM = "bloom:entity:";
+
+    /** 实体ID布隆过滤器重建中的临时Key后缀 */
+    public static final String ENTITY_BLOOM_BUILDING_SUFFIX = ":building";
+
+    /** 实体ID布隆过滤器元数据 (Hash, field=实体类型, value=已覆盖的最大ID) */
+    public static final String ENTITY_BLOOM_META = "bloom:entity:meta";
+
+    /** 实体ID布隆过滤器重建锁 (后面拼接实体类型) */
+    public static final String ENTITY_BLOOM_LOCK = "bloom:entity:lock:";
+
+    /** 热搜时间桶 (ZSet, member=搜索词, score=次数, 后面拼接 粒度:桶序号) */
+    public static final String SEARCH_TRENDING_BUCKET = "search:trending:bucket:";
+
+    /** 热搜窗口结果 (ZSet, 后面拼接窗口编码) */
+    public static final String SEARCH_TRENDING_WINDOW = "search:trending:window:";
+
+    /** 热搜窗口刷新锁 (后面拼接窗口编码, 过期时间即刷新周期) */
+    public static final String SEARCH_TRENDING_LOCK = "search:trending:lock:";
+
+    /** 话题热度时间桶 (ZSet, member=话题ID, score=加权热度, 后面拼接小时序号) */
+    public static final String TOPIC_TRENDING_BUCKET = "topic:trending:bucket:";
+
+    /** 话题热度排行 (ZSet, member=话题ID, score=衰减后的热度) */
+    public static final String TOPIC_TRENDING_RANKING = "topic:trending:ranking";
+
+    /** 话题热度排行计算锁 (过期时间即计算周期) */
+    public static final String TOPIC_TRENDING_LOCK = "topic:trending:lock";
+
+    /** 话题笔记数待落库增量 (Hash, field=话题ID, value=增量) */
+    public static final String TOPIC_NOTE_COUNT_DELTA = "counter:topic:delta";
+
+    /** 话题笔记数落库锁 */
+    public static final String TOPIC_NOTE_COUNT_FLUSH_LOCK = "counter:topic:flush:lock";
+
+    /** 商家评分对账锁 */
+    public static final String SHOP_RATING_RECONCILE_LOCK = "shop:rating:reconcile:lock";
+
     // ========== 热点数据缓存 Key ==========
 
     /** 用户基础信息缓存 (头像、昵称等高频访问字段) */
@@ -75,6 +195,12 @@ public final class RedisKeyConstants {
     /** 热门话题缓存 */
     public static final String HOT_TOPICS_CACHE = "topics:hot:cache";
 
+    /** 商家身份缓存 (后面拼接商家ID) */
+    public static final String MERCHANT_IDENTITY = "merchant:identity:";
+
+    /** 用户关联的商家身份缓存 (后面拼接用户ID) */
+    public static final String USER_MERCHANT = "user:merchant:";
+
     /** 热门搜索词缓存 */
     public static final String HOT_SEARCHES_CACHE = "search:hot:cache";
 }
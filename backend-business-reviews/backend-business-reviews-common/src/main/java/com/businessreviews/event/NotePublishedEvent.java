@@ -0,0 +1,42 @@
+package com.businessreviews.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记发布事件
+ * <p>
+ * 笔记审核通过或商家发布后发布此事件，用于在事务提交后异步触发：
+ * 1. 作者发件箱写入
+ * 2. 粉丝收件箱写扩散
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Getter
+public class NotePublishedEvent extends ApplicationEvent {
+
+    /**
+     * 笔记ID
+     */
+    private final Long noteId;
+
+    /**
+     * 作者用户ID
+     */
+    private final Long authorId;
+
+    /**
+     * 发布时间（时间线排序依据）
+     */
+    private final LocalDateTime publishedAt;
+
+    public NotePublishedEvent(Object source, Long noteId, Long authorId, LocalDateTime publishedAt) {
+        super(source);
+        this.noteId = noteId;
+        this.authorId = authorId;
+        this.publishedAt = publishedAt;
+    }
+}
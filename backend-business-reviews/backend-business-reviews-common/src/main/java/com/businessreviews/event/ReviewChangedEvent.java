@@ -0,0 +1,59 @@
+package com.businessreviews.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 店铺评价变更事件
+ * <p>
+ * 用户发表评价、商家回复或删除评价后发布此事件，用于解耦触发：
+ * 1. 评分变化时店铺详情、列表项缓存的失效与刷新
+ * 2. 各实例本地缓存的失效广播
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Getter
+public class ReviewChangedEvent extends ApplicationEvent {
+
+    /**
+     * 变更类型
+     */
+    public enum ChangeType {
+        /** 发表 */
+        CREATED,
+        /** 商家回复 */
+        REPLIED,
+        /** 删除（隐藏） */
+        DELETED;
+
+        /**
+         * 是否影响店铺评分和评价数
+         */
+        public boolean affectsRating() {
+            return this != REPLIED;
+        }
+    }
+
+    /**
+     * 评价ID
+     */
+    private final Long reviewId;
+
+    /**
+     * 店铺ID
+     */
+    private final Long shopId;
+
+    /**
+     * 变更类型
+     */
+    private final ChangeType changeType;
+
+    public ReviewChangedEvent(Object source, Long reviewId, Long shopId, ChangeType changeType) {
+        super(source);
+        this.reviewId = reviewId;
+        this.shopId = shopId;
+        this.changeType = changeType;
+    }
+}
@@ -0,0 +1,48 @@
+package com.businessreviews.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 店铺变更事件
+ * <p>
+ * 店铺信息、状态或评分变更后发布此事件，用于解耦触发：
+ * 1. 店铺详情、列表项缓存的失效与刷新
+ * 2. 各实例本地缓存的失效广播
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Getter
+public class ShopChangedEvent extends ApplicationEvent {
+
+    /**
+     * 变更类型
+     */
+    public enum ChangeType {
+        /** 新建 */
+        CREATED,
+        /** 信息或评分更新 */
+        UPDATED,
+        /** 营业状态变更 */
+        STATUS_CHANGED,
+        /** 删除 */
+        DELETED
+    }
+
+    /**
+     * 店铺ID
+     */
+    private final Long shopId;
+
+    /**
+     * 变更类型
+     */
+    private final ChangeType changeType;
+
+    public ShopChangedEvent(Object source, Long shopId, ChangeType changeType) {
+        super(source);
+        this.shopId = shopId;
+        this.changeType = changeType;
+    }
+}
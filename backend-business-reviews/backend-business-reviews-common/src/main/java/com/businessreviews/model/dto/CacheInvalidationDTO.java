@@ -0,0 +1,36 @@
+package com.businessreviews.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 缓存失效消息传输对象
+ * <p>
+ * 用于 Redis Pub/Sub 通知其他实例清除本地一级缓存
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 缓存名称
+     */
+    private String cacheName;
+
+    /**
+     * 缓存Key（为空表示清空整个缓存）
+     */
+    private String key;
+
+    /**
+     * 消息来源服务器ID（用于避免重复处理）
+     */
+    private String sourceServerId;
+}
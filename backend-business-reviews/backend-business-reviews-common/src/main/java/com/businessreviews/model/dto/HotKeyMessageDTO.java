@@ -0,0 +1,42 @@
+package com.businessreviews.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 热点Key消息传输对象
+ * <p>
+ * 用于 Redis Pub/Sub 通知其他实例将Key提升为本地副本，或在Key被写入后清除本地副本
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotKeyMessageDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 提升为热点Key */
+    public static final String TYPE_PROMOTE = "promote";
+
+    /** 清除本地副本 */
+    public static final String TYPE_INVALIDATE = "invalidate";
+
+    /**
+     * 消息类型
+     */
+    private String type;
+
+    /**
+     * Redis Key
+     */
+    private String key;
+
+    /**
+     * 消息来源服务器ID（用于避免重复处理）
+     */
+    private String sourceServerId;
+}
@@ -1,5 +1,6 @@
 package com.businessreviews.util;
 
+import com.businessreviews.cache.HotKeyCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -14,7 +15,11 @@ import java.util.concurrent.TimeUnit;
  * Redis 缓存操作工具类
  * <p>
  * 封装了Spring Data Redis的常用操作，提供简化的API
- * 支持 String, Object(JSON), Set, Hash 等数据类型的 CRUD
+ * 支持 String, Object(JSON), Set, Hash, ZSet, List 等数据类型的 CRUD
+ * </p>
+ * <p>
+ * 字符串读取经过 {@link HotKeyCache} 热点探测，热点Key由本地副本直接返回；
+ * 字符串写入和删除会清除对应的本地副本。
  * </p>
  */
 @Component
@@ -23,12 +28,77 @@ public class RedisUtil {
 
     private final StringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
+    private final HotKeyCache hotKeyCache;
+
+    /**
+     * 批量写入带构建标记的ZSet并截断长度的Lua脚本（KEYS 前半为标记Key，后半为对应的ZSet Key）
+     */
+    private static final org.springframework.data.redis.core.script.DefaultRedisScript<Long> Z_ADD_TO_MARKED_SCRIPT =
+            new org.springframework.data.redis.core.script.DefaultRedisScript<>(
+                    "local n = 0 "
+                            + "local half = #KEYS / 2 "
+                            + "for i = 1, half do "
+                            + "  local ttl = redis.call('PTTL', KEYS[i]) "
+                            + "  if ttl ~= -2 then "
+                            + "    local key = KEYS[half + i] "
+                            + "    redis.call('ZADD', key, ARGV[1], ARGV[2]) "
+                            + "    redis.call('ZREMRANGEBYRANK', key, 0, -tonumber(ARGV[3]) - 1) "
+                            + "    if ttl > 0 then redis.call('PEXPIRE', key, ttl) end "
+                            + "    n = n + 1 "
+                            + "  end "
+                            + "end "
+                            + "return n",
+                    Long.class);
+
+    /**
+     * 版本号未变化时批量添加Set成员并设置过期时间的Lua脚本（版本号Key不存在视为空字符串）
+     */
+    private static final org.springframework.data.redis.core.script.DefaultRedisScript<Long> S_ADD_IF_VERSION_SCRIPT =
+            new org.springframework.data.redis.core.script.DefaultRedisScript<>(
+                    "if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then "
+                            + "  return -1 "
+                            + "end "
+                            + "local n = redis.call('SADD', KEYS[1], unpack(ARGV, 3)) "
+                            + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                            + "return n",
+                    Long.class);
+
+    /**
+     * 递增版本号并删除键的Lua脚本
+     */
+    private static final org.springframework.data.redis.core.script.DefaultRedisScript<Long> VERSIONED_DELETE_SCRIPT =
+            new org.springframework.data.redis.core.script.DefaultRedisScript<>(
+                    "redis.call('INCR', KEYS[2]) "
+                            + "redis.call('EXPIRE', KEYS[2], ARGV[1]) "
+                            + "return redis.call('DEL', KEYS[1])",
+                    Long.class);
+
+    /**
+     * 统计半径内GEO成员数的Lua脚本（在服务端计数，只返回数量）
+     */
+    private static final org.springframework.data.redis.core.script.DefaultRedisScript<Long> GEO_COUNT_SCRIPT =
+            new org.springframework.data.redis.core.script.DefaultRedisScript<>(
+                    "return #redis.call('GEOSEARCH', KEYS[1], 'FROMLONLAT', ARGV[1], ARGV[2], "
+                            + "'BYRADIUS', ARGV[3], 'km')",
+                    Long.class);
+
+    /**
+     * 值等于期望值时删除键的Lua脚本
+     */
+    private static final org.springframework.data.redis.core.script.DefaultRedisScript<Long> DELETE_IF_EQUALS_SCRIPT =
+            new org.springframework.data.redis.core.script.DefaultRedisScript<>(
+                    "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                            + "  return redis.call('DEL', KEYS[1]) "
+                            + "end "
+                            + "return 0",
+                    Long.class);
 
     /**
      * 设置字符串值
      */
     public void set(String key, String value, long timeout) {
         redisTemplate.opsForValue().set(key, value, timeout, TimeUnit.SECONDS);
+        hotKeyCache.invalidate(key);
     }
 
     /**
@@ -36,13 +106,20 @@ public class RedisUtil {
      */
     public void set(String key, String value) {
         redisTemplate.opsForValue().set(key, value);
+        hotKeyCache.invalidate(key);
     }
 
     /**
      * 获取字符串值
      */
     public String get(String key) {
-        return redisTemplate.opsForValue().get(key);
+        String replica = hotKeyCache.getReplica(key);
+        if (replica != null) {
+            return replica;
+        }
+        String value = redisTemplate.opsForValue().get(key);
+        hotKeyCache.putReplica(key, value);
+        return value;
     }
 
     /**
@@ -52,6 +129,7 @@ public class RedisUtil {
         try {
             String json = objectMapper.writeValueAsString(value);
             redisTemplate.opsForValue().set(key, json, timeout, TimeUnit.SECONDS);
+            hotKeyCache.invalidate(key);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("JSON序列化失败", e);
         }
@@ -61,7 +139,7 @@ public class RedisUtil {
      * 获取对象值
      */
     public <T> T getObject(String key, Class<T> clazz) {
-        String json = redisTemplate.opsForValue().get(key);
+        String json = get(key);
         if (json == null) {
             return null;
         }
@@ -76,14 +154,18 @@ public class RedisUtil {
      * 删除键
      */
     public Boolean delete(String key) {
-        return redisTemplate.delete(key);
+        Boolean deleted = redisTemplate.delete(key);
+        hotKeyCache.invalidate(key);
+        return deleted;
     }
 
     /**
      * 批量删除键
      */
     public Long delete(Collection<String> keys) {
-        return redisTemplate.delete(keys);
+        Long deleted = redisTemplate.delete(keys);
+        keys.forEach(hotKeyCache::invalidate);
+        return deleted;
     }
 
     /**
@@ -107,6 +189,62 @@ public class RedisUtil {
         return redisTemplate.getExpire(key, TimeUnit.SECONDS);
     }
 
+    /**
+     * 仅当键不存在时设置字符串值
+     *
+     * @return 是否设置成功
+     */
+    public Boolean setIfAbsent(String key, String value, long timeout) {
+        Boolean success = redisTemplate.opsForValue().setIfAbsent(key, value, timeout, TimeUnit.SECONDS);
+        if (Boolean.TRUE.equals(success)) {
+            hotKeyCache.invalidate(key);
+        }
+        return success;
+    }
+
+    /**
+     * 仅当键不存在时设置字符串值，过期时间精确到毫秒（SET NX PX，用于短期租约）
+     *
+     * @return 是否设置成功
+     */
+    public Boolean setIfAbsentMillis(String key, String value, long timeoutMillis) {
+        Boolean success = redisTemplate.opsForValue().setIfAbsent(key, value, timeoutMillis, TimeUnit.MILLISECONDS);
+        if (Boolean.TRUE.equals(success)) {
+            hotKeyCache.invalidate(key);
+        }
+        return success;
+    }
+
+    /**
+     * 仅当键的值等于期望值时删除（释放租约时避免误删其他持有者的租约）
+     *
+     * @return 是否删除
+     */
+    public Boolean deleteIfEquals(String key, String expectedValue) {
+        Long deleted = redisTemplate.execute(DELETE_IF_EQUALS_SCRIPT, java.util.Collections.singletonList(key),
+                expectedValue);
+        hotKeyCache.invalidate(key);
+        return deleted != null && deleted > 0;
+    }
+
+    /**
+     * 获取字符串值并删除键（GETDEL）
+     */
+    public String getAndDelete(String key) {
+        String value = redisTemplate.opsForValue().getAndDelete(key);
+        hotKeyCache.invalidate(key);
+        return value;
+    }
+
+    /**
+     * 重命名键（目标键存在时会被覆盖，用于索引整体替换）
+     */
+    public void rename(String oldKey, String newKey) {
+        redisTemplate.rename(oldKey, newKey);
+        hotKeyCache.invalidate(oldKey);
+        hotKeyCache.invalidate(newKey);
+    }
+
     // ========== 批量操作 ==========
 
     /**
@@ -116,7 +254,33 @@ public class RedisUtil {
      * @return 值列表（按Key顺序返回，不存在的Key对应值为null）
      */
     public java.util.List<String> multiGet(Collection<String> keys) {
-        return redisTemplate.opsForValue().multiGet(keys);
+        java.util.List<String> keyList = new java.util.ArrayList<>(keys);
+        java.util.List<String> result = new java.util.ArrayList<>(keyList.size());
+        java.util.List<String> remoteKeys = new java.util.ArrayList<>();
+        for (String key : keyList) {
+            String replica = hotKeyCache.getReplica(key);
+            result.add(replica);
+            if (replica == null) {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return result;
+        }
+        java.util.List<String> values = redisTemplate.opsForValue().multiGet(remoteKeys);
+        if (values == null) {
+            return null;
+        }
+        // 只读取了副本未命中的Key，按原顺序回填
+        int next = 0;
+        for (int i = 0; i < keyList.size(); i++) {
+            if (result.get(i) == null) {
+                String value = values.get(next++);
+                result.set(i, value);
+                hotKeyCache.putReplica(keyList.get(i), value);
+            }
+        }
+        return result;
     }
 
     /**
@@ -126,6 +290,7 @@ public class RedisUtil {
      */
     public void multiSet(java.util.Map<String, String> map) {
         redisTemplate.opsForValue().multiSet(map);
+        map.keySet().forEach(hotKeyCache::invalidate);
     }
 
     /**
@@ -136,7 +301,7 @@ public class RedisUtil {
      * @return 对象列表（按Key顺序返回，不存在或反序列化失败的Key对应值为null）
      */
     public <T> java.util.List<T> multiGetObjects(Collection<String> keys, Class<T> clazz) {
-        java.util.List<String> jsonList = redisTemplate.opsForValue().multiGet(keys);
+        java.util.List<String> jsonList = multiGet(keys);
         if (jsonList == null) {
             return new java.util.ArrayList<>();
         }
@@ -179,6 +344,89 @@ public class RedisUtil {
         return redisTemplate.opsForSet().isMember(key, value);
     }
 
+    /**
+     * 批量判断是否是Set成员（SMISMEMBER，单次往返）
+     *
+     * @return 成员 -> 是否存在
+     */
+    public java.util.Map<String, Boolean> sIsMembers(String key, Collection<String> values) {
+        java.util.Map<Object, Boolean> result = redisTemplate.opsForSet().isMember(key, values.toArray());
+        java.util.Map<String, Boolean> members = new java.util.HashMap<>();
+        if (result != null) {
+            result.forEach((member, exists) -> members.put(String.valueOf(member), Boolean.TRUE.equals(exists)));
+        }
+        return members;
+    }
+
+    /**
+     * 批量判断多个Set的成员（各Key的 SMISMEMBER 通过管道一次往返发送）
+     *
+     * @param keyMembers Key -> 待判断的成员列表
+     * @return Key -> (成员 -> 是否存在)
+     */
+    public java.util.Map<String, java.util.Map<String, Boolean>> sIsMembersPipelined(
+            java.util.Map<String, java.util.List<String>> keyMembers) {
+        java.util.List<String> keys = new java.util.ArrayList<>(keyMembers.keySet());
+        java.util.List<Object> results = redisTemplate.executePipelined(
+                (org.springframework.data.redis.core.RedisCallback<Object>) connection -> {
+                    for (String key : keys) {
+                        byte[][] members = keyMembers.get(key).stream()
+                                .map(member -> member.getBytes(java.nio.charset.StandardCharsets.UTF_8))
+                                .toArray(byte[][]::new);
+                        connection.setCommands().sMIsMember(key.getBytes(java.nio.charset.StandardCharsets.UTF_8),
+                                members);
+                    }
+                    return null;
+                });
+
+        java.util.Map<String, java.util.Map<String, Boolean>> membership = new java.util.HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            java.util.List<String> members = keyMembers.get(keys.get(i));
+            Object result = i < results.size() ? results.get(i) : null;
+            java.util.Map<String, Boolean> flags = new java.util.HashMap<>();
+            if (result instanceof java.util.List<?> list) {
+                for (int j = 0; j < members.size() && j < list.size(); j++) {
+                    flags.put(members.get(j), Boolean.TRUE.equals(list.get(j)));
+                }
+            }
+            membership.put(keys.get(i), flags);
+        }
+        return membership;
+    }
+
+    /**
+     * 版本号与读取数据前一致时批量添加Set成员并设置过期时间
+     * <p>
+     * 用于"从数据库加载后回填缓存"：加载期间若有写操作递增了版本号，回填会被放弃，
+     * 避免用加载前的旧数据覆盖写操作的结果。
+     * </p>
+     *
+     * @param expectedVersion 加载前读取的版本号（版本号Key不存在时传null）
+     * @param timeout         Set过期时间（秒）
+     * @return 新增成员数；版本号已变化时返回-1
+     */
+    public Long sAddIfVersion(String key, String versionKey, String expectedVersion, long timeout,
+            String... values) {
+        Object[] args = new Object[values.length + 2];
+        args[0] = expectedVersion != null ? expectedVersion : "";
+        args[1] = String.valueOf(timeout);
+        System.arraycopy(values, 0, args, 2, values.length);
+        return redisTemplate.execute(S_ADD_IF_VERSION_SCRIPT, java.util.Arrays.asList(key, versionKey), args);
+    }
+
+    /**
+     * 递增版本号并删除键（原子操作，配合 {@link #sAddIfVersion} 使删除前读取的旧数据无法回填）
+     *
+     * @param timeout 版本号过期时间（秒）
+     * @return 删除的键数量
+     */
+    public Long deleteAndIncrVersion(String key, String versionKey, long timeout) {
+        Long deleted = redisTemplate.execute(VERSIONED_DELETE_SCRIPT, java.util.Arrays.asList(key, versionKey),
+                String.valueOf(timeout));
+        hotKeyCache.invalidate(key);
+        return deleted;
+    }
+
     /**
      * 获取Set所有成员
      */
@@ -193,6 +441,14 @@ public class RedisUtil {
         return redisTemplate.opsForSet().size(key);
     }
 
+    /**
+     * 随机弹出Set中的多个成员
+     */
+    public java.util.List<String> sPop(String key, long count) {
+        java.util.List<String> members = redisTemplate.opsForSet().pop(key, count);
+        return members != null ? members : java.util.Collections.emptyList();
+    }
+
     // ========== Hash操作 ==========
 
     /**
@@ -223,6 +479,311 @@ public class RedisUtil {
         return redisTemplate.opsForHash().hasKey(key, hashKey);
     }
 
+    /**
+     * Hash字段自增（字段不存在时从0开始）
+     */
+    public Long hIncrement(String key, String hashKey, long delta) {
+        return redisTemplate.opsForHash().increment(key, hashKey, delta);
+    }
+
+    /**
+     * Hash字段自增，同时在标记Key不存在时写入标记值（单次往返，用于记录最早一条未落库增量的时间）
+     */
+    public void hIncrementAndMark(String key, String hashKey, long delta, String markerKey, String markerValue) {
+        redisTemplate.executePipelined(
+                (org.springframework.data.redis.core.RedisCallback<Object>) connection -> {
+                    connection.hashCommands().hIncrBy(key.getBytes(java.nio.charset.StandardCharsets.UTF_8),
+                            hashKey.getBytes(java.nio.charset.StandardCharsets.UTF_8), delta);
+                    connection.stringCommands().setNX(markerKey.getBytes(java.nio.charset.StandardCharsets.UTF_8),
+                            markerValue.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    return null;
+                });
+    }
+
+    /**
+     * 批量自增Hash字段（单次往返，字段不存在时从0开始）
+     */
+    public void hIncrementAll(String key, java.util.Map<String, Long> increments) {
+        if (increments == null || increments.isEmpty()) {
+            return;
+        }
+        byte[] rawKey = key.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        redisTemplate.executePipelined(
+                (org.springframework.data.redis.core.RedisCallback<Object>) connection -> {
+                    increments.forEach((field, delta) -> connection.hashCommands().hIncrBy(rawKey,
+                            field.getBytes(java.nio.charset.StandardCharsets.UTF_8), delta));
+                    return null;
+                });
+    }
+
+    /**
+     * 获取Hash全部字段
+     */
+    public java.util.Map<String, String> hGetAll(String key) {
+        java.util.Map<Object, Object> entries = redisTemplate.opsForHash().entries(key);
+        java.util.Map<String, String> result = new java.util.HashMap<>();
+        entries.forEach((field, value) -> result.put(String.valueOf(field), String.valueOf(value)));
+        return result;
+    }
+
+    /**
+     * 批量获取Hash字段值
+     *
+     * @return 值列表（按字段顺序返回，不存在的字段对应值为null）
+     */
+    public java.util.List<Object> hMultiGet(String key, Collection<String> hashKeys) {
+        return redisTemplate.opsForHash().multiGet(key, new java.util.ArrayList<>(hashKeys));
+    }
+
+    // ========== ZSet操作 ==========
+
+    /**
+     * 添加ZSet成员（已存在则覆盖分数）
+     */
+    public Boolean zAdd(String key, String member, double score) {
+        return redisTemplate.opsForZSet().add(key, member, score);
+    }
+
+    /**
+     * 批量添加ZSet成员
+     *
+     * @param key     Redis Key
+     * @param members 成员与分数映射
+     * @return 新增的成员数量
+     */
+    public Long zAddAll(String key, java.util.Map<String, Double> members) {
+        if (members == null || members.isEmpty()) {
+            return 0L;
+        }
+        Set<org.springframework.data.redis.core.ZSetOperations.TypedTuple<String>> tuples = members.entrySet().stream()
+                .map(entry -> org.springframework.data.redis.core.ZSetOperations.TypedTuple.of(
+                        entry.getKey(), entry.getValue()))
+                .collect(java.util.stream.Collectors.toSet());
+        return redisTemplate.opsForZSet().add(key, tuples);
+    }
+
+    /**
+     * 增加ZSet成员分数
+     */
+    public Double zIncrementScore(String key, String member, double delta) {
+        return redisTemplate.opsForZSet().incrementScore(key, member, delta);
+    }
+
+    /**
+     * 从ZSet中移除成员
+     */
+    public Long zRemove(String key, Object... members) {
+        return redisTemplate.opsForZSet().remove(key, members);
+    }
+
+    /**
+     * 获取ZSet成员分数
+     */
+    public Double zScore(String key, String member) {
+        return redisTemplate.opsForZSet().score(key, member);
+    }
+
+    /**
+     * 按分数从低到高获取区间成员
+     *
+     * @param start 起始下标（包含）
+     * @param end   结束下标（包含，-1表示末尾）
+     * @return 有序成员列表
+     */
+    public java.util.List<String> zRange(String key, long start, long end) {
+        Set<String> members = redisTemplate.opsForZSet().range(key, start, end);
+        return members != null ? new java.util.ArrayList<>(members) : new java.util.ArrayList<>();
+    }
+
+    /**
+     * 按分数从高到低获取区间成员
+     *
+     * @param start 起始下标（包含）
+     * @param end   结束下标（包含，-1表示末尾）
+     * @return 有序成员列表
+     */
+    public java.util.List<String> zReverseRange(String key, long start, long end) {
+        Set<String> members = redisTemplate.opsForZSet().reverseRange(key, start, end);
+        return members != null ? new java.util.ArrayList<>(members) : new java.util.ArrayList<>();
+    }
+
+    /**
+     * 按分数从高到低获取区间成员及分数
+     */
+    public java.util.List<org.springframework.data.redis.core.ZSetOperations.TypedTuple<String>> zReverseRangeWithScores(
+            String key, long start, long end) {
+        Set<org.springframework.data.redis.core.ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                .reverseRangeWithScores(key, start, end);
+        return tuples != null ? new java.util.ArrayList<>(tuples) : new java.util.ArrayList<>();
+    }
+
+    /**
+     * 按排名区间移除ZSet成员（排名按分数升序）
+     */
+    public Long zRemoveRange(String key, long start, long end) {
+        return redisTemplate.opsForZSet().removeRange(key, start, end);
+    }
+
+    /**
+     * 批量写入多个已构建的ZSet并截断长度（单次脚本调用）
+     * <p>
+     * 只写入标记Key存在的ZSet，其余跳过，适用于只维护活跃用户收件箱等场景；
+     * 写入后ZSet的过期时间与标记Key对齐（空ZSet不存在，写入时可能是新建的）。
+     * </p>
+     *
+     * @param keys         目标Key列表
+     * @param markerPrefix 标记Key前缀（标记Key = 前缀 + 目标Key）
+     * @param member       成员
+     * @param score        分数
+     * @param maxSize      每个ZSet保留的最大成员数（保留分数最高的部分）
+     * @return 实际写入的Key数量
+     */
+    public Long zAddToMarked(java.util.List<String> keys, String markerPrefix, String member, double score,
+            long maxSize) {
+        if (keys == null || keys.isEmpty()) {
+            return 0L;
+        }
+        java.util.List<String> scriptKeys = new java.util.ArrayList<>(keys.size() * 2);
+        for (String key : keys) {
+            scriptKeys.add(markerPrefix + key);
+        }
+        scriptKeys.addAll(keys);
+        return redisTemplate.execute(Z_ADD_TO_MARKED_SCRIPT, scriptKeys,
+                String.valueOf(score), member, String.valueOf(maxSize));
+    }
+
+    /**
+     * 批量增加ZSet成员分数并截断长度、设置过期时间（一次管道往返）
+     *
+     * @param key        Redis Key
+     * @param increments 成员 -> 分数增量
+     * @param maxSize    保留的最大成员数（保留分数最高的部分）
+     * @param ttlSeconds 过期时间（秒）
+     */
+    public void zIncrementAll(String key, java.util.Map<String, Double> increments, long maxSize, long ttlSeconds) {
+        if (increments == null || increments.isEmpty()) {
+            return;
+        }
+        byte[] rawKey = key.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        redisTemplate.executePipelined(
+                (org.springframework.data.redis.core.RedisCallback<Object>) connection -> {
+                    increments.forEach((member, delta) -> connection.zSetCommands().zIncrBy(rawKey, delta,
+                            member.getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+                    connection.zSetCommands().zRemRange(rawKey, 0, -maxSize - 1);
+                    connection.keyCommands().expire(rawKey, ttlSeconds);
+                    return null;
+                });
+    }
+
+    /**
+     * 合并多个ZSet（同名成员分数相加）写入目标Key并设置过期时间
+     *
+     * @return 目标ZSet的成员数，源Key为空时删除目标Key并返回0
+     */
+    public Long zUnionStore(String destKey, Collection<String> keys, long ttlSeconds) {
+        if (keys == null || keys.isEmpty()) {
+            delete(destKey);
+            return 0L;
+        }
+        java.util.List<String> keyList = new java.util.ArrayList<>(keys);
+        Long size = redisTemplate.opsForZSet().unionAndStore(keyList.get(0), keyList.subList(1, keyList.size()),
+                destKey);
+        redisTemplate.expire(destKey, ttlSeconds, TimeUnit.SECONDS);
+        return size;
+    }
+
+    /**
+     * 按权重合并多个ZSet（成员分数 = Σ 权重 × 源分数）写入目标Key并设置过期时间
+     *
+     * @param weights 与 keys 一一对应的权重
+     * @return 目标ZSet的成员数
+     */
+    public Long zUnionStore(String destKey, java.util.List<String> keys, double[] weights, long ttlSeconds) {
+        if (keys == null || keys.isEmpty()) {
+            delete(destKey);
+            return 0L;
+        }
+        Long size = redisTemplate.opsForZSet().unionAndStore(keys.get(0), keys.subList(1, keys.size()), destKey,
+                org.springframework.data.redis.connection.zset.Aggregate.SUM,
+                org.springframework.data.redis.connection.zset.Weights.of(weights));
+        redisTemplate.expire(destKey, ttlSeconds, TimeUnit.SECONDS);
+        return size;
+    }
+
+    /**
+     * 获取ZSet大小
+     */
+    public Long zSize(String key) {
+        return redisTemplate.opsForZSet().zCard(key);
+    }
+
+    // ========== List操作 ==========
+
+    /**
+     * 批量追加到List尾部
+     */
+    public Long rightPushAll(String key, Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return 0L;
+        }
+        return redisTemplate.opsForList().rightPushAll(key, values);
+    }
+
+    /**
+     * 获取List区间元素
+     *
+     * @param start 起始下标（包含）
+     * @param end   结束下标（包含，-1表示末尾）
+     */
+    public java.util.List<String> lRange(String key, long start, long end) {
+        java.util.List<String> values = redisTemplate.opsForList().range(key, start, end);
+        return values != null ? values : new java.util.ArrayList<>();
+    }
+
+    /**
+     * 获取List长度
+     */
+    public Long lSize(String key) {
+        return redisTemplate.opsForList().size(key);
+    }
+
+    // ========== Bitmap操作 ==========
+
+    /**
+     * 批量读取位（各偏移量的 GETBIT 通过管道一次往返发送）
+     *
+     * @return 与偏移量一一对应的位值
+     */
+    public boolean[] getBits(String key, long[] offsets) {
+        byte[] rawKey = key.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        java.util.List<Object> results = redisTemplate.executePipelined(
+                (org.springframework.data.redis.core.RedisCallback<Object>) connection -> {
+                    for (long offset : offsets) {
+                        connection.stringCommands().getBit(rawKey, offset);
+                    }
+                    return null;
+                });
+        boolean[] bits = new boolean[offsets.length];
+        for (int i = 0; i < offsets.length && i < results.size(); i++) {
+            bits[i] = Boolean.TRUE.equals(results.get(i));
+        }
+        return bits;
+    }
+
+    /**
+     * 批量置位（各偏移量的 SETBIT 通过管道一次往返发送）
+     */
+    public void setBits(String key, long[] offsets) {
+        byte[] rawKey = key.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        redisTemplate.executePipelined(
+                (org.springframework.data.redis.core.RedisCallback<Object>) connection -> {
+                    for (long offset : offsets) {
+                        connection.stringCommands().setBit(rawKey, offset, true);
+                    }
+                    return null;
+                });
+    }
+
     // ========== 计数器操作 ==========
 
     /**
@@ -230,7 +791,9 @@ public class RedisUtil {
      */
     @SuppressWarnings("null")
     public Long increment(String key, long delta) {
-        return redisTemplate.opsForValue().increment(key, delta);
+        Long value = redisTemplate.opsForValue().increment(key, delta);
+        hotKeyCache.invalidate(key);
+        return value;
     }
 
     /**
@@ -238,7 +801,9 @@ public class RedisUtil {
      */
     @SuppressWarnings("null")
     public Long decrement(String key, long delta) {
-        return redisTemplate.opsForValue().decrement(key, delta);
+        Long value = redisTemplate.opsForValue().decrement(key, delta);
+        hotKeyCache.invalidate(key);
+        return value;
     }
 
     // ========== GEO 地理位置操作 ==========
@@ -314,6 +879,51 @@ public class RedisUtil {
         return results.getContent();
     }
 
+    /**
+     * 按距离排序查找指定范围内的前 limit 个成员（GEOSEARCH ... ASC|DESC COUNT limit WITHDIST）
+     *
+     * @param key        Redis Key
+     * @param longitude  中心点经度
+     * @param latitude   中心点纬度
+     * @param radius     搜索半径（公里）
+     * @param descending 是否按距离降序（从远到近）
+     * @param limit      返回数量
+     * @return 包含成员ID和距离的结果列表
+     */
+    public java.util.List<org.springframework.data.geo.GeoResult<
+            org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<String>>> geoSearch(
+            String key, double longitude, double latitude, double radius, boolean descending, long limit) {
+        org.springframework.data.redis.connection.RedisGeoCommands.GeoSearchCommandArgs args =
+                org.springframework.data.redis.connection.RedisGeoCommands.GeoSearchCommandArgs
+                        .newGeoSearchArgs()
+                        .includeDistance()
+                        .limit(limit);
+        if (descending) {
+            args.sortDescending();
+        } else {
+            args.sortAscending();
+        }
+        org.springframework.data.geo.GeoResults<
+                org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<String>> results =
+                redisTemplate.opsForGeo().search(key,
+                        org.springframework.data.redis.domain.geo.GeoReference.fromCoordinate(longitude, latitude),
+                        new org.springframework.data.geo.Distance(radius,
+                                org.springframework.data.redis.connection.RedisGeoCommands.DistanceUnit.KILOMETERS),
+                        args);
+        return results != null ? results.getContent() : java.util.Collections.emptyList();
+    }
+
+    /**
+     * 统计指定范围内的成员数（在 Redis 服务端计数，不传输成员）
+     *
+     * @param radius 搜索半径（公里）
+     */
+    public long geoCount(String key, double longitude, double latitude, double radius) {
+        Long count = redisTemplate.execute(GEO_COUNT_SCRIPT, java.util.Collections.singletonList(key),
+                String.valueOf(longitude), String.valueOf(latitude), String.valueOf(radius));
+        return count != null ? count : 0L;
+    }
+
     /**
      * 删除地理位置成员
      */
@@ -0,0 +1,216 @@
+package com.businessreviews.util;
+
+import cn.hutool.extra.pinyin.PinyinUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词工具类
+ * <p>
+ * 供本地倒排索引使用的轻量分词，不依赖词典：
+ * - 中日韩文字：连续片段切分为单字和相邻二元组（bigram）
+ * - 字母数字：按连续片段切分为单词，统一转小写（建索引时可另外输出单词前缀，支持输入不完整的单词）
+ * - 其他字符（空白、标点、表情等）作为分隔符
+ * 另提供拼音词项，支持按全拼或拼音首字母搜索中文名称。
+ * </p>
+ */
+@Slf4j
+public class SearchTokenizer {
+
+    /**
+     * 单个字母数字词项的最大长度，超出部分截断
+     */
+    private static final int MAX_WORD_LENGTH = 32;
+
+    /**
+     * 单词前缀词项的最小、最大长度
+     */
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_LENGTH = 12;
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 文档分词（建索引用）
+     * <p>
+     * 中文片段同时输出单字和二元组，保证单字查询和多字查询都能命中。
+     * </p>
+     *
+     * @param text 原文
+     * @return 词项列表（保留重复，用于统计词频）
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        split(text, tokens, true, false);
+        return tokens;
+    }
+
+    /**
+     * 文档分词，字母数字单词额外输出前缀（建全文索引用）
+     * <p>
+     * 如 coffee 输出 coffee、co、cof、coff、coffe，查询 coff 即可命中 coffee，
+     * 与 LIKE '%coff%' 对单词开头的匹配一致。前缀长度为 {@value #MIN_PREFIX_LENGTH}~{@value #MAX_PREFIX_LENGTH}。
+     * </p>
+     *
+     * @param text 原文
+     * @return 词项列表（保留重复，用于统计词频）
+     */
+    public static List<String> tokenizeWithPrefixes(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        split(text, tokens, true, true);
+        return tokens;
+    }
+
+    /**
+     * 查询分词
+     * <p>
+     * 中文片段只有一个字时输出单字，否则只输出二元组，
+     * 所有二元组同时命中即近似于原文包含该片段。
+     * </p>
+     *
+     * @param keyword 查询关键词
+     * @return 去重后的词项列表
+     */
+    public static List<String> tokenizeQuery(String keyword) {
+        List<String> tokens = new ArrayList<>();
+        if (keyword == null || keyword.isEmpty()) {
+            return tokens;
+        }
+        split(keyword, tokens, false, false);
+        return new ArrayList<>(new LinkedHashSet<>(tokens));
+    }
+
+    /**
+     * 拼音词项
+     * <p>
+     * 对文本中的每个中文片段以及整段文本，分别输出全拼和拼音首字母（小写、去除非字母数字字符），
+     * 如"海底捞(王府井店)"输出 haidilao、hdl、wangfujingdian、wfjd、haidilaowangfujingdian、hdlwfjd。
+     * 拼音引擎不可用时返回空列表。
+     * </p>
+     *
+     * @param text 原文
+     * @return 去重后的拼音词项
+     */
+    public static List<String> pinyinTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty() || text.codePoints().noneMatch(SearchTokenizer::isCjk)) {
+            return tokens;
+        }
+        try {
+            List<String> segments = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            StringBuilder whole = new StringBuilder();
+            text.codePoints().forEach(c -> {
+                if (isCjk(c)) {
+                    current.appendCodePoint(c);
+                    whole.appendCodePoint(c);
+                } else {
+                    if (current.length() > 0) {
+                        segments.add(current.toString());
+                        current.setLength(0);
+                    }
+                    if (Character.isLetterOrDigit(c)) {
+                        whole.appendCodePoint(c);
+                    }
+                }
+            });
+            if (current.length() > 0) {
+                segments.add(current.toString());
+            }
+            if (segments.size() > 1) {
+                segments.add(whole.toString());
+            }
+
+            for (String segment : segments) {
+                addPinyinToken(tokens, PinyinUtil.getPinyin(segment, ""));
+                addPinyinToken(tokens, PinyinUtil.getFirstLetter(segment, ""));
+            }
+        } catch (Exception e) {
+            log.warn("拼音转换失败: {}", e.getMessage());
+        }
+        return new ArrayList<>(new LinkedHashSet<>(tokens));
+    }
+
+    private static void addPinyinToken(List<String> tokens, String pinyin) {
+        if (pinyin == null) {
+            return;
+        }
+        String token = pinyin.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        if (!token.isEmpty()) {
+            tokens.add(token.length() > MAX_WORD_LENGTH * 2 ? token.substring(0, MAX_WORD_LENGTH * 2) : token);
+        }
+    }
+
+    /**
+     * 判断字符是否为中日韩文字
+     */
+    public static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void split(String text, List<String> tokens, boolean withUnigrams, boolean withPrefixes) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int start = i;
+                while (i < length && isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                addCjkTokens(text.substring(start, i), tokens, withUnigrams);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int start = i;
+                while (i < length) {
+                    int c = text.codePointAt(i);
+                    if (!Character.isLetterOrDigit(c) || isCjk(c)) {
+                        break;
+                    }
+                    i += Character.charCount(c);
+                }
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (word.length() > MAX_WORD_LENGTH) {
+                    word = word.substring(0, MAX_WORD_LENGTH);
+                }
+                tokens.add(word);
+                if (withPrefixes) {
+                    int maxPrefix = Math.min(word.length() - 1, MAX_PREFIX_LENGTH);
+                    for (int end = MIN_PREFIX_LENGTH; end <= maxPrefix; end++) {
+                        if (!Character.isHighSurrogate(word.charAt(end - 1))) {
+                            tokens.add(word.substring(0, end));
+                        }
+                    }
+                }
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+    }
+
+    private static void addCjkTokens(String segment, List<String> tokens, boolean withUnigrams) {
+        int[] codePoints = segment.codePoints().toArray();
+        if (codePoints.length == 1 || withUnigrams) {
+            for (int codePoint : codePoints) {
+                tokens.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+    }
+}
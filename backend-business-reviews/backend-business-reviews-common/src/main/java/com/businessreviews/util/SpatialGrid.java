@@ -0,0 +1,259 @@
+package com.businessreviews.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 经纬度网格空间索引
+ * <p>
+ * 按固定经纬度步长把地球表面划分为网格，每个网格用基本类型数组保存点的ID、经纬度和分组（如商家分类），
+ * 半径查询只扫描与查询范围外接矩形相交的网格，先按外接矩形粗筛再计算球面距离。
+ * 查询同时返回半径内的总数和最近（或最远）的前 K 个点，K 个之外的点只计数不排序。
+ * </p>
+ * <p>
+ * 网格步长应与常用查询半径同一量级：步长过大时每次扫描的点过多，过小时需要遍历的网格过多。
+ * 经度方向跨越 ±180° 时按环绕处理，极点附近退化为扫描整圈经度。
+ * </p>
+ * <p>
+ * 非线程安全：并发读写由调用方加锁。
+ * </p>
+ *
+ * @author businessreviews
+ */
+public class SpatialGrid {
+
+    /** 未指定分组 */
+    public static final int NO_GROUP = Integer.MIN_VALUE;
+
+    /** 纬度每度对应的距离（公里） */
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final int lngCells;
+
+    /** 网格Key -> 网格 */
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    /** 点ID -> 所在网格Key */
+    private final Map<Long, Long> cellOf = new HashMap<>();
+
+    /**
+     * @param cellDegrees 网格步长（度）
+     */
+    public SpatialGrid(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("cellDegrees must be in (0, 90]");
+        }
+        this.cellDegrees = cellDegrees;
+        this.lngCells = (int) Math.ceil(360D / cellDegrees);
+    }
+
+    /**
+     * 写入或移动一个点
+     *
+     * @param id        点ID
+     * @param latitude  纬度
+     * @param longitude 经度
+     * @param group     分组，无分组传 {@link #NO_GROUP}
+     */
+    public void put(long id, double latitude, double longitude, int group) {
+        remove(id);
+        long key = cellKey(latIndex(latitude), lngIndex(longitude));
+        cells.computeIfAbsent(key, k -> new Cell()).add(id, latitude, longitude, group);
+        cellOf.put(id, key);
+    }
+
+    /**
+     * 删除一个点
+     *
+     * @return 点存在时返回true
+     */
+    public boolean remove(long id) {
+        Long key = cellOf.remove(id);
+        if (key == null) {
+            return false;
+        }
+        Cell cell = cells.get(key);
+        if (cell != null && cell.remove(id) && cell.size == 0) {
+            cells.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * 点的数量
+     */
+    public int size() {
+        return cellOf.size();
+    }
+
+    /**
+     * 半径查询
+     *
+     * @param latitude      中心点纬度
+     * @param longitude     中心点经度
+     * @param radiusKm      半径（公里）
+     * @param group         只返回该分组的点，不限分组传 {@link #NO_GROUP}
+     * @param limit         最多返回的点数 K
+     * @param farthestFirst true 时返回半径内最远的 K 个点（按距离降序），否则返回最近的 K 个点（按距离升序）
+     * @return 查询结果，总数为半径内全部匹配的点数
+     */
+    public Result within(double latitude, double longitude, double radiusKm, int group, int limit,
+            boolean farthestFirst) {
+        if (radiusKm < 0 || limit < 0) {
+            throw new IllegalArgumentException("radiusKm and limit must not be negative");
+        }
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(latitude - latDelta, -90D);
+        double maxLat = Math.min(latitude + latDelta, 90D);
+        // 外接矩形内纬度绝对值最大处的经度跨度最大
+        double widestCos = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lngDelta = widestCos > 1e-9 ? radiusKm / (KM_PER_DEGREE * widestCos) : 360D;
+        boolean fullCircle = lngDelta >= 180D;
+
+        int fromLat = latIndex(minLat);
+        int toLat = latIndex(maxLat);
+        int fromLng = fullCircle ? 0 : (int) Math.floor((longitude - lngDelta + 180D) / cellDegrees);
+        int toLng = fullCircle ? lngCells - 1 : (int) Math.floor((longitude + lngDelta + 180D) / cellDegrees);
+        if (toLng - fromLng + 1 >= lngCells) {
+            fullCircle = true;
+            fromLng = 0;
+            toLng = lngCells - 1;
+        }
+
+        // 最近K个用最大堆（堆顶为当前第K近），最远K个用最小堆
+        Comparator<Hit> nearestLast = Comparator.comparingDouble(Hit::distance);
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)),
+                farthestFirst ? nearestLast : nearestLast.reversed());
+        int total = 0;
+        for (int latIdx = fromLat; latIdx <= toLat; latIdx++) {
+            for (int lngIdx = fromLng; lngIdx <= toLng; lngIdx++) {
+                Cell cell = cells.get(cellKey(latIdx, Math.floorMod(lngIdx, lngCells)));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size; i++) {
+                    if (group != NO_GROUP && cell.groups[i] != group) {
+                        continue;
+                    }
+                    double lat = cell.latitudes[i];
+                    if (lat < minLat || lat > maxLat) {
+                        continue;
+                    }
+                    if (!fullCircle && Math.abs(wrapLongitude(cell.longitudes[i] - longitude)) > lngDelta) {
+                        continue;
+                    }
+                    double distance = DistanceUtil.calculateDistance(latitude, longitude, lat, cell.longitudes[i]);
+                    if (distance > radiusKm) {
+                        continue;
+                    }
+                    total++;
+                    if (limit == 0) {
+                        continue;
+                    }
+                    if (heap.size() < limit) {
+                        heap.offer(new Hit(cell.ids[i], distance));
+                    } else if (farthestFirst ? distance > heap.peek().distance()
+                            : distance < heap.peek().distance()) {
+                        heap.poll();
+                        heap.offer(new Hit(cell.ids[i], distance));
+                    }
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            hits.add(heap.poll());
+        }
+        Collections.reverse(hits);
+        return new Result(hits, total);
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor((Math.min(Math.max(latitude, -90D), 90D) + 90D) / cellDegrees);
+    }
+
+    private int lngIndex(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180D) / cellDegrees), lngCells);
+    }
+
+    private static long cellKey(int latIndex, int lngIndex) {
+        return ((long) latIndex << 32) | (lngIndex & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 将经度差归一化到 [-180, 180)
+     */
+    private static double wrapLongitude(double delta) {
+        return ((delta + 180D) % 360D + 360D) % 360D - 180D;
+    }
+
+    /**
+     * 查询命中的点
+     *
+     * @param id       点ID
+     * @param distance 距中心点的距离（公里）
+     */
+    public record Hit(long id, double distance) {
+    }
+
+    /**
+     * 查询结果
+     *
+     * @param hits  排序后的前 K 个点
+     * @param total 半径内匹配的总点数
+     */
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    /**
+     * 单个网格内的点，按列存储在基本类型数组中
+     */
+    private static final class Cell {
+
+        private long[] ids = new long[4];
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private int[] groups = new int[4];
+        private int size;
+
+        void add(long id, double latitude, double longitude, int group) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                groups = Arrays.copyOf(groups, capacity);
+            }
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            groups[size] = group;
+            size++;
+        }
+
+        /**
+         * 删除点，用末尾元素填补空位
+         */
+        boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    int last = --size;
+                    ids[i] = ids[last];
+                    latitudes[i] = latitudes[last];
+                    longitudes[i] = longitudes[last];
+                    groups[i] = groups[last];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.businessreviews.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 搜索建议前缀树（每个节点预存 Top-K 补全）
+ * <p>
+ * 构建时自底向上为每个节点计算以该前缀开头的权重最高的 K 个候选词，
+ * 查询只需沿输入逐字符下行（子节点按字符有序，二分查找），到达节点后直接返回预存结果，
+ * 耗时只与输入长度有关，与词典大小无关。
+ * </p>
+ * <p>
+ * 构建完成后不可修改，多线程并发读取安全；更新时整体重建后替换引用。
+ * 匹配不区分大小写，返回词保留原始大小写。
+ * </p>
+ *
+ * @author businessreviews
+ */
+public final class SuggestionTrie {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final String[] terms;
+    private final Node root;
+
+    private SuggestionTrie(String[] terms, Node root) {
+        this.terms = terms;
+        this.root = root;
+    }
+
+    /**
+     * 空前缀树
+     */
+    public static SuggestionTrie empty() {
+        return new SuggestionTrie(new String[0], new Node(NO_LABELS, NO_CHILDREN, new int[0]));
+    }
+
+    /**
+     * @param topK 每个节点预存的候选词数，即单次查询最多返回的条数
+     */
+    public static Builder builder(int topK) {
+        return new Builder(topK);
+    }
+
+    /**
+     * 查询以输入为前缀的候选词（按权重降序）
+     *
+     * @param prefix 用户输入
+     * @param limit  返回条数上限（不超过构建时的 topK）
+     * @return 候选词，无匹配时为空列表
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = prefix.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return new ArrayList<>();
+        }
+        int count = Math.min(limit, node.top.length);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(terms[node.top[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * 词典中的词数
+     */
+    public int size() {
+        return terms.length;
+    }
+
+    private static final class Node {
+        private final char[] labels;
+        private final Node[] children;
+        /** 该前缀下权重最高的候选词下标（降序） */
+        private final int[] top;
+
+        private Node(char[] labels, Node[] children, int[] top) {
+            this.labels = labels;
+            this.children = children;
+            this.top = top;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * 构建器（非线程安全）
+     */
+    public static final class Builder {
+
+        /** 中间匹配（后缀）相对整词前缀匹配的权重折扣 */
+        private static final double INFIX_DISCOUNT = 0.5D;
+
+        /** 中间匹配的最短后缀长度 */
+        private static final int MIN_INFIX_LENGTH = 2;
+
+        private final int topK;
+        private final Map<String, Integer> indexByKey = new HashMap<>();
+        private final List<String> terms = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+        private final List<Boolean> infix = new ArrayList<>();
+
+        private Builder(int topK) {
+            this.topK = topK;
+        }
+
+        /**
+         * 添加候选词，同一个词（不区分大小写）多次添加时取最大权重
+         *
+         * @param term   候选词
+         * @param weight 权重（越大越靠前）
+         * @param infixMatch 是否允许从词中间开始匹配（如输入"火锅"匹配"海底捞火锅"）
+         */
+        public Builder add(String term, double weight, boolean infixMatch) {
+            if (term == null || term.trim().isEmpty()) {
+                return this;
+            }
+            String display = term.trim();
+            String key = display.toLowerCase(Locale.ROOT);
+            Integer index = indexByKey.get(key);
+            if (index == null) {
+                indexByKey.put(key, terms.size());
+                terms.add(display);
+                weights.add(weight);
+                infix.add(infixMatch);
+            } else {
+                if (weight > weights.get(index)) {
+                    terms.set(index, display);
+                    weights.set(index, weight);
+                }
+                infix.set(index, infix.get(index) || infixMatch);
+            }
+            return this;
+        }
+
+        public SuggestionTrie build() {
+            BuildNode root = new BuildNode();
+            for (Map.Entry<String, Integer> entry : indexByKey.entrySet()) {
+                String key = entry.getKey();
+                int index = entry.getValue();
+                double weight = weights.get(index);
+                insert(root, key, 0, index, weight);
+                if (infix.get(index)) {
+                    for (int start = 1; start <= key.length() - MIN_INFIX_LENGTH; start++) {
+                        insert(root, key, start, index, weight * INFIX_DISCOUNT);
+                    }
+                }
+            }
+            return new SuggestionTrie(terms.toArray(new String[0]), freeze(root).node);
+        }
+
+        private void insert(BuildNode root, String key, int start, int term, double score) {
+            BuildNode node = root;
+            for (int i = start; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new BuildNode());
+            }
+            node.entries.put(term, Math.max(score, node.entries.getOrDefault(term, 0D)));
+        }
+
+        /**
+         * 自底向上冻结节点：合并自身和子节点的候选词，保留得分最高的 K 个
+         */
+        private Frozen freeze(BuildNode node) {
+            Map<Integer, Double> candidates = new HashMap<>(node.entries);
+            char[] labels = node.children.isEmpty() ? NO_LABELS : new char[node.children.size()];
+            Node[] children = node.children.isEmpty() ? NO_CHILDREN : new Node[node.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> entry : node.children.entrySet()) {
+                Frozen child = freeze(entry.getValue());
+                labels[i] = entry.getKey();
+                children[i] = child.node;
+                for (int j = 0; j < child.node.top.length; j++) {
+                    candidates.merge(child.node.top[j], child.scores[j], Math::max);
+                }
+                i++;
+            }
+
+            List<Map.Entry<Integer, Double>> sorted = new ArrayList<>(candidates.entrySet());
+            sorted.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            int size = Math.min(topK, sorted.size());
+            int[] top = new int[size];
+            double[] scores = new double[size];
+            for (int k = 0; k < size; k++) {
+                top[k] = sorted.get(k).getKey();
+                scores[k] = sorted.get(k).getValue();
+            }
+            return new Frozen(new Node(labels, children, top), scores);
+        }
+
+        private static final class BuildNode {
+            /** 按字符有序，冻结后可二分查找 */
+            private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+            /** 在该节点结束的候选词下标 -> 得分 */
+            private final Map<Integer, Double> entries = new HashMap<>(2);
+        }
+
+        private record Frozen(Node node, double[] scores) {
+        }
+    }
+}
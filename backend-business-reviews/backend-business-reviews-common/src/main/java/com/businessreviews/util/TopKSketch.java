@@ -0,0 +1,135 @@
+package com.businessreviews.util;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 流式 Top-K 高频元素统计（Count-Min Sketch + 候选集）
+ * <p>
+ * Count-Min Sketch 估算每个元素的出现次数（只会高估），
+ * 按估算值维护容量为 K 的候选集，候选集已满时新元素的估算值超过候选集最小值才替换。
+ * 内存占用与元素种类数无关，适用于搜索词等长尾分布的数据流。
+ * </p>
+ * <p>
+ * 线程安全：计数器为原子数组，已在候选集中的元素和低于候选集最小值的元素都无锁更新；
+ * 只有新元素进入候选集（替换最小候选）时加锁，稳定的数据流中这种情况很少发生。
+ * 与 {@link #add} 并发调用 {@link #top()} 得到的是近似快照。
+ * </p>
+ *
+ * @author businessreviews
+ */
+public class TopKSketch {
+
+    /** 候选按估算次数升序，次数相同按元素排序 */
+    private static final Comparator<Map.Entry<String, Long>> CANDIDATE_ORDER =
+            Map.Entry.<String, Long>comparingByValue().thenComparing(Map.Entry.comparingByKey());
+
+    private final int capacity;
+    private final int depth;
+    private final int width;
+    private final AtomicIntegerArray[] counters;
+
+    /** 候选元素 -> 估算次数 */
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+
+    /** 候选集已满时的最小估算次数（只会小于等于实际最小值），不超过它的新元素无需加锁即可丢弃 */
+    private volatile long minEstimate;
+
+    /**
+     * @param capacity 保留的候选元素数 K
+     * @param depth    哈希函数个数
+     * @param width    每行计数器个数
+     */
+    public TopKSketch(int capacity, int depth, int width) {
+        this.capacity = capacity;
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicIntegerArray[depth];
+        for (int row = 0; row < depth; row++) {
+            counters[row] = new AtomicIntegerArray(width);
+        }
+    }
+
+    /**
+     * 记录一次出现
+     */
+    public void add(String item) {
+        long hash1 = mix(item.hashCode());
+        long hash2 = mix(hash1) | 1L;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (int) Math.floorMod(hash1 + row * hash2, (long) width);
+            estimate = Math.min(estimate, counters[row].incrementAndGet(column));
+        }
+
+        long current = estimate;
+        if (candidates.computeIfPresent(item, (key, value) -> Math.max(value, current)) != null) {
+            return;
+        }
+        if (candidates.size() >= capacity && estimate <= minEstimate) {
+            return;
+        }
+        offer(item, estimate);
+    }
+
+    /**
+     * 候选元素及估算次数，按次数降序
+     */
+    public Map<String, Long> top() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        candidates.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .sorted(CANDIDATE_ORDER.reversed())
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return candidates.isEmpty();
+    }
+
+    /**
+     * 新元素尝试进入候选集
+     */
+    private synchronized void offer(String item, long estimate) {
+        if (candidates.computeIfPresent(item, (key, value) -> Math.max(value, estimate)) != null) {
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.put(item, estimate);
+            if (candidates.size() >= capacity) {
+                minEstimate = findMin().getValue();
+            }
+            return;
+        }
+        Map.Entry<String, Long> min = findMin();
+        if (estimate > min.getValue()) {
+            candidates.remove(min.getKey());
+            candidates.put(item, estimate);
+            minEstimate = findMin().getValue();
+        } else {
+            minEstimate = min.getValue();
+        }
+    }
+
+    private Map.Entry<String, Long> findMin() {
+        Map.Entry<String, Long> min = null;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            Map.Entry<String, Long> snapshot = Map.entry(entry.getKey(), entry.getValue());
+            if (min == null || CANDIDATE_ORDER.compare(snapshot, min) < 0) {
+                min = snapshot;
+            }
+        }
+        return min;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
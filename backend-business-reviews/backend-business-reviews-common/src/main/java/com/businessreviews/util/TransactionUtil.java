@@ -0,0 +1,35 @@
+package com.businessreviews.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ * <p>
+ * 缓存、Redis 索引、进程内索引等数据库之外的状态须在事务提交后再更新，
+ * 否则事务回滚后外部状态与数据库不一致。
+ * </p>
+ */
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * 在当前事务提交后执行；不在事务中时立即执行，事务回滚时不执行
+     *
+     * @param action 提交后执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
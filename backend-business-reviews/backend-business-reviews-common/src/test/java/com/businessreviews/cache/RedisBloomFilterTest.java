@@ -0,0 +1,142 @@
+package com.businessreviews.cache;
+
+import com.businessreviews.util.RedisUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * RedisBloomFilter单元测试
+ *
+ * 用内存 BitSet 代替 Redis Bitmap，验证已写入的ID不会被判定为不存在（包括按临时Key重建并 RENAME 之后），
+ * 以及误判率接近期望值
+ */
+class RedisBloomFilterTest {
+
+    private static final String KEY = "bloom:entity:test";
+
+    private static final long EXPECTED_INSERTIONS = 10_000L;
+
+    private static final double FPP = 0.01D;
+
+    /** Redis Key -> 位数组 */
+    private final Map<String, BitSet> bitmaps = new HashMap<>();
+
+    private RedisUtil redisUtil;
+
+    @BeforeEach
+    void setUp() {
+        redisUtil = mock(RedisUtil.class);
+        doAnswer(invocation -> {
+            BitSet bits = bitmaps.computeIfAbsent(invocation.getArgument(0), k -> new BitSet());
+            for (long offset : (long[]) invocation.getArgument(1)) {
+                bits.set(Math.toIntExact(offset));
+            }
+            return null;
+        }).when(redisUtil).setBits(anyString(), any(long[].class));
+        doAnswer(invocation -> {
+            BitSet bits = bitmaps.getOrDefault(invocation.getArgument(0), new BitSet());
+            long[] offsets = invocation.getArgument(1);
+            boolean[] result = new boolean[offsets.length];
+            for (int i = 0; i < offsets.length; i++) {
+                result[i] = bits.get(Math.toIntExact(offsets[i]));
+            }
+            return result;
+        }).when(redisUtil).getBits(anyString(), any(long[].class));
+        doAnswer(invocation -> {
+            BitSet bits = bitmaps.remove(invocation.getArgument(0));
+            bitmaps.put(invocation.getArgument(1), bits);
+            return null;
+        }).when(redisUtil).rename(anyString(), anyString());
+    }
+
+    /**
+     * 逐个写入和批量写入的ID都 SHALL 被判定为可能存在
+     */
+    @Test
+    void insertedIdsAreNeverReportedMissing() {
+        RedisBloomFilter filter = new RedisBloomFilter(KEY, EXPECTED_INSERTIONS, FPP, redisUtil);
+        filter.putAll(ids(1, 5_000));
+        for (long id = 5_001; id <= EXPECTED_INSERTIONS; id++) {
+            filter.put(id);
+        }
+
+        for (long id = 1; id <= EXPECTED_INSERTIONS; id++) {
+            assertThat(filter.mightContain(id)).as("id=%d", id).isTrue();
+        }
+    }
+
+    /**
+     * 按 EntityIdFilterService 的方式写入临时Key再 RENAME 替换后，重建时写入的ID SHALL 仍可查到，
+     * 重建前写入、重建时不再存在的ID被清除
+     */
+    @Test
+    void rebuiltFilterHasNoFalseNegatives() {
+        RedisBloomFilter filter = new RedisBloomFilter(KEY, EXPECTED_INSERTIONS, FPP, redisUtil);
+        filter.putAll(ids(1, 2_000));
+
+        RedisBloomFilter building = filter.withKey(KEY + ":building");
+        building.putAll(ids(1_001, 8_000));
+        redisUtil.rename(building.getKey(), filter.getKey());
+
+        for (long id = 1_001; id <= 8_000; id++) {
+            assertThat(filter.mightContain(id)).as("id=%d", id).isTrue();
+        }
+        int stale = 0;
+        for (long id = 1; id <= 1_000; id++) {
+            if (filter.mightContain(id)) {
+                stale++;
+            }
+        }
+        assertThat(stale).isLessThan(50);
+    }
+
+    /**
+     * 未写入的ID误判率 SHALL 接近期望误判率
+     */
+    @Test
+    void falsePositiveRateIsNearExpected() {
+        RedisBloomFilter filter = new RedisBloomFilter(KEY, EXPECTED_INSERTIONS, FPP, redisUtil);
+        filter.putAll(ids(1, EXPECTED_INSERTIONS));
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (long id = 1_000_000; id < 1_000_000 + probes; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isLessThan(FPP * 2);
+    }
+
+    /**
+     * 空过滤器 SHALL 判定任意ID都不存在
+     */
+    @Test
+    void emptyFilterContainsNothing() {
+        RedisBloomFilter filter = new RedisBloomFilter(KEY, EXPECTED_INSERTIONS, FPP, redisUtil);
+        filter.putAll(List.of());
+
+        assertThat(filter.mightContain(1L)).isFalse();
+        assertThat(bitmaps).isEmpty();
+    }
+
+    private static List<Long> ids(long from, long to) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
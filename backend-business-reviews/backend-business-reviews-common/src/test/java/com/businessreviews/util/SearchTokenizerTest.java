@@ -0,0 +1,98 @@
+package com.businessreviews.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SearchTokenizer单元测试
+ *
+ * 验证中日韩文字按单字+二元组切分、字母数字按单词切分并转小写，以及查询分词与前缀词项
+ */
+class SearchTokenizerTest {
+
+    /**
+     * 建索引时中文片段同时输出单字和二元组
+     */
+    @Test
+    void documentTokensContainUnigramsAndBigrams() {
+        assertThat(SearchTokenizer.tokenize("海底捞"))
+                .containsExactly("海", "底", "捞", "海底", "底捞");
+    }
+
+    /**
+     * 查询多字中文片段只输出二元组，单字片段输出单字
+     */
+    @Test
+    void queryTokensUseBigramsForMultiCharSegments() {
+        assertThat(SearchTokenizer.tokenizeQuery("海底捞")).containsExactly("海底", "底捞");
+        assertThat(SearchTokenizer.tokenizeQuery("捞")).containsExactly("捞");
+    }
+
+    /**
+     * 日文假名和韩文同样按中日韩文字切分
+     */
+    @Test
+    void kanaAndHangulAreTreatedAsCjk() {
+        assertThat(SearchTokenizer.tokenizeQuery("カフェ")).containsExactly("カフ", "フェ");
+        assertThat(SearchTokenizer.tokenizeQuery("커피")).containsExactly("커피");
+    }
+
+    /**
+     * 字母数字按连续片段切分并转小写，中文和标点作为边界
+     */
+    @Test
+    void latinWordsAreLowercasedAndSplitAtBoundaries() {
+        assertThat(SearchTokenizer.tokenize("Latte,2杯 MOCHA！"))
+                .containsExactly("latte", "2", "杯", "mocha");
+    }
+
+    /**
+     * 查询词项去重并保持首次出现的顺序
+     */
+    @Test
+    void queryTokensAreDeduplicated() {
+        assertThat(SearchTokenizer.tokenizeQuery("coffee COFFEE 咖啡 咖啡"))
+                .containsExactly("coffee", "咖啡");
+    }
+
+    /**
+     * 超长单词截断为32个字符
+     */
+    @Test
+    void longWordsAreTruncated() {
+        assertThat(SearchTokenizer.tokenize("a".repeat(40))).containsExactly("a".repeat(32));
+    }
+
+    /**
+     * 带前缀分词为单词输出长度2~12的前缀，不重复输出整词
+     */
+    @Test
+    void prefixesCoverWordStarts() {
+        assertThat(SearchTokenizer.tokenizeWithPrefixes("coffee"))
+                .containsExactly("coffee", "co", "cof", "coff", "coffe");
+        assertThat(SearchTokenizer.tokenizeWithPrefixes("a")).containsExactly("a");
+        assertThat(SearchTokenizer.tokenizeWithPrefixes("cappuccinocafe"))
+                .contains("cappuccinoca")
+                .doesNotContain("cappuccinocaf");
+    }
+
+    /**
+     * 空文本和纯标点不产生词项
+     */
+    @Test
+    void blankTextHasNoTokens() {
+        assertThat(SearchTokenizer.tokenize(null)).isEmpty();
+        assertThat(SearchTokenizer.tokenize("")).isEmpty();
+        assertThat(SearchTokenizer.tokenizeQuery(" ，。!? ")).isEmpty();
+    }
+
+    /**
+     * 中文文本输出全拼和首字母，不含中文的文本不输出拼音词项
+     */
+    @Test
+    void pinyinTokensForChineseText() {
+        assertThat(SearchTokenizer.pinyinTokens("海底捞")).contains("haidilao", "hdl");
+        assertThat(SearchTokenizer.pinyinTokens("coffee")).isEmpty();
+    }
+}
@@ -0,0 +1,181 @@
+package com.businessreviews.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * SpatialGrid单元测试
+ *
+ * 验证半径查询的总数和最近/最远 K 个结果、跨网格边界和经度 ±180° 的查询，以及与逐点计算的结果一致
+ */
+class SpatialGridTest {
+
+    private static final double LAT = 39.9D;
+    private static final double LNG = 116.4D;
+
+    /**
+     * 半径内的点按距离升序返回前 K 个，总数包含 K 个之外的点
+     */
+    @Test
+    void nearestHitsAreSortedAndTotalCountsAll() {
+        SpatialGrid grid = lineOfPoints();
+
+        SpatialGrid.Result result = grid.within(LAT, LNG, 3.5D, SpatialGrid.NO_GROUP, 2, false);
+
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.hits()).extracting(SpatialGrid.Hit::id).containsExactly(1L, 2L);
+        assertThat(result.hits().get(0).distance()).isCloseTo(1.11D, offset(0.01D));
+    }
+
+    /**
+     * farthestFirst 时返回半径内最远的 K 个点，按距离降序
+     */
+    @Test
+    void farthestHitsAreSortedDescending() {
+        SpatialGrid grid = lineOfPoints();
+
+        SpatialGrid.Result result = grid.within(LAT, LNG, 10D, SpatialGrid.NO_GROUP, 2, true);
+
+        assertThat(result.total()).isEqualTo(5);
+        assertThat(result.hits()).extracting(SpatialGrid.Hit::id).containsExactly(5L, 4L);
+    }
+
+    /**
+     * limit 为0时只计数
+     */
+    @Test
+    void zeroLimitOnlyCounts() {
+        SpatialGrid.Result result = lineOfPoints().within(LAT, LNG, 10D, SpatialGrid.NO_GROUP, 0, false);
+
+        assertThat(result.total()).isEqualTo(5);
+        assertThat(result.hits()).isEmpty();
+    }
+
+    /**
+     * 查询范围跨越网格边界时，边界两侧的点都能查到
+     */
+    @Test
+    void pointsOnBothSidesOfCellBoundaryAreFound() {
+        SpatialGrid grid = new SpatialGrid(0.1D);
+        grid.put(1L, 39.9999D, 116.3999D, SpatialGrid.NO_GROUP);
+        grid.put(2L, 40.0001D, 116.4001D, SpatialGrid.NO_GROUP);
+        grid.put(3L, 40.0500D, 116.4000D, SpatialGrid.NO_GROUP);
+
+        SpatialGrid.Result result = grid.within(40.0D, 116.4D, 1D, SpatialGrid.NO_GROUP, 10, false);
+
+        assertThat(result.hits()).extracting(SpatialGrid.Hit::id).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    /**
+     * 经度 ±180° 两侧的点互相可达，极点附近按整圈经度扫描
+     */
+    @Test
+    void queriesWrapAroundAntimeridianAndPoles() {
+        SpatialGrid grid = new SpatialGrid(0.5D);
+        grid.put(1L, 0D, -179.99D, SpatialGrid.NO_GROUP);
+        grid.put(2L, 89.99D, 180D, SpatialGrid.NO_GROUP);
+
+        assertThat(grid.within(0D, 179.99D, 5D, SpatialGrid.NO_GROUP, 10, false).hits())
+                .extracting(SpatialGrid.Hit::id).containsExactly(1L);
+        assertThat(grid.within(89.99D, 0D, 5D, SpatialGrid.NO_GROUP, 10, false).hits())
+                .extracting(SpatialGrid.Hit::id).containsExactly(2L);
+    }
+
+    /**
+     * 指定分组时只返回该分组的点
+     */
+    @Test
+    void groupFilterRestrictsResults() {
+        SpatialGrid grid = new SpatialGrid(0.05D);
+        grid.put(1L, LAT, LNG, 1);
+        grid.put(2L, LAT, LNG, 2);
+
+        assertThat(grid.within(LAT, LNG, 1D, 1, 10, false).hits())
+                .extracting(SpatialGrid.Hit::id).containsExactly(1L);
+        assertThat(grid.within(LAT, LNG, 1D, SpatialGrid.NO_GROUP, 10, false).total()).isEqualTo(2);
+    }
+
+    /**
+     * 重复写入同一ID即移动该点，删除后不再返回
+     */
+    @Test
+    void putMovesAndRemoveDeletes() {
+        SpatialGrid grid = new SpatialGrid(0.05D);
+        grid.put(1L, LAT, LNG, SpatialGrid.NO_GROUP);
+        grid.put(1L, 31.2D, 121.5D, SpatialGrid.NO_GROUP);
+
+        assertThat(grid.size()).isEqualTo(1);
+        assertThat(grid.within(LAT, LNG, 5D, SpatialGrid.NO_GROUP, 10, false).total()).isZero();
+        assertThat(grid.within(31.2D, 121.5D, 5D, SpatialGrid.NO_GROUP, 10, false).total()).isEqualTo(1);
+
+        assertThat(grid.remove(1L)).isTrue();
+        assertThat(grid.remove(1L)).isFalse();
+        assertThat(grid.size()).isZero();
+        assertThat(grid.within(31.2D, 121.5D, 5D, SpatialGrid.NO_GROUP, 10, false).total()).isZero();
+    }
+
+    /**
+     * 随机点集上的查询结果 SHALL 与逐点计算距离的结果一致
+     */
+    @Test
+    void matchesBruteForceOnRandomPoints() {
+        Random random = new Random(7);
+        SpatialGrid grid = new SpatialGrid(0.05D);
+        double[][] points = new double[3_000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{31.0D + random.nextDouble() * 0.5D, 121.2D + random.nextDouble() * 0.5D};
+            grid.put(i, points[i][0], points[i][1], i % 3);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 31.0D + random.nextDouble() * 0.5D;
+            double lng = 121.2D + random.nextDouble() * 0.5D;
+            double radius = 0.5D + random.nextDouble() * 10D;
+            boolean farthestFirst = q % 2 == 1;
+
+            List<SpatialGrid.Hit> expected = new ArrayList<>();
+            for (int i = 0; i < points.length; i++) {
+                double distance = DistanceUtil.calculateDistance(lat, lng, points[i][0], points[i][1]);
+                if (i % 3 == 1 && distance <= radius) {
+                    expected.add(new SpatialGrid.Hit(i, distance));
+                }
+            }
+            Comparator<SpatialGrid.Hit> order = Comparator.comparingDouble(SpatialGrid.Hit::distance);
+            expected.sort(farthestFirst ? order.reversed() : order);
+
+            SpatialGrid.Result result = grid.within(lat, lng, radius, 1, 10, farthestFirst);
+
+            assertThat(result.total()).isEqualTo(expected.size());
+            assertThat(result.hits()).containsExactlyElementsOf(expected.subList(0, Math.min(10, expected.size())));
+        }
+    }
+
+    /**
+     * 非法参数抛出 IllegalArgumentException
+     */
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThatThrownBy(() -> new SpatialGrid(0D)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SpatialGrid(0.1D).within(LAT, LNG, -1D, SpatialGrid.NO_GROUP, 10, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 沿经线向北每隔 0.01°（约1.11公里）放一个点，ID 1~5
+     */
+    private static SpatialGrid lineOfPoints() {
+        SpatialGrid grid = new SpatialGrid(0.02D);
+        for (int i = 1; i <= 5; i++) {
+            grid.put(i, LAT + 0.01D * i, LNG, SpatialGrid.NO_GROUP);
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,111 @@
+package com.businessreviews.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SuggestionTrie单元测试
+ *
+ * 验证前缀补全按权重降序返回 Top-K、匹配不区分大小写，以及中间匹配的权重折扣
+ */
+class SuggestionTrieTest {
+
+    /**
+     * 以输入为前缀的候选词按权重降序返回
+     */
+    @Test
+    void suggestionsAreOrderedByWeight() {
+        SuggestionTrie trie = SuggestionTrie.builder(10)
+                .add("海鲜大排档", 50, false)
+                .add("海底捞", 100, false)
+                .add("海南鸡饭", 80, false)
+                .add("火锅", 200, false)
+                .build();
+
+        assertThat(trie.suggest("海", 10)).containsExactly("海底捞", "海南鸡饭", "海鲜大排档");
+        assertThat(trie.suggest("海底", 10)).containsExactly("海底捞");
+        assertThat(trie.size()).isEqualTo(4);
+    }
+
+    /**
+     * 返回条数不超过 limit 和构建时的 topK，截掉的是权重最低的候选词
+     */
+    @Test
+    void resultsAreCappedByLimitAndTopK() {
+        SuggestionTrie trie = SuggestionTrie.builder(2)
+                .add("coffee", 10, false)
+                .add("cola", 30, false)
+                .add("cocoa", 20, false)
+                .build();
+
+        assertThat(trie.suggest("co", 10)).containsExactly("cola", "cocoa");
+        assertThat(trie.suggest("co", 1)).containsExactly("cola");
+    }
+
+    /**
+     * 权重相同时先添加的候选词在前
+     */
+    @Test
+    void equalWeightsKeepInsertionOrder() {
+        SuggestionTrie trie = SuggestionTrie.builder(5)
+                .add("tea", 1, false)
+                .add("taco", 1, false)
+                .add("tart", 1, false)
+                .build();
+
+        assertThat(trie.suggest("t", 5)).containsExactly("tea", "taco", "tart");
+    }
+
+    /**
+     * 匹配不区分大小写，同一个词重复添加时保留权重较大的一次（包括其原始大小写）
+     */
+    @Test
+    void matchingIgnoresCaseAndKeepsHeaviestDisplay() {
+        SuggestionTrie trie = SuggestionTrie.builder(5)
+                .add("Starbucks", 10, false)
+                .add("STARBUCKS", 5, false)
+                .add("  starbucks reserve ", 8, false)
+                .build();
+
+        assertThat(trie.suggest(" STAR", 5)).containsExactly("Starbucks", "starbucks reserve");
+        assertThat(trie.size()).isEqualTo(2);
+
+        SuggestionTrie heavier = SuggestionTrie.builder(5)
+                .add("Starbucks", 10, false)
+                .add("STARBUCKS", 20, false)
+                .build();
+        assertThat(heavier.suggest("star", 5)).containsExactly("STARBUCKS");
+    }
+
+    /**
+     * 允许中间匹配的词可从后缀命中，得分打折后排在同权重的前缀匹配之后
+     */
+    @Test
+    void infixMatchesAreDiscounted() {
+        SuggestionTrie trie = SuggestionTrie.builder(5)
+                .add("海底捞火锅", 100, true)
+                .add("火锅城", 60, false)
+                .add("小龙坎火锅", 200, false)
+                .build();
+
+        assertThat(trie.suggest("火锅", 5)).containsExactly("火锅城", "海底捞火锅");
+        assertThat(trie.suggest("海底", 5)).containsExactly("海底捞火锅");
+        // 后缀至少两个字符才参与中间匹配
+        assertThat(trie.suggest("锅", 5)).isEmpty();
+    }
+
+    /**
+     * 无匹配、空白输入和空前缀树都返回空列表
+     */
+    @Test
+    void missesReturnEmptyList() {
+        SuggestionTrie trie = SuggestionTrie.builder(5).add("咖啡", 1, true).build();
+
+        assertThat(trie.suggest("奶茶", 5)).isEmpty();
+        assertThat(trie.suggest("  ", 5)).isEmpty();
+        assertThat(trie.suggest("咖啡馆", 5)).isEmpty();
+        assertThat(SuggestionTrie.empty().suggest("咖", 5)).isEmpty();
+        assertThat(SuggestionTrie.empty().size()).isZero();
+    }
+}
@@ -0,0 +1,97 @@
+package com.businessreviews.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TopKSketch单元测试
+ *
+ * 验证候选集满后的淘汰规则、结果按估算次数降序，以及估算次数只会高估
+ */
+class TopKSketchTest {
+
+    /**
+     * 候选集未满时所有元素都保留，按次数降序输出
+     */
+    @Test
+    void keepsEverythingBelowCapacity() {
+        TopKSketch sketch = new TopKSketch(3, 4, 1024);
+        assertThat(sketch.isEmpty()).isTrue();
+
+        add(sketch, "火锅", 3);
+        add(sketch, "咖啡", 5);
+
+        assertThat(sketch.isEmpty()).isFalse();
+        assertThat(sketch.top()).containsExactly(Map.entry("咖啡", 5L), Map.entry("火锅", 3L));
+    }
+
+    /**
+     * 候选集已满时，低频新元素不能挤掉已有候选
+     */
+    @Test
+    void lowFrequencyItemsDoNotEvictCandidates() {
+        TopKSketch sketch = new TopKSketch(3, 4, 1024);
+        add(sketch, "a", 10);
+        add(sketch, "b", 8);
+        add(sketch, "c", 6);
+        for (int i = 0; i < 100; i++) {
+            sketch.add("tail" + i);
+        }
+
+        assertThat(sketch.top().keySet()).containsExactly("a", "b", "c");
+    }
+
+    /**
+     * 新元素的累计次数超过候选集最小值后替换最小的候选，之后的计数继续累加
+     */
+    @Test
+    void risingItemEvictsSmallestCandidate() {
+        TopKSketch sketch = new TopKSketch(3, 4, 1024);
+        add(sketch, "a", 10);
+        add(sketch, "b", 8);
+        add(sketch, "c", 6);
+
+        add(sketch, "d", 6);
+        assertThat(sketch.top()).doesNotContainKey("d");
+
+        sketch.add("d");
+        assertThat(sketch.top().keySet()).containsExactly("a", "b", "d");
+
+        add(sketch, "d", 13);
+        assertThat(sketch.top()).containsExactly(
+                Map.entry("d", 20L), Map.entry("a", 10L), Map.entry("b", 8L));
+    }
+
+    /**
+     * 哈希冲突下估算次数 SHALL 不低于真实次数，头部元素仍然保留
+     */
+    @Test
+    void estimatesNeverUndercount() {
+        TopKSketch sketch = new TopKSketch(5, 4, 256);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // 前5个词占大部分流量，其余为长尾
+            String item = random.nextInt(4) > 0 ? "hot" + random.nextInt(5) : "tail" + random.nextInt(2_000);
+            sketch.add(item);
+            actual.merge(item, 1L, Long::sum);
+        }
+
+        Map<String, Long> top = sketch.top();
+        assertThat(top.keySet()).containsExactlyInAnyOrder("hot0", "hot1", "hot2", "hot3", "hot4");
+        top.forEach((item, estimate) -> assertThat(estimate).isGreaterThanOrEqualTo(actual.get(item)));
+        assertThat(new ArrayList<>(top.values())).isSortedAccordingTo((x, y) -> Long.compare(y, x));
+    }
+
+    private static void add(TopKSketch sketch, String item, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.add(item);
+        }
+    }
+}
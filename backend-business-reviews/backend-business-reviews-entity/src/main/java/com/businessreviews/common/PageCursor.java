@@ -0,0 +1,143 @@
+package com.businessreviews.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.businessreviews.exception.BusinessException;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页工具类（Keyset Pagination）
+ * <p>
+ * 游标对客户端是不透明字符串，内部编码上一页最后一条记录的 (排序字段, ID)。
+ * 查询时使用 WHERE (sort_key, id) &lt; (?, ?) 定位下一页，不做 OFFSET 跳过，也不查询总数，
+ * 每页查询代价与翻页深度无关，适用于移动端无限滚动列表。
+ * </p>
+ * <p>
+ * 约定：列表接口传入 cursor 参数即进入游标模式（首页传空字符串），
+ * 返回的 {@link PageResult#getNextCursor()} 为空表示没有更多数据。
+ * 游标模式下排序字段为空的记录不参与分页。
+ * </p>
+ * <p>
+ * 排序字段须在翻页期间保持不变（如发布时间），否则会出现重复或遗漏；
+ * 按点赞数等可变字段排序的列表改为按排序快照翻页，游标编码 (快照ID, 偏移量)。
+ * </p>
+ */
+@Getter
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 上一页最后一条记录的排序字段值
+     */
+    private final String sortKey;
+
+    /**
+     * 上一页最后一条记录的ID
+     */
+    private final Long id;
+
+    private PageCursor(String sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * 编码游标
+     */
+    public static String encode(Object sortKey, Long id) {
+        String key = sortKey instanceof BigDecimal ? ((BigDecimal) sortKey).toPlainString() : String.valueOf(sortKey);
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标字符串
+     * @return 游标对象，首页（空字符串）返回null
+     * @throws BusinessException 游标格式错误(40001)
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(raw.substring(0, index), Long.valueOf(raw.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(40001, "分页游标无效");
+        }
+    }
+
+    /**
+     * 为查询追加游标定位条件、排序和 LIMIT
+     * <p>
+     * 多查询一条用于判断是否还有下一页，配合 {@link #nextCursor} 使用。
+     * </p>
+     *
+     * @param wrapper       查询条件
+     * @param cursor        游标字符串（空字符串表示首页）
+     * @param sortColumn    排序字段
+     * @param sortKeyParser 排序字段值解析函数，如 LocalDateTime::parse
+     * @param idColumn      ID字段（排序字段相同时的次级排序）
+     * @param ascending     是否升序
+     * @param pageSize      每页数量
+     */
+    public static <T> void seek(LambdaQueryWrapper<T> wrapper, String cursor,
+            SFunction<T, ?> sortColumn, Function<String, ?> sortKeyParser,
+            SFunction<T, ?> idColumn, boolean ascending, int pageSize) {
+        PageCursor pageCursor = decode(cursor);
+        wrapper.isNotNull(sortColumn);
+
+        if (pageCursor != null) {
+            Object sortValue = parseSortKey(pageCursor, sortKeyParser);
+            Long lastId = pageCursor.getId();
+            if (ascending) {
+                wrapper.and(w -> w.gt(sortColumn, sortValue)
+                        .or(o -> o.eq(sortColumn, sortValue).gt(idColumn, lastId)));
+            } else {
+                wrapper.and(w -> w.lt(sortColumn, sortValue)
+                        .or(o -> o.eq(sortColumn, sortValue).lt(idColumn, lastId)));
+            }
+        }
+
+        wrapper.orderBy(true, ascending, sortColumn)
+                .orderBy(true, ascending, idColumn)
+                .last("LIMIT " + (pageSize + 1));
+    }
+
+    private static Object parseSortKey(PageCursor pageCursor, Function<String, ?> sortKeyParser) {
+        try {
+            return sortKeyParser.apply(pageCursor.getSortKey());
+        } catch (RuntimeException e) {
+            throw new BusinessException(40001, "分页游标无效");
+        }
+    }
+
+    /**
+     * 截取当前页数据并生成下一页游标
+     *
+     * @param rows      按 {@link #seek} 查询得到的记录（会被截断为 pageSize 条）
+     * @param pageSize  每页数量
+     * @param sortKey   排序字段取值函数
+     * @param idGetter  ID取值函数
+     * @return 下一页游标，没有更多数据时返回null
+     */
+    public static <T> String nextCursor(List<T> rows, int pageSize, Function<T, ?> sortKey,
+            Function<T, Long> idGetter) {
+        if (rows.size() <= pageSize) {
+            return null;
+        }
+        rows.subList(pageSize, rows.size()).clear();
+        T last = rows.get(rows.size() - 1);
+        return encode(sortKey.apply(last), idGetter.apply(last));
+    }
+}
@@ -44,6 +44,16 @@ public class PageResult<T> implements Serializable {
      */
     private java.util.Map<String, Long> tabCounts;
     
+    /**
+     * 列表快照ID（用于推荐流等排行类列表，翻页时回传以保证结果一致）
+     */
+    private String snapshotId;
+    
+    /**
+     * 下一页游标（仅游标分页模式返回，为空表示没有更多数据）
+     */
+    private String nextCursor;
+    
     public PageResult() {
     }
     
@@ -75,6 +85,20 @@ public class PageResult<T> implements Serializable {
         return new PageResult<>(list, total, pageNum, pageSize);
     }
     
+    /**
+     * 游标分页结果（不返回总数）
+     *
+     * @see PageCursor
+     */
+    public static <T> PageResult<T> ofCursor(List<T> list, String nextCursor, Integer pageSize) {
+        PageResult<T> result = new PageResult<>();
+        result.setList(list);
+        result.setPageSize(pageSize);
+        result.setNextCursor(nextCursor);
+        result.setHasMore(nextCursor != null);
+        return result;
+    }
+    
     /**
      * 空分页结果
      */
@@ -0,0 +1,72 @@
+package com.businessreviews.model.dataobject;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商家评分统计数据映射对象
+ * <p>
+ * 对应数据库表 shop_rating_stats，存储商家正常状态评价的评分累计值和评价数，
+ * 各维度平均分 = 累计值 / 对应评价数
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Data
+@TableName("shop_rating_stats")
+public class ShopRatingStatsDO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 商家ID
+     */
+    @TableId(value = "shop_id", type = IdType.INPUT)
+    private Long shopId;
+
+    /**
+     * 正常状态评价数
+     */
+    private Integer reviewCount;
+
+    /**
+     * 综合评分累计
+     */
+    private BigDecimal ratingSum;
+
+    /**
+     * 口味评分累计
+     */
+    private BigDecimal tasteSum;
+
+    /**
+     * 有口味评分的评价数
+     */
+    private Integer tasteCount;
+
+    /**
+     * 环境评分累计
+     */
+    private BigDecimal environmentSum;
+
+    /**
+     * 有环境评分的评价数
+     */
+    private Integer environmentCount;
+
+    /**
+     * 服务评分累计
+     */
+    private BigDecimal serviceSum;
+
+    /**
+     * 有服务评分的评价数
+     */
+    private Integer serviceCount;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,39 @@
+package com.businessreviews.model.dto;
+
+import lombok.Data;
+
+/**
+ * 计数增量传输对象
+ * <p>
+ * 计数服务合并后的待落库增量，一条记录对应一篇笔记（notes.id）或一个用户（user_stats.user_id），
+ * 用于批量 UPDATE。
+ * </p>
+ */
+@Data
+public class CounterDeltaDTO {
+
+    /**
+     * 笔记ID或用户ID
+     */
+    private Long id;
+
+    /**
+     * 点赞数增量
+     */
+    private Integer likeDelta = 0;
+
+    /**
+     * 收藏数增量
+     */
+    private Integer favoriteDelta = 0;
+
+    /**
+     * 评论数增量
+     */
+    private Integer commentDelta = 0;
+
+    /**
+     * 浏览数增量
+     */
+    private Integer viewDelta = 0;
+}
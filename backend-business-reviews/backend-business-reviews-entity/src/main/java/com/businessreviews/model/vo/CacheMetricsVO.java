@@ -0,0 +1,49 @@
+package com.businessreviews.model.vo;
+
+import com.businessreviews.cache.HotKeyCache;
+import com.businessreviews.cache.TieredCache;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 缓存运行指标展示对象
+ * <p>
+ * 包含本实例的热点Key探测结果、各二级缓存命中率和回源合并统计，以及写回式计数的落库状态和浏览事件管道的队列指标
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Data
+public class CacheMetricsVO implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    /** 热点Key统计 */
+    private HotKeyCache.Stats hotKeys;
+    /** 二级缓存命中率统计 */
+    private List<TieredCache.Stats> tieredCaches;
+    /** 合并到其他线程回源结果的请求数 */
+    private Long coalescedLoads;
+    /** 提前刷新次数 */
+    private Long earlyRefreshes;
+    /** 等待其他实例租约的次数 */
+    private Long leaseWaits;
+    /** 计数落库延迟（毫秒，最早一条未落库增量距今的时间） */
+    private Long counterFlushLagMillis;
+    /** 最近一次计数落库的时间戳 */
+    private Long counterLastFlushAt;
+    /** 最近一次计数落库写入的行数 */
+    private Long counterLastFlushRows;
+    /** 浏览事件管道已接收的事件数 */
+    private Long viewAccepted;
+    /** 浏览事件管道去重合并的事件数 */
+    private Long viewDeduped;
+    /** 浏览事件管道队列满丢弃的事件数 */
+    private Long viewDropped;
+    /** 浏览事件管道当前队列长度 */
+    private Integer viewQueueSize;
+    /** 浏览事件管道队列长度高水位（当前指标日志周期内） */
+    private Integer viewQueueHighWatermark;
+}
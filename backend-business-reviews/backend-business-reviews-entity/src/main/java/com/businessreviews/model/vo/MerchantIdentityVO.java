@@ -0,0 +1,31 @@
+package com.businessreviews.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 商家身份VO
+ * <p>
+ * 用于缓存的商家身份信息：商家端请求认证（商家ID -> 身份）
+ * 和用户端发布笔记时识别商家账号（用户ID -> 身份）。
+ * 用户不是商家时 merchantId 为空，同样缓存，避免重复查询。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantIdentityVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 商家ID，用户不是商家时为空 */
+    private Long merchantId;
+
+    /** 商家状态 */
+    private Integer status;
+}
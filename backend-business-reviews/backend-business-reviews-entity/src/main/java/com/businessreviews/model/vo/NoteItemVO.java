@@ -1,5 +1,6 @@
 package com.businessreviews.model.vo;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import java.io.Serial;
@@ -39,4 +40,16 @@ public class NoteItemVO implements Serializable {
     private String shopId;
     private String shopName;
     private Integer noteType; // 1用户笔记，2商家笔记
+
+    private String distance; // 距离（仅附近笔记返回）
+
+    // 当前用户互动状态（列表本身与用户无关，返回前按用户叠加）
+    @JsonProperty("isLiked")
+    private Boolean liked; // 是否已点赞
+
+    @JsonProperty("isBookmarked")
+    private Boolean bookmarked; // 是否已收藏
+
+    @JsonProperty("isFollowing")
+    private Boolean following; // 是否关注作者
 }
@@ -0,0 +1,124 @@
+package com.businessreviews.common;
+
+import com.businessreviews.exception.BusinessException;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * PageCursor属性测试
+ *
+ * 验证游标编码解码互逆，以及 nextCursor 在页边界上的截断和下一页游标生成
+ */
+@PropertyDefaults(tries = 100)
+class PageCursorPropertyTest {
+
+    /**
+     * 编码后再解码 SHALL 得到原排序字段值和ID（排序字段中包含分隔符也不影响）
+     */
+    @Property
+    void decodeReversesEncode(
+            @ForAll @AlphaChars @NumericChars @Chars({'|', ':', '-', '.', ' ', '中'})
+            @StringLength(min = 0, max = 50) String sortKey,
+            @ForAll Long id
+    ) {
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(sortKey, id));
+
+        assertThat(cursor).isNotNull();
+        assertThat(cursor.getSortKey()).isEqualTo(sortKey);
+        assertThat(cursor.getId()).isEqualTo(id);
+    }
+
+    /**
+     * 游标 SHALL 只包含URL安全字符，可直接作为查询参数
+     */
+    @Property
+    void encodedCursorIsUrlSafe(@ForAll @StringLength(max = 30) @AlphaChars String sortKey, @ForAll Long id) {
+        assertThat(PageCursor.encode(sortKey, id)).matches("[A-Za-z0-9_-]+");
+    }
+
+    /**
+     * BigDecimal 排序字段 SHALL 按普通数字格式编码，不使用科学计数法
+     */
+    @Example
+    void bigDecimalSortKeyUsesPlainString() {
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(new BigDecimal("1E+3"), 7L));
+
+        assertThat(cursor.getSortKey()).isEqualTo("1000");
+        assertThat(cursor.getId()).isEqualTo(7L);
+    }
+
+    /**
+     * 首页游标（null或空字符串）解码为null
+     */
+    @Example
+    void emptyCursorMeansFirstPage() {
+        assertThat(PageCursor.decode(null)).isNull();
+        assertThat(PageCursor.decode("")).isNull();
+    }
+
+    /**
+     * 格式错误的游标 SHALL 抛出 40001 业务异常
+     */
+    @Example
+    void malformedCursorIsRejected() {
+        String noSeparator = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-01-01".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-01-01|abc".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("***", noSeparator, badId)) {
+            assertThatThrownBy(() -> PageCursor.decode(cursor))
+                    .isInstanceOf(BusinessException.class)
+                    .extracting("code").isEqualTo(40001);
+        }
+    }
+
+    /**
+     * 查询结果不超过 pageSize 条时 SHALL 没有下一页，且不截断结果
+     */
+    @Property
+    void noNextCursorWithinPageSize(
+            @ForAll @IntRange(min = 1, max = 50) int pageSize,
+            @ForAll @IntRange(min = 0, max = 50) int rowCount
+    ) {
+        Assume.that(rowCount <= pageSize);
+        List<Long> rows = rows(rowCount);
+
+        String next = PageCursor.nextCursor(rows, pageSize, id -> id * 10, id -> id);
+
+        assertThat(next).isNull();
+        assertThat(rows).hasSize(rowCount);
+    }
+
+    /**
+     * 多查出的一条 SHALL 被截掉，下一页游标指向当前页最后一条记录
+     */
+    @Property
+    void nextCursorPointsAtLastRowOfPage(@ForAll @IntRange(min = 1, max = 50) int pageSize) {
+        List<Long> rows = rows(pageSize + 1);
+
+        String next = PageCursor.nextCursor(rows, pageSize, id -> id * 10, id -> id);
+
+        assertThat(rows).hasSize(pageSize);
+        PageCursor cursor = PageCursor.decode(next);
+        assertThat(cursor.getId()).isEqualTo((long) pageSize);
+        assertThat(cursor.getSortKey()).isEqualTo(String.valueOf(pageSize * 10L));
+    }
+
+    private static List<Long> rows(int count) {
+        List<Long> rows = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            rows.add(id);
+        }
+        return rows;
+    }
+}
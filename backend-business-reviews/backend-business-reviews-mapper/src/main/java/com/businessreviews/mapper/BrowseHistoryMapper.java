@@ -2,8 +2,30 @@ package com.businessreviews.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.businessreviews.model.dataobject.BrowseHistoryDO;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface BrowseHistoryMapper extends BaseMapper<BrowseHistoryDO> {
+
+    /**
+     * 批量写入浏览历史，同一用户同一目标已有记录时只刷新浏览时间
+     * <p>
+     * 依赖唯一索引 uk_user_target(user_id, target_type, target_id)。
+     * </p>
+     *
+     * @param list 浏览记录
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO user_browse_history (user_id, target_type, target_id, created_at) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.userId}, #{item.type}, #{item.targetId}, #{item.createdAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE created_at = GREATEST(created_at, VALUES(created_at))" +
+            "</script>")
+    int upsertBatch(@Param("list") List<BrowseHistoryDO> list);
 }
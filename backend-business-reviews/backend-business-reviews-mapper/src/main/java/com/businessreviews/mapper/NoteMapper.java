@@ -2,6 +2,7 @@ package com.businessreviews.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.businessreviews.model.dataobject.NoteDO;
+import com.businessreviews.model.dto.CounterDeltaDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
@@ -39,6 +40,36 @@ public interface NoteMapper extends BaseMapper<NoteDO> {
     @Update("UPDATE notes SET favorite_count = favorite_count - 1 WHERE id = #{id} AND favorite_count > 0")
     int decrementFavoriteCount(@Param("id") Long id);
     
+    /**
+     * 批量累加笔记计数（计数服务定时落库使用）
+     * <p>
+     * 一条语句按 CASE 分支更新多篇笔记的点赞、收藏、评论、浏览数，结果不小于0；
+     * 显式保留 updated_at，计数变化不视为内容更新。
+     * </p>
+     *
+     * @param deltas 每篇笔记的合并增量
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE notes SET " +
+            "like_count = GREATEST(like_count + CASE id " +
+            "<foreach collection='deltas' item='item'>WHEN #{item.id} THEN #{item.likeDelta} </foreach>" +
+            "ELSE 0 END, 0), " +
+            "favorite_count = GREATEST(favorite_count + CASE id " +
+            "<foreach collection='deltas' item='item'>WHEN #{item.id} THEN #{item.favoriteDelta} </foreach>" +
+            "ELSE 0 END, 0), " +
+            "comment_count = GREATEST(comment_count + CASE id " +
+            "<foreach collection='deltas' item='item'>WHEN #{item.id} THEN #{item.commentDelta} </foreach>" +
+            "ELSE 0 END, 0), " +
+            "view_count = GREATEST(view_count + CASE id " +
+            "<foreach collection='deltas' item='item'>WHEN #{item.id} THEN #{item.viewDelta} </foreach>" +
+            "ELSE 0 END, 0), " +
+            "updated_at = updated_at " +
+            "WHERE id IN " +
+            "<foreach collection='deltas' item='item' open='(' separator=',' close=')'>#{item.id}</foreach>" +
+            "</script>")
+    int batchAddCounts(@Param("deltas") List<CounterDeltaDTO> deltas);
+    
     /**
      * 根据用户ID查询笔记列表
      * 
@@ -0,0 +1,82 @@
+package com.businessreviews.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.businessreviews.model.dataobject.ShopRatingStatsDO;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface ShopRatingStatsMapper extends BaseMapper<ShopRatingStatsDO> {
+
+    /**
+     * 累加商家评分统计（统计行不存在时创建）
+     *
+     * @param delta 各字段的增量（可为负数）
+     */
+    @Insert("INSERT INTO shop_rating_stats (shop_id, review_count, rating_sum, taste_sum, taste_count, " +
+            "environment_sum, environment_count, service_sum, service_count) VALUES " +
+            "(#{delta.shopId}, #{delta.reviewCount}, #{delta.ratingSum}, #{delta.tasteSum}, #{delta.tasteCount}, " +
+            "#{delta.environmentSum}, #{delta.environmentCount}, #{delta.serviceSum}, #{delta.serviceCount})" +
+            " ON DUPLICATE KEY UPDATE review_count = review_count + VALUES(review_count)," +
+            " rating_sum = rating_sum + VALUES(rating_sum)," +
+            " taste_sum = taste_sum + VALUES(taste_sum), taste_count = taste_count + VALUES(taste_count)," +
+            " environment_sum = environment_sum + VALUES(environment_sum)," +
+            " environment_count = environment_count + VALUES(environment_count)," +
+            " service_sum = service_sum + VALUES(service_sum), service_count = service_count + VALUES(service_count)")
+    int addDelta(@Param("delta") ShopRatingStatsDO delta);
+
+    /**
+     * 按商家正常状态的评价重新统计（单条 INSERT ... SELECT 语句，没有评价时统计清零）
+     *
+     * @param shopId 商家ID
+     */
+    @Insert("INSERT INTO shop_rating_stats (shop_id, review_count, rating_sum, taste_sum, taste_count, " +
+            "environment_sum, environment_count, service_sum, service_count) " +
+            "SELECT #{shopId}, COUNT(*), IFNULL(SUM(rating), 0), " +
+            "IFNULL(SUM(taste_score), 0), COUNT(taste_score), " +
+            "IFNULL(SUM(environment_score), 0), COUNT(environment_score), " +
+            "IFNULL(SUM(service_score), 0), COUNT(service_score) " +
+            "FROM shop_reviews WHERE shop_id = #{shopId} AND status = 1" +
+            " ON DUPLICATE KEY UPDATE review_count = VALUES(review_count), rating_sum = VALUES(rating_sum)," +
+            " taste_sum = VALUES(taste_sum), taste_count = VALUES(taste_count)," +
+            " environment_sum = VALUES(environment_sum), environment_count = VALUES(environment_count)," +
+            " service_sum = VALUES(service_sum), service_count = VALUES(service_count)")
+    int recalculate(@Param("shopId") Long shopId);
+
+    /**
+     * 按统计值刷新商家的评分和评价数（平均分保留两位小数，没有评价的维度为5.00）
+     *
+     * @param shopId 商家ID
+     */
+    @Update("UPDATE shops s JOIN shop_rating_stats t ON t.shop_id = s.id SET " +
+            "s.rating = IF(t.review_count > 0, ROUND(t.rating_sum / t.review_count, 2), 5.00), " +
+            "s.taste_score = IF(t.taste_count > 0, ROUND(t.taste_sum / t.taste_count, 2), 5.00), " +
+            "s.environment_score = IF(t.environment_count > 0, " +
+            "ROUND(t.environment_sum / t.environment_count, 2), 5.00), " +
+            "s.service_score = IF(t.service_count > 0, ROUND(t.service_sum / t.service_count, 2), 5.00), " +
+            "s.review_count = t.review_count " +
+            "WHERE s.id = #{shopId}")
+    int syncShopRating(@Param("shopId") Long shopId);
+
+    /**
+     * 按评价表统计一批商家（对账用，只返回有正常状态评价的商家）
+     *
+     * @param shopIds 商家ID
+     */
+    @Select("<script>" +
+            "SELECT shop_id, COUNT(*) AS review_count, SUM(rating) AS rating_sum, " +
+            "IFNULL(SUM(taste_score), 0) AS taste_sum, COUNT(taste_score) AS taste_count, " +
+            "IFNULL(SUM(environment_score), 0) AS environment_sum, COUNT(environment_score) AS environment_count, " +
+            "IFNULL(SUM(service_score), 0) AS service_sum, COUNT(service_score) AS service_count " +
+            "FROM shop_reviews WHERE status = 1 AND shop_id IN " +
+            "<foreach collection='shopIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY shop_id" +
+            "</script>")
+    List<ShopRatingStatsDO> aggregateByShopIds(@Param("shopIds") Collection<Long> shopIds);
+}
@@ -2,9 +2,14 @@ package com.businessreviews.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.businessreviews.model.dataobject.TopicDO;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
+import java.util.Map;
+
 @Mapper
 public interface TopicMapper extends BaseMapper<TopicDO> {
     
@@ -19,4 +24,31 @@ public interface TopicMapper extends BaseMapper<TopicDO> {
      */
     @Update("UPDATE topics SET note_count = note_count - 1 WHERE id = #{topicId} AND note_count > 0")
     void decrementNoteCount(Long topicId);
+
+    /**
+     * 批量创建话题（单条语句，名称已存在的跳过）
+     *
+     * @param names 话题名称
+     * @return 新创建的话题数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO topics (name, note_count, view_count, is_hot, status) VALUES " +
+            "<foreach collection='names' item='name' separator=','>(#{name}, 0, 0, 0, 1)</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("names") Collection<String> names);
+
+    /**
+     * 批量累加话题的笔记数量（单条 UPDATE ... CASE 语句，结果不小于0）
+     *
+     * @param deltas 话题ID -> 增量
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE topics SET note_count = GREATEST(note_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "ELSE 0 END, 0) " +
+            "WHERE id IN " +
+            "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int batchAddNoteCounts(@Param("deltas") Map<Long, Integer> deltas);
 }
@@ -2,11 +2,14 @@ package com.businessreviews.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.businessreviews.model.dataobject.UserStatsDO;
+import com.businessreviews.model.dto.CounterDeltaDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.List;
+
 @Mapper
 public interface UserStatsMapper extends BaseMapper<UserStatsDO> {
     
@@ -42,4 +45,23 @@ public interface UserStatsMapper extends BaseMapper<UserStatsDO> {
     
     @Update("UPDATE user_stats SET favorite_count = favorite_count - 1 WHERE user_id = #{userId} AND favorite_count > 0")
     int decrementFavoriteCount(@Param("userId") Long userId);
+    
+    /**
+     * 批量累加用户获赞数、收藏数（计数服务定时落库使用），结果不小于0
+     *
+     * @param deltas 每个用户的合并增量，id 为用户ID
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE user_stats SET " +
+            "like_count = GREATEST(like_count + CASE user_id " +
+            "<foreach collection='deltas' item='item'>WHEN #{item.id} THEN #{item.likeDelta} </foreach>" +
+            "ELSE 0 END, 0), " +
+            "favorite_count = GREATEST(favorite_count + CASE user_id " +
+            "<foreach collection='deltas' item='item'>WHEN #{item.id} THEN #{item.favoriteDelta} </foreach>" +
+            "ELSE 0 END, 0) " +
+            "WHERE user_id IN " +
+            "<foreach collection='deltas' item='item' open='(' separator=',' close=')'>#{item.id}</foreach>" +
+            "</script>")
+    int batchAddCounts(@Param("deltas") List<CounterDeltaDTO> deltas);
 }
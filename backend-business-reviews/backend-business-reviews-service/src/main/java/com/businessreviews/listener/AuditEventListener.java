@@ -5,6 +5,11 @@ import com.businessreviews.event.NoteCreatedEvent;
 import com.businessreviews.model.dto.ai.AuditResult;
 import com.businessreviews.service.ai.ContentSecurityService;
 import com.businessreviews.service.app.MessageService;
+import com.businessreviews.service.impl.common.NoteDetailCacheService;
+import com.businessreviews.service.impl.common.NoteGeoIndexService;
+import com.businessreviews.service.impl.common.NoteRankingService;
+import com.businessreviews.service.impl.common.NoteSearchIndex;
+import com.businessreviews.service.impl.common.NoteTimelineService;
 import com.businessreviews.mapper.NoteMapper;
 import com.businessreviews.mapper.CommentMapper;
 import com.businessreviews.model.dataobject.NoteDO;
@@ -43,6 +48,11 @@ public class AuditEventListener {
     private final MessageService messageService;
     private final NoteMapper noteMapper;
     private final CommentMapper commentMapper;
+    private final NoteRankingService noteRankingService;
+    private final NoteTimelineService noteTimelineService;
+    private final NoteGeoIndexService noteGeoIndexService;
+    private final NoteSearchIndex noteSearchIndex;
+    private final NoteDetailCacheService noteDetailCacheService;
 
     /**
      * 异步审核笔记内容
@@ -76,11 +86,20 @@ public class AuditEventListener {
                 // 审核通过：状态更新为正常/已发布
                 note.setStatus(NoteStatus.NORMAL.getCode());
                 noteMapper.updateById(note);
+                noteRankingService.updateNote(note);
+                noteTimelineService.publishNote(note);
+                noteGeoIndexService.updateNote(note);
+                noteSearchIndex.updateNote(note);
+                noteDetailCacheService.invalidate(note.getId());
                 log.info("笔记 [{}] 审核通过，已发布", noteId);
             } else {
                 // 审核不通过：状态更新为隐藏/已拒绝
                 note.setStatus(NoteStatus.HIDDEN.getCode());
                 noteMapper.updateById(note);
+                noteRankingService.removeNote(noteId);
+                noteGeoIndexService.removeNote(noteId);
+                noteSearchIndex.removeNote(noteId);
+                noteDetailCacheService.invalidate(noteId);
                 log.warn("笔记 [{}] 审核不通过，类型: {}, 原因: {}, 建议: {}",
                         noteId, result.getType(), result.getReason(), result.getSuggestion());
 
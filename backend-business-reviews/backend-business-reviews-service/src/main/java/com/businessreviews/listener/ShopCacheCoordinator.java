@@ -0,0 +1,102 @@
+package com.businessreviews.listener;
+
+import com.businessreviews.cache.TieredCacheManager;
+import com.businessreviews.cache.TieredCacheNames;
+import com.businessreviews.event.ReviewChangedEvent;
+import com.businessreviews.event.ShopChangedEvent;
+import com.businessreviews.exception.BusinessException;
+import com.businessreviews.service.app.ShopService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+/**
+ * 店铺缓存协调器
+ * 监听店铺和评价变更事件，统一维护店铺详情、列表项二级缓存
+ *
+ * 设计说明：
+ * 1. 使用 @TransactionalEventListener 在发布事务提交后处理，重新加载时一定能读到新数据；
+ *    不在事务中发布的事件立即处理
+ * 2. 使用 @Async 在独立线程中清除并预热缓存，不增加写请求的耗时
+ * 3. 清除时同时删除 Redis 缓存并广播其他实例清除本地缓存（见 TieredCache）
+ * 4. 延迟双删：提交前已读到旧数据的并发请求可能在第一次清除之后才把旧值写回缓存，
+ *    因此在 {@link #SECOND_EVICT_DELAY_MILLIS} 后再清除一次，之后才重新加载店铺详情预热；
+ *    已删除或暂停营业的店铺不预热
+ * 5. 商家回复不影响店铺详情和列表项中的字段，不处理
+ *
+ * 缓存一致性由变更事件和延迟双删保证，店铺缓存的过期时间只作为兜底。
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShopCacheCoordinator {
+
+    private final TieredCacheManager tieredCacheManager;
+    private final ShopService shopService;
+    private final TaskScheduler taskScheduler;
+
+    /** 第二次清除的延迟（毫秒），需大于一次回源读库并写回缓存的耗时 */
+    private static final long SECOND_EVICT_DELAY_MILLIS = 1000L;
+
+    /**
+     * 店铺信息、状态、评分变更
+     */
+    @Async("asyncExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleShopChanged(ShopChangedEvent event) {
+        refresh(event.getShopId(), event.getChangeType() != ShopChangedEvent.ChangeType.DELETED);
+    }
+
+    /**
+     * 评价发表、删除（评分和评价数变化）
+     */
+    @Async("asyncExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleReviewChanged(ReviewChangedEvent event) {
+        if (event.getChangeType().affectsRating()) {
+            refresh(event.getShopId(), true);
+        }
+    }
+
+    private void refresh(Long shopId, boolean reload) {
+        if (shopId == null) {
+            return;
+        }
+        evict(shopId);
+        try {
+            taskScheduler.schedule(() -> {
+                evict(shopId);
+                if (reload) {
+                    warmUp(shopId);
+                }
+            }, Instant.now().plusMillis(SECOND_EVICT_DELAY_MILLIS));
+        } catch (Exception e) {
+            log.warn("店铺缓存延迟清除提交失败: shopId={}, error={}", shopId, e.getMessage());
+        }
+    }
+
+    private void evict(Long shopId) {
+        String key = shopId.toString();
+        tieredCacheManager.evict(TieredCacheNames.SHOP_DETAIL, key);
+        tieredCacheManager.evict(TieredCacheNames.SHOP_ITEM, key);
+    }
+
+    private void warmUp(Long shopId) {
+        try {
+            shopService.getShopDetail(shopId, null);
+            log.debug("店铺缓存已刷新: shopId={}", shopId);
+        } catch (BusinessException e) {
+            // 店铺不存在或暂停营业，不缓存
+            log.debug("店铺不可访问，跳过预热: shopId={}, reason={}", shopId, e.getMessage());
+        } catch (Exception e) {
+            log.warn("店铺缓存预热失败: shopId={}, error={}", shopId, e.getMessage());
+        }
+    }
+}
@@ -32,11 +32,13 @@ public interface MessageService extends IService<MessageDO> {
      * 
      * @param userId       当前用户ID
      * @param targetUserId 对方用户ID
+     * @param cursor       分页游标（非空时使用游标分页，首页传空字符串）
      * @param pageNum      页码
      * @param pageSize     每页大小
      * @return 消息列表分页数据
      */
-    PageResult<MessageVO> getChatHistory(Long userId, Long targetUserId, Integer pageNum, Integer pageSize);
+    PageResult<MessageVO> getChatHistory(Long userId, Long targetUserId, String cursor, Integer pageNum,
+            Integer pageSize);
 
     /**
      * 发送消息
@@ -7,6 +7,8 @@ import com.businessreviews.model.vo.NoteDetailVO;
 import com.businessreviews.model.vo.NoteItemVO;
 import com.businessreviews.model.dataobject.NoteDO;
 
+import java.util.List;
+
 /**
  * 用户端笔记服务接口
  * <p>
@@ -20,42 +22,47 @@ public interface NoteService extends IService<NoteDO> {
     /**
      * 获取推荐笔记列表
      * 
-     * @param pageNum  页码
-     * @param pageSize 每页大小
+     * @param snapshotId 推荐流快照ID（首页为空，翻页时回传上一页返回的快照ID）
+     * @param pageNum    页码
+     * @param pageSize   每页大小
      * @return 推荐笔记列表分页数据
      */
-    PageResult<NoteItemVO> getRecommendedNotes(Integer pageNum, Integer pageSize);
+    PageResult<NoteItemVO> getRecommendedNotes(String snapshotId, Integer pageNum, Integer pageSize);
 
     /**
      * 获取用户笔记列表
      * 
      * @param userId   用户ID
+     * @param cursor   分页游标（非空时使用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页大小
      * @return 用户笔记列表分页数据
      */
-    PageResult<NoteItemVO> getUserNotes(Long userId, Integer pageNum, Integer pageSize);
+    PageResult<NoteItemVO> getUserNotes(Long userId, String cursor, Integer pageNum, Integer pageSize);
 
     /**
      * 获取用户点赞的笔记列表
      * 
      * @param userId   用户ID
+     * @param cursor   分页游标（非空时使用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页大小
      * @return 点赞笔记列表分页数据
      */
-    PageResult<NoteItemVO> getLikedNotes(Long userId, Integer pageNum, Integer pageSize);
+    PageResult<NoteItemVO> getLikedNotes(Long userId, String cursor, Integer pageNum, Integer pageSize);
 
     /**
      * 获取探索页笔记列表
      * 
      * @param categoryId 分类ID
      * @param sortBy     排序方式
+     * @param cursor     分页游标（非空时使用游标分页，首页传空字符串）
      * @param pageNum    页码
      * @param pageSize   每页大小
      * @return 探索页笔记列表分页数据
      */
-    PageResult<NoteItemVO> getExploreNotes(Long categoryId, String sortBy, Integer pageNum, Integer pageSize);
+    PageResult<NoteItemVO> getExploreNotes(Long categoryId, String sortBy, String cursor, Integer pageNum,
+            Integer pageSize);
 
     /**
      * 获取附近笔记列表
@@ -80,6 +87,17 @@ public interface NoteService extends IService<NoteDO> {
      */
     PageResult<NoteItemVO> getFollowingNotes(Long userId, Integer pageNum, Integer pageSize);
 
+    /**
+     * 为笔记列表叠加当前用户的互动状态（是否点赞、收藏、关注作者）
+     * <p>
+     * 列表查询结果与用户无关，可在用户间共享；返回前调用本方法按用户一次性批量叠加。
+     * </p>
+     *
+     * @param userId 当前用户ID（未登录时全部为false）
+     * @param items  笔记列表
+     */
+    void annotateInteractionState(Long userId, List<NoteItemVO> items);
+
     /**
      * 获取笔记详情
      * 
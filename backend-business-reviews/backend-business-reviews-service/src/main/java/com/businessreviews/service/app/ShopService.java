@@ -24,12 +24,13 @@ public interface ShopService extends IService<ShopDO> {
          * @param categoryId 分类ID
          * @param keyword    关键词
          * @param sortBy     排序方式
+         * @param cursor     分页游标（非空时使用游标分页，首页传空字符串）
          * @param pageNum    页码
          * @param pageSize   每页大小
          * @return 商家列表分页数据
          */
-        PageResult<ShopItemVO> getShopList(Long categoryId, String keyword, String sortBy, Integer pageNum,
-                        Integer pageSize);
+        PageResult<ShopItemVO> getShopList(Long categoryId, String keyword, String sortBy, String cursor,
+                        Integer pageNum, Integer pageSize);
 
         /**
          * 获取附近商家
@@ -69,11 +70,12 @@ public interface ShopService extends IService<ShopDO> {
          * 获取商家笔记列表
          * 
          * @param shopId   商家ID
+         * @param cursor   分页游标（非空时使用游标分页，首页传空字符串）
          * @param pageNum  页码
          * @param pageSize 每页大小
          * @return 商家关联笔记列表分页数据
          */
-        PageResult<Object> getShopNotes(Long shopId, Integer pageNum, Integer pageSize);
+        PageResult<Object> getShopNotes(Long shopId, String cursor, Integer pageNum, Integer pageSize);
 
         /**
          * 收藏商家
@@ -104,12 +106,14 @@ public interface ShopService extends IService<ShopDO> {
          * 获取商家评价列表
          * 
          * @param shopId   商家ID
+         * @param cursor   分页游标（非空时使用游标分页，首页传空字符串）
          * @param pageNum  页码
          * @param pageSize 每页大小
          * @param sortBy   排序方式
          * @return 商家评价列表分页数据
          */
-        PageResult<Object> getShopReviews(Long shopId, Integer pageNum, Integer pageSize, String sortBy);
+        PageResult<Object> getShopReviews(Long shopId, String cursor, Integer pageNum, Integer pageSize,
+                        String sortBy);
 
         /**
          * 发表商家评价
@@ -125,9 +129,10 @@ public interface ShopService extends IService<ShopDO> {
          * 用于笔记发布时关联商户
          * 
          * @param keyword  搜索关键词
+         * @param cursor   分页游标（非空时使用游标分页，首页传空字符串）
          * @param pageNum  页码
          * @param pageSize 每页大小
          * @return 已注册商户列表分页数据
          */
-        PageResult<ShopItemVO> getRegisteredShops(String keyword, Integer pageNum, Integer pageSize);
+        PageResult<ShopItemVO> getRegisteredShops(String keyword, String cursor, Integer pageNum, Integer pageSize);
 }
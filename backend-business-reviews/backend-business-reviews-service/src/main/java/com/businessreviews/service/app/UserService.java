@@ -85,11 +85,12 @@ public interface UserService extends IService<UserDO> {
      * 获取浏览历史
      * 
      * @param userId   用户ID
+     * @param cursor   分页游标（非空时使用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页大小
      * @return 浏览历史列表分页数据
      */
-    PageResult<HistoryItemVO> getBrowseHistory(Long userId, Integer pageNum, Integer pageSize);
+    PageResult<HistoryItemVO> getBrowseHistory(Long userId, String cursor, Integer pageNum, Integer pageSize);
 
     /**
      * 关注用户
@@ -0,0 +1,21 @@
+package com.businessreviews.service.common;
+
+import com.businessreviews.model.vo.CacheMetricsVO;
+
+/**
+ * 缓存运行指标服务接口
+ * <p>
+ * 提供本实例热点Key、二级缓存命中率等缓存指标，用于运维排查
+ * </p>
+ *
+ * @author businessreviews
+ */
+public interface CacheMetricsService {
+
+    /**
+     * 获取本实例的缓存运行指标
+     *
+     * @return 缓存运行指标
+     */
+    CacheMetricsVO getCacheMetrics();
+}
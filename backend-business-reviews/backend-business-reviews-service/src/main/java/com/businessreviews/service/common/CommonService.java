@@ -73,12 +73,20 @@ public interface CommonService {
     /**
      * 获取热门搜索词
      * <p>
-     * 基于搜索热度统计
+     * 基于滑动窗口内的搜索次数统计
      * </p>
      *
+     * @param window 统计窗口（1h / 24h / 7d），为空时以近1小时为主，不足时依次用24小时、7天补齐
      * @return 热搜词列表
      */
-    List<String> getHotSearches();
+    List<String> getHotSearches(String window);
+
+    /**
+     * 记录一次搜索，计入热门搜索统计
+     *
+     * @param keyword 搜索关键词
+     */
+    void recordSearch(String keyword);
 
     /**
      * 根据IP地址获取城市信息
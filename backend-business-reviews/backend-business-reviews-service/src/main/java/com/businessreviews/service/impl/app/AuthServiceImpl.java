@@ -17,6 +17,7 @@ import com.businessreviews.mapper.UserMapper;
 import com.businessreviews.mapper.UserStatsMapper;
 import com.businessreviews.mapper.VerificationCodeMapper;
 import com.businessreviews.enums.UserStatus;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
 import com.businessreviews.service.app.AuthService;
 import com.businessreviews.util.JwtUtil;
 import com.businessreviews.util.RedisUtil;
@@ -56,6 +57,8 @@ public class AuthServiceImpl implements AuthService {
     private final JwtUtil jwtUtil;
     /** 短信工具类 */
     private final SmsUtil smsUtil;
+    /** 实体ID过滤服务 */
+    private final EntityIdFilterService entityIdFilterService;
 
     /** 手机号正则校验模式 (1开头，第二位3-9，11位数字) */
     private static final Pattern PHONE_PATTERN = Pattern.compile("^1[3-9]\\d{9}$");
@@ -310,6 +313,7 @@ public class AuthServiceImpl implements AuthService {
         user.setStatus(UserStatus.NORMAL.getCode()); // 状态：正常
 
         int insertResult = userMapper.insert(user);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.USER, user.getId());
         log.info("用户插入结果: {}, 用户ID: {}", insertResult, user.getId());
 
         // 2. 初始化用户统计记录
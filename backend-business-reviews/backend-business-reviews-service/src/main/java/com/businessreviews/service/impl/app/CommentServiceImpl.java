@@ -14,10 +14,14 @@ import com.businessreviews.enums.CommentStatus;
 import com.businessreviews.enums.NoteStatus;
 import com.businessreviews.service.app.CommentService;
 import com.businessreviews.service.app.MessageService;
+import com.businessreviews.service.impl.common.NoteCounterService;
+import com.businessreviews.service.impl.common.NoteRankingService;
+import com.businessreviews.service.impl.common.UserInteractionService;
 import com.businessreviews.util.TimeUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -51,6 +55,9 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
     private final CommentLikeMapper commentLikeMapper;
     private final MessageService messageService;
     private final ApplicationEventPublisher eventPublisher;
+    private final NoteRankingService noteRankingService;
+    private final NoteCounterService noteCounterService;
+    private final UserInteractionService userInteractionService;
 
     /**
      * 获取笔记的一级评论列表
@@ -159,7 +166,8 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
         commentMapper.insert(comment);
 
         // 更新笔记评论数
-        noteMapper.incrementCommentCount(note.getId());
+        noteCounterService.incrementNote(note.getId(), NoteCounterService.CounterField.COMMENT, 1);
+        noteRankingService.markDirty(note.getId());
 
         // 发送评论通知
         if (!userId.equals(note.getUserId())) {
@@ -208,7 +216,8 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
         commentMapper.updateById(comment);
 
         // 更新笔记评论数
-        noteMapper.decrementCommentCount(comment.getNoteId());
+        noteCounterService.incrementNote(comment.getNoteId(), NoteCounterService.CounterField.COMMENT, -1);
+        noteRankingService.markDirty(comment.getNoteId());
 
         // 如果是回复，更新父评论的回复数
         if (comment.getParentId() != null) {
@@ -241,7 +250,13 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
         CommentLikeDO like = new CommentLikeDO();
         like.setUserId(userId);
         like.setCommentId(commentId);
-        commentLikeMapper.insert(like);
+        try {
+            commentLikeMapper.insert(like);
+        } catch (DuplicateKeyException e) {
+            // 互动集合是最终一致的，以唯一索引 uk_user_comment 为准
+            throw new BusinessException(40001, "已点赞");
+        }
+        userInteractionService.add(userId, UserInteractionService.InteractionType.COMMENT_LIKE, commentId);
 
         // 更新评论点赞数
         commentMapper.incrementLikeCount(commentId);
@@ -265,18 +280,14 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
             throw new BusinessException(40402, "评论不存在");
         }
 
-        // 检查是否已点赞
         LambdaQueryWrapper<CommentLikeDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(CommentLikeDO::getUserId, userId)
                 .eq(CommentLikeDO::getCommentId, commentId);
-        CommentLikeDO like = commentLikeMapper.selectOne(wrapper);
-
-        if (like == null) {
+        // 删除点赞记录，未删除到说明未点赞（或已被并发请求取消）
+        if (commentLikeMapper.delete(wrapper) == 0) {
             throw new BusinessException(40001, "未点赞");
         }
-
-        // 删除点赞记录
-        commentLikeMapper.deleteById(like.getId());
+        userInteractionService.remove(userId, UserInteractionService.InteractionType.COMMENT_LIKE, commentId);
 
         // 更新评论点赞数
         commentMapper.decrementLikeCount(commentId);
@@ -293,12 +304,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
      */
     @Override
     public boolean isCommentLiked(Long userId, Long commentId) {
-        if (userId == null)
-            return false;
-        LambdaQueryWrapper<CommentLikeDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(CommentLikeDO::getUserId, userId)
-                .eq(CommentLikeDO::getCommentId, commentId);
-        return commentLikeMapper.selectCount(wrapper) > 0;
+        return userInteractionService.contains(userId, UserInteractionService.InteractionType.COMMENT_LIKE, commentId);
     }
 
     /**
@@ -371,10 +377,17 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
                                 .limit(3) // 限制每个父评论显示3条回复
                                 .collect(Collectors.toList())));
 
-        // 5. 转换评论
+        // 5. 批量查询当前用户的点赞状态（一次 Redis 往返）
+        List<Long> commentIds = new ArrayList<>();
+        comments.forEach(comment -> commentIds.add(comment.getId()));
+        replyMap.values().forEach(replies -> replies.forEach(reply -> commentIds.add(reply.getId())));
+        Set<Long> likedIds = userInteractionService.containsAll(userId,
+                UserInteractionService.InteractionType.COMMENT_LIKE, commentIds);
+
+        // 6. 转换评论
         final Map<Long, UserDO> finalUserMap = userMap;
         return comments.stream()
-                .map(comment -> convertToResponse(comment, userId, includeReplies, finalUserMap, replyMap))
+                .map(comment -> convertToResponse(comment, userId, includeReplies, finalUserMap, replyMap, likedIds))
                 .collect(Collectors.toList());
     }
 
@@ -393,10 +406,10 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
                 ? Collections.singletonMap(user.getId(), user)
                 : Collections.emptyMap();
 
-        // 新创建的评论没有回复
+        // 新创建的评论没有回复，也没有点赞
         Map<Long, List<CommentDO>> replyMap = Collections.emptyMap();
 
-        return convertToResponse(comment, userId, includeReplies, userMap, replyMap);
+        return convertToResponse(comment, userId, includeReplies, userMap, replyMap, Collections.emptySet());
     }
 
     /**
@@ -407,10 +420,11 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
      * @param includeReplies 是否包含回复
      * @param userMap        预加载的用户Map
      * @param replyMap       预加载的回复Map
+     * @param likedIds       当前用户已点赞的评论ID
      * @return 评论VO
      */
     private CommentVO convertToResponse(CommentDO comment, Long userId, boolean includeReplies,
-            Map<Long, UserDO> userMap, Map<Long, List<CommentDO>> replyMap) {
+            Map<Long, UserDO> userMap, Map<Long, List<CommentDO>> replyMap, Set<Long> likedIds) {
         CommentVO response = new CommentVO();
         response.setId(comment.getId());
         response.setContent(comment.getContent());
@@ -428,7 +442,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
         }
 
         // 检查是否已点赞
-        response.setLiked(isCommentLiked(userId, comment.getId()));
+        response.setLiked(likedIds.contains(comment.getId()));
 
         // 从预加载的Map获取回复
         if (includeReplies && comment.getReplyCount() > 0) {
@@ -450,7 +464,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, CommentDO> im
                             replyVO.setAvatar(replyUser.getAvatar());
                         }
 
-                        replyVO.setLiked(isCommentLiked(userId, reply.getId()));
+                        replyVO.setLiked(likedIds.contains(reply.getId()));
                         replyVO.setReplies(new ArrayList<>());
                         return replyVO;
                     })
@@ -3,6 +3,7 @@ package com.businessreviews.service.impl.app;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.businessreviews.common.PageCursor;
 import com.businessreviews.common.PageResult;
 import com.businessreviews.model.vo.ConversationVO;
 import com.businessreviews.model.vo.MessageVO;
@@ -174,25 +175,38 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageDO> im
      *
      * @param userId       当前用户ID
      * @param targetUserId 对方用户ID
+     * @param cursor       分页游标（为空时使用页码分页）
      * @param pageNum      页码
      * @param pageSize     每页数量
      * @return 消息VO分页列表
      */
     @Override
-    public PageResult<MessageVO> getChatHistory(Long userId, Long targetUserId, Integer pageNum, Integer pageSize) {
-        Page<MessageDO> page = new Page<>(pageNum, pageSize);
-
-        // 查询两个用户之间的消息
+    public PageResult<MessageVO> getChatHistory(Long userId, Long targetUserId, String cursor, Integer pageNum,
+            Integer pageSize) {
+        // 查询两个用户之间的消息（整体括起来，保证追加的游标条件对双方消息都生效）
         LambdaQueryWrapper<MessageDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.and(w -> w.eq(MessageDO::getSenderId, userId).eq(MessageDO::getReceiverId, targetUserId))
-                .or(w -> w.eq(MessageDO::getSenderId, targetUserId).eq(MessageDO::getReceiverId, userId))
-                .orderByDesc(MessageDO::getCreatedAt);
-
-        Page<MessageDO> messagePage = messageMapper.selectPage(page, wrapper);
-        List<MessageDO> messages = messagePage.getRecords();
+        wrapper.and(w -> w.and(a -> a.eq(MessageDO::getSenderId, userId).eq(MessageDO::getReceiverId, targetUserId))
+                .or(b -> b.eq(MessageDO::getSenderId, targetUserId).eq(MessageDO::getReceiverId, userId)));
+
+        List<MessageDO> messages;
+        String nextCursor = null;
+        Long total = null;
+        if (cursor != null) {
+            // 游标模式：按 (发送时间, 消息ID) 定位，不查询总数
+            PageCursor.seek(wrapper, cursor, MessageDO::getCreatedAt, java.time.LocalDateTime::parse,
+                    MessageDO::getId, false, pageSize);
+            messages = messageMapper.selectList(wrapper);
+            nextCursor = PageCursor.nextCursor(messages, pageSize, MessageDO::getCreatedAt, MessageDO::getId);
+        } else {
+            wrapper.orderByDesc(MessageDO::getCreatedAt);
+            Page<MessageDO> messagePage = messageMapper.selectPage(new Page<>(pageNum, pageSize), wrapper);
+            messages = messagePage.getRecords();
+            total = messagePage.getTotal();
+        }
 
         if (messages.isEmpty()) {
-            return PageResult.of(new java.util.ArrayList<>(), 0L, pageNum, pageSize);
+            return cursor != null ? PageResult.ofCursor(new java.util.ArrayList<>(), null, pageSize)
+                    : PageResult.of(new java.util.ArrayList<>(), 0L, pageNum, pageSize);
         }
 
         // 批量查询发送者信息（实际上聊天只涉及两个人，但保持通用性）
@@ -213,7 +227,10 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageDO> im
                 .map(msg -> convertToMessageVOOptimized(msg, finalUserMap))
                 .collect(Collectors.toList());
 
-        return PageResult.of(list, messagePage.getTotal(), pageNum, pageSize);
+        if (cursor != null) {
+            return PageResult.ofCursor(list, nextCursor, pageSize);
+        }
+        return PageResult.of(list, total, pageNum, pageSize);
     }
 
     /**
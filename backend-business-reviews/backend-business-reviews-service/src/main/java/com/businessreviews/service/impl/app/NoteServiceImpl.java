@@ -4,10 +4,10 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.common.PageCursor;
 import com.businessreviews.common.PageResult;
 import com.businessreviews.enums.NoteStatus;
 import com.businessreviews.enums.NoteType;
-import com.businessreviews.enums.TopicStatus;
 import com.businessreviews.event.NoteCreatedEvent;
 import com.businessreviews.model.dto.app.PublishNoteDTO;
 import com.businessreviews.model.vo.NoteDetailVO;
@@ -18,21 +18,32 @@ import com.businessreviews.exception.BusinessException;
 import com.businessreviews.mapper.*;
 import com.businessreviews.service.app.MessageService;
 import com.businessreviews.service.app.NoteService;
-import com.businessreviews.util.RedisUtil;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
+import com.businessreviews.service.impl.common.MerchantIdentityService;
+import com.businessreviews.service.impl.common.NoteCounterService;
+import com.businessreviews.service.impl.common.NoteDetailCacheService;
+import com.businessreviews.service.impl.common.NoteGeoIndexService;
+import com.businessreviews.service.impl.common.NoteRankingService;
+import com.businessreviews.service.impl.common.NoteSearchIndex;
+import com.businessreviews.service.impl.common.NoteTimelineService;
+import com.businessreviews.service.impl.common.NoteViewPipeline;
+import com.businessreviews.service.impl.common.TopicDictionaryService;
+import com.businessreviews.service.impl.common.TopicTrendingService;
+import com.businessreviews.service.impl.common.UserInteractionService;
+import com.businessreviews.util.DistanceUtil;
 import com.businessreviews.util.TimeUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 
 /**
  * 笔记服务实现类
@@ -61,45 +72,61 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
     private final NoteTopicMapper noteTopicMapper;
     private final UserNoteLikeMapper userNoteLikeMapper;
     private final UserFavoriteMapper userFavoriteMapper;
-    private final BrowseHistoryMapper browseHistoryMapper;
     private final UserFollowMapper userFollowMapper;
     private final ShopMapper shopMapper;
     private final TopicMapper topicMapper;
-    private final MerchantMapper merchantMapper;
-    private final RedisUtil redisUtil;
     private final MessageService messageService;
     private final ApplicationEventPublisher eventPublisher;
-    private final ObjectMapper objectMapper;
+    private final NoteRankingService noteRankingService;
+    private final NoteTimelineService noteTimelineService;
+    private final NoteGeoIndexService noteGeoIndexService;
+    private final NoteSearchIndex noteSearchIndex;
+    private final NoteCounterService noteCounterService;
+    private final NoteViewPipeline noteViewPipeline;
+    private final UserInteractionService userInteractionService;
+    private final NoteDetailCacheService noteDetailCacheService;
+    private final EntityIdFilterService entityIdFilterService;
+    private final TopicTrendingService topicTrendingService;
+    private final TopicDictionaryService topicDictionaryService;
+    private final MerchantIdentityService merchantIdentityService;
+
+    /** 附近笔记最大搜索半径（公里） */
+    private static final double MAX_NEARBY_DISTANCE = 50D;
+
+    /** 附近笔记降级查库时最多取出的候选笔记数（按与中心点的近似距离由近到远） */
+    private static final int NEARBY_FALLBACK_SCAN_LIMIT = 2000;
+
+    /** 每纬度对应的距离（公里） */
+    private static final double KM_PER_LATITUDE_DEGREE = 111.32D;
 
     /**
      * 获取首页推荐笔记
      * <p>
-     * 混合查询用户笔记和商家笔记。
-     * 排序规则：优先按推荐值(recommend)降序，其次按点赞数降序，最后按创建时间降序。
+     * 混合查询用户笔记和商家笔记，按时间衰减热度排序（见 {@link NoteRankingService}）。
+     * 从排行榜快照中截取当前页的笔记ID，再通过一次 selectBatchIds 回表，
+     * 同一快照内翻页结果一致。排行榜不可用时降级为数据库排序查询。
      * </p>
      *
-     * @param pageNum  页码
-     * @param pageSize 每页数量
+     * @param snapshotId 推荐流快照ID（首页为空）
+     * @param pageNum    页码
+     * @param pageSize   每页数量
      * @return 笔记VO分页列表
      */
     @Override
-    public PageResult<NoteItemVO> getRecommendedNotes(Integer pageNum, Integer pageSize) {
-        // 尝试从缓存获取
-        String cacheKey = RedisKeyConstants.NOTES_RECOMMENDED + pageNum;
-
-        String json = redisUtil.get(cacheKey);
-        if (json != null) {
-            try {
-                // 使用 TypeReference 处理泛型反序列化
-                PageResult<NoteItemVO> cachedResult = objectMapper.readValue(json,
-                        new TypeReference<PageResult<NoteItemVO>>() {
-                        });
-                log.info("从缓存获取推荐笔记: page={}", pageNum);
-                return cachedResult;
-            } catch (Exception e) {
-                log.warn("缓存反序列化失败: {}", e.getMessage());
-                // 失败则降级查库
+    public PageResult<NoteItemVO> getRecommendedNotes(String snapshotId, Integer pageNum, Integer pageSize) {
+        long offset = (long) (pageNum - 1) * pageSize;
+        try {
+            NoteRankingService.RankingPage rankingPage = noteRankingService.getRecommendedPage(snapshotId, offset,
+                    pageSize);
+            if (rankingPage != null) {
+                List<NoteItemVO> list = convertNoteList(listPublishedNotesByIds(rankingPage.getNoteIds()));
+
+                PageResult<NoteItemVO> result = PageResult.of(list, rankingPage.getTotal(), pageNum, pageSize);
+                result.setSnapshotId(rankingPage.getSnapshotId());
+                return result;
             }
+        } catch (Exception e) {
+            log.warn("读取推荐笔记排行失败，降级查库: {}", e.getMessage());
         }
 
         Page<NoteDO> page = new Page<>(pageNum, pageSize);
@@ -115,18 +142,7 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         // 使用批量转换，解决N+1查询问题
         List<NoteItemVO> list = convertNoteList(notePage.getRecords());
 
-        PageResult<NoteItemVO> result = PageResult.of(list, notePage.getTotal(), pageNum, pageSize);
-
-        // 写入缓存，设置过期时间为10分钟
-        // 推荐列表不需要实时性太强，10分钟可以减轻数据库压力
-        try {
-            redisUtil.set(cacheKey, objectMapper.writeValueAsString(result), 600L);
-            log.info("推荐笔记写入缓存: page={}", pageNum);
-        } catch (Exception e) {
-            log.warn("推荐笔记写入缓存失败: {}", e.getMessage());
-        }
-
-        return result;
+        return PageResult.of(list, notePage.getTotal(), pageNum, pageSize);
     }
 
     /**
@@ -137,17 +153,23 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
      * </p>
      *
      * @param userId   用户ID
+     * @param cursor   分页游标（为空时使用页码分页）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 笔记VO分页列表
      */
     @Override
-    public PageResult<NoteItemVO> getUserNotes(Long userId, Integer pageNum, Integer pageSize) {
-        Page<NoteDO> page = new Page<>(pageNum, pageSize);
+    public PageResult<NoteItemVO> getUserNotes(Long userId, String cursor, Integer pageNum, Integer pageSize) {
         LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(NoteDO::getUserId, userId)
-                .eq(NoteDO::getStatus, 1)
-                .orderByDesc(NoteDO::getCreatedAt);
+                .eq(NoteDO::getStatus, 1);
+
+        if (cursor != null) {
+            return listNotesByCursor(wrapper, cursor, "new", pageSize);
+        }
+
+        Page<NoteDO> page = new Page<>(pageNum, pageSize);
+        applyExploreOrder(wrapper, "new");
 
         Page<NoteDO> notePage = noteMapper.selectPage(page, wrapper);
 
@@ -165,16 +187,31 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
      * </p>
      *
      * @param userId   当前用户ID
+     * @param cursor   分页游标（为空时使用页码分页）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 笔记VO分页列表
      */
     @Override
-    public PageResult<NoteItemVO> getLikedNotes(Long userId, Integer pageNum, Integer pageSize) {
+    public PageResult<NoteItemVO> getLikedNotes(Long userId, String cursor, Integer pageNum, Integer pageSize) {
         // 获取用户点赞的笔记ID列表
         LambdaQueryWrapper<UserNoteLikeDO> likeWrapper = new LambdaQueryWrapper<>();
-        likeWrapper.eq(UserNoteLikeDO::getUserId, userId)
-                .orderByDesc(UserNoteLikeDO::getCreatedAt);
+        likeWrapper.eq(UserNoteLikeDO::getUserId, userId);
+
+        // 游标模式：按 (点赞时间, 记录ID) 定位，不查询总数
+        if (cursor != null) {
+            PageCursor.seek(likeWrapper, cursor, UserNoteLikeDO::getCreatedAt, LocalDateTime::parse,
+                    UserNoteLikeDO::getId, false, pageSize);
+            List<UserNoteLikeDO> likes = userNoteLikeMapper.selectList(likeWrapper);
+            String nextCursor = PageCursor.nextCursor(likes, pageSize, UserNoteLikeDO::getCreatedAt,
+                    UserNoteLikeDO::getId);
+            List<Long> likedNoteIds = likes.stream()
+                    .map(UserNoteLikeDO::getNoteId)
+                    .collect(Collectors.toList());
+            return PageResult.ofCursor(convertNoteList(listPublishedNotesByIds(likedNoteIds)), nextCursor, pageSize);
+        }
+
+        likeWrapper.orderByDesc(UserNoteLikeDO::getCreatedAt);
 
         // 先查询总数
         Long total = userNoteLikeMapper.selectCount(likeWrapper);
@@ -228,13 +265,14 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
      *
      * @param categoryId 分类ID（可选）
      * @param sortBy     排序方式 (hot/new/default)
+     * @param cursor     分页游标（为空时使用页码分页）
      * @param pageNum    页码
      * @param pageSize   每页数量
      * @return 笔记VO分页列表
      */
     @Override
-    public PageResult<NoteItemVO> getExploreNotes(Long categoryId, String sortBy, Integer pageNum, Integer pageSize) {
-        Page<NoteDO> page = new Page<>(pageNum, pageSize);
+    public PageResult<NoteItemVO> getExploreNotes(Long categoryId, String sortBy, String cursor, Integer pageNum,
+            Integer pageSize) {
         LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(NoteDO::getStatus, 1);
 
@@ -242,15 +280,13 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
             // 暂不支持按分类筛选
         }
 
-        // 排序
-        if ("hot".equals(sortBy)) {
-            wrapper.orderByDesc(NoteDO::getLikeCount);
-        } else if ("new".equals(sortBy)) {
-            wrapper.orderByDesc(NoteDO::getCreatedAt);
-        } else {
-            wrapper.orderByDesc(NoteDO::getLikeCount).orderByDesc(NoteDO::getCreatedAt);
+        if (cursor != null) {
+            return listNotesByCursor(wrapper, cursor, sortBy, pageSize);
         }
 
+        Page<NoteDO> page = new Page<>(pageNum, pageSize);
+        applyExploreOrder(wrapper, sortBy);
+
         Page<NoteDO> notePage = noteMapper.selectPage(page, wrapper);
 
         // 使用批量转换，解决N+1查询问题
@@ -262,8 +298,10 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
     /**
      * 获取附近笔记
      * <p>
-     * 查询带有地理位置信息的笔记。
-     * 当前实现为简化版，未进行实际距离计算过滤，仅按时间排序。
+     * 查询搜索半径内已发布的笔记，按距离由近到远排列。
+     * 优先使用 Redis GEO 索引（见 {@link NoteGeoIndexService}），
+     * 索引不可用时降级为经纬度矩形范围查库，再按实际距离过滤排序。
+     * 单次查询最多返回半径内最近的 {@link NoteGeoIndexService#MAX_NEARBY_RESULTS} 篇笔记。
      * </p>
      *
      * @param latitude  纬度
@@ -271,32 +309,85 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
      * @param distance  搜索半径(km)
      * @param pageNum   页码
      * @param pageSize  每页数量
-     * @return 笔记VO分页列表
+     * @return 笔记VO分页列表（包含距离信息）
      */
     @Override
     public PageResult<NoteItemVO> getNearbyNotes(Double latitude, Double longitude, Double distance, Integer pageNum,
             Integer pageSize) {
-        // 简化实现，实际应使用地理位置查询
-        Page<NoteDO> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(NoteDO::getStatus, 1)
-                .isNotNull(NoteDO::getLatitude)
-                .isNotNull(NoteDO::getLongitude)
-                .orderByDesc(NoteDO::getCreatedAt);
+        double radius = distance != null && distance > 0 ? Math.min(distance, MAX_NEARBY_DISTANCE) : 5.0;
 
-        Page<NoteDO> notePage = noteMapper.selectPage(page, wrapper);
+        Map<Long, Double> distanceMap = null;
+        try {
+            distanceMap = noteGeoIndexService.searchNearby(longitude, latitude, radius);
+        } catch (Exception e) {
+            log.warn("Redis GEO 查询附近笔记失败，降级查询数据库: {}", e.getMessage());
+        }
+        if (distanceMap == null) {
+            distanceMap = searchNearbyFromDb(latitude, longitude, radius);
+        }
 
-        // 使用批量转换，解决N+1查询问题
-        List<NoteItemVO> list = convertNoteList(notePage.getRecords());
+        // 距离升序排列的笔记ID，手动分页
+        List<Long> noteIds = new ArrayList<>(distanceMap.keySet());
+        int fromIndex = (int) Math.min((long) (pageNum - 1) * pageSize, noteIds.size());
+        int toIndex = (int) Math.min((long) fromIndex + pageSize, noteIds.size());
+        List<NoteDO> notes = listPublishedNotesByIds(noteIds.subList(fromIndex, toIndex));
+
+        List<NoteItemVO> list = convertNoteList(notes);
+        for (NoteItemVO item : list) {
+            Double dist = distanceMap.get(Long.valueOf(item.getId()));
+            if (dist != null) {
+                item.setDistance(DistanceUtil.formatDistance(dist));
+            }
+        }
 
-        return PageResult.of(list, notePage.getTotal(), pageNum, pageSize);
+        return PageResult.of(list, (long) noteIds.size(), pageNum, pageSize);
+    }
+
+    /**
+     * 降级方案：按经纬度矩形范围查库，再按实际距离过滤排序
+     * <p>
+     * 只查询ID和经纬度。矩形范围走 idx_latitude_longitude 索引，范围内按近似平面距离
+     * （纬度差² + (经度差·cos纬度)²）升序取最近的 {@link #NEARBY_FALLBACK_SCAN_LIMIT} 条，
+     * 候选集不会因为按发布时间截断而漏掉近处的旧笔记。
+     * </p>
+     *
+     * @return 笔记ID -> 距离（公里），按距离升序
+     */
+    private Map<Long, Double> searchNearbyFromDb(double latitude, double longitude, double radius) {
+        double latDelta = radius / KM_PER_LATITUDE_DEGREE;
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        double lngDelta = cosLatitude > 0.01 ? Math.min(radius / (KM_PER_LATITUDE_DEGREE * cosLatitude), 180D)
+                : 180D;
+
+        LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(NoteDO::getId, NoteDO::getLatitude, NoteDO::getLongitude)
+                .eq(NoteDO::getStatus, NoteStatus.NORMAL.getCode())
+                .between(NoteDO::getLatitude, BigDecimal.valueOf(latitude - latDelta),
+                        BigDecimal.valueOf(latitude + latDelta))
+                .between(NoteDO::getLongitude, BigDecimal.valueOf(longitude - lngDelta),
+                        BigDecimal.valueOf(longitude + lngDelta))
+                .last("ORDER BY POW(latitude - " + BigDecimal.valueOf(latitude).toPlainString()
+                        + ", 2) + POW((longitude - " + BigDecimal.valueOf(longitude).toPlainString() + ") * "
+                        + BigDecimal.valueOf(cosLatitude).toPlainString() + ", 2) ASC, id DESC"
+                        + " LIMIT " + NEARBY_FALLBACK_SCAN_LIMIT);
+        List<NoteDO> candidates = noteMapper.selectList(wrapper);
+
+        Map<Long, Double> distanceMap = new LinkedHashMap<>();
+        candidates.stream()
+                .map(note -> Map.entry(note.getId(), DistanceUtil.calculateDistance(latitude, longitude,
+                        note.getLatitude().doubleValue(), note.getLongitude().doubleValue())))
+                .filter(entry -> entry.getValue() <= radius)
+                .sorted(Map.Entry.comparingByValue())
+                .limit(NoteGeoIndexService.MAX_NEARBY_RESULTS)
+                .forEach(entry -> distanceMap.put(entry.getKey(), entry.getValue()));
+        return distanceMap;
     }
 
     /**
      * 获取关注人笔记
      * <p>
      * 查询当前用户关注的所有用户发布的笔记。
-     * 按创建时间倒序排列。
+     * 按创建时间倒序排列，数据来自关注流时间线（见 {@link NoteTimelineService}）。
      * </p>
      *
      * @param userId   当前用户ID
@@ -306,6 +397,18 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
      */
     @Override
     public PageResult<NoteItemVO> getFollowingNotes(Long userId, Integer pageNum, Integer pageSize) {
+        // 优先读取关注流时间线，超出收件箱范围或读取失败时降级查库
+        long offset = (long) (pageNum - 1) * pageSize;
+        try {
+            NoteTimelineService.TimelinePage timelinePage = noteTimelineService.getTimeline(userId, offset, pageSize);
+            if (timelinePage != null) {
+                List<NoteItemVO> list = convertNoteList(listPublishedNotesByIds(timelinePage.getNoteIds()));
+                return PageResult.of(list, timelinePage.getTotal(), pageNum, pageSize);
+            }
+        } catch (Exception e) {
+            log.warn("读取关注流时间线失败，降级查库: userId={}, error={}", userId, e.getMessage());
+        }
+
         // 获取关注的用户ID列表
         LambdaQueryWrapper<UserFollowDO> followWrapper = new LambdaQueryWrapper<>();
         followWrapper.eq(UserFollowDO::getUserId, userId);
@@ -333,6 +436,62 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         return PageResult.of(list, notePage.getTotal(), pageNum, pageSize);
     }
 
+    /**
+     * 为笔记列表叠加当前用户的互动状态
+     * <p>
+     * 点赞、收藏、关注三类判断通过 {@link UserInteractionService#containsAllByType} 一次 Redis 往返完成，
+     * 不查库。
+     * </p>
+     *
+     * @param userId 当前用户ID（未登录时全部为false）
+     * @param items  笔记列表
+     */
+    @Override
+    public void annotateInteractionState(Long userId, List<NoteItemVO> items) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        List<Long> noteIds = new ArrayList<>();
+        List<Long> authorIds = new ArrayList<>();
+        for (NoteItemVO item : items) {
+            noteIds.add(parseId(item.getId()));
+            Long authorId = parseId(item.getAuthorId());
+            if (authorId != null && !authorId.equals(userId)) {
+                authorIds.add(authorId);
+            }
+        }
+
+        Map<UserInteractionService.InteractionType, List<Long>> targets = new EnumMap<>(
+                UserInteractionService.InteractionType.class);
+        targets.put(UserInteractionService.InteractionType.NOTE_LIKE, noteIds);
+        targets.put(UserInteractionService.InteractionType.NOTE_BOOKMARK, noteIds);
+        targets.put(UserInteractionService.InteractionType.FOLLOW, authorIds);
+        Map<UserInteractionService.InteractionType, Set<Long>> state = userInteractionService
+                .containsAllByType(userId, targets);
+
+        Set<Long> likedIds = state.get(UserInteractionService.InteractionType.NOTE_LIKE);
+        Set<Long> bookmarkedIds = state.get(UserInteractionService.InteractionType.NOTE_BOOKMARK);
+        Set<Long> followingIds = state.get(UserInteractionService.InteractionType.FOLLOW);
+        for (NoteItemVO item : items) {
+            Long noteId = parseId(item.getId());
+            Long authorId = parseId(item.getAuthorId());
+            item.setLiked(noteId != null && likedIds.contains(noteId));
+            item.setBookmarked(noteId != null && bookmarkedIds.contains(noteId));
+            item.setFollowing(authorId != null && followingIds.contains(authorId));
+        }
+    }
+
+    private Long parseId(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * 获取笔记详情
      * <p>
@@ -347,10 +506,76 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
      */
     @Override
     public NoteDetailVO getNoteDetail(Long noteId, Long userId) {
-        NoteDO note = noteMapper.selectById(noteId);
-        if (note == null || note.getStatus() != 1) {
+        // 不存在的笔记ID直接拒绝，不查缓存和数据库
+        if (!entityIdFilterService.mightExist(EntityIdFilterService.EntityType.NOTE, noteId)) {
+            throw new BusinessException(40402, "笔记不存在");
+        }
+        NoteDetailCacheService.Lookup cached = noteDetailCacheService.lookup(noteId);
+        NoteDetailVO response = cached.getDetail();
+        if (response == null) {
+            // 同一笔记并发未命中时只构建一次
+            response = noteDetailCacheService.load(noteId, cached.getVersion(), () -> {
+                NoteDO fullNote = noteMapper.selectById(noteId);
+                if (fullNote == null) {
+                    entityIdFilterService.markMissing(EntityIdFilterService.EntityType.NOTE, noteId);
+                }
+                if (fullNote == null || fullNote.getStatus() != 1) {
+                    throw new BusinessException(40402, "笔记不存在");
+                }
+                return buildNoteDetail(fullNote);
+            });
+        }
+
+        // 聚合缓存只缓存已发布的笔记，状态变更会递增版本号使其失效，命中时无需再查状态；
+        // 计数来自计数快照并叠加尚未落库的增量
+        NoteDO note = noteCounterService.getNoteCounts(noteId);
+        if (note == null) {
+            entityIdFilterService.markMissing(EntityIdFilterService.EntityType.NOTE, noteId);
             throw new BusinessException(40402, "笔记不存在");
         }
+        response.setLikeCount(note.getLikeCount());
+        response.setCommentCount(note.getCommentCount());
+        response.setViewCount(note.getViewCount());
+        response.setFavoriteCount(note.getFavoriteCount());
+        // 相对时间随读取时间变化，不能缓存
+        response.setPublishTime(TimeUtil.formatRelativeTime(response.getCreatedAt()));
+
+        // 查询用户互动状态（点赞、收藏、关注一次往返）
+        if (userId != null) {
+            Long authorId = response.getAuthorId();
+            Map<UserInteractionService.InteractionType, List<Long>> targets =
+                    new EnumMap<>(UserInteractionService.InteractionType.class);
+            targets.put(UserInteractionService.InteractionType.NOTE_LIKE, Collections.singletonList(noteId));
+            targets.put(UserInteractionService.InteractionType.NOTE_BOOKMARK, Collections.singletonList(noteId));
+            targets.put(UserInteractionService.InteractionType.FOLLOW, Collections.singletonList(authorId));
+            Map<UserInteractionService.InteractionType, Set<Long>> states =
+                    userInteractionService.containsAllByType(userId, targets);
+            boolean liked = states.get(UserInteractionService.InteractionType.NOTE_LIKE).contains(noteId);
+            boolean bookmarked = states.get(UserInteractionService.InteractionType.NOTE_BOOKMARK).contains(noteId);
+            boolean following = states.get(UserInteractionService.InteractionType.FOLLOW).contains(authorId);
+
+            log.info("笔记详情查询 - 用户ID: {}, 笔记ID: {}, 点赞: {}, 收藏: {}, 关注: {}",
+                    userId, noteId, liked, bookmarked, following);
+
+            response.setLiked(liked);
+            response.setBookmarked(bookmarked);
+            response.setFollowing(following);
+            response.setSelfAuthor(userId.equals(authorId));
+        } else {
+            response.setLiked(false);
+            response.setBookmarked(false);
+            response.setFollowing(false);
+            response.setSelfAuthor(false);
+        }
+
+        return response;
+    }
+
+    /**
+     * 构建笔记详情中与用户无关、不随互动变化的部分（写入聚合缓存）
+     */
+    private NoteDetailVO buildNoteDetail(NoteDO note) {
+        Long noteId = note.getId();
 
         // 查询作者信息
         UserDO author = userMapper.selectById(note.getUserId());
@@ -368,16 +593,9 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         response.setAuthor(author != null ? author.getUsername() : "未知用户");
         response.setAuthorAvatar(author != null ? author.getAvatar() : null);
         response.setAuthorId(note.getUserId());
-        // 使用更新时间而不是创建时间，这样编辑后时间会正确显示
-        response.setPublishTime(
-                TimeUtil.formatRelativeTime(note.getUpdatedAt() != null ? note.getUpdatedAt() : note.getCreatedAt()));
         response.setTags(tags);
-        response.setLikeCount(note.getLikeCount());
-        response.setCommentCount(note.getCommentCount());
-        response.setViewCount(note.getViewCount());
-        response.setFavoriteCount(note.getFavoriteCount());
         response.setLocation(note.getLocation());
-        // 使用updatedAt来显示最后更新时间
+        // 使用updatedAt来显示最后更新时间，这样编辑后时间会正确显示
         response.setCreatedAt(note.getUpdatedAt() != null ? note.getUpdatedAt() : note.getCreatedAt());
 
         // 查询关联商家
@@ -396,27 +614,6 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         // 设置位置坐标
         response.setLatitude(note.getLatitude());
         response.setLongitude(note.getLongitude());
-
-        // 查询用户互动状态
-        if (userId != null) {
-            boolean liked = isLiked(userId, noteId);
-            boolean bookmarked = isBookmarked(userId, noteId);
-            boolean following = isFollowing(userId, note.getUserId());
-
-            log.info("笔记详情查询 - 用户ID: {}, 笔记ID: {}, 点赞: {}, 收藏: {}, 关注: {}",
-                    userId, noteId, liked, bookmarked, following);
-
-            response.setLiked(liked);
-            response.setBookmarked(bookmarked);
-            response.setFollowing(following);
-            response.setSelfAuthor(userId.equals(note.getUserId()));
-        } else {
-            response.setLiked(false);
-            response.setBookmarked(false);
-            response.setFollowing(false);
-            response.setSelfAuthor(false);
-        }
-
         return response;
     }
 
@@ -468,7 +665,7 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         note.setFavoriteCount(0);
 
         // 检查用户是否是商家账号，如果是则设置商家笔记标识
-        Long merchantId = findMerchantIdByUserId(userId);
+        Long merchantId = merchantIdentityService.findMerchantIdByUserId(userId);
         if (merchantId != null) {
             note.setNoteType(NoteType.MERCHANT.getCode()); // 商家笔记
             note.setMerchantId(merchantId);
@@ -479,6 +676,7 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         }
 
         noteMapper.insert(note);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.NOTE, note.getId());
 
         // 保存标签关联
         if (request.getTags() != null && !request.getTags().isEmpty()) {
@@ -532,6 +730,9 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         note.setLongitude(request.getLongitude());
 
         noteMapper.updateById(note);
+        noteGeoIndexService.updateNote(note);
+        noteSearchIndex.updateNote(note);
+        noteDetailCacheService.invalidate(note.getId());
 
         // 更新标签关联
         if (request.getTags() != null) {
@@ -572,6 +773,13 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         note.setStatus(NoteStatus.DELETED.getCode());
         noteMapper.updateById(note);
 
+        // 移出推荐排行、作者发件箱和附近索引
+        noteRankingService.removeNote(noteId);
+        noteTimelineService.removeNote(userId, noteId);
+        noteGeoIndexService.removeNote(noteId);
+        noteSearchIndex.removeNote(noteId);
+        noteDetailCacheService.invalidate(noteId);
+
         // 更新用户笔记数
         userStatsMapper.decrementNoteCount(userId);
     }
@@ -582,6 +790,10 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
      * 用户对笔记进行点赞。如果已点赞则自动切换为取消点赞。
      * 点赞成功后会发送通知给作者。
      * </p>
+     * <p>
+     * 切换方向以数据库为准（先删除点赞记录，删除到即为取消点赞），不依赖最终一致的互动集合；
+     * 并发点赞由唯一索引 uk_user_note 兜底，插入冲突时不重复计数。
+     * </p>
      *
      * @param userId 当前用户ID
      * @param noteId 笔记ID
@@ -595,24 +807,31 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         if (note == null || note.getStatus() != 1) {
             throw new BusinessException(40402, "笔记不存在");
         }
+        noteCounterService.applyPendingDeltas(note);
 
-        // 检查是否已点赞，如果已点赞则取消点赞
-        if (isLiked(userId, noteId)) {
+        // 已点赞则取消点赞
+        if (userNoteLikeMapper.delete(noteLikeWrapper(userId, noteId)) > 0) {
             log.info("用户 {} 取消点赞笔记 {}", userId, noteId);
-            return unlikeNote(userId, noteId);
+            return afterUnlike(userId, note);
         }
 
         // 插入点赞记录
         UserNoteLikeDO like = new UserNoteLikeDO();
         like.setUserId(userId);
         like.setNoteId(noteId);
-        userNoteLikeMapper.insert(like);
-
-        // 更新笔记点赞数
-        noteMapper.incrementLikeCount(noteId);
+        try {
+            userNoteLikeMapper.insert(like);
+        } catch (DuplicateKeyException e) {
+            // 并发的点赞请求已插入记录并计数
+            log.info("用户 {} 重复点赞笔记 {}", userId, noteId);
+            return note.getLikeCount();
+        }
+        userInteractionService.add(userId, UserInteractionService.InteractionType.NOTE_LIKE, noteId);
 
-        // 更新作者获赞数
-        userStatsMapper.incrementLikeCount(note.getUserId());
+        // 更新笔记点赞数、作者获赞数（写回式计数，定时批量落库）
+        noteCounterService.incrementNote(noteId, NoteCounterService.CounterField.LIKE, 1);
+        noteCounterService.incrementUser(note.getUserId(), NoteCounterService.CounterField.LIKE, 1);
+        noteRankingService.markDirty(noteId);
 
         // 发送点赞通知
         if (!userId.equals(note.getUserId())) {
@@ -633,25 +852,33 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         if (note == null) {
             throw new BusinessException(40402, "笔记不存在");
         }
+        noteCounterService.applyPendingDeltas(note);
 
-        // 检查是否已点赞
-        LambdaQueryWrapper<UserNoteLikeDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(UserNoteLikeDO::getUserId, userId)
-                .eq(UserNoteLikeDO::getNoteId, noteId);
-        UserNoteLikeDO like = userNoteLikeMapper.selectOne(wrapper);
-
-        if (like == null) {
+        // 删除点赞记录，未删除到说明未点赞（或已被并发请求取消）
+        if (userNoteLikeMapper.delete(noteLikeWrapper(userId, noteId)) == 0) {
             throw new BusinessException(40001, "未点赞");
         }
+        return afterUnlike(userId, note);
+    }
 
-        // 删除点赞记录
-        userNoteLikeMapper.deleteById(like.getId());
+    private LambdaQueryWrapper<UserNoteLikeDO> noteLikeWrapper(Long userId, Long noteId) {
+        LambdaQueryWrapper<UserNoteLikeDO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(UserNoteLikeDO::getUserId, userId)
+                .eq(UserNoteLikeDO::getNoteId, noteId);
+        return wrapper;
+    }
 
-        // 更新笔记点赞数
-        noteMapper.decrementLikeCount(noteId);
+    /**
+     * 点赞记录删除后更新互动集合和计数
+     */
+    private Integer afterUnlike(Long userId, NoteDO note) {
+        Long noteId = note.getId();
+        userInteractionService.remove(userId, UserInteractionService.InteractionType.NOTE_LIKE, noteId);
 
-        // 更新作者获赞数
-        userStatsMapper.decrementLikeCount(note.getUserId());
+        // 更新笔记点赞数、作者获赞数（写回式计数，定时批量落库）
+        noteCounterService.incrementNote(noteId, NoteCounterService.CounterField.LIKE, -1);
+        noteCounterService.incrementUser(note.getUserId(), NoteCounterService.CounterField.LIKE, -1);
+        noteRankingService.markDirty(noteId);
 
         return Math.max(0, note.getLikeCount() - 1);
     }
@@ -660,6 +887,7 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
      * 收藏笔记
      * <p>
      * 用户收藏笔记。如果已收藏则自动切换为取消收藏。
+     * 与点赞相同，切换方向以数据库为准，并发收藏由唯一索引 uk_user_type_target 兜底。
      * </p>
      *
      * @param userId 当前用户ID
@@ -674,10 +902,10 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
             throw new BusinessException(40402, "笔记不存在");
         }
 
-        // 检查是否已收藏，如果已收藏则取消收藏
-        if (isBookmarked(userId, noteId)) {
+        // 已收藏则取消收藏
+        if (userFavoriteMapper.delete(noteFavoriteWrapper(userId, noteId)) > 0) {
             log.info("用户 {} 取消收藏笔记 {}", userId, noteId);
-            unbookmarkNote(userId, noteId);
+            afterUnbookmark(userId, noteId);
             return;
         }
 
@@ -686,13 +914,19 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         favorite.setUserId(userId);
         favorite.setType(1); // 笔记类型
         favorite.setTargetId(noteId);
-        userFavoriteMapper.insert(favorite);
-
-        // 更新笔记收藏数
-        noteMapper.incrementFavoriteCount(noteId);
+        try {
+            userFavoriteMapper.insert(favorite);
+        } catch (DuplicateKeyException e) {
+            // 并发的收藏请求已插入记录并计数
+            log.info("用户 {} 重复收藏笔记 {}", userId, noteId);
+            return;
+        }
+        userInteractionService.add(userId, UserInteractionService.InteractionType.NOTE_BOOKMARK, noteId);
 
-        // 更新用户收藏数
-        userStatsMapper.incrementFavoriteCount(userId);
+        // 更新笔记收藏数、用户收藏数（写回式计数，定时批量落库）
+        noteCounterService.incrementNote(noteId, NoteCounterService.CounterField.FAVORITE, 1);
+        noteCounterService.incrementUser(userId, NoteCounterService.CounterField.FAVORITE, 1);
+        noteRankingService.markDirty(noteId);
 
         log.info("用户 {} 收藏笔记 {}", userId, noteId);
     }
@@ -700,108 +934,83 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void unbookmarkNote(Long userId, Long noteId) {
-        // 检查是否已收藏
+        // 删除收藏记录，未删除到说明未收藏（或已被并发请求取消）
+        if (userFavoriteMapper.delete(noteFavoriteWrapper(userId, noteId)) == 0) {
+            throw new BusinessException(40001, "未收藏");
+        }
+        afterUnbookmark(userId, noteId);
+    }
+
+    private LambdaQueryWrapper<UserFavoriteDO> noteFavoriteWrapper(Long userId, Long noteId) {
         LambdaQueryWrapper<UserFavoriteDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(UserFavoriteDO::getUserId, userId)
                 .eq(UserFavoriteDO::getType, 1)
                 .eq(UserFavoriteDO::getTargetId, noteId);
-        UserFavoriteDO favorite = userFavoriteMapper.selectOne(wrapper);
-
-        if (favorite == null) {
-            throw new BusinessException(40001, "未收藏");
-        }
-
-        // 删除收藏记录
-        userFavoriteMapper.deleteById(favorite.getId());
+        return wrapper;
+    }
 
-        // 更新笔记收藏数
-        noteMapper.decrementFavoriteCount(noteId);
+    /**
+     * 收藏记录删除后更新互动集合和计数
+     */
+    private void afterUnbookmark(Long userId, Long noteId) {
+        userInteractionService.remove(userId, UserInteractionService.InteractionType.NOTE_BOOKMARK, noteId);
 
-        // 更新用户收藏数
-        userStatsMapper.decrementFavoriteCount(userId);
+        // 更新笔记收藏数、用户收藏数（写回式计数，定时批量落库）
+        noteCounterService.incrementNote(noteId, NoteCounterService.CounterField.FAVORITE, -1);
+        noteCounterService.incrementUser(userId, NoteCounterService.CounterField.FAVORITE, -1);
+        noteRankingService.markDirty(noteId);
     }
 
     /**
-     * 增加笔记浏览量 (异步)
+     * 增加笔记浏览量
      * <p>
-     * 增加浏览计数并记录用户的浏览历史。
+     * 浏览事件提交到批量处理管道后立即返回，浏览数和浏览历史由管道按批合并写入，
+     * 同一用户短时间内重复浏览同一笔记只计一次。
      * </p>
      *
      * @param noteId 笔记ID
      * @param userId 当前用户ID（可选，未登录不记录历史）
      */
     @Override
-    @Async("asyncExecutor")
     public void increaseViewCount(Long noteId, Long userId) {
-        log.info("增加浏览量 - 笔记ID: {}, 用户ID: {}", noteId, userId);
-        noteMapper.incrementViewCount(noteId);
-
-        // 记录浏览历史（仅当用户已登录时）
-        if (userId != null) {
-            try {
-                log.info("开始记录浏览历史 - 用户ID: {}, 笔记ID: {}", userId, noteId);
-
-                // 检查是否已有相同的浏览记录（同一用户、同一笔记）
-                LambdaQueryWrapper<BrowseHistoryDO> wrapper = new LambdaQueryWrapper<>();
-                wrapper.eq(BrowseHistoryDO::getUserId, userId)
-                        .eq(BrowseHistoryDO::getType, 1) // 1=笔记
-                        .eq(BrowseHistoryDO::getTargetId, noteId);
-                BrowseHistoryDO existing = browseHistoryMapper.selectOne(wrapper);
-
-                if (existing != null) {
-                    // 更新浏览时间
-                    log.info("更新已有浏览记录 - 记录ID: {}", existing.getId());
-                    existing.setCreatedAt(LocalDateTime.now());
-                    browseHistoryMapper.updateById(existing);
-                } else {
-                    // 插入新记录
-                    log.info("插入新浏览记录");
-                    BrowseHistoryDO history = new BrowseHistoryDO();
-                    history.setUserId(userId);
-                    history.setType(1); // 1=笔记
-                    history.setTargetId(noteId);
-                    history.setCreatedAt(LocalDateTime.now());
-                    int result = browseHistoryMapper.insert(history);
-                    log.info("浏览记录插入结果: {}, 新记录ID: {}", result, history.getId());
-                }
-                log.info("浏览历史记录成功 - 用户ID: {}, 笔记ID: {}", userId, noteId);
-            } catch (Exception e) {
-                log.error("记录浏览历史失败 - 用户ID: {}, 笔记ID: {}, 错误: {}", userId, noteId, e.getMessage(), e);
-            }
-        } else {
-            log.info("用户未登录，不记录浏览历史 - 笔记ID: {}", noteId);
-        }
+        noteViewPipeline.submit(noteId, userId);
     }
 
     @Override
     public boolean isLiked(Long userId, Long noteId) {
-        if (userId == null)
-            return false;
-        LambdaQueryWrapper<UserNoteLikeDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(UserNoteLikeDO::getUserId, userId)
-                .eq(UserNoteLikeDO::getNoteId, noteId);
-        long count = userNoteLikeMapper.selectCount(wrapper);
-        boolean result = count > 0;
-        log.debug("检查点赞状态 - 用户ID: {}, 笔记ID: {}, 记录数: {}, 结果: {}", userId, noteId, count, result);
-        return result;
+        return userInteractionService.contains(userId, UserInteractionService.InteractionType.NOTE_LIKE, noteId);
     }
 
     @Override
     public boolean isBookmarked(Long userId, Long noteId) {
-        if (userId == null)
-            return false;
-        LambdaQueryWrapper<UserFavoriteDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(UserFavoriteDO::getUserId, userId)
-                .eq(UserFavoriteDO::getType, 1)
-                .eq(UserFavoriteDO::getTargetId, noteId);
-        long count = userFavoriteMapper.selectCount(wrapper);
-        boolean result = count > 0;
-        log.debug("检查收藏状态 - 用户ID: {}, 笔记ID: {}, 记录数: {}, 结果: {}", userId, noteId, count, result);
-        return result;
+        return userInteractionService.contains(userId, UserInteractionService.InteractionType.NOTE_BOOKMARK, noteId);
     }
 
+    /**
+     * 搜索笔记
+     * <p>
+     * 使用本地倒排索引按相关度排序（见 {@link NoteSearchIndex}），
+     * 索引未就绪、查询失败或含字母数字的查询在索引中没有命中时降级为 LIKE 查库。
+     * </p>
+     *
+     * @param keyword  关键词
+     * @param pageNum  页码
+     * @param pageSize 每页数量
+     * @return 笔记VO分页列表
+     */
     @Override
     public PageResult<NoteItemVO> searchNotes(String keyword, Integer pageNum, Integer pageSize) {
+        try {
+            long offset = (long) (pageNum - 1) * pageSize;
+            NoteSearchIndex.SearchPage searchPage = noteSearchIndex.search(keyword, offset, pageSize);
+            if (searchPage != null) {
+                List<NoteItemVO> list = convertNoteList(listPublishedNotesByIds(searchPage.getNoteIds()));
+                return PageResult.of(list, searchPage.getTotal(), pageNum, pageSize);
+            }
+        } catch (Exception e) {
+            log.warn("笔记搜索索引查询失败，降级查询数据库: {}", e.getMessage());
+        }
+
         Page<NoteDO> page = new Page<>(pageNum, pageSize);
         LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(NoteDO::getStatus, 1)
@@ -818,6 +1027,78 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
         return PageResult.of(list, notePage.getTotal(), pageNum, pageSize);
     }
 
+    /**
+     * 笔记列表排序（页码模式与游标模式共用，最后按ID倒序保证顺序确定）
+     * <p>
+     * new 按 (发布时间, ID) 倒序；hot 按 (点赞数, ID) 倒序；其他按 (点赞数, 发布时间, ID) 倒序。
+     * </p>
+     */
+    private void applyExploreOrder(LambdaQueryWrapper<NoteDO> wrapper, String sortBy) {
+        if ("new".equals(sortBy)) {
+            wrapper.orderByDesc(NoteDO::getCreatedAt);
+        } else if ("hot".equals(sortBy)) {
+            wrapper.orderByDesc(NoteDO::getLikeCount);
+        } else {
+            wrapper.orderByDesc(NoteDO::getLikeCount).orderByDesc(NoteDO::getCreatedAt);
+        }
+        wrapper.orderByDesc(NoteDO::getId);
+    }
+
+    /**
+     * 游标模式查询笔记列表
+     * <p>
+     * new 的排序字段 (发布时间, ID) 不会变化，直接按游标定位；
+     * 按点赞数排序时点赞数在翻页期间会变化，改为按排序快照翻页（见 {@link NoteRankingService#getListSnapshotPage}），
+     * 游标编码 (快照ID, 偏移量)。排序与页码模式一致。
+     * </p>
+     */
+    private PageResult<NoteItemVO> listNotesByCursor(LambdaQueryWrapper<NoteDO> wrapper, String cursor,
+            String sortBy, Integer pageSize) {
+        if ("new".equals(sortBy)) {
+            PageCursor.seek(wrapper, cursor, NoteDO::getCreatedAt, LocalDateTime::parse, NoteDO::getId, false,
+                    pageSize);
+            List<NoteDO> notes = noteMapper.selectList(wrapper);
+            String nextCursor = PageCursor.nextCursor(notes, pageSize, NoteDO::getCreatedAt, NoteDO::getId);
+            return PageResult.ofCursor(convertNoteList(notes), nextCursor, pageSize);
+        }
+
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        long offset = pageCursor != null ? Math.max(pageCursor.getId(), 0L) : 0L;
+        String listName = "hot".equals(sortBy) ? "hot" : "default";
+        NoteRankingService.RankingPage snapshotPage = noteRankingService.getListSnapshotPage(listName,
+                pageCursor != null ? pageCursor.getSortKey() : null, offset, pageSize, () -> {
+                    wrapper.select(NoteDO::getId);
+                    applyExploreOrder(wrapper, sortBy);
+                    wrapper.last("LIMIT " + NoteRankingService.SNAPSHOT_SIZE);
+                    return noteMapper.selectList(wrapper).stream()
+                            .map(NoteDO::getId)
+                            .collect(Collectors.toList());
+                });
+        long nextOffset = offset + pageSize;
+        String nextCursor = nextOffset < snapshotPage.getTotal()
+                ? PageCursor.encode(snapshotPage.getSnapshotId(), nextOffset) : null;
+        List<NoteDO> notes = listPublishedNotesByIds(snapshotPage.getNoteIds());
+        return PageResult.ofCursor(convertNoteList(notes), nextCursor, pageSize);
+    }
+
+    /**
+     * 按ID列表批量查询已发布笔记，保持传入顺序
+     * <p>
+     * 用于排行榜、时间线等先得到ID再回表的场景，过滤已隐藏或删除的笔记。
+     * </p>
+     */
+    private List<NoteDO> listPublishedNotesByIds(List<Long> noteIds) {
+        if (noteIds == null || noteIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, NoteDO> noteMap = noteMapper.selectBatchIds(noteIds).stream()
+                .collect(Collectors.toMap(NoteDO::getId, Function.identity()));
+        return noteIds.stream()
+                .map(noteMap::get)
+                .filter(note -> note != null && note.getStatus() == NoteStatus.NORMAL.getCode())
+                .collect(Collectors.toList());
+    }
+
     /**
      * 批量转换笔记列表 - 解决N+1查询问题
      * 使用In-Memory Map预加载关联数据，将查询复杂度从O(N)降为O(1)
@@ -969,61 +1250,29 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
             list.add(noteTopic);
         }
         noteTopicMapper.insertBatch(list);
+        topicTrendingService.recordTopicUsage(topics);
     }
 
     /**
      * 通过话题名称保存笔记话题关联（支持自定义话题）
-     * 如果话题不存在，则自动创建
+     * 如果话题不存在，则自动创建（见 {@link TopicDictionaryService}）
      */
     private void saveNoteTopicsByNames(Long noteId, List<String> topicNames) {
-        List<NoteTopicDO> list = new ArrayList<>();
-        for (String topicName : topicNames) {
-            if (topicName == null || topicName.trim().isEmpty()) {
-                continue;
-            }
-
-            // 查找或创建话题
-            TopicDO topic = findOrCreateTopic(topicName.trim());
-
-            // 更新话题的笔记数量
-            topicMapper.incrementNoteCount(topic.getId());
+        List<Long> topicIds = topicDictionaryService.resolveOrCreate(topicNames);
+        if (topicIds.isEmpty()) {
+            return;
+        }
 
-            // 创建笔记话题关联
+        List<NoteTopicDO> list = new ArrayList<>();
+        for (Long topicId : topicIds) {
             NoteTopicDO noteTopic = new NoteTopicDO();
             noteTopic.setNoteId(noteId);
-            noteTopic.setTopicId(topic.getId());
+            noteTopic.setTopicId(topicId);
             list.add(noteTopic);
         }
-
-        if (!list.isEmpty()) {
-            noteTopicMapper.insertBatch(list);
-        }
-    }
-
-    /**
-     * 查找或创建话题
-     * 如果话题已存在则返回，否则创建新话题
-     */
-    private TopicDO findOrCreateTopic(String topicName) {
-        // 查找已存在的话题
-        LambdaQueryWrapper<TopicDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(TopicDO::getName, topicName)
-                .eq(TopicDO::getStatus, TopicStatus.NORMAL.getCode());
-        TopicDO topic = topicMapper.selectOne(wrapper);
-
-        if (topic == null) {
-            // 创建新话题
-            topic = new TopicDO();
-            topic.setName(topicName);
-            topic.setStatus(TopicStatus.NORMAL.getCode());
-            topic.setHot(0);
-            topic.setNoteCount(0);
-            topic.setViewCount(0);
-            topicMapper.insert(topic);
-            log.info("创建新话题: {}, ID: {}", topicName, topic.getId());
-        }
-
-        return topic;
+        noteTopicMapper.insertBatch(list);
+        // 话题笔记数在事务提交后异步批量写回
+        topicTrendingService.recordTopicNotes(topicIds);
     }
 
     private void deleteNoteTags(Long noteId) {
@@ -1065,50 +1314,4 @@ public class NoteServiceImpl extends ServiceImpl<NoteMapper, NoteDO> implements
                 })
                 .collect(Collectors.toList());
     }
-
-    /**
-     * 检查是否关注
-     */
-    private boolean isFollowing(Long userId, Long targetUserId) {
-        if (userId == null || targetUserId == null || userId.equals(targetUserId)) {
-            return false;
-        }
-
-        LambdaQueryWrapper<UserFollowDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(UserFollowDO::getUserId, userId)
-                .eq(UserFollowDO::getFollowUserId, targetUserId);
-        long count = userFollowMapper.selectCount(wrapper);
-        boolean result = count > 0;
-        log.debug("检查关注状态 - 用户ID: {}, 目标用户ID: {}, 记录数: {}, 结果: {}", userId, targetUserId, count, result);
-        return result;
-    }
-
-    /**
-     * 根据用户ID查找关联的商家ID
-     * 通过用户手机号匹配商家的联系电话
-     */
-    private Long findMerchantIdByUserId(Long userId) {
-        if (userId == null) {
-            return null;
-        }
-
-        // 查询用户信息
-        UserDO user = userMapper.selectById(userId);
-        if (user == null || user.getPhone() == null) {
-            return null;
-        }
-
-        // 通过手机号查找商家
-        LambdaQueryWrapper<MerchantDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(MerchantDO::getContactPhone, user.getPhone())
-                .eq(MerchantDO::getStatus, 1); // 只查找正常状态的商家
-        MerchantDO merchant = merchantMapper.selectOne(wrapper);
-
-        if (merchant != null) {
-            log.info("用户{}关联到商家: merchantId={}, merchantName={}", userId, merchant.getId(), merchant.getName());
-            return merchant.getId();
-        }
-
-        return null;
-    }
 }
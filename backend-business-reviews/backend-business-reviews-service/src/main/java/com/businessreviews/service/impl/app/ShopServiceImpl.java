@@ -3,7 +3,12 @@ package com.businessreviews.service.impl.app;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.businessreviews.cache.TieredCache;
+import com.businessreviews.cache.TieredCacheManager;
+import com.businessreviews.cache.TieredCacheNames;
+import com.businessreviews.common.PageCursor;
 import com.businessreviews.common.PageResult;
+import com.businessreviews.event.ReviewChangedEvent;
 import com.businessreviews.model.vo.NoteItemVO;
 import com.businessreviews.model.vo.ShopDetailVO;
 import com.businessreviews.model.vo.ShopItemVO;
@@ -12,17 +17,34 @@ import com.businessreviews.exception.BusinessException;
 import com.businessreviews.mapper.*;
 import com.businessreviews.enums.ReviewStatus;
 import com.businessreviews.service.app.ShopService;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
+import com.businessreviews.service.impl.common.NoteCounterService;
+import com.businessreviews.service.impl.common.ShopRankingService;
+import com.businessreviews.service.impl.common.ShopRatingService;
+import com.businessreviews.service.impl.common.ShopGeoIndexInitializer;
+import com.businessreviews.service.impl.common.ShopSearchIndex;
+import com.businessreviews.service.impl.common.ShopSpatialIndex;
 import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.SpatialGrid;
+import com.businessreviews.constants.CacheExpireConstants;
 import com.businessreviews.constants.RedisKeyConstants;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.redis.connection.RedisGeoCommands;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -50,28 +72,57 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
     private final NoteMapper noteMapper;
     private final UserMapper userMapper;
     private final UserFavoriteMapper userFavoriteMapper;
-    private final UserStatsMapper userStatsMapper;
+    private final NoteCounterService noteCounterService;
     private final ShopReviewMapper shopReviewMapper;
+    private final ShopRatingService shopRatingService;
+    private final ShopRankingService shopRankingService;
     private final RedisUtil redisUtil;
+    private final ShopSearchIndex shopSearchIndex;
+    private final ShopSpatialIndex shopSpatialIndex;
+    private final TieredCacheManager tieredCacheManager;
+    private final EntityIdFilterService entityIdFilterService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** 附近商家最多可翻页到的商家数（翻页深度上限，半径内的商家总数不受此限制） */
+    private static final int MAX_NEARBY_SHOPS = 5000;
+
+    /** 店铺详情二级缓存（不含用户互动状态） */
+    private TieredCache<ShopDetailVO> shopDetailCache;
+
+    /** 店铺列表项二级缓存（只缓存营业中的店铺） */
+    private TieredCache<ShopItemVO> shopItemCache;
+
+    /**
+     * 初始化二级缓存
+     */
+    @PostConstruct
+    public void initCaches() {
+        shopDetailCache = tieredCacheManager.create(TieredCacheNames.SHOP_DETAIL, RedisKeyConstants.SHOP_INFO,
+                ShopDetailVO.class, CacheExpireConstants.SHOP_INFO, 2000, CacheExpireConstants.LOCAL_CACHE)
+                .withDistributedLease();
+        shopItemCache = tieredCacheManager.create(TieredCacheNames.SHOP_ITEM, RedisKeyConstants.SHOP_ITEM,
+                ShopItemVO.class, CacheExpireConstants.SHOP_INFO, 5000, CacheExpireConstants.LOCAL_CACHE);
+    }
 
     /**
      * 获取店铺列表（多条件筛选）
      * <p>
      * 支持按分类、关键词、排序方式进行综合查询。
      * 排序方式包括：评分、热度、价格升序/降序。
+     * 无关键词的页码分页读取预先排好的商家排行（见 {@link ShopRankingService}），不在数据库中排序和计数。
      * </p>
      *
      * @param categoryId 分类ID
      * @param keyword    搜索关键词
      * @param sortBy     排序方式 (rating/popular/price_asc/price_desc)
+     * @param cursor     分页游标（为空时使用页码分页）
      * @param pageNum    页码
      * @param pageSize   每页数量
      * @return 店铺VO分页列表
      */
     @Override
-    public PageResult<ShopItemVO> getShopList(Long categoryId, String keyword, String sortBy, Integer pageNum,
-            Integer pageSize) {
-        Page<ShopDO> page = new Page<>(pageNum, pageSize);
+    public PageResult<ShopItemVO> getShopList(Long categoryId, String keyword, String sortBy, String cursor,
+            Integer pageNum, Integer pageSize) {
         LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(ShopDO::getStatus, 1);
 
@@ -79,24 +130,49 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
             wrapper.eq(ShopDO::getCategoryId, categoryId);
         }
 
-        if (keyword != null && !keyword.trim().isEmpty()) {
+        boolean hasKeyword = keyword != null && !keyword.trim().isEmpty();
+        if (!hasKeyword && cursor == null) {
+            // 页码分页优先读取预先排好的商家排行
+            PageResult<ShopItemVO> ranked = listShopsByRanking(categoryId, sortBy, pageNum, pageSize);
+            if (ranked != null) {
+                return ranked;
+            }
+        }
+
+        if (hasKeyword) {
+            // 页码分页优先走搜索索引，筛选和排序在索引内完成
+            if (cursor == null) {
+                PageResult<ShopItemVO> indexed = searchShopsByIndex(keyword.trim(), categoryId, false, sortBy,
+                        pageNum, pageSize);
+                if (indexed != null) {
+                    return indexed;
+                }
+            }
             wrapper.and(w -> w.like(ShopDO::getName, keyword.trim())
                     .or()
                     .like(ShopDO::getAddress, keyword.trim()));
         }
 
-        if ("rating".equals(sortBy)) {
-            wrapper.orderByDesc(ShopDO::getRating);
-        } else if ("popular".equals(sortBy)) {
-            wrapper.orderByDesc(ShopDO::getPopularity);
-        } else if ("price_asc".equals(sortBy)) {
-            wrapper.orderByAsc(ShopDO::getAveragePrice);
-        } else if ("price_desc".equals(sortBy)) {
-            wrapper.orderByDesc(ShopDO::getAveragePrice);
-        } else {
-            wrapper.orderByDesc(ShopDO::getRating).orderByDesc(ShopDO::getPopularity);
+        if (cursor != null) {
+            String order = shopListOrder(sortBy);
+            String listName = "list:" + order + ":" + (categoryId != null ? categoryId : "all")
+                    + (hasKeyword ? ":" + keywordDigest(keyword.trim()) : "");
+            return listShopsByCursor(cursor, listName, pageSize, () -> {
+                if (!hasKeyword) {
+                    // 无关键词时快照直接取商家排行的前若干名，与页码分页顺序一致
+                    ShopRankingService.RankedPage ranked = shopRankingService.page(categoryId, order, 1,
+                            ShopRankingService.SNAPSHOT_SIZE);
+                    if (ranked != null) {
+                        return ranked.shopIds();
+                    }
+                }
+                return selectSortedShopIds(wrapper, order);
+            });
         }
 
+        Page<ShopDO> page = new Page<>(pageNum, pageSize);
+        applyShopOrder(wrapper, shopListOrder(sortBy));
+
         Page<ShopDO> shopPage = shopMapper.selectPage(page, wrapper);
 
         // 使用批量转换，解决N+1查询问题
@@ -111,6 +187,11 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
      * 基于经纬度查询附近的店铺，并计算距离。
      * 支持按分类筛选和排序方向（从近到远/从远到近）。
      * </p>
+     * <p>
+     * 优先查询本地空间索引（见 {@link ShopSpatialIndex}），本地索引未就绪时查询 Redis GEO 索引
+     * （按分类筛选时直接查询该分类的索引，见 {@link ShopGeoIndexInitializer}），两者都不可用时降级查询数据库。
+     * 半径内的商家总数和排序均由索引给出，只回表查询当前页的商家。
+     * </p>
      *
      * @param latitude   用户当前纬度
      * @param longitude  用户当前经度
@@ -124,91 +205,92 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
     @Override
     public PageResult<ShopItemVO> getNearbyShops(Double latitude, Double longitude, Double distance,
             Long categoryId, String sortOrder, Integer pageNum, Integer pageSize) {
-
-        // 使用 Redis GEO 查询附近商家（按距离升序）
-        // 计算需要跳过的数量和获取的数量
-        long offset = (long) (pageNum - 1) * pageSize;
-        long limit = offset + pageSize + 50; // 多查一些以便过滤分类后仍有足够数据
-
-        // 从 Redis GEO 获取附近商家ID和距离
-        var geoResults = redisUtil.geoRadius(
-                RedisKeyConstants.SHOP_GEO,
-                longitude,
-                latitude,
-                distance != null ? distance : 10.0, // 默认10公里
-                limit);
-
-        if (geoResults.isEmpty()) {
-            log.info("Redis GEO 未找到附近商家，降级查询数据库");
+        double radius = distance != null ? distance : 10.0; // 默认10公里
+        boolean farthestFirst = "desc".equalsIgnoreCase(sortOrder);
+        int offset = (int) Math.min((long) (pageNum - 1) * pageSize, MAX_NEARBY_SHOPS);
+        int limit = (int) Math.min((long) offset + pageSize, MAX_NEARBY_SHOPS);
+
+        String source = "本地空间索引";
+        SpatialGrid.Result nearby = shopSpatialIndex.search(latitude, longitude, radius, categoryId, limit,
+                farthestFirst);
+        if (nearby == null) {
+            source = "Redis GEO";
+            nearby = searchShopGeo(latitude, longitude, radius, categoryId, limit, farthestFirst);
+        }
+        if (nearby == null) {
             return fallbackNearbyShops(latitude, longitude, distance, categoryId, sortOrder, pageNum, pageSize);
         }
 
-        // 提取商家ID列表
-        List<Long> shopIds = geoResults.stream()
-                .map(result -> Long.parseLong(result.getContent().getName()))
-                .collect(Collectors.toList());
-
-        // 批量查询商家详情
-        List<ShopDO> shops = shopMapper.selectBatchIds(shopIds);
+        long total = nearby.total();
+        List<SpatialGrid.Hit> page = nearby.hits().subList(Math.min(offset, nearby.hits().size()),
+                nearby.hits().size());
+        if (page.isEmpty()) {
+            return PageResult.of(new ArrayList<>(), total, pageNum, pageSize);
+        }
 
-        // 构建 shopId -> ShopDO 映射
-        Map<Long, ShopDO> shopMap = shops.stream()
+        // 只回表查询当前页的商家
+        List<Long> shopIds = page.stream().map(SpatialGrid.Hit::id).collect(Collectors.toList());
+        Map<Long, ShopDO> shopMap = shopMapper.selectBatchIds(shopIds).stream()
                 .collect(Collectors.toMap(ShopDO::getId, s -> s));
+        Map<Integer, CategoryDO> categoryMap = batchLoadCategories(new ArrayList<>(shopMap.values()));
 
-        // 构建 shopId -> 距离 映射
-        Map<Long, Double> distanceMap = new HashMap<>();
-        for (var result : geoResults) {
-            Long shopId = Long.parseLong(result.getContent().getName());
-            if (result.getDistance() != null) {
-                distanceMap.put(shopId, result.getDistance().getValue());
+        List<ShopItemVO> pageItems = new ArrayList<>();
+        for (SpatialGrid.Hit hit : page) {
+            ShopDO shop = shopMap.get(hit.id());
+            if (shop == null || shop.getStatus() != 1) {
+                continue; // 跳过索引尚未同步的已删除或已下架商家
             }
+            ShopItemVO item = convertToShopItem(shop, categoryMap);
+            item.setDistance(String.format("%.1fkm", hit.distance()));
+            // 存储原始距离值用于排序
+            item.setDistanceValue(hit.distance());
+            pageItems.add(item);
         }
 
-        // 批量预加载分类信息
-        Map<Integer, CategoryDO> categoryMap = batchLoadCategories(shops);
+        log.info("{}附近商家查询: lat={}, lng={}, distance={}km, categoryId={}, sortOrder={}, found={}",
+                source, latitude, longitude, distance, categoryId, sortOrder, total);
 
-        // 按 Redis GEO 返回的顺序（距离升序）转换并过滤
-        List<ShopItemVO> allItems = new ArrayList<>();
-        for (Long shopId : shopIds) {
-            ShopDO shop = shopMap.get(shopId);
-            if (shop == null || shop.getStatus() != 1) {
-                continue; // 跳过不存在或已下架的商家
-            }
-
-            // 按分类过滤
-            if (categoryId != null && !categoryId.equals(shop.getCategoryId().longValue())) {
-                continue;
-            }
+        return PageResult.of(pageItems, total, pageNum, pageSize);
+    }
 
-            ShopItemVO item = convertToShopItem(shop, categoryMap);
-            Double dist = distanceMap.get(shopId);
-            if (dist != null) {
-                item.setDistance(String.format("%.1fkm", dist));
-                // 存储原始距离值用于排序
-                item.setDistanceValue(dist);
+    /**
+     * 通过 Redis GEO 索引查询半径内的商家
+     * <p>
+     * GEOSEARCH 按所需方向排序并只取回前 limit 个商家；取满 limit 个时半径内可能还有更多商家，
+     * 总数改由服务端计数脚本给出（只返回数量，不传输成员）。
+     * </p>
+     *
+     * @return 按距离排序的前 limit 个商家；所查询的 GEO 索引不存在或 Redis 异常时返回null
+     */
+    private SpatialGrid.Result searchShopGeo(double latitude, double longitude, double radius, Long categoryId,
+            int limit, boolean farthestFirst) {
+        String geoKey = categoryId != null ? ShopGeoIndexInitializer.categoryKey(categoryId)
+                : RedisKeyConstants.SHOP_GEO;
+        List<GeoResult<RedisGeoCommands.GeoLocation<String>>> geoResults;
+        long total;
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.hasKey(geoKey))) {
+                log.info("Redis GEO 索引不存在，降级查询数据库: {}", geoKey);
+                return null;
             }
-            allItems.add(item);
+            geoResults = redisUtil.geoSearch(geoKey, longitude, latitude, radius, farthestFirst, limit);
+            total = geoResults.size() < limit ? geoResults.size()
+                    : redisUtil.geoCount(geoKey, longitude, latitude, radius);
+        } catch (Exception e) {
+            log.warn("Redis GEO 查询失败，降级查询数据库: {}", e.getMessage());
+            return null;
         }
 
-        // 如果是降序（从远到近），反转整个列表
-        if ("desc".equalsIgnoreCase(sortOrder)) {
-            Collections.reverse(allItems);
+        List<SpatialGrid.Hit> hits = new ArrayList<>(geoResults.size());
+        for (GeoResult<RedisGeoCommands.GeoLocation<String>> result : geoResults) {
+            double dist = result.getDistance() != null ? result.getDistance().getValue() : 0D;
+            hits.add(new SpatialGrid.Hit(Long.parseLong(result.getContent().getName()), dist));
         }
-
-        // 手动分页
-        long total = allItems.size();
-        int fromIndex = (int) Math.min(offset, allItems.size());
-        int toIndex = (int) Math.min(offset + pageSize, allItems.size());
-        List<ShopItemVO> pageItems = allItems.subList(fromIndex, toIndex);
-
-        log.info("Redis GEO 附近商家查询: lat={}, lng={}, distance={}km, sortOrder={}, found={}",
-                latitude, longitude, distance, sortOrder, total);
-
-        return PageResult.of(pageItems, total, pageNum, pageSize);
+        return new SpatialGrid.Result(hits, (int) Math.min(total, Integer.MAX_VALUE));
     }
 
     /**
-     * 降级方案：当 Redis GEO 不可用时，使用数据库查询
+     * 降级方案：当本地空间索引和 Redis GEO 都不可用时，使用数据库查询
      *
      * @param latitude   用户纬度
      * @param longitude  用户经度
@@ -276,8 +358,9 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
     /**
      * 搜索店铺
      * <p>
-     * 根据关键词模糊搜索店铺名称或地址。
-     * 结果按评分降序排列。
+     * 根据关键词搜索店铺名称、地址、分类和标签，支持拼音首字母。
+     * 结果按评分降序排列。优先使用商家搜索索引（见 {@link ShopSearchIndex}），
+     * 索引未就绪时降级为 LIKE 查库。
      * </p>
      *
      * @param keyword  搜索关键词
@@ -287,6 +370,11 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
      */
     @Override
     public PageResult<ShopItemVO> searchShops(String keyword, Integer pageNum, Integer pageSize) {
+        PageResult<ShopItemVO> indexed = searchShopsByIndex(keyword, null, false, "rating", pageNum, pageSize);
+        if (indexed != null) {
+            return indexed;
+        }
+
         Page<ShopDO> page = new Page<>(pageNum, pageSize);
         LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(ShopDO::getStatus, 1)
@@ -317,57 +405,44 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
      */
     @Override
     public ShopDetailVO getShopDetail(Long shopId, Long userId) {
-        // 先检查商家是否存在/正常，这些基础校验可以走缓存，但状态变更需要清理缓存
-        // 尝试从缓存获取
-        String cacheKey = RedisKeyConstants.SHOP_INFO + shopId;
-        ShopDetailVO cachedShop = null;
-        try {
-            // 简单的VO对象可以使用 redisUtil.getObject
-            cachedShop = redisUtil.getObject(cacheKey, ShopDetailVO.class);
-        } catch (Exception e) {
-            log.warn("店铺详情缓存读取失败: {}", e.getMessage());
-        }
-
-        if (cachedShop != null) {
-            log.info("从缓存获取店铺详情: shopId={}", shopId);
-            // 缓存中只存了基础信息，用户互动状态(是否点赞收藏)是动态的，需要单独设置
-            return fillUserInteraction(cachedShop, shopId, userId);
-        }
-
-        ShopDO shop = shopMapper.selectById(shopId);
-        if (shop == null) {
+        // 不存在的商家ID直接拒绝，不查缓存和数据库
+        if (!entityIdFilterService.mightExist(EntityIdFilterService.EntityType.SHOP, shopId)) {
             throw new BusinessException(40402, "商家不存在");
         }
-        if (shop.getStatus() != null && shop.getStatus() != 1) {
-            throw new BusinessException(40402, "商家暂停营业");
-        }
+        // 基础信息走二级缓存，店铺或评价变更时由 ShopCacheCoordinator 清除并预热
+        ShopDetailVO cached = shopDetailCache.get(shopId.toString(), () -> {
+            ShopDO shop = shopMapper.selectById(shopId);
+            if (shop == null) {
+                entityIdFilterService.markMissing(EntityIdFilterService.EntityType.SHOP, shopId);
+                throw new BusinessException(40402, "商家不存在");
+            }
+            if (shop.getStatus() != null && shop.getStatus() != 1) {
+                throw new BusinessException(40402, "商家暂停营业");
+            }
 
+            ShopDetailVO response = new ShopDetailVO();
+            response.setId(shop.getId());
+            response.setName(shop.getName());
+            response.setHeaderImage(shop.getHeaderImage());
+            response.setImages(parseImages(shop.getImages()));
+            response.setDescription(shop.getDescription());
+            response.setRating(shop.getRating());
+            response.setAveragePrice(shop.getAveragePrice());
+            response.setAddress(shop.getAddress());
+            response.setPhone(shop.getPhone());
+            response.setBusinessHours(shop.getBusinessHours());
+            response.setReviewCount(shop.getReviewCount());
+            response.setTasteScore(shop.getTasteScore());
+            response.setEnvironmentScore(shop.getEnvironmentScore());
+            response.setServiceScore(shop.getServiceScore());
+            response.setLatitude(shop.getLatitude());
+            response.setLongitude(shop.getLongitude());
+            return response;
+        });
+
+        // 缓存对象为各请求共享，复制后再填充用户互动状态(是否收藏)
         ShopDetailVO response = new ShopDetailVO();
-        response.setId(shop.getId());
-        response.setName(shop.getName());
-        response.setHeaderImage(shop.getHeaderImage());
-        response.setImages(parseImages(shop.getImages()));
-        response.setDescription(shop.getDescription());
-        response.setRating(shop.getRating());
-        response.setAveragePrice(shop.getAveragePrice());
-        response.setAddress(shop.getAddress());
-        response.setPhone(shop.getPhone());
-        response.setBusinessHours(shop.getBusinessHours());
-        response.setReviewCount(shop.getReviewCount());
-        response.setTasteScore(shop.getTasteScore());
-        response.setEnvironmentScore(shop.getEnvironmentScore());
-        response.setServiceScore(shop.getServiceScore());
-        response.setLatitude(shop.getLatitude());
-        response.setLongitude(shop.getLongitude());
-
-        // 写入缓存，设置过期时间30分钟
-        try {
-            redisUtil.setObject(cacheKey, response, 1800L);
-            log.info("店铺详情写入缓存: shopId={}", shopId);
-        } catch (Exception e) {
-            log.warn("店铺详情缓存写入失败: {}", e.getMessage());
-        }
-
+        BeanUtils.copyProperties(cached, response);
         return fillUserInteraction(response, shopId, userId);
     }
 
@@ -391,20 +466,32 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
      * </p>
      *
      * @param shopId   店铺ID
+     * @param cursor   分页游标（为空时使用页码分页）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 笔记列表
      */
     @Override
-    public PageResult<Object> getShopNotes(Long shopId, Integer pageNum, Integer pageSize) {
-        Page<NoteDO> page = new Page<>(pageNum, pageSize);
+    public PageResult<Object> getShopNotes(Long shopId, String cursor, Integer pageNum, Integer pageSize) {
         LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(NoteDO::getShopId, shopId)
-                .eq(NoteDO::getStatus, 1)
-                .orderByDesc(NoteDO::getCreatedAt);
-
-        Page<NoteDO> notePage = noteMapper.selectPage(page, wrapper);
-        List<NoteDO> notes = notePage.getRecords();
+                .eq(NoteDO::getStatus, 1);
+
+        List<NoteDO> notes;
+        Long total = null;
+        String nextCursor = null;
+        if (cursor != null) {
+            // 游标模式：按 (发布时间, ID) 定位，不查询总数
+            PageCursor.seek(wrapper, cursor, NoteDO::getCreatedAt, LocalDateTime::parse, NoteDO::getId, false,
+                    pageSize);
+            notes = noteMapper.selectList(wrapper);
+            nextCursor = PageCursor.nextCursor(notes, pageSize, NoteDO::getCreatedAt, NoteDO::getId);
+        } else {
+            wrapper.orderByDesc(NoteDO::getCreatedAt);
+            Page<NoteDO> notePage = noteMapper.selectPage(new Page<>(pageNum, pageSize), wrapper);
+            notes = notePage.getRecords();
+            total = notePage.getTotal();
+        }
 
         // 批量预加载用户信息，解决N+1查询问题
         Set<Long> userIds = notes.stream()
@@ -441,7 +528,10 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
                 })
                 .collect(Collectors.toList());
 
-        return PageResult.of(list, notePage.getTotal(), pageNum, pageSize);
+        if (cursor != null) {
+            return PageResult.ofCursor(list, nextCursor, pageSize);
+        }
+        return PageResult.of(list, total, pageNum, pageSize);
     }
 
     /**
@@ -470,7 +560,7 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
         userFavoriteMapper.insert(favorite);
 
         shopMapper.incrementFavoriteCount(shopId);
-        userStatsMapper.incrementFavoriteCount(userId);
+        noteCounterService.incrementUser(userId, NoteCounterService.CounterField.FAVORITE, 1);
     }
 
     /**
@@ -495,7 +585,7 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
 
         userFavoriteMapper.deleteById(favorite.getId());
         shopMapper.decrementFavoriteCount(shopId);
-        userStatsMapper.decrementFavoriteCount(userId);
+        noteCounterService.incrementUser(userId, NoteCounterService.CounterField.FAVORITE, -1);
     }
 
     @Override
@@ -517,27 +607,47 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
      * </p>
      *
      * @param shopId   店铺ID
+     * @param cursor   分页游标（为空时使用页码分页）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @param sortBy   排序方式 (rating/default)
      * @return 评价列表
      */
     @Override
-    public PageResult<Object> getShopReviews(Long shopId, Integer pageNum, Integer pageSize, String sortBy) {
-        Page<ShopReviewDO> page = new Page<>(pageNum, pageSize);
+    public PageResult<Object> getShopReviews(Long shopId, String cursor, Integer pageNum, Integer pageSize,
+            String sortBy) {
         LambdaQueryWrapper<ShopReviewDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(ShopReviewDO::getShopId, shopId)
                 .eq(ShopReviewDO::getStatus, 1);
 
-        if ("rating".equals(sortBy)) {
-            wrapper.orderByDesc(ShopReviewDO::getRating);
+        List<ShopReviewDO> reviews;
+        Long total = null;
+        String nextCursor = null;
+        if (cursor != null) {
+            // 游标模式：按 (评分, ID) 或 (发布时间, ID) 定位，不查询总数
+            if ("rating".equals(sortBy)) {
+                PageCursor.seek(wrapper, cursor, ShopReviewDO::getRating, BigDecimal::new, ShopReviewDO::getId,
+                        false, pageSize);
+                reviews = shopReviewMapper.selectList(wrapper);
+                nextCursor = PageCursor.nextCursor(reviews, pageSize, ShopReviewDO::getRating, ShopReviewDO::getId);
+            } else {
+                PageCursor.seek(wrapper, cursor, ShopReviewDO::getCreatedAt, LocalDateTime::parse,
+                        ShopReviewDO::getId, false, pageSize);
+                reviews = shopReviewMapper.selectList(wrapper);
+                nextCursor = PageCursor.nextCursor(reviews, pageSize, ShopReviewDO::getCreatedAt,
+                        ShopReviewDO::getId);
+            }
         } else {
-            wrapper.orderByDesc(ShopReviewDO::getCreatedAt);
+            if ("rating".equals(sortBy)) {
+                wrapper.orderByDesc(ShopReviewDO::getRating);
+            } else {
+                wrapper.orderByDesc(ShopReviewDO::getCreatedAt);
+            }
+            Page<ShopReviewDO> reviewPage = shopReviewMapper.selectPage(new Page<>(pageNum, pageSize), wrapper);
+            reviews = reviewPage.getRecords();
+            total = reviewPage.getTotal();
         }
 
-        Page<ShopReviewDO> reviewPage = shopReviewMapper.selectPage(page, wrapper);
-        List<ShopReviewDO> reviews = reviewPage.getRecords();
-
         // 批量预加载用户信息，解决N+1查询问题
         Set<Long> userIds = reviews.stream()
                 .map(ShopReviewDO::getUserId)
@@ -574,14 +684,17 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
                 })
                 .collect(Collectors.toList());
 
-        return PageResult.of(list, reviewPage.getTotal(), pageNum, pageSize);
+        if (cursor != null) {
+            return PageResult.ofCursor(list, nextCursor, pageSize);
+        }
+        return PageResult.of(list, total, pageNum, pageSize);
     }
 
     /**
      * 发表店铺评价
      * <p>
      * 用户提交对店铺的评分和评价内容。
-     * 评价提交后会自动触发店铺综合评分的重新计算和更新。
+     * 评价提交后按该评价的增量更新店铺各维度评分（见 {@link ShopRatingService}）。
      * </p>
      *
      * @param userId  用户ID
@@ -623,48 +736,82 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
         review.setCreatedAt(LocalDateTime.now());
 
         shopReviewMapper.insert(review);
-        updateShopRating(shopId);
+        shopRatingService.reviewAdded(review);
+        eventPublisher.publishEvent(new ReviewChangedEvent(this, review.getId(), shopId,
+                ReviewChangedEvent.ChangeType.CREATED));
 
         log.info("用户{}对商家{}发表评价成功", userId, shopId);
     }
 
-    private void updateShopRating(Long shopId) {
-        LambdaQueryWrapper<ShopReviewDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ShopReviewDO::getShopId, shopId)
-                .eq(ShopReviewDO::getStatus, ReviewStatus.NORMAL.getCode());
-        List<ShopReviewDO> reviews = shopReviewMapper.selectList(wrapper);
-
-        if (!reviews.isEmpty()) {
-            double avgRating = reviews.stream()
-                    .mapToDouble(r -> r.getRating().doubleValue())
-                    .average()
-                    .orElse(5.0);
-            double avgTaste = reviews.stream()
-                    .filter(r -> r.getTasteScore() != null)
-                    .mapToDouble(r -> r.getTasteScore().doubleValue())
-                    .average()
-                    .orElse(5.0);
-            double avgEnvironment = reviews.stream()
-                    .filter(r -> r.getEnvironmentScore() != null)
-                    .mapToDouble(r -> r.getEnvironmentScore().doubleValue())
-                    .average()
-                    .orElse(5.0);
-            double avgService = reviews.stream()
-                    .filter(r -> r.getServiceScore() != null)
-                    .mapToDouble(r -> r.getServiceScore().doubleValue())
-                    .average()
-                    .orElse(5.0);
+    /**
+     * 游标模式查询店铺列表
+     * <p>
+     * 评分、人气在翻页期间会变化，不按排序字段定位，改为按排序快照翻页
+     * （见 {@link ShopRankingService#snapshotPage}），游标编码 (快照ID, 偏移量)。排序与页码模式一致。
+     * </p>
+     *
+     * @param listName 列表名称（含筛选条件和排序方式，不同列表使用不同快照）
+     * @param loader   按排序查询商家ID，用于生成快照
+     */
+    private PageResult<ShopItemVO> listShopsByCursor(String cursor, String listName, Integer pageSize,
+            Supplier<List<Long>> loader) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        // 不属于该列表的游标（包括旧版按排序字段编码的游标）从头翻页
+        boolean sameList = pageCursor != null && pageCursor.getSortKey().startsWith(listName + "-");
+        long offset = sameList ? Math.max(pageCursor.getId(), 0L) : 0L;
+        ShopRankingService.SnapshotPage snapshotPage = shopRankingService.snapshotPage(listName,
+                sameList ? pageCursor.getSortKey() : null, offset, pageSize, loader);
+
+        long nextOffset = offset + pageSize;
+        String nextCursor = nextOffset < snapshotPage.total()
+                ? PageCursor.encode(snapshotPage.snapshotId(), nextOffset) : null;
+        return PageResult.ofCursor(loadShopItems(snapshotPage.shopIds()), nextCursor, pageSize);
+    }
 
-            ShopDO shop = shopMapper.selectById(shopId);
-            shop.setRating(BigDecimal.valueOf(avgRating));
-            shop.setTasteScore(BigDecimal.valueOf(avgTaste));
-            shop.setEnvironmentScore(BigDecimal.valueOf(avgEnvironment));
-            shop.setServiceScore(BigDecimal.valueOf(avgService));
-            shop.setReviewCount(reviews.size());
-            shopMapper.updateById(shop);
+    /**
+     * 按排序查询商家ID（最多 {@link ShopRankingService#SNAPSHOT_SIZE} 个），用于生成排序快照
+     */
+    private List<Long> selectSortedShopIds(LambdaQueryWrapper<ShopDO> wrapper, String order) {
+        wrapper.select(ShopDO::getId);
+        applyShopOrder(wrapper, order);
+        wrapper.last("LIMIT " + ShopRankingService.SNAPSHOT_SIZE);
+        return shopMapper.selectList(wrapper).stream()
+                .map(ShopDO::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 规范化排序方式：popular/price_asc/price_desc 保持不变，其他按评分排序
+     */
+    private static String shopListOrder(String sortBy) {
+        return "popular".equals(sortBy) || "price_asc".equals(sortBy) || "price_desc".equals(sortBy)
+                ? sortBy : "rating";
+    }
+
+    /**
+     * 商家列表排序（页码模式、游标快照共用，与 {@link ShopRankingService} 的排行顺序一致，最后按ID保证顺序确定）
+     * <p>
+     * rating 按 (评分, 人气, ID) 倒序；popular 按 (人气, ID) 倒序；
+     * price_asc/price_desc 按 (人均价格, ID) 升序/倒序。
+     * </p>
+     */
+    private static void applyShopOrder(LambdaQueryWrapper<ShopDO> wrapper, String order) {
+        switch (order) {
+            case "popular" -> wrapper.orderByDesc(ShopDO::getPopularity).orderByDesc(ShopDO::getId);
+            case "price_asc" -> wrapper.orderByAsc(ShopDO::getAveragePrice).orderByAsc(ShopDO::getId);
+            case "price_desc" -> wrapper.orderByDesc(ShopDO::getAveragePrice).orderByDesc(ShopDO::getId);
+            default -> wrapper.orderByDesc(ShopDO::getRating).orderByDesc(ShopDO::getPopularity)
+                    .orderByDesc(ShopDO::getId);
         }
     }
 
+    /**
+     * 关键词摘要（用于快照列表名称，避免将用户输入直接拼入 Redis Key）
+     */
+    private static String keywordDigest(String keyword) {
+        return DigestUtils.md5DigestAsHex(keyword.getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * 批量转换店铺列表 - 解决N+1查询问题
      * 使用In-Memory Map预加载分类信息，将查询复杂度从O(N)降为O(1)
@@ -778,25 +925,40 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
      * </p>
      *
      * @param keyword  搜索关键词
+     * @param cursor   分页游标（为空时使用页码分页）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 店铺VO分页列表
      */
     @Override
-    public PageResult<ShopItemVO> getRegisteredShops(String keyword, Integer pageNum, Integer pageSize) {
-        Page<ShopDO> page = new Page<>(pageNum, pageSize);
+    public PageResult<ShopItemVO> getRegisteredShops(String keyword, String cursor, Integer pageNum,
+            Integer pageSize) {
         LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
 
         wrapper.eq(ShopDO::getStatus, 1)
                 .isNotNull(ShopDO::getMerchantId);
 
         if (keyword != null && !keyword.trim().isEmpty()) {
+            if (cursor == null) {
+                PageResult<ShopItemVO> indexed = searchShopsByIndex(keyword.trim(), null, true, null, pageNum,
+                        pageSize);
+                if (indexed != null) {
+                    return indexed;
+                }
+            }
             wrapper.and(w -> w.like(ShopDO::getName, keyword.trim())
                     .or()
                     .like(ShopDO::getAddress, keyword.trim()));
         }
 
-        wrapper.orderByDesc(ShopDO::getRating).orderByDesc(ShopDO::getPopularity);
+        if (cursor != null) {
+            String listName = "registered"
+                    + (keyword != null && !keyword.trim().isEmpty() ? ":" + keywordDigest(keyword.trim()) : "");
+            return listShopsByCursor(cursor, listName, pageSize, () -> selectSortedShopIds(wrapper, "rating"));
+        }
+
+        Page<ShopDO> page = new Page<>(pageNum, pageSize);
+        applyShopOrder(wrapper, "rating");
 
         Page<ShopDO> shopPage = shopMapper.selectPage(page, wrapper);
 
@@ -805,4 +967,87 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, ShopDO> implements
 
         return PageResult.of(list, shopPage.getTotal(), pageNum, pageSize);
     }
+
+    /**
+     * 通过商家排行分页查询（见 {@link ShopRankingService}）
+     * <p>
+     * 排行给出当前页的商家ID和总数，店铺信息见 {@link #loadShopItems}。
+     * </p>
+     *
+     * @return 分页结果；排行不可用时返回null，由调用方降级查询数据库
+     */
+    private PageResult<ShopItemVO> listShopsByRanking(Long categoryId, String sortBy, Integer pageNum,
+            Integer pageSize) {
+        ShopRankingService.RankedPage ranked = shopRankingService.page(categoryId, sortBy, pageNum, pageSize);
+        if (ranked == null) {
+            return null;
+        }
+        return PageResult.of(loadShopItems(ranked.shopIds()), ranked.total(), pageNum, pageSize);
+    }
+
+    /**
+     * 按ID列表读取店铺列表项，保持传入顺序
+     * <p>
+     * 从列表项缓存批量读取，未命中的按ID回表，跳过排行或快照中已删除、已下架的商家。
+     * </p>
+     */
+    private List<ShopItemVO> loadShopItems(List<Long> shopIds) {
+        List<String> keys = shopIds.stream().map(String::valueOf).collect(Collectors.toList());
+        Map<String, ShopItemVO> items = shopItemCache.getAll(keys, missed -> {
+            List<Long> ids = missed.stream().map(Long::valueOf).collect(Collectors.toList());
+            List<ShopDO> shops = shopMapper.selectBatchIds(ids).stream()
+                    .filter(shop -> shop.getStatus() != null && shop.getStatus() == 1)
+                    .collect(Collectors.toList());
+            return convertShopList(shops).stream()
+                    .collect(Collectors.toMap(ShopItemVO::getId, Function.identity()));
+        });
+
+        List<ShopItemVO> list = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ShopItemVO item = items.get(key);
+            if (item != null) {
+                list.add(item); // 跳过排行尚未同步的已删除或已下架商家
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 通过商家搜索索引查询一页商家
+     * <p>
+     * 索引返回排序后的商家ID，当前页按原顺序批量回表，过滤已下架的商家。
+     * </p>
+     *
+     * @return 分页结果；索引未就绪、含字母数字的关键词没有命中或查询失败时返回null，由调用方降级查库
+     */
+    private PageResult<ShopItemVO> searchShopsByIndex(String keyword, Long categoryId, boolean registeredOnly,
+            String sortBy, Integer pageNum, Integer pageSize) {
+        try {
+            List<Long> shopIds = shopSearchIndex.search(keyword, categoryId, registeredOnly, sortBy);
+            if (shopIds == null) {
+                return null;
+            }
+
+            int fromIndex = (int) Math.min((long) (pageNum - 1) * pageSize, shopIds.size());
+            int toIndex = (int) Math.min((long) fromIndex + pageSize, shopIds.size());
+            List<Long> pageIds = shopIds.subList(fromIndex, toIndex);
+
+            List<ShopDO> shops = new ArrayList<>();
+            if (!pageIds.isEmpty()) {
+                Map<Long, ShopDO> shopMap = shopMapper.selectBatchIds(pageIds).stream()
+                        .collect(Collectors.toMap(ShopDO::getId, s -> s));
+                for (Long shopId : pageIds) {
+                    ShopDO shop = shopMap.get(shopId);
+                    if (shop != null && shop.getStatus() != null && shop.getStatus() == 1) {
+                        shops.add(shop);
+                    }
+                }
+            }
+
+            return PageResult.of(convertShopList(shops), (long) shopIds.size(), pageNum, pageSize);
+        } catch (Exception e) {
+            log.warn("商家搜索索引查询失败，降级查询数据库: {}", e.getMessage());
+            return null;
+        }
+    }
 }
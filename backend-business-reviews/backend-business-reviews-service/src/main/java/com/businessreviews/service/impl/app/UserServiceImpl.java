@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.businessreviews.constants.RedisKeyConstants;
 import com.businessreviews.constants.SmsCodeConstants;
 import com.businessreviews.common.DefaultAvatar;
+import com.businessreviews.common.PageCursor;
 import com.businessreviews.common.PageResult;
 import com.businessreviews.model.dto.app.ChangePhoneDTO;
 import com.businessreviews.model.dto.app.UpdateUserInfoDTO;
@@ -17,10 +18,18 @@ import com.businessreviews.mapper.*;
 import com.businessreviews.service.app.MessageService;
 import com.businessreviews.enums.UserStatus;
 import com.businessreviews.service.app.UserService;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
+import com.businessreviews.service.impl.common.MerchantIdentityService;
+import com.businessreviews.service.impl.common.NoteCounterService;
+import com.businessreviews.service.impl.common.NoteDetailCacheService;
+import com.businessreviews.service.impl.common.NoteTimelineService;
+import com.businessreviews.service.impl.common.UserCacheService;
+import com.businessreviews.service.impl.common.UserInteractionService;
 import com.businessreviews.util.RedisUtil;
 import com.businessreviews.util.TimeUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -56,6 +65,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
     private final ShopMapper shopMapper;
     private final RedisUtil redisUtil;
     private final MessageService messageService;
+    private final NoteTimelineService noteTimelineService;
+    private final NoteCounterService noteCounterService;
+    private final UserInteractionService userInteractionService;
+    private final NoteDetailCacheService noteDetailCacheService;
+    private final UserCacheService userCacheService;
+    private final EntityIdFilterService entityIdFilterService;
+    private final MerchantIdentityService merchantIdentityService;
 
     @Override
     public UserDO getByPhone(String phone) {
@@ -84,6 +100,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
 
         user.setStatus(UserStatus.NORMAL.getCode());
         userMapper.insert(user);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.USER, user.getId());
 
         UserStatsDO stats = new UserStatsDO();
         stats.setUserId(user.getId());
@@ -118,6 +135,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
         }
 
         UserStatsDO stats = userStatsMapper.selectByUserId(userId);
+        noteCounterService.applyPendingDeltas(stats);
 
         UserInfoVO response = new UserInfoVO();
         response.setUserId(user.getId().toString());
@@ -190,6 +208,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
 
         // 清除缓存
         redisUtil.delete(RedisKeyConstants.USER_INFO + userId);
+        // 昵称、头像写在用户基础信息缓存和笔记详情缓存的作者快照中
+        if (request.getUsername() != null || request.getAvatar() != null) {
+            userCacheService.evictUserCache(userId);
+            noteDetailCacheService.invalidateByAuthor(userId);
+        }
     }
 
     /**
@@ -206,12 +229,18 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
      */
     @Override
     public UserProfileVO getUserProfile(Long userId, Long currentUserId) {
+        // 不存在的用户ID直接拒绝，不查数据库
+        if (!entityIdFilterService.mightExist(EntityIdFilterService.EntityType.USER, userId)) {
+            throw new BusinessException(40401, "用户不存在");
+        }
         UserDO user = userMapper.selectById(userId);
         if (user == null) {
+            entityIdFilterService.markMissing(EntityIdFilterService.EntityType.USER, userId);
             throw new BusinessException(40401, "用户不存在");
         }
 
         UserStatsDO stats = userStatsMapper.selectByUserId(userId);
+        noteCounterService.applyPendingDeltas(stats);
 
         UserProfileVO response = new UserProfileVO();
         response.setUserId(user.getId().toString());
@@ -359,32 +388,48 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
      * </p>
      *
      * @param userId   用户ID
+     * @param cursor   分页游标（为空时使用页码分页）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 历史记录VO分页列表
      */
     @Override
-    public PageResult<HistoryItemVO> getBrowseHistory(Long userId, Integer pageNum, Integer pageSize) {
-        Page<BrowseHistoryDO> page = new Page<>(pageNum, pageSize);
+    public PageResult<HistoryItemVO> getBrowseHistory(Long userId, String cursor, Integer pageNum, Integer pageSize) {
         LambdaQueryWrapper<BrowseHistoryDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(BrowseHistoryDO::getUserId, userId)
-                .orderByDesc(BrowseHistoryDO::getCreatedAt);
-
-        Page<BrowseHistoryDO> historyPage = browseHistoryMapper.selectPage(page, wrapper);
+        wrapper.eq(BrowseHistoryDO::getUserId, userId);
+
+        List<BrowseHistoryDO> records;
+        String nextCursor = null;
+        Long total = null;
+        if (cursor != null) {
+            // 游标模式：按 (浏览时间, 记录ID) 定位，不查询总数
+            PageCursor.seek(wrapper, cursor, BrowseHistoryDO::getCreatedAt, LocalDateTime::parse,
+                    BrowseHistoryDO::getId, false, pageSize);
+            records = browseHistoryMapper.selectList(wrapper);
+            nextCursor = PageCursor.nextCursor(records, pageSize, BrowseHistoryDO::getCreatedAt,
+                    BrowseHistoryDO::getId);
+        } else {
+            wrapper.orderByDesc(BrowseHistoryDO::getCreatedAt);
+            Page<BrowseHistoryDO> historyPage = browseHistoryMapper.selectPage(new Page<>(pageNum, pageSize),
+                    wrapper);
+            records = historyPage.getRecords();
+            total = historyPage.getTotal();
+        }
 
-        if (historyPage.getRecords().isEmpty()) {
-            return PageResult.of(new ArrayList<>(), 0L, pageNum, pageSize);
+        if (records.isEmpty()) {
+            return cursor != null ? PageResult.ofCursor(new ArrayList<>(), null, pageSize)
+                    : PageResult.of(new ArrayList<>(), 0L, pageNum, pageSize);
         }
 
         // ========== 批量查询优化 (In-Memory Map Assembly) ==========
 
         // 1. 按类型分组收集 targetId
-        List<Long> noteIds = historyPage.getRecords().stream()
+        List<Long> noteIds = records.stream()
                 .filter(h -> h.getType() == 1)
                 .map(BrowseHistoryDO::getTargetId)
                 .collect(Collectors.toList());
 
-        List<Long> shopIds = historyPage.getRecords().stream()
+        List<Long> shopIds = records.stream()
                 .filter(h -> h.getType() == 2)
                 .map(BrowseHistoryDO::getTargetId)
                 .collect(Collectors.toList());
@@ -421,7 +466,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
         final java.util.Map<Long, UserDO> finalAuthorMap = authorMap;
         final java.util.Map<Long, ShopDO> finalShopMap = shopMap;
 
-        List<HistoryItemVO> list = historyPage.getRecords().stream().map(history -> {
+        List<HistoryItemVO> list = records.stream().map(history -> {
             HistoryItemVO item = new HistoryItemVO();
             item.setId(history.getId().toString());
             item.setType(history.getType());
@@ -454,7 +499,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
             return item;
         }).collect(Collectors.toList());
 
-        return PageResult.of(list, historyPage.getTotal(), pageNum, pageSize);
+        if (cursor != null) {
+            return PageResult.ofCursor(list, nextCursor, pageSize);
+        }
+        return PageResult.of(list, total, pageNum, pageSize);
     }
 
     /**
@@ -486,12 +534,21 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
         UserFollowDO follow = new UserFollowDO();
         follow.setUserId(userId);
         follow.setFollowUserId(targetUserId);
-        userFollowMapper.insert(follow);
+        try {
+            userFollowMapper.insert(follow);
+        } catch (DuplicateKeyException e) {
+            // 互动集合是最终一致的，以唯一索引 uk_user_follow 为准
+            throw new BusinessException(40001, "已关注该用户");
+        }
+        userInteractionService.add(userId, UserInteractionService.InteractionType.FOLLOW, targetUserId);
 
         // 更新统计数据
         userStatsMapper.incrementFollowingCount(userId);
         userStatsMapper.incrementFollowerCount(targetUserId);
 
+        // 回填关注流收件箱
+        noteTimelineService.onFollow(userId, targetUserId);
+
         // 发送关注通知
         UserDO user = userMapper.selectById(userId);
         // 使用新的系统通知方法，包含发送者信息
@@ -521,10 +578,14 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
 
         // 删除关注记录
         userFollowMapper.deleteById(follow.getId());
+        userInteractionService.remove(userId, UserInteractionService.InteractionType.FOLLOW, targetUserId);
 
         // 更新统计数据
         userStatsMapper.decrementFollowingCount(userId);
         userStatsMapper.decrementFollowerCount(targetUserId);
+
+        // 清理关注流收件箱
+        noteTimelineService.onUnfollow(userId, targetUserId);
     }
 
     /**
@@ -639,13 +700,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
 
     @Override
     public boolean isFollowing(Long userId, Long targetUserId) {
-        if (userId == null || targetUserId == null) {
-            return false;
-        }
-        LambdaQueryWrapper<UserFollowDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(UserFollowDO::getUserId, userId)
-                .eq(UserFollowDO::getFollowUserId, targetUserId);
-        return userFollowMapper.selectCount(wrapper) > 0;
+        return userInteractionService.contains(userId, UserInteractionService.InteractionType.FOLLOW, targetUserId);
     }
 
     private NoteItemVO convertToNoteItem(NoteDO note) {
@@ -830,8 +885,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
         // 设置修改频率限制(24小时)
         redisUtil.set(limitKey, "1", 86400);
 
-        // 清除用户信息缓存
+        // 清除用户信息缓存（用户与商家按手机号关联，商家身份一并清除）
         redisUtil.delete(RedisKeyConstants.USER_INFO + userId);
+        merchantIdentityService.evictUser(userId);
 
         log.info("用户{}手机号修改成功: {} -> {}", userId, maskPhone(oldPhone), maskPhone(newPhone));
     }
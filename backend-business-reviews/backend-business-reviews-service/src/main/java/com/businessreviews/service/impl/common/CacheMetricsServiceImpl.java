@@ -0,0 +1,44 @@
+package com.businessreviews.service.impl.common;
+
+import com.businessreviews.cache.HotKeyCache;
+import com.businessreviews.cache.RedisCacheLoader;
+import com.businessreviews.cache.TieredCacheManager;
+import com.businessreviews.model.vo.CacheMetricsVO;
+import com.businessreviews.service.common.CacheMetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * 缓存运行指标服务实现类
+ *
+ * @author businessreviews
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheMetricsServiceImpl implements CacheMetricsService {
+
+    private final HotKeyCache hotKeyCache;
+    private final TieredCacheManager tieredCacheManager;
+    private final RedisCacheLoader redisCacheLoader;
+    private final NoteCounterService noteCounterService;
+    private final NoteViewPipeline noteViewPipeline;
+
+    @Override
+    public CacheMetricsVO getCacheMetrics() {
+        CacheMetricsVO metrics = new CacheMetricsVO();
+        metrics.setHotKeys(hotKeyCache.getStats());
+        metrics.setTieredCaches(tieredCacheManager.getAllStats());
+        metrics.setCoalescedLoads(redisCacheLoader.getCoalescedCount());
+        metrics.setEarlyRefreshes(redisCacheLoader.getEarlyRefreshCount());
+        metrics.setLeaseWaits(redisCacheLoader.getLeaseWaitCount());
+        metrics.setCounterFlushLagMillis(noteCounterService.getFlushLagMillis());
+        metrics.setCounterLastFlushAt(noteCounterService.getLastFlushAt());
+        metrics.setCounterLastFlushRows(noteCounterService.getLastFlushRows());
+        metrics.setViewAccepted(noteViewPipeline.getAcceptedCount());
+        metrics.setViewDeduped(noteViewPipeline.getDedupedCount());
+        metrics.setViewDropped(noteViewPipeline.getDroppedCount());
+        metrics.setViewQueueSize(noteViewPipeline.getQueueSize());
+        metrics.setViewQueueHighWatermark(noteViewPipeline.getQueueHighWatermark());
+        return metrics;
+    }
+}
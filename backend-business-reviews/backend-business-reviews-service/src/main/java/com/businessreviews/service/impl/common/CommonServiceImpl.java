@@ -2,6 +2,10 @@ package com.businessreviews.service.impl.common;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 
+import com.businessreviews.cache.TieredCache;
+import com.businessreviews.cache.TieredCacheManager;
+import com.businessreviews.cache.TieredCacheNames;
+import com.businessreviews.constants.CacheExpireConstants;
 import com.businessreviews.constants.RedisKeyConstants;
 import com.businessreviews.model.vo.CategoryVO;
 import com.businessreviews.model.vo.TopicVO;
@@ -13,15 +17,16 @@ import com.businessreviews.mapper.CategoryMapper;
 import com.businessreviews.mapper.SearchHistoryMapper;
 import com.businessreviews.mapper.TopicMapper;
 import com.businessreviews.service.common.CommonService;
-import com.businessreviews.util.RedisUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +34,10 @@ import java.util.stream.Collectors;
  * <p>
  * 提供全局基础数据服务（如类目、话题）、搜索辅助以及地理位置解析服务。
  * </p>
+ * <p>
+ * 分类列表、热门话题、热门搜索词数据量小且读取频繁，使用二级缓存（本地 + Redis），
+ * 本地命中时无需网络往返和 JSON 反序列化。
+ * </p>
  *
  * @author businessreviews
  */
@@ -40,17 +49,40 @@ public class CommonServiceImpl implements CommonService {
     private final CategoryMapper categoryMapper;
     private final TopicMapper topicMapper;
     private final SearchHistoryMapper searchHistoryMapper;
-    private final RedisUtil redisUtil;
-    private final ObjectMapper objectMapper;
+    private final TieredCacheManager tieredCacheManager;
+    private final SearchTrendingService searchTrendingService;
+    private final SearchSuggestionIndex searchSuggestionIndex;
+    private final TopicTrendingService topicTrendingService;
+
+    /** 热门搜索词数量 */
+    private static final int HOT_SEARCH_LIMIT = 20;
 
-    /** 热门话题缓存TTL：30分钟 */
-    private static final long HOT_TOPICS_TTL = 1800L;
+    /** 分类列表缓存（Key为完整的Redis Key：全部分类 / 启用分类） */
+    private TieredCache<List<CategoryVO>> categoriesCache;
 
-    /** 热门搜索词缓存TTL：30分钟 */
-    private static final long HOT_SEARCHES_TTL = 1800L;
+    /** 热门话题缓存（Key为返回数量） */
+    private TieredCache<List<TopicVO>> hotTopicsCache;
 
-    /** 启用分类列表缓存TTL：1小时 */
-    private static final long CATEGORIES_TTL = 3600L;
+    /** 热门搜索词缓存（Key为统计窗口） */
+    private TieredCache<List<String>> hotSearchesCache;
+
+    /**
+     * 初始化二级缓存
+     */
+    @PostConstruct
+    public void initCaches() {
+        categoriesCache = tieredCacheManager.create(TieredCacheNames.CATEGORIES, "",
+                new TypeReference<List<CategoryVO>>() {
+                }, CacheExpireConstants.CATEGORIES, 8, CacheExpireConstants.LOCAL_CACHE);
+        hotTopicsCache = tieredCacheManager.create(TieredCacheNames.HOT_TOPICS,
+                RedisKeyConstants.HOT_TOPICS_CACHE + ":",
+                new TypeReference<List<TopicVO>>() {
+                }, CacheExpireConstants.HOT_TOPICS, 32, CacheExpireConstants.LOCAL_CACHE);
+        hotSearchesCache = tieredCacheManager.create(TieredCacheNames.HOT_SEARCHES,
+                RedisKeyConstants.HOT_SEARCHES_CACHE + ":",
+                new TypeReference<List<String>>() {
+                }, CacheExpireConstants.HOT_SEARCH, 8, CacheExpireConstants.LOCAL_CACHE);
+    }
 
     /**
      * 获取所有分类列表
@@ -62,66 +94,15 @@ public class CommonServiceImpl implements CommonService {
      * @return 所有分类的VO列表
      */
     @Override
-    @SuppressWarnings("unchecked")
     public List<CategoryVO> getAllCategories() {
-        // 尝试从缓存获取
-        String cacheKey = "categories:all"; // 使用硬编码或RedisKeyConstants.CATEGORIES
-        try {
-            // 注意：List<CategoryVO> 是泛型，这里同样有类型擦除问题
-            // 但对于简单的CategoryVO列表，Jackson通常能处理
-            List<CategoryVO> cachedList = (List<CategoryVO>) redisUtil.getObject(cacheKey, List.class);
-            if (cachedList != null && !cachedList.isEmpty()) {
-                // 简单的检查，确保元素类型正确，或者依赖JSON序列化的兼容性
-                // 在这里直接返回，如果前端不需要严格类型可能有隐患，但通常可行
-                log.info("从缓存获取分类列表");
-                // 由于类型擦除，这里得到的可能是List<LinkedHashMap>
-                // 我们需要手动转换，或者使用TypeReference
-                // 为了简单，我们使用 Hutool 或 Jackson 进行二次转换，或者修改 RedisUtil
-                // 这里暂且假设 redisUtil.getObject 能返回正确的 JSON 结构，并即使是 LinkedHashMap 也能被前端接受（只要字段名对）
-                // 但为了严谨，我们应该使用 TypeReference。鉴于 CommonServiceImpl 没有注入 ObjectMapper
-                // 我们还是使用 redisUtil.get() + Hutool/Jackson 手动解析比较稳妥
-                // 既然 getObject 已经返回了 List（虽然内容是Map），我们可以尝试转换
-                // 最简单的通过 re-serialize 是低效的。
-
-                // 重新做：
-                return convertMapList(cachedList);
-            }
-        } catch (Exception e) {
-            log.warn("分类列表缓存读取失败: {}", e.getMessage());
-        }
-
-        // 查询所有分类
-        LambdaQueryWrapper<CategoryDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.orderByAsc(CategoryDO::getSortOrder);
-        List<CategoryDO> categories = categoryMapper.selectList(wrapper);
-
-        List<CategoryVO> list = categories.stream()
-                .map(this::convertToCategoryVO)
-                .collect(Collectors.toList());
-
-        // 写入缓存 1小时
-        try {
-            redisUtil.setObject(cacheKey, list, 3600L);
-            log.info("分类列表写入缓存");
-        } catch (Exception e) {
-            log.warn("分类列表缓存写入失败: {}", e.getMessage());
-        }
-
-        return list;
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<CategoryVO> convertMapList(List<?> list) {
-        if (list == null)
-            return new ArrayList<>();
-        // 如果第一个元素已经是 CategoryVO，直接返回
-        if (!list.isEmpty() && list.get(0) instanceof CategoryVO) {
-            return (List<CategoryVO>) list;
-        }
-
-        // 否则利用 JSON 转换
-        String json = cn.hutool.json.JSONUtil.toJsonStr(list);
-        return cn.hutool.json.JSONUtil.toList(json, CategoryVO.class);
+        return categoriesCache.get(RedisKeyConstants.CATEGORIES, () -> {
+            // 查询所有分类
+            LambdaQueryWrapper<CategoryDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.orderByAsc(CategoryDO::getSortOrder);
+            return categoryMapper.selectList(wrapper).stream()
+                    .map(this::convertToCategoryVO)
+                    .collect(Collectors.toList());
+        });
     }
 
     /**
@@ -134,39 +115,16 @@ public class CommonServiceImpl implements CommonService {
      * @return 启用分类的VO列表
      */
     @Override
-    @SuppressWarnings("unchecked")
     public List<CategoryVO> getCategories() {
-        // 尝试从缓存获取
-        String cacheKey = RedisKeyConstants.CATEGORIES_ENABLED;
-        try {
-            List<CategoryVO> cachedList = (List<CategoryVO>) redisUtil.getObject(cacheKey, List.class);
-            if (cachedList != null && !cachedList.isEmpty()) {
-                log.debug("从缓存获取启用分类列表");
-                return convertMapList(cachedList);
-            }
-        } catch (Exception e) {
-            log.warn("启用分类缓存读取失败: {}", e.getMessage());
-        }
-
-        // 查询启用的类目（status=1），按sort_order升序排序
-        LambdaQueryWrapper<CategoryDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(CategoryDO::getStatus, 1)
-                .orderByAsc(CategoryDO::getSortOrder);
-        List<CategoryDO> categories = categoryMapper.selectList(wrapper);
-
-        List<CategoryVO> list = categories.stream()
-                .map(this::convertToCategoryVO)
-                .collect(Collectors.toList());
-
-        // 写入缓存
-        try {
-            redisUtil.setObject(cacheKey, list, CATEGORIES_TTL);
-            log.debug("启用分类列表写入缓存");
-        } catch (Exception e) {
-            log.warn("启用分类缓存写入失败: {}", e.getMessage());
-        }
-
-        return list;
+        return categoriesCache.get(RedisKeyConstants.CATEGORIES_ENABLED, () -> {
+            // 查询启用的类目（status=1），按sort_order升序排序
+            LambdaQueryWrapper<CategoryDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(CategoryDO::getStatus, 1)
+                    .orderByAsc(CategoryDO::getSortOrder);
+            return categoryMapper.selectList(wrapper).stream()
+                    .map(this::convertToCategoryVO)
+                    .collect(Collectors.toList());
+        });
     }
 
     /**
@@ -211,8 +169,8 @@ public class CommonServiceImpl implements CommonService {
     /**
      * 获取全站热门话题
      * <p>
-     * 查询全站标记为热门(hot=1)且启用(status=1)的话题。
-     * 按浏览量(view_count)降序排列。
+     * 优先返回内存中按衰减热度排序的话题（见 {@link TopicTrendingService}），
+     * 冷启动或热度数据不足时，用标记为热门(hot=1)且启用(status=1)的话题按浏览量降序补齐。
      * </p>
      *
      * @param limit 返回数量限制，默认10条
@@ -221,50 +179,47 @@ public class CommonServiceImpl implements CommonService {
     @Override
     public List<TopicVO> getHotTopics(Integer limit) {
         int actualLimit = limit != null ? limit : 10;
-        String cacheKey = RedisKeyConstants.HOT_TOPICS_CACHE + ":" + actualLimit;
-
-        // 尝试从缓存获取
-        try {
-            String json = redisUtil.get(cacheKey);
-            if (json != null) {
-                List<TopicVO> cached = objectMapper.readValue(json,
-                        new TypeReference<List<TopicVO>>() {
-                        });
-                log.debug("从缓存获取热门话题: limit={}", actualLimit);
-                return cached;
-            }
-        } catch (Exception e) {
-            log.warn("热门话题缓存读取失败: {}", e.getMessage());
-        }
-
-        LambdaQueryWrapper<TopicDO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(TopicDO::getStatus, 1)
-                .eq(TopicDO::getHot, 1)
-                .orderByDesc(TopicDO::getViewCount)
-                .last("LIMIT " + actualLimit);
-
-        List<TopicDO> topics = topicMapper.selectList(wrapper);
-
-        List<TopicVO> list = topics.stream()
+        List<TopicVO> result = topicTrendingService.getTrendingTopics(actualLimit).stream()
                 .map(this::convertToTopicVO)
                 .collect(Collectors.toList());
+        if (result.size() >= actualLimit) {
+            return result;
+        }
 
-        // 写入缓存
-        try {
-            redisUtil.set(cacheKey, objectMapper.writeValueAsString(list), HOT_TOPICS_TTL);
-            log.debug("热门话题写入缓存: limit={}", actualLimit);
-        } catch (Exception e) {
-            log.warn("热门话题缓存写入失败: {}", e.getMessage());
+        Set<String> topicIds = result.stream().map(TopicVO::getId).collect(Collectors.toSet());
+        for (TopicVO topic : getFlaggedHotTopics(actualLimit)) {
+            if (result.size() >= actualLimit) {
+                break;
+            }
+            if (topicIds.add(topic.getId())) {
+                result.add(topic);
+            }
         }
+        return result;
+    }
 
-        return list;
+    /**
+     * 获取标记为热门的话题（二级缓存）
+     */
+    private List<TopicVO> getFlaggedHotTopics(int actualLimit) {
+        return hotTopicsCache.get(String.valueOf(actualLimit), () -> {
+            LambdaQueryWrapper<TopicDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(TopicDO::getStatus, 1)
+                    .eq(TopicDO::getHot, 1)
+                    .orderByDesc(TopicDO::getViewCount)
+                    .last("LIMIT " + actualLimit);
+            return topicMapper.selectList(wrapper).stream()
+                    .map(this::convertToTopicVO)
+                    .collect(Collectors.toList());
+        });
     }
 
     /**
      * 获取搜索建议
      * <p>
-     * 根据用户输入的关键词前缀，从搜索历史中查找匹配的高频搜索词。
-     * 取搜索次数最多的前10条作为建议。
+     * 根据用户输入的关键词前缀，从内存补全索引中查找权重最高的前10条建议，
+     * 候选词来自搜索词、商家名称和话题名称（见 {@link SearchSuggestionIndex}）。
+     * 索引尚未构建完成时回退到搜索历史查询。
      * </p>
      *
      * @param keyword 用户输入的关键词
@@ -275,8 +230,11 @@ public class CommonServiceImpl implements CommonService {
         if (keyword == null || keyword.trim().isEmpty()) {
             return new ArrayList<>();
         }
+        if (searchSuggestionIndex.isReady()) {
+            return searchSuggestionIndex.suggest(keyword);
+        }
 
-        // 简单实现：从搜索历史中查找匹配的关键词
+        // 索引未就绪：从搜索历史中查找匹配的关键词
         LambdaQueryWrapper<SearchHistoryDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.like(SearchHistoryDO::getKeyword, keyword)
                 .groupBy(SearchHistoryDO::getKeyword)
@@ -293,41 +251,45 @@ public class CommonServiceImpl implements CommonService {
     /**
      * 获取热门搜索词
      * <p>
-     * 获取全站搜索频率最高的关键词，通常取前20条。
+     * 从流式 Top-K 统计的窗口结果中读取（见 {@link SearchTrendingService}），取前20条。
+     * 未指定窗口时以近1小时为主，冷启动或搜索量少时依次用24小时、7天补齐。
      * </p>
      *
+     * @param window 统计窗口（1h / 24h / 7d），可为空
      * @return 热门搜索词列表
+     * @throws BusinessException 如果窗口参数无效(40001)
      */
     @Override
-    public List<String> getHotSearches() {
-        String cacheKey = RedisKeyConstants.HOT_SEARCHES_CACHE;
-
-        // 尝试从缓存获取
-        try {
-            String json = redisUtil.get(cacheKey);
-            if (json != null) {
-                List<String> cached = objectMapper.readValue(json,
-                        new TypeReference<List<String>>() {
-                        });
-                log.debug("从缓存获取热门搜索词");
-                return cached;
+    public List<String> getHotSearches(String window) {
+        if (window != null && !window.isEmpty()) {
+            SearchTrendingService.Window target = SearchTrendingService.Window.of(window);
+            if (target == null) {
+                throw new BusinessException(40001, "不支持的统计窗口");
             }
-        } catch (Exception e) {
-            log.warn("热门搜索词缓存读取失败: {}", e.getMessage());
+            return getWindowHotSearches(target);
         }
 
-        // 查询热门搜索
-        List<String> hotSearches = searchHistoryMapper.selectHotKeywords(20);
-
-        // 写入缓存
-        try {
-            redisUtil.set(cacheKey, objectMapper.writeValueAsString(hotSearches), HOT_SEARCHES_TTL);
-            log.debug("热门搜索词写入缓存");
-        } catch (Exception e) {
-            log.warn("热门搜索词缓存写入失败: {}", e.getMessage());
+        Set<String> merged = new LinkedHashSet<>();
+        for (SearchTrendingService.Window target : SearchTrendingService.Window.values()) {
+            for (String keyword : getWindowHotSearches(target)) {
+                if (merged.size() >= HOT_SEARCH_LIMIT) {
+                    return new ArrayList<>(merged);
+                }
+                merged.add(keyword);
+            }
         }
+        return new ArrayList<>(merged);
+    }
+
+    @Override
+    public void recordSearch(String keyword) {
+        searchTrendingService.recordSearch(keyword);
+    }
 
-        return hotSearches;
+    private List<String> getWindowHotSearches(SearchTrendingService.Window window) {
+        List<String> keywords = hotSearchesCache.get(window.getCode(),
+                () -> searchTrendingService.getTrending(window, HOT_SEARCH_LIMIT));
+        return keywords != null ? keywords : new ArrayList<>();
     }
 
     private CategoryVO convertToCategoryVO(CategoryDO category) {
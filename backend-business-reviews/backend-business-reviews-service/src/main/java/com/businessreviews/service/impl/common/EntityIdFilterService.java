@@ -0,0 +1,303 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.cache.RedisBloomFilter;
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.mapper.CouponMapper;
+import com.businessreviews.mapper.NoteMapper;
+import com.businessreviews.mapper.ShopMapper;
+import com.businessreviews.mapper.UserMapper;
+import com.businessreviews.model.dataobject.CouponDO;
+import com.businessreviews.model.dataobject.NoteDO;
+import com.businessreviews.model.dataobject.ShopDO;
+import com.businessreviews.model.dataobject.UserDO;
+import com.businessreviews.util.RedisUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 实体ID存在性过滤服务（防缓存穿透）
+ * <p>
+ * 不存在的笔记、商家、用户、优惠券ID查询不会被缓存，爬虫和失效链接会持续打到数据库。
+ * 每类实体维护一个 Redis Bitmap 布隆过滤器（见 {@link RedisBloomFilter}），多实例共享：
+ * - 启动完成后及每天凌晨全量重建：按主键分批扫描写入临时Key，完成后 RENAME 替换，并记录扫描到的最大ID
+ * - 新增实体时追加写入（见 {@link #add}）
+ * - 过滤器判定不存在且ID不大于最大ID时直接拒绝；大于最大ID的可能是其他途径新增的数据，放行查库
+ * </p>
+ * <p>
+ * 布隆过滤器不支持删除，已删除的ID仍会放行查库，查库未命中后由调用方通过 {@link #markMissing}
+ * 写入本地短期负缓存，过期时间见 {@link CacheExpireConstants#ENTITY_MISSING}。
+ * 过滤器未就绪或 Redis 不可用时一律放行，不影响正常查询。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EntityIdFilterService {
+
+    private final RedisUtil redisUtil;
+    private final NoteMapper noteMapper;
+    private final ShopMapper shopMapper;
+    private final UserMapper userMapper;
+    private final CouponMapper couponMapper;
+
+    /** 期望误判率 */
+    private static final double FPP = 0.01D;
+
+    /** 全量重建时每批扫描的ID数 */
+    private static final int BATCH_SIZE = 5000;
+
+    /** 重建锁有效期（秒） */
+    private static final long REBUILD_LOCK_SECONDS = 600;
+
+    /** 每类实体负缓存最大条数 */
+    private static final long MISSING_MAX_SIZE = 100_000L;
+
+    /**
+     * 实体类型
+     */
+    @Getter
+    public enum EntityType {
+        NOTE("note", 2_000_000L),
+        SHOP("shop", 500_000L),
+        USER("user", 2_000_000L),
+        COUPON("coupon", 200_000L);
+
+        /** Key 后缀 */
+        private final String code;
+        /** 预期元素数（决定位数组大小） */
+        private final long expectedInsertions;
+
+        EntityType(String code, long expectedInsertions) {
+            this.code = code;
+            this.expectedInsertions = expectedInsertions;
+        }
+    }
+
+    private final Map<EntityType, RedisBloomFilter> filters = new EnumMap<>(EntityType.class);
+
+    private final Map<EntityType, Cache<Long, Boolean>> missing = new EnumMap<>(EntityType.class);
+
+    /** 各过滤器覆盖到的最大ID（未就绪时不存在） */
+    private final Map<EntityType, Long> maxIds = new EnumMap<>(EntityType.class);
+
+    /**
+     * 初始化过滤器和负缓存
+     */
+    @PostConstruct
+    public void initFilters() {
+        for (EntityType type : EntityType.values()) {
+            filters.put(type, new RedisBloomFilter(RedisKeyConstants.ENTITY_BLOOM + type.getCode(),
+                    type.getExpectedInsertions(), FPP, redisUtil));
+            missing.put(type, Caffeine.newBuilder()
+                    .maximumSize(MISSING_MAX_SIZE)
+                    .expireAfterWrite(Duration.ofSeconds(CacheExpireConstants.ENTITY_MISSING))
+                    .build());
+        }
+    }
+
+    /**
+     * 判断实体ID是否可能存在
+     *
+     * @return false 表示一定不存在，调用方可直接返回"不存在"而不查库
+     */
+    public boolean mightExist(EntityType type, Long id) {
+        if (id == null || id <= 0) {
+            return false;
+        }
+        if (missing.get(type).getIfPresent(id) != null) {
+            return false;
+        }
+        Long maxId = getMaxId(type);
+        if (maxId == null || id > maxId) {
+            return true;
+        }
+        try {
+            return filters.get(type).mightContain(id);
+        } catch (Exception e) {
+            log.warn("查询ID过滤器失败，放行: type={}, id={}, error={}", type, id, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 新增实体后写入过滤器
+     */
+    public void add(EntityType type, Long id) {
+        if (id == null) {
+            return;
+        }
+        missing.get(type).invalidate(id);
+        RedisBloomFilter filter = filters.get(type);
+        try {
+            filter.put(id);
+            // 重建进行中时同时写入临时Key，避免替换后丢失
+            String buildingKey = filter.getKey() + RedisKeyConstants.ENTITY_BLOOM_BUILDING_SUFFIX;
+            if (Boolean.TRUE.equals(redisUtil.hasKey(buildingKey))) {
+                filter.withKey(buildingKey).put(id);
+            }
+        } catch (Exception e) {
+            // 写入失败时该ID在下次重建前依赖"大于最大ID放行"，最大ID之内的会被误拒，记录错误便于排查
+            log.error("写入ID过滤器失败: type={}, id={}, error={}", type, id, e.getMessage());
+        }
+    }
+
+    /**
+     * 记录查库未命中的ID（本地短期负缓存）
+     */
+    public void markMissing(EntityType type, Long id) {
+        if (id != null) {
+            missing.get(type).put(id, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 应用启动完成后重建过滤器（已由其他实例构建时只加载最大ID）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndex() {
+        refreshMaxIds();
+        for (EntityType type : EntityType.values()) {
+            if (getMaxId(type) == null) {
+                rebuild(type);
+            }
+        }
+    }
+
+    /**
+     * 每天凌晨全量重建一次，清理已删除ID占用的位
+     */
+    @Scheduled(cron = "0 40 4 * * ?")
+    public void rebuildAll() {
+        for (EntityType type : EntityType.values()) {
+            rebuild(type);
+        }
+    }
+
+    /**
+     * 每分钟同步一次最大ID（其他实例重建后生效）
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void refreshMaxIds() {
+        try {
+            Map<String, String> meta = redisUtil.hGetAll(RedisKeyConstants.ENTITY_BLOOM_META);
+            for (EntityType type : EntityType.values()) {
+                String value = meta.get(type.getCode());
+                if (value != null) {
+                    synchronized (maxIds) {
+                        maxIds.put(type, Long.parseLong(value));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("同步ID过滤器元数据失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 全量重建一类实体的过滤器（多实例部署时同一时刻只允许一个实例重建）
+     */
+    public void rebuild(EntityType type) {
+        String lockKey = RedisKeyConstants.ENTITY_BLOOM_LOCK + type.getCode();
+        String lockValue = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.setIfAbsent(lockKey, lockValue, REBUILD_LOCK_SECONDS))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("获取ID过滤器重建锁失败: type={}, error={}", type, e.getMessage());
+            return;
+        }
+
+        RedisBloomFilter filter = filters.get(type);
+        String buildingKey = filter.getKey() + RedisKeyConstants.ENTITY_BLOOM_BUILDING_SUFFIX;
+        RedisBloomFilter building = filter.withKey(buildingKey);
+        try {
+            long start = System.currentTimeMillis();
+            redisUtil.delete(buildingKey);
+            long lastId = 0L;
+            long total = 0L;
+            while (true) {
+                List<Long> ids = selectIdPage(type, lastId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                building.putAll(ids);
+                total += ids.size();
+                lastId = ids.get(ids.size() - 1);
+                if (ids.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+            if (total == 0) {
+                // 空表：写入一个不会出现的ID，保证Key存在以便 RENAME
+                building.put(0L);
+            }
+            redisUtil.rename(buildingKey, filter.getKey());
+            redisUtil.hSet(RedisKeyConstants.ENTITY_BLOOM_META, type.getCode(), String.valueOf(lastId));
+            synchronized (maxIds) {
+                maxIds.put(type, lastId);
+            }
+            log.info("ID过滤器重建完成: type={}, count={}, maxId={}, cost={}ms",
+                    type, total, lastId, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("ID过滤器重建失败: type={}, error={}", type, e.getMessage(), e);
+            try {
+                redisUtil.delete(buildingKey);
+            } catch (Exception ignored) {
+                // 临时Key下次重建时清理
+            }
+        } finally {
+            try {
+                redisUtil.deleteIfEquals(lockKey, lockValue);
+            } catch (Exception e) {
+                log.warn("释放ID过滤器重建锁失败: type={}, error={}", type, e.getMessage());
+            }
+        }
+    }
+
+    private Long getMaxId(EntityType type) {
+        synchronized (maxIds) {
+            return maxIds.get(type);
+        }
+    }
+
+    /**
+     * 按主键分批查询ID（id > lastId，升序）
+     */
+    private List<Long> selectIdPage(EntityType type, long lastId) {
+        String limit = "LIMIT " + BATCH_SIZE;
+        return switch (type) {
+            case NOTE -> noteMapper.selectList(new LambdaQueryWrapper<NoteDO>()
+                            .select(NoteDO::getId).gt(NoteDO::getId, lastId).orderByAsc(NoteDO::getId).last(limit))
+                    .stream().map(NoteDO::getId).toList();
+            case SHOP -> shopMapper.selectList(new LambdaQueryWrapper<ShopDO>()
+                            .select(ShopDO::getId).gt(ShopDO::getId, lastId).orderByAsc(ShopDO::getId).last(limit))
+                    .stream().map(ShopDO::getId).toList();
+            case USER -> userMapper.selectList(new LambdaQueryWrapper<UserDO>()
+                            .select(UserDO::getId).gt(UserDO::getId, lastId).orderByAsc(UserDO::getId).last(limit))
+                    .stream().map(UserDO::getId).toList();
+            case COUPON -> couponMapper.selectList(new LambdaQueryWrapper<CouponDO>()
+                            .select(CouponDO::getId).gt(CouponDO::getId, lastId).orderByAsc(CouponDO::getId)
+                            .last(limit))
+                    .stream().map(CouponDO::getId).toList();
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.cache.TieredCache;
+import com.businessreviews.cache.TieredCacheManager;
+import com.businessreviews.cache.TieredCacheNames;
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.enums.MerchantStatus;
+import com.businessreviews.mapper.MerchantMapper;
+import com.businessreviews.mapper.UserMapper;
+import com.businessreviews.model.dataobject.MerchantDO;
+import com.businessreviews.model.dataobject.UserDO;
+import com.businessreviews.model.vo.MerchantIdentityVO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 商家身份解析服务
+ * <p>
+ * 提供两类身份映射的二级缓存（本地 + Redis）：
+ * - 商家ID -> 商家身份：商家端每个请求的认证拦截器使用，不再逐次 selectById
+ * - 用户ID -> 关联商家：用户发布笔记时识别商家账号（用户手机号 = 商家联系电话），
+ *   不再逐次查询用户和商家；非商家用户同样缓存（merchantId 为空）
+ * </p>
+ * <p>
+ * 失效：商家注册、修改资料或联系电话、用户修改手机号时，由写入方调用对应的 evict 方法，
+ * 事务中调用时在提交后清除，并广播其他实例清除本地缓存。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MerchantIdentityService {
+
+    private final TieredCacheManager tieredCacheManager;
+    private final MerchantMapper merchantMapper;
+    private final UserMapper userMapper;
+
+    /** 本地缓存最大条目数 */
+    private static final long LOCAL_MAX_SIZE = 10_000L;
+
+    private TieredCache<MerchantIdentityVO> merchantIdentityCache;
+
+    private TieredCache<MerchantIdentityVO> userMerchantCache;
+
+    /**
+     * 初始化二级缓存
+     */
+    @PostConstruct
+    public void initCaches() {
+        merchantIdentityCache = tieredCacheManager.create(TieredCacheNames.MERCHANT_IDENTITY,
+                RedisKeyConstants.MERCHANT_IDENTITY, MerchantIdentityVO.class, CacheExpireConstants.MERCHANT_IDENTITY,
+                LOCAL_MAX_SIZE, CacheExpireConstants.LOCAL_CACHE);
+        userMerchantCache = tieredCacheManager.create(TieredCacheNames.USER_MERCHANT,
+                RedisKeyConstants.USER_MERCHANT, MerchantIdentityVO.class, CacheExpireConstants.MERCHANT_IDENTITY,
+                LOCAL_MAX_SIZE, CacheExpireConstants.LOCAL_CACHE);
+    }
+
+    /**
+     * 判断商家是否存在且状态正常
+     *
+     * @param merchantId 商家ID
+     * @return 商家正常时返回true
+     */
+    public boolean isActiveMerchant(Long merchantId) {
+        if (merchantId == null) {
+            return false;
+        }
+        MerchantIdentityVO identity = merchantIdentityCache.get(merchantId.toString(), () -> {
+            MerchantDO merchant = merchantMapper.selectById(merchantId);
+            return merchant != null ? new MerchantIdentityVO(merchant.getId(), merchant.getStatus()) : null;
+        });
+        return identity != null && identity.getStatus() != null
+                && identity.getStatus() == MerchantStatus.NORMAL.getCode();
+    }
+
+    /**
+     * 根据用户ID查找关联的商家ID
+     * <p>
+     * 通过用户手机号匹配状态正常的商家联系电话。
+     * </p>
+     *
+     * @param userId 用户ID
+     * @return 商家ID，用户不是商家时返回null
+     */
+    public Long findMerchantIdByUserId(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        MerchantIdentityVO identity = userMerchantCache.get(userId.toString(), () -> {
+            UserDO user = userMapper.selectById(userId);
+            if (user == null) {
+                return null;
+            }
+            if (user.getPhone() == null) {
+                return new MerchantIdentityVO();
+            }
+            LambdaQueryWrapper<MerchantDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(MerchantDO::getId, MerchantDO::getStatus)
+                    .eq(MerchantDO::getContactPhone, user.getPhone())
+                    .eq(MerchantDO::getStatus, MerchantStatus.NORMAL.getCode());
+            MerchantDO merchant = merchantMapper.selectOne(wrapper);
+            if (merchant == null) {
+                return new MerchantIdentityVO();
+            }
+            log.info("用户{}关联到商家: merchantId={}", userId, merchant.getId());
+            return new MerchantIdentityVO(merchant.getId(), merchant.getStatus());
+        });
+        return identity != null ? identity.getMerchantId() : null;
+    }
+
+    /**
+     * 清除商家身份缓存（商家资料或状态变更时调用）
+     *
+     * @param merchantId 商家ID
+     */
+    public void evictMerchant(Long merchantId) {
+        if (merchantId != null) {
+            merchantIdentityCache.evict(merchantId.toString());
+        }
+    }
+
+    /**
+     * 清除用户关联的商家身份缓存（用户修改手机号时调用）
+     *
+     * @param userId 用户ID
+     */
+    public void evictUser(Long userId) {
+        if (userId != null) {
+            userMerchantCache.evict(userId.toString());
+        }
+    }
+
+    /**
+     * 清除使用指定手机号的用户的商家身份缓存（商家注册或修改联系电话时调用）
+     *
+     * @param phones 手机号（为空的忽略）
+     */
+    public void evictUsersByPhone(String... phones) {
+        for (String phone : phones) {
+            if (phone == null) {
+                continue;
+            }
+            UserDO user = userMapper.selectByPhone(phone);
+            if (user != null) {
+                evictUser(user.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.cache.WriteBehindFlusher;
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.mapper.NoteMapper;
+import com.businessreviews.mapper.UserStatsMapper;
+import com.businessreviews.model.dataobject.NoteDO;
+import com.businessreviews.model.dataobject.UserStatsDO;
+import com.businessreviews.model.dto.CounterDeltaDTO;
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * 笔记与用户统计计数服务（写回式计数）
+ * <p>
+ * 点赞、收藏、评论、浏览不再逐次执行 {@code UPDATE notes SET x = x + 1}，
+ * 而是先用 HINCRBY 累加到 Redis Hash 中，由定时任务合并后批量写回 notes 和 user_stats，
+ * 避免热门笔记的计数更新在同一行锁上排队。
+ * </p>
+ * <p>
+ * 读取：数据库中的计数加上尚未落库的增量即为实时值，详情页和个人主页通过
+ * {@link #applyPendingDeltas(NoteDO)} / {@link #applyPendingDeltas(UserStatsDO)} 叠加；
+ * 列表页直接使用数据库值，最多滞后一个落库周期。
+ * 详情页的数据库计数通过 {@link #getNoteCounts(Long)} 读取快照，不逐次查库。
+ * </p>
+ * <p>
+ * 落库与崩溃恢复见 {@link WriteBehindFlusher}（分布式锁、RENAME 为 flushing Key、提交后删除、启动时重放），
+ * 增量保存在 Redis 中，应用重启不会丢失。
+ * </p>
+ * <p>
+ * 落库延迟：最早一条未落库增量的时间记录在 Redis 中（与增量同一次往返写入，各实例共享），
+ * 落库时取走，{@link #getFlushLagMillis()} 返回其距今的毫秒数，超过阈值时输出告警日志；
+ * 最近一次落库的时间和行数同样记录在 Redis 中，由缓存指标接口统一展示。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteCounterService {
+
+    private final NoteMapper noteMapper;
+    private final UserStatsMapper userStatsMapper;
+    private final NoteRankingService noteRankingService;
+    private final TopicTrendingService topicTrendingService;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindFlusher writeBehindFlusher;
+    private final RedisUtil redisUtil;
+
+    /** 单条批量 UPDATE 最多包含的行数 */
+    private static final int BATCH_SIZE = 200;
+
+    /** 落库锁过期时间（秒），防止持锁实例崩溃后死锁 */
+    private static final long FLUSH_LOCK_SECONDS = 60;
+
+    /** 落库延迟告警阈值（毫秒） */
+    private static final long FLUSH_LAG_WARN_MILLIS = 60_000L;
+
+    /**
+     * 计数类型
+     */
+    @Getter
+    public enum CounterField {
+        LIKE("like"),
+        FAVORITE("favorite"),
+        COMMENT("comment"),
+        VIEW("view");
+
+        private final String code;
+
+        CounterField(String code) {
+            this.code = code;
+        }
+
+        static CounterField ofCode(String code) {
+            for (CounterField field : values()) {
+                if (field.code.equals(code)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final String STATS_LAST_FLUSH_AT = "lastFlushAt";
+
+    private static final String STATS_LAST_FLUSH_ROWS = "lastFlushRows";
+
+    /**
+     * 累加笔记计数
+     * <p>
+     * 处于事务中时在事务提交后才记录增量，事务回滚则不计数。
+     * </p>
+     *
+     * @param noteId 笔记ID
+     * @param field  计数类型
+     * @param delta  增量（可为负数）
+     */
+    public void incrementNote(Long noteId, CounterField field, long delta) {
+        record(RedisKeyConstants.NOTE_COUNTER_DELTA, noteId, field, delta);
+    }
+
+    /**
+     * 累加用户统计计数（仅支持获赞数 LIKE 和收藏数 FAVORITE）
+     *
+     * @param userId 用户ID
+     * @param field  计数类型
+     * @param delta  增量（可为负数）
+     */
+    public void incrementUser(Long userId, CounterField field, long delta) {
+        if (field != CounterField.LIKE && field != CounterField.FAVORITE) {
+            throw new IllegalArgumentException("用户统计不支持的计数类型: " + field);
+        }
+        record(RedisKeyConstants.USER_COUNTER_DELTA, userId, field, delta);
+    }
+
+    /**
+     * 将尚未落库的增量叠加到笔记计数上
+     */
+    public void applyPendingDeltas(NoteDO note) {
+        if (note == null || note.getId() == null) {
+            return;
+        }
+        Map<CounterField, Long> pending = getPending(RedisKeyConstants.NOTE_COUNTER_DELTA, note.getId());
+        note.setLikeCount(addPending(note.getLikeCount(), pending.get(CounterField.LIKE)));
+        note.setFavoriteCount(addPending(note.getFavoriteCount(), pending.get(CounterField.FAVORITE)));
+        note.setCommentCount(addPending(note.getCommentCount(), pending.get(CounterField.COMMENT)));
+        note.setViewCount(addPending(note.getViewCount(), pending.get(CounterField.VIEW)));
+    }
+
+    /**
+     * 读取笔记实时计数（数据库计数 + 尚未落库的增量）
+     * <p>
+     * 数据库计数按笔记缓存为快照，快照中记录写入时的落库序号；每次笔记计数落库后序号递增，
+     * 序号不一致说明快照已落后于数据库，重新查库。热门笔记每个落库周期最多查一次库。
+     * 序号在查库之前读取，查库期间发生的落库会使本次写入的快照在下次读取时失效。
+     * </p>
+     *
+     * @return 只包含ID和计数列的笔记，笔记不存在时返回null
+     */
+    public NoteDO getNoteCounts(Long noteId) {
+        if (noteId == null) {
+            return null;
+        }
+        String seq = null;
+        NoteDO note = null;
+        try {
+            List<String> values = redisUtil.multiGet(
+                    Arrays.asList(RedisKeyConstants.NOTE_COUNTER_FLUSH_SEQ, RedisKeyConstants.NOTE_COUNTS + noteId));
+            if (values != null) {
+                seq = values.get(0) != null ? values.get(0) : "0";
+                note = parseCounts(noteId, seq, values.get(1));
+            }
+        } catch (Exception e) {
+            log.warn("读取笔记计数快照失败: noteId={}, error={}", noteId, e.getMessage());
+        }
+
+        if (note == null) {
+            LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(NoteDO::getId, NoteDO::getLikeCount, NoteDO::getFavoriteCount,
+                            NoteDO::getCommentCount, NoteDO::getViewCount)
+                    .eq(NoteDO::getId, noteId);
+            note = noteMapper.selectOne(wrapper);
+            if (note == null) {
+                return null;
+            }
+            if (seq != null) {
+                try {
+                    redisUtil.set(RedisKeyConstants.NOTE_COUNTS + noteId, formatCounts(seq, note),
+                            CacheExpireConstants.NOTE_COUNTS);
+                } catch (Exception e) {
+                    log.warn("写入笔记计数快照失败: noteId={}, error={}", noteId, e.getMessage());
+                }
+            }
+        }
+        applyPendingDeltas(note);
+        return note;
+    }
+
+    private String formatCounts(String seq, NoteDO note) {
+        return String.join(":", seq, String.valueOf(addPending(note.getLikeCount(), null)),
+                String.valueOf(addPending(note.getFavoriteCount(), null)),
+                String.valueOf(addPending(note.getCommentCount(), null)),
+                String.valueOf(addPending(note.getViewCount(), null)));
+    }
+
+    /**
+     * 解析计数快照，落库序号不一致或格式错误时返回null
+     */
+    private NoteDO parseCounts(Long noteId, String seq, String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(":");
+        if (parts.length != 5 || !parts[0].equals(seq)) {
+            return null;
+        }
+        try {
+            NoteDO note = new NoteDO();
+            note.setId(noteId);
+            note.setLikeCount(Integer.parseInt(parts[1]));
+            note.setFavoriteCount(Integer.parseInt(parts[2]));
+            note.setCommentCount(Integer.parseInt(parts[3]));
+            note.setViewCount(Integer.parseInt(parts[4]));
+            return note;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 将尚未落库的增量叠加到用户统计上
+     */
+    public void applyPendingDeltas(UserStatsDO stats) {
+        if (stats == null || stats.getUserId() == null) {
+            return;
+        }
+        Map<CounterField, Long> pending = getPending(RedisKeyConstants.USER_COUNTER_DELTA, stats.getUserId());
+        stats.setLikeCount(addPending(stats.getLikeCount(), pending.get(CounterField.LIKE)));
+        stats.setFavoriteCount(addPending(stats.getFavoriteCount(), pending.get(CounterField.FAVORITE)));
+    }
+
+    /**
+     * 落库延迟（毫秒）：最早一条未落库增量距今的时间，没有待落库增量或读取失败时为0
+     */
+    public long getFlushLagMillis() {
+        try {
+            return lagSince(parseLong(redisUtil.get(RedisKeyConstants.COUNTER_PENDING_SINCE)));
+        } catch (Exception e) {
+            log.warn("读取计数落库延迟失败: {}", e.getMessage());
+            return 0L;
+        }
+    }
+
+    /**
+     * 最近一次成功落库的时间戳，尚未落库过时为0
+     */
+    public long getLastFlushAt() {
+        return readFlushStat(STATS_LAST_FLUSH_AT);
+    }
+
+    /**
+     * 最近一次落库写入的行数（笔记 + 用户）
+     */
+    public long getLastFlushRows() {
+        return readFlushStat(STATS_LAST_FLUSH_ROWS);
+    }
+
+    /**
+     * 应用启动完成后重放上次未完成的落库
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        flush();
+    }
+
+    /**
+     * 应用关闭前落库剩余增量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * 合并增量并批量写回数据库（每5秒执行一次）
+     */
+    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
+    public void flush() {
+        writeBehindFlusher.withLock(RedisKeyConstants.COUNTER_FLUSH_LOCK, FLUSH_LOCK_SECONDS, this::flushLocked);
+    }
+
+    private void flushLocked() {
+        // 先取走延迟起点再重命名增量Key，之后写入的增量会重新记录起点
+        String pendingSince = null;
+        try {
+            pendingSince = redisUtil.getAndDelete(RedisKeyConstants.COUNTER_PENDING_SINCE);
+        } catch (Exception e) {
+            log.warn("读取计数落库延迟起点失败: {}", e.getMessage());
+        }
+        long lag = lagSince(parseLong(pendingSince));
+        try {
+            int noteRows = writeBehindFlusher.flushKey(RedisKeyConstants.NOTE_COUNTER_DELTA,
+                    entries -> applyDeltas(entries, true));
+            int userRows = writeBehindFlusher.flushKey(RedisKeyConstants.USER_COUNTER_DELTA,
+                    entries -> applyDeltas(entries, false));
+            if (noteRows > 0) {
+                // flushing Key 删除后再递增，之前写入的笔记计数快照全部失效
+                advanceNoteFlushSeq();
+            }
+            recordFlushStats(noteRows + userRows);
+            if (noteRows + userRows > 0) {
+                log.debug("计数落库完成: notes={}, users={}, lag={}ms", noteRows, userRows, lag);
+            }
+            if (lag > FLUSH_LAG_WARN_MILLIS) {
+                log.warn("计数落库延迟过高: lag={}ms", lag);
+            }
+        } catch (RuntimeException e) {
+            // 未落库的增量仍在 Redis 中，恢复延迟起点（取走后新写入的起点一定更晚，直接覆盖），下次重试
+            if (pendingSince != null) {
+                try {
+                    redisUtil.set(RedisKeyConstants.COUNTER_PENDING_SINCE, pendingSince);
+                } catch (Exception ex) {
+                    log.warn("恢复计数落库延迟起点失败: {}", ex.getMessage());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void advanceNoteFlushSeq() {
+        try {
+            redisUtil.increment(RedisKeyConstants.NOTE_COUNTER_FLUSH_SEQ, 1);
+        } catch (Exception e) {
+            log.warn("递增笔记计数落库序号失败: {}", e.getMessage());
+        }
+    }
+
+    private void recordFlushStats(int rows) {
+        try {
+            redisUtil.hSet(RedisKeyConstants.COUNTER_FLUSH_STATS, STATS_LAST_FLUSH_AT,
+                    String.valueOf(System.currentTimeMillis()));
+            redisUtil.hSet(RedisKeyConstants.COUNTER_FLUSH_STATS, STATS_LAST_FLUSH_ROWS, String.valueOf(rows));
+        } catch (Exception e) {
+            log.warn("记录计数落库统计失败: {}", e.getMessage());
+        }
+    }
+
+    private long readFlushStat(String field) {
+        try {
+            Object value = redisUtil.hGet(RedisKeyConstants.COUNTER_FLUSH_STATS, field);
+            return value != null ? parseLong(value.toString()) : 0L;
+        } catch (Exception e) {
+            log.warn("读取计数落库统计失败: field={}, error={}", field, e.getMessage());
+            return 0L;
+        }
+    }
+
+    private static long lagSince(long since) {
+        return since > 0 ? Math.max(0L, System.currentTimeMillis() - since) : 0L;
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * 将一批增量写回数据库并标记热度待重算
+     *
+     * @return 写入的行数
+     */
+    private int applyDeltas(Map<String, String> entries, boolean noteCounter) {
+        List<CounterDeltaDTO> deltas = mergeDeltas(entries);
+        if (!deltas.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < deltas.size(); i += BATCH_SIZE) {
+                    List<CounterDeltaDTO> batch = deltas.subList(i, Math.min(i + BATCH_SIZE, deltas.size()));
+                    if (noteCounter) {
+                        noteMapper.batchAddCounts(batch);
+                    } else {
+                        userStatsMapper.batchAddCounts(batch);
+                    }
+                }
+            });
+        }
+
+        if (noteCounter) {
+            deltas.forEach(delta -> noteRankingService.markDirty(delta.getId()));
+            try {
+                topicTrendingService.recordNoteEngagement(deltas);
+            } catch (Exception e) {
+                log.warn("记录话题互动热度失败: notes={}, error={}", deltas.size(), e.getMessage());
+            }
+        }
+        return deltas.size();
+    }
+
+    /**
+     * 将 "ID:计数类型" -> 增量 的Hash合并为每个ID一条记录，跳过增量全为0的记录
+     */
+    private List<CounterDeltaDTO> mergeDeltas(Map<String, String> entries) {
+        Map<Long, CounterDeltaDTO> merged = new TreeMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            int separator = entry.getKey().lastIndexOf(':');
+            CounterField field = separator > 0 ? CounterField.ofCode(entry.getKey().substring(separator + 1)) : null;
+            if (field == null) {
+                log.warn("忽略无法识别的计数增量: {}", entry.getKey());
+                continue;
+            }
+            try {
+                Long id = Long.parseLong(entry.getKey().substring(0, separator));
+                int delta = Integer.parseInt(entry.getValue());
+                if (delta == 0) {
+                    continue;
+                }
+                CounterDeltaDTO dto = merged.computeIfAbsent(id, key -> {
+                    CounterDeltaDTO created = new CounterDeltaDTO();
+                    created.setId(key);
+                    return created;
+                });
+                fieldSetter(field).accept(dto, delta);
+            } catch (NumberFormatException e) {
+                log.warn("忽略无法解析的计数增量: {}={}", entry.getKey(), entry.getValue());
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private BiConsumer<CounterDeltaDTO, Integer> fieldSetter(CounterField field) {
+        return switch (field) {
+            case LIKE -> CounterDeltaDTO::setLikeDelta;
+            case FAVORITE -> CounterDeltaDTO::setFavoriteDelta;
+            case COMMENT -> CounterDeltaDTO::setCommentDelta;
+            case VIEW -> CounterDeltaDTO::setViewDelta;
+        };
+    }
+
+    private void record(String deltaKey, Long id, CounterField field, long delta) {
+        if (id == null || field == null || delta == 0) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> doRecord(deltaKey, id, field, delta));
+    }
+
+    private void doRecord(String deltaKey, Long id, CounterField field, long delta) {
+        try {
+            redisUtil.hIncrementAndMark(deltaKey, id + ":" + field.getCode(), delta,
+                    RedisKeyConstants.COUNTER_PENDING_SINCE, String.valueOf(System.currentTimeMillis()));
+        } catch (Exception e) {
+            // Redis 不可用时直接写库，保证计数不丢
+            log.warn("记录计数增量失败，直接写库: key={}, id={}, error={}", deltaKey, id, e.getMessage());
+            Map<String, String> single = Map.of(id + ":" + field.getCode(), String.valueOf(delta));
+            List<CounterDeltaDTO> deltas = mergeDeltas(single);
+            if (RedisKeyConstants.NOTE_COUNTER_DELTA.equals(deltaKey)) {
+                noteMapper.batchAddCounts(deltas);
+                advanceNoteFlushSeq();
+            } else {
+                userStatsMapper.batchAddCounts(deltas);
+            }
+        }
+    }
+
+    /**
+     * 读取某个ID的待落库增量（包括正在落库的部分）
+     */
+    private Map<CounterField, Long> getPending(String deltaKey, Long id) {
+        Map<CounterField, Long> pending = new EnumMap<>(CounterField.class);
+        try {
+            List<String> fields = new ArrayList<>();
+            for (CounterField field : CounterField.values()) {
+                fields.add(id + ":" + field.getCode());
+            }
+            for (String key : List.of(deltaKey, deltaKey + WriteBehindFlusher.FLUSHING_SUFFIX)) {
+                List<Object> values = redisUtil.hMultiGet(key, fields);
+                for (int i = 0; i < values.size(); i++) {
+                    if (values.get(i) != null) {
+                        pending.merge(CounterField.values()[i], Long.parseLong(values.get(i).toString()), Long::sum);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取待落库计数失败: id={}, error={}", id, e.getMessage());
+        }
+        return pending;
+    }
+
+    private Integer addPending(Integer base, Long pending) {
+        long value = (base != null ? base : 0) + (pending != null ? pending : 0L);
+        return (int) Math.max(0L, value);
+    }
+}
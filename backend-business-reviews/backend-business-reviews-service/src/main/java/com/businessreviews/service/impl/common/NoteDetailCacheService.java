@@ -0,0 +1,183 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.cache.RedisCacheLoader;
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.mapper.NoteMapper;
+import com.businessreviews.model.dataobject.NoteDO;
+import com.businessreviews.model.vo.NoteDetailVO;
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 笔记详情聚合缓存服务
+ * <p>
+ * 缓存笔记详情中与用户无关、且不随互动变化的部分（正文、图片、作者快照、标签、话题、关联商家），
+ * 计数和当前用户的互动状态由调用方在读取时叠加。
+ * </p>
+ * <p>
+ * 版本化失效：每篇笔记维护一个版本号，缓存值中记录构建时的版本号，
+ * 读取时用一次 MGET 同时取回版本号和缓存值，两者不一致即视为失效，无需主动删除缓存。
+ * 版本号在以下场景递增（事务中调用时在提交后生效）：
+ * - 用户/商家编辑、删除、下线、发布笔记
+ * - 审核结果变更
+ * - 作者修改昵称、头像（递增该作者全部笔记的版本号）
+ * 关联商家名称、话题名称变化不递增版本号，依赖缓存过期时间收敛。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteDetailCacheService {
+
+    private final NoteMapper noteMapper;
+    private final RedisUtil redisUtil;
+    private final ObjectMapper objectMapper;
+    private final RedisCacheLoader redisCacheLoader;
+
+    /**
+     * 缓存查询结果
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Lookup {
+        /** 缓存的详情（未命中或已失效时为null） */
+        private NoteDetailVO detail;
+        /** 当前版本号，未命中时用于回填 */
+        private long version;
+    }
+
+    /**
+     * 缓存值：构建时的版本号 + 详情
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CachedDetail {
+        private Long version;
+        private NoteDetailVO detail;
+    }
+
+    /**
+     * 读取笔记详情缓存（一次 Redis 往返）
+     */
+    public Lookup lookup(Long noteId) {
+        try {
+            List<String> values = redisUtil.multiGet(Arrays.asList(versionKey(noteId), detailKey(noteId)));
+            long version = values != null && values.get(0) != null ? Long.parseLong(values.get(0)) : 0L;
+            String json = values != null ? values.get(1) : null;
+            if (json != null) {
+                CachedDetail cached = objectMapper.readValue(json, CachedDetail.class);
+                if (cached.getVersion() != null && cached.getVersion() == version) {
+                    return new Lookup(cached.getDetail(), version);
+                }
+            }
+            return new Lookup(null, version);
+        } catch (Exception e) {
+            log.warn("读取笔记详情缓存失败: noteId={}, error={}", noteId, e.getMessage());
+            return new Lookup(null, -1L);
+        }
+    }
+
+    /**
+     * 构建并回填笔记详情缓存
+     * <p>
+     * 同一笔记同一版本的并发未命中在进程内合并为一次构建，
+     * 各调用方拿到各自反序列化的副本，可以安全地叠加计数和互动状态。
+     * </p>
+     *
+     * @param version 构建前读取到的版本号（构建期间版本号变化时，写入的缓存在下次读取时自动失效）
+     * @param builder 构建函数（查库）
+     */
+    public NoteDetailVO load(Long noteId, long version, Supplier<NoteDetailVO> builder) {
+        String json = redisCacheLoader.singleFlight(detailKey(noteId) + ":" + version, () -> {
+            NoteDetailVO detail = builder.get();
+            try {
+                String value = objectMapper.writeValueAsString(new CachedDetail(version, detail));
+                if (version >= 0) {
+                    redisUtil.set(detailKey(noteId), value, RedisCacheLoader.jitter(CacheExpireConstants.NOTE_DETAIL));
+                }
+                return value;
+            } catch (Exception e) {
+                log.warn("写入笔记详情缓存失败: noteId={}, error={}", noteId, e.getMessage());
+                return null;
+            }
+        });
+        if (json != null) {
+            try {
+                return objectMapper.readValue(json, CachedDetail.class).getDetail();
+            } catch (Exception e) {
+                log.warn("解析笔记详情失败: noteId={}, error={}", noteId, e.getMessage());
+            }
+        }
+        // 序列化失败时退化为直接构建
+        return builder.get();
+    }
+
+    /**
+     * 使笔记详情缓存失效（递增版本号）
+     */
+    public void invalidate(Long noteId) {
+        if (noteId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> bumpVersion(noteId));
+    }
+
+    /**
+     * 使作者全部笔记的详情缓存失效（作者修改昵称、头像时调用）
+     */
+    public void invalidateByAuthor(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            try {
+                LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(NoteDO::getId).eq(NoteDO::getUserId, userId);
+                noteMapper.selectList(wrapper).forEach(note -> bumpVersion(note.getId()));
+            } catch (Exception e) {
+                log.warn("失效作者笔记详情缓存失败: userId={}, error={}", userId, e.getMessage());
+            }
+        });
+    }
+
+    private void bumpVersion(Long noteId) {
+        try {
+            String key = versionKey(noteId);
+            redisUtil.increment(key, 1);
+            // 版本号保留时间长于缓存值，保证旧版本的缓存值不会在版本号过期后被误认为有效
+            redisUtil.expire(key, CacheExpireConstants.NOTE_DETAIL_VERSION);
+        } catch (Exception e) {
+            // 版本号递增失败时直接删除缓存值
+            log.warn("递增笔记详情版本号失败，删除缓存: noteId={}, error={}", noteId, e.getMessage());
+            try {
+                redisUtil.delete(detailKey(noteId));
+            } catch (Exception ex) {
+                log.error("删除笔记详情缓存失败: noteId={}, error={}", noteId, ex.getMessage());
+            }
+        }
+    }
+
+    private String versionKey(Long noteId) {
+        return RedisKeyConstants.NOTE_DETAIL_VERSION + noteId;
+    }
+
+    private String detailKey(Long noteId) {
+        return RedisKeyConstants.NOTE_DETAIL + noteId;
+    }
+}
@@ -0,0 +1,201 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.enums.NoteStatus;
+import com.businessreviews.mapper.NoteMapper;
+import com.businessreviews.model.dataobject.NoteDO;
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.geo.Point;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 笔记地理位置 GEO 索引服务
+ * <p>
+ * 将已发布且带经纬度的笔记维护在 Redis GEO 索引中，"附近笔记"按半径检索并按距离升序返回，
+ * 与 {@link ShopGeoIndexInitializer} 的商家索引方式一致。
+ * </p>
+ * <p>
+ * 更新策略：
+ * - 审核通过/商家发布：加入索引
+ * - 编辑笔记：按最新坐标和状态刷新
+ * - 隐藏/下线/删除：移出索引
+ * - 每天凌晨全量重建一次，修正遗漏的状态变更
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteGeoIndexService {
+
+    private final NoteMapper noteMapper;
+    private final RedisUtil redisUtil;
+
+    /** 单次附近查询最多返回的笔记数 */
+    public static final int MAX_NEARBY_RESULTS = 1000;
+
+    /** 全量重建时每批处理的笔记数 */
+    private static final int BATCH_SIZE = 500;
+
+    /** Redis GEO 支持的纬度范围 */
+    private static final double MAX_LATITUDE = 85.05112878D;
+
+    /**
+     * 应用启动完成后构建 GEO 索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initNoteGeoIndex() {
+        rebuildIndex();
+    }
+
+    /**
+     * 全量重建笔记 GEO 索引（每天凌晨执行一次）
+     * <p>
+     * 先写入临时Key，完成后整体替换，重建期间不影响线上读取。
+     * </p>
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void rebuildIndex() {
+        log.info("开始初始化笔记 GEO 索引...");
+        String buildingKey = RedisKeyConstants.NOTES_GEO + ":building";
+        try {
+            redisUtil.delete(buildingKey);
+
+            long lastId = 0L;
+            long total = 0;
+            while (true) {
+                LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(NoteDO::getId, NoteDO::getLatitude, NoteDO::getLongitude)
+                        .eq(NoteDO::getStatus, NoteStatus.NORMAL.getCode())
+                        .isNotNull(NoteDO::getLatitude)
+                        .isNotNull(NoteDO::getLongitude)
+                        .gt(NoteDO::getId, lastId)
+                        .orderByAsc(NoteDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<NoteDO> notes = noteMapper.selectList(wrapper);
+                if (notes.isEmpty()) {
+                    break;
+                }
+
+                Map<String, Point> locations = new HashMap<>();
+                for (NoteDO note : notes) {
+                    if (hasValidLocation(note)) {
+                        locations.put(note.getId().toString(), toPoint(note));
+                    }
+                }
+                if (!locations.isEmpty()) {
+                    redisUtil.geoAddAll(buildingKey, locations);
+                    total += locations.size();
+                }
+
+                lastId = notes.get(notes.size() - 1).getId();
+                if (notes.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            if (total > 0) {
+                redisUtil.rename(buildingKey, RedisKeyConstants.NOTES_GEO);
+            } else {
+                redisUtil.delete(RedisKeyConstants.NOTES_GEO);
+            }
+            log.info("笔记 GEO 索引初始化完成，共索引 {} 篇笔记", total);
+        } catch (Exception e) {
+            log.error("笔记 GEO 索引初始化失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按笔记最新状态刷新 GEO 位置（审核通过、发布、编辑时调用）
+     * <p>
+     * 已发布且坐标有效的笔记加入索引，否则移出索引。在事务中调用时推迟到提交后执行。
+     * </p>
+     */
+    public void updateNote(NoteDO note) {
+        if (note == null || note.getId() == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> applyNote(note));
+    }
+
+    /**
+     * 删除笔记的 GEO 位置（隐藏、下线、删除时调用），在事务中调用时推迟到提交后执行
+     */
+    public void removeNote(Long noteId) {
+        if (noteId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> applyRemoval(noteId));
+    }
+
+    private void applyNote(NoteDO note) {
+        try {
+            if (note.getStatus() != null && note.getStatus() == NoteStatus.NORMAL.getCode()
+                    && hasValidLocation(note)) {
+                redisUtil.geoAdd(RedisKeyConstants.NOTES_GEO, note.getLongitude().doubleValue(),
+                        note.getLatitude().doubleValue(), note.getId().toString());
+            } else {
+                redisUtil.geoRemove(RedisKeyConstants.NOTES_GEO, note.getId().toString());
+            }
+        } catch (Exception e) {
+            log.warn("更新笔记 GEO 位置失败: noteId={}, error={}", note.getId(), e.getMessage());
+        }
+    }
+
+    private void applyRemoval(Long noteId) {
+        try {
+            redisUtil.geoRemove(RedisKeyConstants.NOTES_GEO, noteId.toString());
+        } catch (Exception e) {
+            log.warn("删除笔记 GEO 位置失败: noteId={}, error={}", noteId, e.getMessage());
+        }
+    }
+
+    /**
+     * 查询指定半径内的笔记（按距离升序）
+     *
+     * @param longitude 中心点经度
+     * @param latitude  中心点纬度
+     * @param radius    搜索半径（公里）
+     * @return 笔记ID -> 距离（公里），按距离升序；索引不存在时返回null，由调用方降级查库
+     */
+    public Map<Long, Double> searchNearby(double longitude, double latitude, double radius) {
+        if (!Boolean.TRUE.equals(redisUtil.hasKey(RedisKeyConstants.NOTES_GEO))) {
+            return null;
+        }
+        var geoResults = redisUtil.geoSearch(RedisKeyConstants.NOTES_GEO, longitude, latitude, radius, false,
+                MAX_NEARBY_RESULTS);
+
+        Map<Long, Double> distanceMap = new LinkedHashMap<>();
+        for (var result : geoResults) {
+            Long noteId = Long.parseLong(result.getContent().getName());
+            distanceMap.put(noteId, result.getDistance() != null ? result.getDistance().getValue() : null);
+        }
+        return distanceMap;
+    }
+
+    private boolean hasValidLocation(NoteDO note) {
+        if (note.getLatitude() == null || note.getLongitude() == null) {
+            return false;
+        }
+        double latitude = note.getLatitude().doubleValue();
+        double longitude = note.getLongitude().doubleValue();
+        return Math.abs(latitude) <= MAX_LATITUDE && Math.abs(longitude) <= 180D;
+    }
+
+    private Point toPoint(NoteDO note) {
+        return new Point(note.getLongitude().doubleValue(), note.getLatitude().doubleValue());
+    }
+}
@@ -0,0 +1,452 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.cache.TieredCache;
+import com.businessreviews.cache.TieredCacheManager;
+import com.businessreviews.cache.TieredCacheNames;
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.enums.NoteStatus;
+import com.businessreviews.mapper.NoteMapper;
+import com.businessreviews.model.dataobject.NoteDO;
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 推荐笔记热度排行服务
+ * <p>
+ * 在 Redis ZSet 中维护已发布笔记的时间衰减热度分，首页推荐流直接按分数分页，
+ * 不再对 notes 表做 ORDER BY + COUNT。
+ * </p>
+ * <p>
+ * 热度分计算（对数热度 + 发布时间线性项，参考 Reddit hot 算法）：
+ * score = log10(max(互动值, 1)) + 推荐加权 + (发布时间 - 基准时间) / 衰减周期
+ * 其中 互动值 = 点赞 + 收藏*2 + 评论*3 + 浏览*0.1。
+ * 由于时间项只与发布时间有关，已入榜笔记的分数不会随时间失效，
+ * 互动变化时只需重算该笔记自身的分数。
+ * </p>
+ * <p>
+ * 更新策略：
+ * - 审核通过：立即入榜
+ * - 点赞/收藏/评论/浏览：标记为待重算，由定时任务批量重算
+ * - 删除/隐藏：立即出榜
+ * - 每小时全量重建一次，修正遗漏的状态变更
+ * </p>
+ * <p>
+ * 重建与增量更新：重建期间持有重建锁，增量写入的笔记同时记入待重算集合，
+ * 批量重算暂停；重建结果替换线上排行后再按数据库最新状态重算这些笔记，
+ * 避免重建期间的变更被整体替换覆盖。
+ * </p>
+ * <p>
+ * 分页一致性：推荐流按"快照"分页，快照是某一时刻排行榜前 N 个笔记ID的列表，
+ * 同一快照内翻页不会出现重复或遗漏。快照生成后内容不再变化，
+ * 分页结果按"快照ID:偏移量:数量"缓存在二级缓存中，热门页面无需访问 Redis List。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteRankingService {
+
+    private final NoteMapper noteMapper;
+    private final RedisUtil redisUtil;
+    private final TieredCacheManager tieredCacheManager;
+
+    /** 热度时间基准：2024-01-01 00:00:00 UTC */
+    private static final long EPOCH_SECONDS = 1704067200L;
+
+    /** 衰减周期（秒）：12.5小时的新鲜度相当于互动值提升一个数量级 */
+    private static final double DECAY_SECONDS = 45000D;
+
+    /** 推荐笔记加权（对数单位） */
+    private static final double RECOMMEND_BOOST = 3D;
+
+    /** 单个快照包含的最大笔记数 */
+    public static final int SNAPSHOT_SIZE = 1000;
+
+    /** 全量重建/批量重算时每批处理的笔记数 */
+    private static final int BATCH_SIZE = 500;
+
+    /** 重建锁过期时间（秒），期间其他实例跳过重建 */
+    private static final long REBUILD_LOCK_SECONDS = 600;
+
+    /** 推荐流分页缓存（本地最多缓存的页数） */
+    private static final long PAGE_CACHE_LOCAL_MAX_SIZE = 1000L;
+
+    /** 快照分页缓存 */
+    private TieredCache<RankingPage> pageCache;
+
+    /**
+     * 初始化二级缓存
+     */
+    @PostConstruct
+    public void initCaches() {
+        pageCache = tieredCacheManager.create(TieredCacheNames.RECOMMENDED_PAGE,
+                RedisKeyConstants.NOTES_RECOMMENDED_PAGE, RankingPage.class,
+                CacheExpireConstants.NOTES_RECOMMENDED, PAGE_CACHE_LOCAL_MAX_SIZE, CacheExpireConstants.LOCAL_CACHE);
+    }
+
+    /**
+     * 应用启动完成后构建热度排行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initRanking() {
+        rebuildRanking();
+    }
+
+    /**
+     * 全量重建热度排行（每小时执行一次）
+     * <p>
+     * 先写入临时Key，完成后整体替换，重建期间不影响线上读取。
+     * 重建期间的增量变更记入待重算集合，替换后由 {@link #flushDirtyNotes()} 重放。
+     * </p>
+     */
+    @Scheduled(cron = "0 15 * * * ?")
+    public void rebuildRanking() {
+        String lockValue = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.setIfAbsent(RedisKeyConstants.NOTES_HOT_RANK_REBUILD_LOCK, lockValue,
+                    REBUILD_LOCK_SECONDS))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("获取推荐笔记热度排行重建锁失败: {}", e.getMessage());
+            return;
+        }
+
+        log.info("开始重建推荐笔记热度排行...");
+        String buildingKey = RedisKeyConstants.NOTES_HOT_RANK + ":building";
+        try {
+            redisUtil.delete(buildingKey);
+
+            long lastId = 0L;
+            int total = 0;
+            while (true) {
+                LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(NoteDO::getId, NoteDO::getLikeCount, NoteDO::getFavoriteCount,
+                                NoteDO::getCommentCount, NoteDO::getViewCount, NoteDO::getRecommend,
+                                NoteDO::getCreatedAt)
+                        .eq(NoteDO::getStatus, NoteStatus.NORMAL.getCode())
+                        .in(NoteDO::getNoteType, 1, 2)
+                        .gt(NoteDO::getId, lastId)
+                        .orderByAsc(NoteDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<NoteDO> notes = noteMapper.selectList(wrapper);
+                if (notes.isEmpty()) {
+                    break;
+                }
+
+                Map<String, Double> scores = new HashMap<>();
+                for (NoteDO note : notes) {
+                    scores.put(note.getId().toString(), calculateScore(note));
+                }
+                redisUtil.zAddAll(buildingKey, scores);
+
+                total += notes.size();
+                lastId = notes.get(notes.size() - 1).getId();
+                if (notes.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            if (total > 0) {
+                redisUtil.rename(buildingKey, RedisKeyConstants.NOTES_HOT_RANK);
+            } else {
+                redisUtil.delete(RedisKeyConstants.NOTES_HOT_RANK);
+            }
+            log.info("推荐笔记热度排行重建完成，共 {} 篇笔记", total);
+        } catch (Exception e) {
+            log.error("推荐笔记热度排行重建失败: {}", e.getMessage(), e);
+        } finally {
+            try {
+                redisUtil.deleteIfEquals(RedisKeyConstants.NOTES_HOT_RANK_REBUILD_LOCK, lockValue);
+            } catch (Exception e) {
+                log.warn("释放推荐笔记热度排行重建锁失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 批量重算被标记的笔记热度（每10秒执行一次）
+     * <p>
+     * 重建期间暂停，待重算的笔记留到重建结果替换线上排行后再写入。
+     * </p>
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void flushDirtyNotes() {
+        try {
+            if (isRebuilding()) {
+                return;
+            }
+            List<String> dirtyIds;
+            while (!(dirtyIds = redisUtil.sPop(RedisKeyConstants.NOTES_HOT_RANK_DIRTY, BATCH_SIZE)).isEmpty()) {
+                List<Long> noteIds = dirtyIds.stream().map(Long::valueOf).collect(Collectors.toList());
+                Map<Long, NoteDO> noteMap = noteMapper.selectBatchIds(noteIds).stream()
+                        .collect(Collectors.toMap(NoteDO::getId, note -> note));
+
+                Map<String, Double> scores = new HashMap<>();
+                List<String> removed = new ArrayList<>();
+                for (Long noteId : noteIds) {
+                    NoteDO note = noteMap.get(noteId);
+                    if (isRankable(note)) {
+                        scores.put(noteId.toString(), calculateScore(note));
+                    } else {
+                        removed.add(noteId.toString());
+                    }
+                }
+                redisUtil.zAddAll(RedisKeyConstants.NOTES_HOT_RANK, scores);
+                if (!removed.isEmpty()) {
+                    redisUtil.zRemove(RedisKeyConstants.NOTES_HOT_RANK, removed.toArray());
+                }
+                log.debug("批量重算笔记热度完成: 更新={}, 移除={}", scores.size(), removed.size());
+            }
+        } catch (Exception e) {
+            log.warn("批量重算笔记热度失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 笔记入榜或刷新分数（审核通过时调用），在事务中调用时推迟到提交后执行
+     */
+    public void updateNote(NoteDO note) {
+        if (note == null || note.getId() == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            try {
+                if (isRankable(note)) {
+                    redisUtil.zAdd(RedisKeyConstants.NOTES_HOT_RANK, note.getId().toString(), calculateScore(note));
+                } else {
+                    redisUtil.zRemove(RedisKeyConstants.NOTES_HOT_RANK, note.getId().toString());
+                }
+                markDirtyIfRebuilding(note.getId());
+            } catch (Exception e) {
+                log.warn("更新笔记热度失败: noteId={}, error={}", note.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 标记笔记热度待重算（点赞、收藏、评论、浏览时调用）
+     */
+    public void markDirty(Long noteId) {
+        if (noteId == null) {
+            return;
+        }
+        try {
+            redisUtil.sAdd(RedisKeyConstants.NOTES_HOT_RANK_DIRTY, noteId.toString());
+        } catch (Exception e) {
+            log.warn("标记笔记热度待重算失败: noteId={}, error={}", noteId, e.getMessage());
+        }
+    }
+
+    /**
+     * 笔记出榜（删除、隐藏、审核不通过时调用），在事务中调用时推迟到提交后执行
+     */
+    public void removeNote(Long noteId) {
+        if (noteId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            try {
+                redisUtil.zRemove(RedisKeyConstants.NOTES_HOT_RANK, noteId.toString());
+                markDirtyIfRebuilding(noteId);
+            } catch (Exception e) {
+                log.warn("移除笔记热度失败: noteId={}, error={}", noteId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 重建期间的增量写入会被重建结果整体替换，记入待重算集合，替换后按数据库最新状态重放
+     */
+    private void markDirtyIfRebuilding(Long noteId) {
+        if (isRebuilding()) {
+            redisUtil.sAdd(RedisKeyConstants.NOTES_HOT_RANK_DIRTY, noteId.toString());
+        }
+    }
+
+    private boolean isRebuilding() {
+        return Boolean.TRUE.equals(redisUtil.hasKey(RedisKeyConstants.NOTES_HOT_RANK_REBUILD_LOCK));
+    }
+
+    /**
+     * 按快照分页获取推荐笔记ID
+     *
+     * @param snapshotId 客户端上一页返回的快照ID（首页传null）
+     * @param offset     偏移量
+     * @param limit      数量
+     * @return 分页结果，排行榜不可用时返回null（由调用方降级查库）
+     */
+    public RankingPage getRecommendedPage(String snapshotId, long offset, int limit) {
+        // 客户端翻页时携带的快照已缓存则无需校验快照是否存在
+        if (snapshotId != null && !snapshotId.isEmpty()) {
+            RankingPage cached = pageCache.get(pageKey(snapshotId, offset, limit), () -> null);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        String resolvedId = resolveSnapshot(snapshotId);
+        if (resolvedId == null) {
+            return null;
+        }
+
+        return pageCache.get(pageKey(resolvedId, offset, limit), () -> {
+            String snapshotKey = RedisKeyConstants.NOTES_RECOMMENDED_SNAPSHOT + resolvedId;
+            List<Long> noteIds = redisUtil.lRange(snapshotKey, offset, offset + limit - 1).stream()
+                    .map(Long::valueOf)
+                    .collect(Collectors.toList());
+            Long total = redisUtil.lSize(snapshotKey);
+            return new RankingPage(resolvedId, noteIds, total != null ? total : 0L);
+        });
+    }
+
+    /**
+     * 按排序快照分页（发现页等按可变字段排序的列表，游标分页期间排序字段变化不会造成重复或遗漏）
+     * <p>
+     * 同一列表每个快照周期共用一个快照，快照最多包含 {@link #SNAPSHOT_SIZE} 个笔记；
+     * 客户端携带的快照过期后改用当前周期的快照，按原偏移量继续翻页。
+     * </p>
+     *
+     * @param listName   列表名称（含排序方式）
+     * @param snapshotId 客户端上一页返回的快照ID（首页传null）
+     * @param offset     偏移量
+     * @param limit      数量
+     * @param loader     快照不存在时按排序查询笔记ID（最多 {@link #SNAPSHOT_SIZE} 个）
+     * @return 分页结果
+     */
+    public RankingPage getListSnapshotPage(String listName, String snapshotId, long offset, int limit,
+            Supplier<List<Long>> loader) {
+        String resolvedId = snapshotId;
+        if (resolvedId == null || !resolvedId.startsWith(listName + "-")
+                || !Boolean.TRUE.equals(redisUtil.hasKey(RedisKeyConstants.NOTES_EXPLORE_SNAPSHOT + resolvedId))) {
+            resolvedId = listName + "-"
+                    + Long.toString(System.currentTimeMillis() / (CacheExpireConstants.NOTES_RECOMMENDED * 1000L), 36);
+            String snapshotKey = RedisKeyConstants.NOTES_EXPLORE_SNAPSHOT + resolvedId;
+            if (!Boolean.TRUE.equals(redisUtil.hasKey(snapshotKey))) {
+                List<String> noteIds = loader.get().stream()
+                        .limit(SNAPSHOT_SIZE)
+                        .map(String::valueOf)
+                        .collect(Collectors.toList());
+                if (noteIds.isEmpty()) {
+                    return new RankingPage(resolvedId, new ArrayList<>(), 0L);
+                }
+                // 写入临时Key后整体替换，并发生成同一快照时结果相同
+                String buildingKey = snapshotKey + ":building:" + UUID.randomUUID();
+                redisUtil.rightPushAll(buildingKey, noteIds);
+                redisUtil.expire(buildingKey, CacheExpireConstants.NOTES_RECOMMENDED_SNAPSHOT);
+                redisUtil.rename(buildingKey, snapshotKey);
+            }
+        }
+
+        String snapshotKey = RedisKeyConstants.NOTES_EXPLORE_SNAPSHOT + resolvedId;
+        List<Long> noteIds = redisUtil.lRange(snapshotKey, offset, offset + limit - 1).stream()
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+        Long total = redisUtil.lSize(snapshotKey);
+        return new RankingPage(resolvedId, noteIds, total != null ? total : 0L);
+    }
+
+    private String pageKey(String snapshotId, long offset, int limit) {
+        return snapshotId + ":" + offset + ":" + limit;
+    }
+
+    /**
+     * 计算笔记热度分
+     */
+    public double calculateScore(NoteDO note) {
+        double engagement = nullToZero(note.getLikeCount())
+                + nullToZero(note.getFavoriteCount()) * 2D
+                + nullToZero(note.getCommentCount()) * 3D
+                + nullToZero(note.getViewCount()) * 0.1D;
+        double score = Math.log10(Math.max(engagement, 1D));
+
+        if (note.getRecommend() != null && note.getRecommend() == 1) {
+            score += RECOMMEND_BOOST;
+        }
+
+        if (note.getCreatedAt() != null) {
+            long createdSeconds = note.getCreatedAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+            score += (createdSeconds - EPOCH_SECONDS) / DECAY_SECONDS;
+        }
+        return score;
+    }
+
+    /**
+     * 解析可用的快照ID，必要时生成新快照
+     */
+    private String resolveSnapshot(String snapshotId) {
+        // 1. 客户端指定的快照仍然有效则继续使用
+        if (snapshotId != null && !snapshotId.isEmpty()
+                && Boolean.TRUE.equals(redisUtil.hasKey(RedisKeyConstants.NOTES_RECOMMENDED_SNAPSHOT + snapshotId))) {
+            return snapshotId;
+        }
+
+        // 2. 使用当前周期的快照
+        String currentId = redisUtil.get(RedisKeyConstants.NOTES_RECOMMENDED_SNAPSHOT_CURRENT);
+        if (currentId != null
+                && Boolean.TRUE.equals(redisUtil.hasKey(RedisKeyConstants.NOTES_RECOMMENDED_SNAPSHOT + currentId))) {
+            return currentId;
+        }
+
+        // 3. 从排行榜生成新快照
+        List<String> rankedIds = redisUtil.zReverseRange(RedisKeyConstants.NOTES_HOT_RANK, 0, SNAPSHOT_SIZE - 1);
+        if (rankedIds.isEmpty()) {
+            return null;
+        }
+
+        String newId = Long.toString(System.currentTimeMillis(), 36);
+        String snapshotKey = RedisKeyConstants.NOTES_RECOMMENDED_SNAPSHOT + newId;
+        redisUtil.rightPushAll(snapshotKey, rankedIds);
+        redisUtil.expire(snapshotKey, CacheExpireConstants.NOTES_RECOMMENDED_SNAPSHOT);
+
+        // 并发生成时以先写入的快照为当前快照，本次请求仍使用自己生成的快照
+        redisUtil.setIfAbsent(RedisKeyConstants.NOTES_RECOMMENDED_SNAPSHOT_CURRENT, newId,
+                CacheExpireConstants.NOTES_RECOMMENDED);
+        log.info("生成推荐笔记快照: snapshotId={}, size={}", newId, rankedIds.size());
+        return newId;
+    }
+
+    private boolean isRankable(NoteDO note) {
+        return note != null
+                && note.getStatus() != null && note.getStatus() == NoteStatus.NORMAL.getCode()
+                && note.getNoteType() != null && (note.getNoteType() == 1 || note.getNoteType() == 2);
+    }
+
+    private double nullToZero(Integer value) {
+        return value != null ? value : 0D;
+    }
+
+    /**
+     * 快照分页结果（快照内容不可变，可安全缓存）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RankingPage {
+        /** 快照ID */
+        private String snapshotId;
+        /** 当前页笔记ID（按热度排序） */
+        private List<Long> noteIds;
+        /** 快照内笔记总数 */
+        private Long total;
+    }
+}
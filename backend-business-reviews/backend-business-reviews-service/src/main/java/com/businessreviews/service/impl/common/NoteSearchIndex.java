@@ -0,0 +1,566 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.enums.NoteStatus;
+import com.businessreviews.mapper.NoteMapper;
+import com.businessreviews.model.dataobject.NoteDO;
+import com.businessreviews.util.SearchTokenizer;
+import com.businessreviews.util.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 笔记全文检索倒排索引
+ * <p>
+ * 在 JVM 内维护已发布笔记的倒排索引，笔记搜索不再对 notes 表做
+ * title/content LIKE '%kw%' 全表扫描。
+ * 分词见 {@link SearchTokenizer}（中文单字+二元组，英文单词+前缀），查询词项全部命中才算匹配，
+ * 按 BM25 打分排序，标题词频按 {@link #TITLE_WEIGHT} 倍计入。
+ * 含字母数字的查询在索引中没有命中时（如超出前缀长度的半个单词）由调用方降级查库；
+ * 纯中文查询以索引结果为准，没有命中时不降级。
+ * </p>
+ * <p>
+ * 更新策略：
+ * - 审核通过/发布/编辑：事务提交后重建该笔记的词项
+ * - 隐藏/下线/删除：事务提交后移出索引
+ * - 每分钟按 updated_at 水位增量同步一次（依赖 notes 表 idx_updated_at 索引），多实例部署时各实例据此收敛
+ * - 每天凌晨全量重建一次，清理被物理删除的笔记
+ * </p>
+ * <p>
+ * 持久化：索引定期写入本地段文件，重启时加载段文件后只需从水位增量同步，
+ * 不必全量重建。索引就绪前 {@link #search} 返回null，由调用方降级查库。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteSearchIndex {
+
+    private final NoteMapper noteMapper;
+
+    @Value("${search.index.dir:./data/search-index}")
+    private String indexDir;
+
+    /** BM25 词频饱和参数 */
+    private static final double K1 = 1.2D;
+
+    /** BM25 文档长度归一化参数 */
+    private static final double B = 0.75D;
+
+    /** 标题词频权重 */
+    private static final int TITLE_WEIGHT = 3;
+
+    /** 正文参与索引的最大长度 */
+    private static final int MAX_CONTENT_LENGTH = 5000;
+
+    /** 全量构建/增量同步时每批处理的笔记数 */
+    private static final int BATCH_SIZE = 500;
+
+    /** 增量同步回看时长（秒），覆盖提交延迟和时钟偏差 */
+    private static final long SYNC_OVERLAP_SECONDS = 60L;
+
+    private static final String SEGMENT_FILE = "notes.seg";
+    private static final int SEGMENT_MAGIC = 0x4E534547;
+    private static final int SEGMENT_VERSION = 2;
+
+    /** 结果排序：按分数升序，分数相同时按ID升序（倒序取结果时较新的笔记在前） */
+    private static final Comparator<ScoredDoc> SCORE_ORDER = Comparator
+            .comparingDouble(ScoredDoc::getScore)
+            .thenComparingLong(ScoredDoc::getNoteId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 倒排表：词项 -> (笔记ID -> 加权词频) */
+    private Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    /** 正排表：笔记ID -> 文档词项，更新和删除时据此清理倒排表 */
+    private Map<Long, IndexedDoc> documents = new HashMap<>();
+
+    /** 所有文档加权长度之和 */
+    private long totalLength;
+
+    /** 已同步到的 updated_at 水位 */
+    private volatile LocalDateTime watermark;
+
+    private volatile boolean ready;
+    private volatile boolean dirty;
+
+    /**
+     * 应用启动完成后加载段文件并增量同步，段文件不可用时全量构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndex() {
+        if (loadSegment()) {
+            ready = true;
+            syncIncrement();
+        } else {
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * 全量重建索引（每天凌晨执行一次）
+     * <p>
+     * 在新结构中构建完成后整体替换，构建期间不影响线上查询。
+     * </p>
+     */
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void rebuildIndex() {
+        log.info("开始构建笔记搜索索引...");
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            Map<String, Map<Long, Integer>> newPostings = new HashMap<>();
+            Map<Long, IndexedDoc> newDocuments = new HashMap<>();
+            long newTotalLength = 0;
+
+            long lastId = 0L;
+            while (true) {
+                LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(NoteDO::getId, NoteDO::getTitle, NoteDO::getContent)
+                        .eq(NoteDO::getStatus, NoteStatus.NORMAL.getCode())
+                        .gt(NoteDO::getId, lastId)
+                        .orderByAsc(NoteDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<NoteDO> notes = noteMapper.selectList(wrapper);
+                if (notes.isEmpty()) {
+                    break;
+                }
+
+                for (NoteDO note : notes) {
+                    IndexedDoc doc = analyze(note);
+                    newDocuments.put(note.getId(), doc);
+                    newTotalLength += doc.getLength();
+                    addPostings(newPostings, note.getId(), doc);
+                }
+
+                lastId = notes.get(notes.size() - 1).getId();
+                if (notes.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                documents = newDocuments;
+                totalLength = newTotalLength;
+                watermark = startedAt;
+                dirty = true;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("笔记搜索索引构建完成，共 {} 篇笔记，{} 个词项", newDocuments.size(), newPostings.size());
+            persistSegment();
+        } catch (Exception e) {
+            log.error("笔记搜索索引构建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按 updated_at 水位增量同步（每分钟执行一次）
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void syncIncrement() {
+        if (watermark == null) {
+            return;
+        }
+        try {
+            LocalDateTime lastTime = watermark.minusSeconds(SYNC_OVERLAP_SECONDS);
+            long lastId = 0L;
+            int synced = 0;
+            while (true) {
+                final LocalDateTime seekTime = lastTime;
+                final long seekId = lastId;
+                LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(NoteDO::getId, NoteDO::getTitle, NoteDO::getContent, NoteDO::getStatus,
+                                NoteDO::getUpdatedAt)
+                        .and(w -> w.gt(NoteDO::getUpdatedAt, seekTime)
+                                .or(o -> o.eq(NoteDO::getUpdatedAt, seekTime).gt(NoteDO::getId, seekId)))
+                        .orderByAsc(NoteDO::getUpdatedAt)
+                        .orderByAsc(NoteDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<NoteDO> notes = noteMapper.selectList(wrapper);
+                if (notes.isEmpty()) {
+                    break;
+                }
+
+                notes.forEach(this::applyNote);
+                synced += notes.size();
+
+                NoteDO last = notes.get(notes.size() - 1);
+                if (last.getUpdatedAt() != null) {
+                    lastTime = last.getUpdatedAt();
+                }
+                lastId = last.getId();
+                if (notes.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            if (synced > 0 && lastTime.isAfter(watermark)) {
+                watermark = lastTime;
+            }
+            log.debug("笔记搜索索引增量同步完成: 同步={}", synced);
+        } catch (Exception e) {
+            log.warn("笔记搜索索引增量同步失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按笔记最新状态刷新索引（审核通过、发布、编辑时调用，事务中调用时在提交后生效）
+     * <p>
+     * 已发布的笔记重建词项，其他状态移出索引。
+     * </p>
+     */
+    public void updateNote(NoteDO note) {
+        if (note == null || note.getId() == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> applyNote(note));
+    }
+
+    /**
+     * 将笔记移出索引（隐藏、下线、删除时调用，事务中调用时在提交后生效）
+     */
+    public void removeNote(Long noteId) {
+        if (noteId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> applyRemoval(noteId));
+    }
+
+    private void applyNote(NoteDO note) {
+        if (note.getStatus() == null || note.getStatus() != NoteStatus.NORMAL.getCode()) {
+            applyRemoval(note.getId());
+            return;
+        }
+        IndexedDoc doc = analyze(note);
+        lock.writeLock().lock();
+        try {
+            removeDocument(note.getId());
+            documents.put(note.getId(), doc);
+            totalLength += doc.getLength();
+            addPostings(postings, note.getId(), doc);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyRemoval(Long noteId) {
+        lock.writeLock().lock();
+        try {
+            if (removeDocument(noteId)) {
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全文检索
+     *
+     * @param keyword 关键词
+     * @param offset  跳过的结果数
+     * @param limit   返回的结果数
+     * @return 按相关度降序的笔记ID及命中总数；索引未就绪，或含字母数字的查询没有命中时返回null
+     */
+    public SearchPage search(String keyword, long offset, int limit) {
+        if (!ready) {
+            return null;
+        }
+        List<String> terms = SearchTokenizer.tokenizeQuery(keyword);
+        if (terms.isEmpty()) {
+            return new SearchPage(Collections.emptyList(), 0L);
+        }
+
+        // 字母数字词项只索引了整词和有限长度的前缀，没有命中时不能确定原文不包含
+        SearchPage emptyPage = terms.stream().anyMatch(term -> !SearchTokenizer.isCjk(term.codePointAt(0)))
+                ? null : new SearchPage(Collections.emptyList(), 0L);
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list == null) {
+                    return emptyPage;
+                }
+                termPostings.add(list);
+            }
+            // 从最短的倒排链开始求交集
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            int docCount = documents.size();
+            double avgLength = docCount > 0 ? (double) totalLength / docCount : 1D;
+            double[] idf = new double[termPostings.size()];
+            for (int i = 0; i < idf.length; i++) {
+                int df = termPostings.get(i).size();
+                idf[i] = Math.log(1D + (docCount - df + 0.5D) / (df + 0.5D));
+            }
+
+            // 小顶堆保留前 offset + limit 个结果
+            int topK = (int) Math.min(offset + limit, Integer.MAX_VALUE);
+            PriorityQueue<ScoredDoc> heap = new PriorityQueue<>(SCORE_ORDER);
+            long total = 0;
+            for (Long noteId : termPostings.get(0).keySet()) {
+                double score = 0D;
+                double lengthNorm = K1 * (1D - B + B * documents.get(noteId).getLength() / avgLength);
+                boolean matched = true;
+                for (int i = 0; i < termPostings.size(); i++) {
+                    Integer tf = termPostings.get(i).get(noteId);
+                    if (tf == null) {
+                        matched = false;
+                        break;
+                    }
+                    score += idf[i] * tf * (K1 + 1D) / (tf + lengthNorm);
+                }
+                if (!matched) {
+                    continue;
+                }
+                total++;
+                if (topK <= 0) {
+                    continue;
+                }
+                ScoredDoc scored = new ScoredDoc(noteId, score);
+                if (heap.size() < topK) {
+                    heap.offer(scored);
+                } else if (SCORE_ORDER.compare(scored, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.offer(scored);
+                }
+            }
+
+            if (total == 0) {
+                return emptyPage;
+            }
+            List<ScoredDoc> ranked = new ArrayList<>(heap);
+            ranked.sort(SCORE_ORDER.reversed());
+            List<Long> noteIds = new ArrayList<>();
+            for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size(); i++) {
+                noteIds.add(ranked.get(i).getNoteId());
+            }
+            return new SearchPage(noteIds, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 将索引写入本地段文件（每5分钟检查一次，有变更时写入）
+     * <p>
+     * 先写临时文件再原子替换，写入过程中崩溃不会损坏已有段文件。
+     * </p>
+     */
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void persistSegment() {
+        if (!dirty || watermark == null) {
+            return;
+        }
+        Map<Long, IndexedDoc> snapshot;
+        LocalDateTime snapshotWatermark;
+        lock.readLock().lock();
+        try {
+            // IndexedDoc 不可变，浅拷贝即可在锁外写文件
+            snapshot = new HashMap<>(documents);
+            snapshotWatermark = watermark;
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path segment = Paths.get(indexDir, SEGMENT_FILE);
+        Path temp = Paths.get(indexDir, SEGMENT_FILE + ".tmp");
+        try {
+            Files.createDirectories(segment.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(SEGMENT_MAGIC);
+                out.writeInt(SEGMENT_VERSION);
+                out.writeLong(snapshotWatermark.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                out.writeInt(snapshot.size());
+                for (Map.Entry<Long, IndexedDoc> entry : snapshot.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    Map<String, Integer> termFreqs = entry.getValue().getTermFreqs();
+                    out.writeInt(termFreqs.size());
+                    for (Map.Entry<String, Integer> term : termFreqs.entrySet()) {
+                        out.writeUTF(term.getKey());
+                        out.writeInt(term.getValue());
+                    }
+                }
+            }
+            Files.move(temp, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("笔记搜索索引段文件已写入: {}，共 {} 篇笔记", segment, snapshot.size());
+        } catch (Exception e) {
+            dirty = true;
+            log.warn("笔记搜索索引段文件写入失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 应用关闭前写入段文件
+     */
+    @PreDestroy
+    public void shutdown() {
+        persistSegment();
+    }
+
+    /**
+     * 加载本地段文件
+     *
+     * @return 是否加载成功
+     */
+    private boolean loadSegment() {
+        Path segment = Paths.get(indexDir, SEGMENT_FILE);
+        if (!Files.exists(segment)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(segment))))) {
+            if (in.readInt() != SEGMENT_MAGIC || in.readInt() != SEGMENT_VERSION) {
+                log.warn("笔记搜索索引段文件版本不匹配，改为全量构建");
+                return false;
+            }
+            LocalDateTime segmentWatermark = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault());
+
+            Map<String, Map<Long, Integer>> newPostings = new HashMap<>();
+            Map<Long, IndexedDoc> newDocuments = new HashMap<>();
+            long newTotalLength = 0;
+            int docCount = in.readInt();
+            for (int i = 0; i < docCount; i++) {
+                long noteId = in.readLong();
+                int termCount = in.readInt();
+                Map<String, Integer> termFreqs = new HashMap<>(termCount * 2);
+                int length = 0;
+                for (int j = 0; j < termCount; j++) {
+                    String term = in.readUTF();
+                    int tf = in.readInt();
+                    termFreqs.put(term, tf);
+                    length += tf;
+                }
+                IndexedDoc doc = new IndexedDoc(Collections.unmodifiableMap(termFreqs), length);
+                newDocuments.put(noteId, doc);
+                newTotalLength += length;
+                addPostings(newPostings, noteId, doc);
+            }
+
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                documents = newDocuments;
+                totalLength = newTotalLength;
+                watermark = segmentWatermark;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("笔记搜索索引段文件加载完成，共 {} 篇笔记，水位 {}", docCount, segmentWatermark);
+            return true;
+        } catch (Exception e) {
+            log.warn("笔记搜索索引段文件加载失败，改为全量构建: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 分析笔记，统计加权词频
+     */
+    private IndexedDoc analyze(NoteDO note) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        for (String token : SearchTokenizer.tokenizeWithPrefixes(note.getTitle())) {
+            termFreqs.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        String content = note.getContent();
+        if (content != null && content.length() > MAX_CONTENT_LENGTH) {
+            content = content.substring(0, MAX_CONTENT_LENGTH);
+        }
+        for (String token : SearchTokenizer.tokenizeWithPrefixes(content)) {
+            termFreqs.merge(token, 1, Integer::sum);
+        }
+        int length = termFreqs.values().stream().mapToInt(Integer::intValue).sum();
+        return new IndexedDoc(Collections.unmodifiableMap(termFreqs), length);
+    }
+
+    private static void addPostings(Map<String, Map<Long, Integer>> target, Long noteId, IndexedDoc doc) {
+        for (Map.Entry<String, Integer> entry : doc.getTermFreqs().entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(noteId, entry.getValue());
+        }
+    }
+
+    /**
+     * 从倒排表和正排表中删除文档（调用方需持有写锁）
+     */
+    private boolean removeDocument(Long noteId) {
+        IndexedDoc old = documents.remove(noteId);
+        if (old == null) {
+            return false;
+        }
+        totalLength -= old.getLength();
+        for (String term : old.getTermFreqs().keySet()) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(noteId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 已索引文档
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class IndexedDoc {
+        /** 词项 -> 加权词频（不可变） */
+        private final Map<String, Integer> termFreqs;
+        /** 加权文档长度 */
+        private final int length;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ScoredDoc {
+        private final Long noteId;
+        private final double score;
+    }
+
+    /**
+     * 搜索结果页
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SearchPage {
+        /** 当前页笔记ID（按相关度降序） */
+        private final List<Long> noteIds;
+        /** 命中总数 */
+        private final long total;
+    }
+}
@@ -0,0 +1,426 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.enums.NoteStatus;
+import com.businessreviews.event.NotePublishedEvent;
+import com.businessreviews.mapper.NoteMapper;
+import com.businessreviews.mapper.UserFollowMapper;
+import com.businessreviews.mapper.UserStatsMapper;
+import com.businessreviews.model.dataobject.NoteDO;
+import com.businessreviews.model.dataobject.UserFollowDO;
+import com.businessreviews.model.dataobject.UserStatsDO;
+import com.businessreviews.util.RedisUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 关注流时间线服务
+ * <p>
+ * 采用"写扩散 + 读扩散"混合模式维护关注流：
+ * - 普通作者：笔记审核通过时将笔记ID写入每个粉丝的收件箱（写扩散）
+ * - 大V作者（粉丝数超过阈值）：只写入作者发件箱，粉丝读取时再合并（读扩散）
+ * </p>
+ * <p>
+ * 收件箱与发件箱均为 Redis ZSet（member=笔记ID, score=发布时间戳），长度有上限。
+ * 收件箱只为近期活跃用户维护：写扩散时跳过不存在的收件箱，用户访问时按需从数据库重建，
+ * 长期不访问则自然过期。读取一页只涉及收件箱和所关注大V发件箱的前若干条，与关注数量无关。
+ * 是否已构建由独立的标记Key表示（没有笔记的收件箱在 Redis 中不存在），重建完成后才写入标记。
+ * </p>
+ * <p>
+ * 写扩散在发布事务提交后异步执行，不占用发布请求的耗时，回滚的笔记也不会进入时间线。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteTimelineService {
+
+    private final NoteMapper noteMapper;
+    private final UserFollowMapper userFollowMapper;
+    private final UserStatsMapper userStatsMapper;
+    private final RedisUtil redisUtil;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** 收件箱最大长度 */
+    private static final int INBOX_SIZE = 1000;
+
+    /** 发件箱最大长度 */
+    private static final int OUTBOX_SIZE = 200;
+
+    /** 大V粉丝数阈值，超过后不再写扩散 */
+    private static final int BIG_AUTHOR_FOLLOWERS = 5000;
+
+    /** 写扩散时每批处理的粉丝数 */
+    private static final int FANOUT_BATCH_SIZE = 500;
+
+    /**
+     * 笔记发布（审核通过或商家发布时调用）
+     * <p>
+     * 写入作者发件箱；普通作者同时写扩散到粉丝收件箱。
+     * 在事务中调用时于提交后执行，均在异步线程中完成。
+     * </p>
+     */
+    public void publishNote(NoteDO note) {
+        if (note == null || note.getId() == null || note.getUserId() == null
+                || note.getStatus() == null || note.getStatus() != NoteStatus.NORMAL.getCode()) {
+            return;
+        }
+        eventPublisher.publishEvent(new NotePublishedEvent(this, note.getId(), note.getUserId(), note.getCreatedAt()));
+    }
+
+    /**
+     * 笔记发布后写入发件箱并写扩散
+     */
+    @Async("asyncExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleNotePublished(NotePublishedEvent event) {
+        Long authorId = event.getAuthorId();
+        Long noteId = event.getNoteId();
+        String member = noteId.toString();
+        double score = toScore(event.getPublishedAt());
+
+        try {
+            // 1. 写入作者发件箱
+            String outboxKey = RedisKeyConstants.NOTES_OUTBOX + authorId;
+            ensureOutbox(authorId);
+            redisUtil.zAdd(outboxKey, member, score);
+            redisUtil.zRemoveRange(outboxKey, 0, -OUTBOX_SIZE - 1);
+            redisUtil.expire(outboxKey, CacheExpireConstants.NOTES_INBOX);
+
+            // 2. 大V作者不做写扩散，由粉丝读取时拉取
+            if (isBigAuthor(authorId)) {
+                redisUtil.sAdd(RedisKeyConstants.NOTES_BIG_AUTHORS, authorId.toString());
+                log.info("大V作者笔记仅写入发件箱: authorId={}, noteId={}", authorId, noteId);
+                return;
+            }
+            redisUtil.sRemove(RedisKeyConstants.NOTES_BIG_AUTHORS, authorId.toString());
+
+            // 3. 按批写入粉丝收件箱（仅已构建的收件箱）
+            long lastId = 0L;
+            long pushed = 0L;
+            while (true) {
+                LambdaQueryWrapper<UserFollowDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(UserFollowDO::getId, UserFollowDO::getUserId)
+                        .eq(UserFollowDO::getFollowUserId, authorId)
+                        .gt(UserFollowDO::getId, lastId)
+                        .orderByAsc(UserFollowDO::getId)
+                        .last("LIMIT " + FANOUT_BATCH_SIZE);
+                List<UserFollowDO> followers = userFollowMapper.selectList(wrapper);
+                if (followers.isEmpty()) {
+                    break;
+                }
+
+                List<String> inboxKeys = followers.stream()
+                        .map(follow -> RedisKeyConstants.NOTES_INBOX + follow.getUserId())
+                        .collect(Collectors.toList());
+                Long written = redisUtil.zAddToMarked(inboxKeys, RedisKeyConstants.NOTES_TIMELINE_BUILT, member,
+                        score, INBOX_SIZE);
+                pushed += written != null ? written : 0L;
+
+                lastId = followers.get(followers.size() - 1).getId();
+                if (followers.size() < FANOUT_BATCH_SIZE) {
+                    break;
+                }
+            }
+            log.info("笔记写扩散完成: authorId={}, noteId={}, 收件箱数={}", authorId, noteId, pushed);
+        } catch (Exception e) {
+            log.warn("笔记写扩散失败: noteId={}, error={}", noteId, e.getMessage());
+        }
+    }
+
+    /**
+     * 笔记下线（删除、隐藏时调用）
+     * <p>
+     * 只从作者发件箱移除；粉丝收件箱中的残留ID在读取回表时按状态过滤。
+     * </p>
+     */
+    public void removeNote(Long authorId, Long noteId) {
+        if (authorId == null || noteId == null) {
+            return;
+        }
+        try {
+            redisUtil.zRemove(RedisKeyConstants.NOTES_OUTBOX + authorId, noteId.toString());
+        } catch (Exception e) {
+            log.warn("移除发件箱笔记失败: authorId={}, noteId={}, error={}", authorId, noteId, e.getMessage());
+        }
+    }
+
+    /**
+     * 关注后回填收件箱
+     */
+    public void onFollow(Long userId, Long targetUserId) {
+        String inboxKey = RedisKeyConstants.NOTES_INBOX + userId;
+        try {
+            // 收件箱未构建时无需回填，重建时会包含该作者
+            if (!isBuilt(inboxKey)) {
+                return;
+            }
+            // 大V作者的笔记在读取时拉取
+            if (Boolean.TRUE.equals(
+                    redisUtil.sIsMember(RedisKeyConstants.NOTES_BIG_AUTHORS, targetUserId.toString()))) {
+                return;
+            }
+
+            ensureOutbox(targetUserId);
+            Map<String, Double> backfill = new HashMap<>();
+            for (TypedTuple<String> tuple : redisUtil.zReverseRangeWithScores(
+                    RedisKeyConstants.NOTES_OUTBOX + targetUserId, 0, -1)) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    backfill.put(tuple.getValue(), tuple.getScore());
+                }
+            }
+            if (!backfill.isEmpty()) {
+                redisUtil.zAddAll(inboxKey, backfill);
+                redisUtil.zRemoveRange(inboxKey, 0, -INBOX_SIZE - 1);
+                redisUtil.expire(inboxKey, CacheExpireConstants.NOTES_INBOX);
+                redisUtil.expire(RedisKeyConstants.NOTES_TIMELINE_BUILT + inboxKey, CacheExpireConstants.NOTES_INBOX);
+            }
+        } catch (Exception e) {
+            log.warn("关注回填收件箱失败: userId={}, targetUserId={}, error={}", userId, targetUserId, e.getMessage());
+        }
+    }
+
+    /**
+     * 取消关注后清理收件箱
+     */
+    public void onUnfollow(Long userId, Long targetUserId) {
+        String inboxKey = RedisKeyConstants.NOTES_INBOX + userId;
+        try {
+            if (!isBuilt(inboxKey)) {
+                return;
+            }
+
+            LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(NoteDO::getId)
+                    .eq(NoteDO::getUserId, targetUserId)
+                    .orderByDesc(NoteDO::getId)
+                    .last("LIMIT " + INBOX_SIZE);
+            Object[] noteIds = noteMapper.selectList(wrapper).stream()
+                    .map(note -> note.getId().toString())
+                    .toArray();
+            if (noteIds.length > 0) {
+                redisUtil.zRemove(inboxKey, noteIds);
+            }
+        } catch (Exception e) {
+            log.warn("取消关注清理收件箱失败: userId={}, targetUserId={}, error={}", userId, targetUserId, e.getMessage());
+        }
+    }
+
+    /**
+     * 分页读取关注流
+     *
+     * @param userId 当前用户ID
+     * @param offset 偏移量
+     * @param limit  数量
+     * @return 当前页笔记ID（按发布时间倒序），超出收件箱范围时返回null（由调用方降级查库）
+     */
+    public TimelinePage getTimeline(Long userId, long offset, int limit) {
+        long need = offset + limit;
+        if (need > INBOX_SIZE) {
+            return null;
+        }
+
+        String inboxKey = RedisKeyConstants.NOTES_INBOX + userId;
+        ensureInbox(userId);
+
+        // 1. 收件箱（写扩散部分）
+        Map<String, Double> merged = new HashMap<>();
+        collect(merged, redisUtil.zReverseRangeWithScores(inboxKey, 0, need - 1));
+        long sizeSum = Optional.ofNullable(redisUtil.zSize(inboxKey)).orElse(0L);
+        boolean fullyLoaded = sizeSum <= need;
+
+        // 2. 所关注的大V发件箱（读扩散部分）
+        for (Long authorId : getFollowedBigAuthors(userId)) {
+            String outboxKey = RedisKeyConstants.NOTES_OUTBOX + authorId;
+            ensureOutbox(authorId);
+            collect(merged, redisUtil.zReverseRangeWithScores(outboxKey, 0, need - 1));
+            long outboxSize = Optional.ofNullable(redisUtil.zSize(outboxKey)).orElse(0L);
+            sizeSum += outboxSize;
+            fullyLoaded &= outboxSize <= need;
+        }
+        // 各来源都已全部读出时去重后的数量即为总数；否则各来源之和是上界
+        // （作者成为大V之前写扩散的笔记可能同时出现在收件箱和发件箱中）
+        long total = fullyLoaded ? merged.size() : sizeSum;
+
+        redisUtil.expire(inboxKey, CacheExpireConstants.NOTES_INBOX);
+        redisUtil.expire(RedisKeyConstants.NOTES_TIMELINE_BUILT + inboxKey, CacheExpireConstants.NOTES_INBOX);
+
+        List<Long> noteIds = merged.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .skip(offset)
+                .limit(limit)
+                .map(entry -> Long.valueOf(entry.getKey()))
+                .collect(Collectors.toList());
+        return new TimelinePage(noteIds, total);
+    }
+
+    /**
+     * 收件箱不存在时从数据库重建（不含大V作者的笔记）
+     */
+    private void ensureInbox(Long userId) {
+        String inboxKey = RedisKeyConstants.NOTES_INBOX + userId;
+        if (isBuilt(inboxKey)) {
+            return;
+        }
+
+        LambdaQueryWrapper<UserFollowDO> followWrapper = new LambdaQueryWrapper<>();
+        followWrapper.select(UserFollowDO::getFollowUserId)
+                .eq(UserFollowDO::getUserId, userId);
+        Set<String> bigAuthors = Optional.ofNullable(redisUtil.sMembers(RedisKeyConstants.NOTES_BIG_AUTHORS))
+                .orElse(Collections.emptySet());
+        List<Long> authorIds = userFollowMapper.selectList(followWrapper).stream()
+                .map(UserFollowDO::getFollowUserId)
+                .filter(id -> !bigAuthors.contains(id.toString()))
+                .collect(Collectors.toList());
+
+        int size = rebuildTimeline(inboxKey, INBOX_SIZE, () -> {
+            Map<String, Double> entries = new HashMap<>();
+            if (!authorIds.isEmpty()) {
+                LambdaQueryWrapper<NoteDO> noteWrapper = new LambdaQueryWrapper<>();
+                noteWrapper.select(NoteDO::getId, NoteDO::getCreatedAt)
+                        .eq(NoteDO::getStatus, NoteStatus.NORMAL.getCode())
+                        .in(NoteDO::getUserId, authorIds)
+                        .orderByDesc(NoteDO::getCreatedAt)
+                        .last("LIMIT " + INBOX_SIZE);
+                for (NoteDO note : noteMapper.selectList(noteWrapper)) {
+                    entries.put(note.getId().toString(), toScore(note.getCreatedAt()));
+                }
+            }
+            return entries;
+        });
+        log.info("重建关注流收件箱: userId={}, 笔记数={}", userId, size);
+    }
+
+    /**
+     * 发件箱不存在时从数据库重建
+     */
+    private void ensureOutbox(Long authorId) {
+        String outboxKey = RedisKeyConstants.NOTES_OUTBOX + authorId;
+        if (isBuilt(outboxKey)) {
+            return;
+        }
+
+        rebuildTimeline(outboxKey, OUTBOX_SIZE, () -> {
+            LambdaQueryWrapper<NoteDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(NoteDO::getId, NoteDO::getCreatedAt)
+                    .eq(NoteDO::getUserId, authorId)
+                    .eq(NoteDO::getStatus, NoteStatus.NORMAL.getCode())
+                    .orderByDesc(NoteDO::getCreatedAt)
+                    .last("LIMIT " + OUTBOX_SIZE);
+
+            Map<String, Double> entries = new HashMap<>();
+            for (NoteDO note : noteMapper.selectList(wrapper)) {
+                entries.put(note.getId().toString(), toScore(note.getCreatedAt()));
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * 从数据库重建收件箱或发件箱
+     * <p>
+     * 写入临时Key后整体替换，替换完成后才写构建标记，读取方不会看到构建了一半的时间线。
+     * 写扩散只写入已标记的时间线，查库之后、写标记之前发布的笔记会被跳过，
+     * 因此写标记后再查一次库，补齐这段时间发布的笔记。
+     * </p>
+     *
+     * @param timelineKey 收件箱或发件箱Key
+     * @param maxSize     时间线最大长度
+     * @param loader      从数据库查询笔记ID -> 发布时间戳
+     * @return 重建后的笔记数
+     */
+    private int rebuildTimeline(String timelineKey, int maxSize, Supplier<Map<String, Double>> loader) {
+        Map<String, Double> entries = loader.get();
+        if (entries.isEmpty()) {
+            redisUtil.delete(timelineKey);
+        } else {
+            String buildingKey = timelineKey + ":building:" + UUID.randomUUID();
+            redisUtil.zAddAll(buildingKey, entries);
+            redisUtil.expire(buildingKey, CacheExpireConstants.NOTES_INBOX);
+            redisUtil.rename(buildingKey, timelineKey);
+        }
+        markBuilt(timelineKey);
+
+        Map<String, Double> missed = loader.get();
+        missed.keySet().removeAll(entries.keySet());
+        if (!missed.isEmpty()) {
+            redisUtil.zAddAll(timelineKey, missed);
+            redisUtil.zRemoveRange(timelineKey, 0, -maxSize - 1);
+            redisUtil.expire(timelineKey, CacheExpireConstants.NOTES_INBOX);
+        }
+        return entries.size() + missed.size();
+    }
+
+    private boolean isBuilt(String timelineKey) {
+        return Boolean.TRUE.equals(redisUtil.hasKey(RedisKeyConstants.NOTES_TIMELINE_BUILT + timelineKey));
+    }
+
+    private void markBuilt(String timelineKey) {
+        redisUtil.set(RedisKeyConstants.NOTES_TIMELINE_BUILT + timelineKey, "1", CacheExpireConstants.NOTES_INBOX);
+    }
+
+    /**
+     * 查询用户关注的大V作者（大V数量有限，按集合做一次索引查询）
+     */
+    private List<Long> getFollowedBigAuthors(Long userId) {
+        Set<String> bigAuthors = redisUtil.sMembers(RedisKeyConstants.NOTES_BIG_AUTHORS);
+        if (bigAuthors == null || bigAuthors.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        LambdaQueryWrapper<UserFollowDO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(UserFollowDO::getFollowUserId)
+                .eq(UserFollowDO::getUserId, userId)
+                .in(UserFollowDO::getFollowUserId, bigAuthors.stream().map(Long::valueOf).collect(Collectors.toList()));
+        return userFollowMapper.selectList(wrapper).stream()
+                .map(UserFollowDO::getFollowUserId)
+                .collect(Collectors.toList());
+    }
+
+    private boolean isBigAuthor(Long authorId) {
+        UserStatsDO stats = userStatsMapper.selectByUserId(authorId);
+        return stats != null && stats.getFollowerCount() != null && stats.getFollowerCount() >= BIG_AUTHOR_FOLLOWERS;
+    }
+
+    private void collect(Map<String, Double> merged, List<TypedTuple<String>> tuples) {
+        for (TypedTuple<String> tuple : tuples) {
+            if (tuple.getValue() != null && tuple.getScore() != null) {
+                merged.put(tuple.getValue(), tuple.getScore());
+            }
+        }
+    }
+
+    private double toScore(LocalDateTime time) {
+        LocalDateTime value = time != null ? time : LocalDateTime.now();
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 关注流分页结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TimelinePage {
+        /** 当前页笔记ID（按发布时间倒序） */
+        private final List<Long> noteIds;
+        /** 时间线内笔记总数（未读出全部笔记时为收件箱与大V发件箱之和，是去重后总数的上界） */
+        private final long total;
+    }
+}
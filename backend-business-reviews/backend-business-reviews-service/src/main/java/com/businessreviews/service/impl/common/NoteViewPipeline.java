@@ -0,0 +1,236 @@
+package com.businessreviews.service.impl.common;
+
+import com.businessreviews.mapper.BrowseHistoryMapper;
+import com.businessreviews.model.dataobject.BrowseHistoryDO;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 笔记浏览事件批量处理管道
+ * <p>
+ * 替代原先每次浏览在 asyncExecutor 上执行"UPDATE 浏览数 + 查询/更新浏览历史"的方式：
+ * 请求线程只把浏览事件放入有界无锁队列后立即返回，由定时任务批量消费，
+ * 每批合并为一次按笔记聚合的浏览数累加和一条多行 {@code INSERT ... ON DUPLICATE KEY UPDATE} 浏览历史。
+ * </p>
+ * <p>
+ * 去重：同一登录用户在 {@link #DEDUP_WINDOW_MILLIS} 内重复浏览同一篇笔记（刷新、来回滑动）只计一次；
+ * 未登录用户无法识别，每次浏览都计数，但不记录历史。
+ * </p>
+ * <p>
+ * 背压：队列满时直接丢弃新的浏览事件（浏览数允许少量误差），不阻塞请求线程，
+ * 也不再回退到调用方线程执行。接收、去重、丢弃数量和队列高水位通过 getter 暴露，并定期输出日志。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteViewPipeline {
+
+    private final BrowseHistoryMapper browseHistoryMapper;
+    private final NoteCounterService noteCounterService;
+    private final NoteRankingService noteRankingService;
+
+    /** 队列容量 */
+    private static final int QUEUE_CAPACITY = 50_000;
+
+    /** 单批最多处理的事件数 */
+    private static final int BATCH_SIZE = 1000;
+
+    /** 同一用户重复浏览同一笔记的去重窗口（毫秒） */
+    private static final long DEDUP_WINDOW_MILLIS = 5 * 60 * 1000L;
+
+    /** 浏览历史类型：笔记 */
+    private static final int BROWSE_TYPE_NOTE = 1;
+
+    /** 指标日志输出间隔（毫秒） */
+    private static final long STATS_LOG_INTERVAL_MILLIS = 60_000L;
+
+    private final ConcurrentLinkedQueue<ViewEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    /** 去重窗口：用户ID:笔记ID -> 最近一次计入的时间戳 */
+    private final ConcurrentHashMap<String, Long> recentViews = new ConcurrentHashMap<>();
+
+    /** 已接收的浏览事件数 */
+    private final AtomicLong acceptedCount = new AtomicLong();
+
+    /** 去重窗口内被合并的浏览事件数 */
+    private final AtomicLong dedupedCount = new AtomicLong();
+
+    /** 队列满被丢弃的浏览事件数 */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /** 队列长度高水位（每个指标日志周期重置） */
+    private final AtomicInteger queueHighWatermark = new AtomicInteger();
+
+    /** 最近一批处理的事件数 */
+    @Getter
+    private volatile int lastBatchSize;
+
+    private volatile long lastStatsLogAt = System.currentTimeMillis();
+
+    private record ViewEvent(Long noteId, Long userId, long viewedAt) {
+    }
+
+    /**
+     * 提交一次浏览（非阻塞）
+     *
+     * @param noteId 笔记ID
+     * @param userId 用户ID（未登录为null）
+     * @return 是否被接收（去重合并或队列满时返回false）
+     */
+    public boolean submit(Long noteId, Long userId) {
+        if (noteId == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (userId != null) {
+            boolean[] duplicate = {false};
+            recentViews.compute(userId + ":" + noteId, (key, last) -> {
+                if (last != null && now - last < DEDUP_WINDOW_MILLIS) {
+                    duplicate[0] = true;
+                    return last;
+                }
+                return now;
+            });
+            if (duplicate[0]) {
+                dedupedCount.incrementAndGet();
+                return false;
+            }
+        }
+
+        int size = queueSize.incrementAndGet();
+        if (size > QUEUE_CAPACITY) {
+            queueSize.decrementAndGet();
+            if (droppedCount.incrementAndGet() % 1000 == 1) {
+                log.warn("浏览事件队列已满，丢弃浏览事件: capacity={}, dropped={}", QUEUE_CAPACITY, droppedCount.get());
+            }
+            return false;
+        }
+        queue.offer(new ViewEvent(noteId, userId, now));
+        queueHighWatermark.accumulateAndGet(size, Math::max);
+        acceptedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 批量消费浏览事件（每秒执行一次，队列积压时连续处理多批）
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void drain() {
+        int processed;
+        do {
+            processed = drainBatch();
+        } while (processed == BATCH_SIZE);
+
+        evictExpiredViews();
+        logStatsIfDue();
+    }
+
+    /**
+     * 应用关闭前处理剩余的浏览事件
+     */
+    @PreDestroy
+    public void drainOnShutdown() {
+        while (drainBatch() > 0) {
+            // 直到队列为空
+        }
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    public long getDedupedCount() {
+        return dedupedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    public int getQueueHighWatermark() {
+        return queueHighWatermark.get();
+    }
+
+    private int drainBatch() {
+        Map<Long, Integer> viewCounts = new HashMap<>();
+        Map<String, BrowseHistoryDO> histories = new LinkedHashMap<>();
+        int processed = 0;
+        ViewEvent event;
+        while (processed < BATCH_SIZE && (event = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            processed++;
+            viewCounts.merge(event.noteId(), 1, Integer::sum);
+            if (event.userId() != null) {
+                BrowseHistoryDO history = new BrowseHistoryDO();
+                history.setUserId(event.userId());
+                history.setType(BROWSE_TYPE_NOTE);
+                history.setTargetId(event.noteId());
+                history.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(event.viewedAt()),
+                        ZoneId.systemDefault()));
+                histories.put(event.userId() + ":" + event.noteId(), history);
+            }
+        }
+        if (processed == 0) {
+            return 0;
+        }
+        lastBatchSize = processed;
+
+        viewCounts.forEach((noteId, count) -> {
+            try {
+                noteCounterService.incrementNote(noteId, NoteCounterService.CounterField.VIEW, count);
+                noteRankingService.markDirty(noteId);
+            } catch (Exception e) {
+                log.warn("累加浏览数失败: noteId={}, count={}, error={}", noteId, count, e.getMessage());
+            }
+        });
+
+        if (!histories.isEmpty()) {
+            try {
+                browseHistoryMapper.upsertBatch(new ArrayList<>(histories.values()));
+            } catch (Exception e) {
+                log.error("批量记录浏览历史失败: size={}, error={}", histories.size(), e.getMessage(), e);
+            }
+        }
+        return processed;
+    }
+
+    private void evictExpiredViews() {
+        long expireBefore = System.currentTimeMillis() - DEDUP_WINDOW_MILLIS;
+        recentViews.values().removeIf(viewedAt -> viewedAt < expireBefore);
+    }
+
+    private void logStatsIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastStatsLogAt < STATS_LOG_INTERVAL_MILLIS) {
+            return;
+        }
+        lastStatsLogAt = now;
+        int highWatermark = queueHighWatermark.getAndSet(queueSize.get());
+        if (acceptedCount.get() > 0) {
+            log.info("浏览事件管道: accepted={}, deduped={}, dropped={}, queueSize={}, highWatermark={}, lastBatch={}",
+                    acceptedCount.get(), dedupedCount.get(), droppedCount.get(), queueSize.get(), highWatermark,
+                    lastBatchSize);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.mapper.SearchHistoryMapper;
+import com.businessreviews.mapper.ShopMapper;
+import com.businessreviews.mapper.TopicMapper;
+import com.businessreviews.model.dataobject.SearchHistoryDO;
+import com.businessreviews.model.dataobject.ShopDO;
+import com.businessreviews.model.dataobject.TopicDO;
+import com.businessreviews.util.SuggestionTrie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 搜索建议索引
+ * <p>
+ * 在 JVM 内维护带权重的补全词典（见 {@link SuggestionTrie}），输入联想不再对
+ * search_history 表做 keyword LIKE '%kw%' 查询。词典来源：
+ * - 搜索词：search_history 累计搜索次数 + 近7天热搜次数（见 {@link SearchTrendingService}）
+ * - 商家名称：营业中商家，权重为评价数 + 人气
+ * - 话题名称：正常状态话题，权重为笔记数
+ * </p>
+ * <p>
+ * 各来源的计数量级不同，统一取 log(1 + 计数) 作为权重，同一个词取各来源的最大值。
+ * 商家和话题名称允许从中间匹配（如输入"火锅"联想"海底捞火锅"），中间匹配的权重减半。
+ * </p>
+ * <p>
+ * 每10分钟在后台全量重建，构建完成后整体替换引用，查询无锁。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchSuggestionIndex {
+
+    private final SearchHistoryMapper searchHistoryMapper;
+    private final ShopMapper shopMapper;
+    private final TopicMapper topicMapper;
+    private final SearchTrendingService searchTrendingService;
+
+    /** 每个前缀预存的建议数 */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    /** 全量构建时每批读取的记录数 */
+    private static final int BATCH_SIZE = 1000;
+
+    /** 收录词的最大长度 */
+    private static final int MAX_TERM_LENGTH = 30;
+
+    private volatile SuggestionTrie trie = SuggestionTrie.empty();
+
+    private volatile boolean ready;
+
+    /**
+     * 应用启动完成后构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndex() {
+        rebuildIndex();
+    }
+
+    /**
+     * 全量重建索引（每10分钟执行一次）
+     */
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void rebuildIndex() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            SuggestionTrie.Builder builder = SuggestionTrie.builder(MAX_SUGGESTIONS);
+            loadKeywords(builder);
+            loadShopNames(builder);
+            loadTopicNames(builder);
+            SuggestionTrie newTrie = builder.build();
+
+            trie = newTrie;
+            ready = true;
+            log.info("搜索建议索引构建完成，共 {} 个词，耗时 {}ms", newTrie.size(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.error("搜索建议索引构建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 索引是否已构建完成（未完成时调用方应回退到数据库查询）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 查询以输入为前缀的搜索建议（按权重降序）
+     */
+    public List<String> suggest(String keyword) {
+        return trie.suggest(keyword, MAX_SUGGESTIONS);
+    }
+
+    private void loadKeywords(SuggestionTrie.Builder builder) {
+        Map<String, Double> counts = new HashMap<>();
+        long lastId = 0L;
+        while (true) {
+            LambdaQueryWrapper<SearchHistoryDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(SearchHistoryDO::getId, SearchHistoryDO::getKeyword, SearchHistoryDO::getSearchCount)
+                    .gt(SearchHistoryDO::getId, lastId)
+                    .orderByAsc(SearchHistoryDO::getId)
+                    .last("LIMIT " + BATCH_SIZE);
+            List<SearchHistoryDO> histories = searchHistoryMapper.selectList(wrapper);
+            for (SearchHistoryDO history : histories) {
+                if (history.getKeyword() != null) {
+                    int count = history.getSearchCount() != null ? history.getSearchCount() : 1;
+                    counts.merge(history.getKeyword().trim(), (double) count, Double::sum);
+                }
+            }
+            if (histories.size() < BATCH_SIZE) {
+                break;
+            }
+            lastId = histories.get(histories.size() - 1).getId();
+        }
+
+        try {
+            searchTrendingService.getTrendingScores(SearchTrendingService.Window.WEEK)
+                    .forEach((keyword, score) -> counts.merge(keyword, score, Double::sum));
+        } catch (Exception e) {
+            // 热搜窗口不可用时只使用搜索历史
+            log.warn("读取热搜统计失败: {}", e.getMessage());
+        }
+
+        counts.forEach((keyword, count) -> addTerm(builder, keyword, count, false));
+    }
+
+    private void loadShopNames(SuggestionTrie.Builder builder) {
+        long lastId = 0L;
+        while (true) {
+            LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(ShopDO::getId, ShopDO::getName, ShopDO::getReviewCount, ShopDO::getPopularity)
+                    .eq(ShopDO::getStatus, 1)
+                    .gt(ShopDO::getId, lastId)
+                    .orderByAsc(ShopDO::getId)
+                    .last("LIMIT " + BATCH_SIZE);
+            List<ShopDO> shops = shopMapper.selectList(wrapper);
+            for (ShopDO shop : shops) {
+                addTerm(builder, shop.getName(), valueOf(shop.getReviewCount()) + valueOf(shop.getPopularity()),
+                        true);
+            }
+            if (shops.size() < BATCH_SIZE) {
+                break;
+            }
+            lastId = shops.get(shops.size() - 1).getId();
+        }
+    }
+
+    private void loadTopicNames(SuggestionTrie.Builder builder) {
+        long lastId = 0L;
+        while (true) {
+            LambdaQueryWrapper<TopicDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(TopicDO::getId, TopicDO::getName, TopicDO::getNoteCount)
+                    .eq(TopicDO::getStatus, 1)
+                    .gt(TopicDO::getId, lastId)
+                    .orderByAsc(TopicDO::getId)
+                    .last("LIMIT " + BATCH_SIZE);
+            List<TopicDO> topics = topicMapper.selectList(wrapper);
+            for (TopicDO topic : topics) {
+                addTerm(builder, topic.getName(), valueOf(topic.getNoteCount()), true);
+            }
+            if (topics.size() < BATCH_SIZE) {
+                break;
+            }
+            lastId = topics.get(topics.size() - 1).getId();
+        }
+    }
+
+    private static void addTerm(SuggestionTrie.Builder builder, String term, double count, boolean infixMatch) {
+        if (term == null || term.trim().length() > MAX_TERM_LENGTH) {
+            return;
+        }
+        builder.add(term, Math.log1p(Math.max(count, 0D)), infixMatch);
+    }
+
+    private static double valueOf(Integer value) {
+        return value != null ? value : 0D;
+    }
+}
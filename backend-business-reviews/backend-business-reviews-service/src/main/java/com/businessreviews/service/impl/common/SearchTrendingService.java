@@ -0,0 +1,252 @@
+package com.businessreviews.service.impl.common;
+
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TopKSketch;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 热搜统计服务（流式 Top-K）
+ * <p>
+ * 每次搜索调用 {@link #recordSearch} 记入本实例当前分钟的 {@link TopKSketch}，
+ * 不查询、不写入数据库：
+ * - 每分钟切换一次 Sketch，把上一分钟的 Top-K 及估算次数以 ZINCRBY 合并到 Redis 时间桶
+ *   （5分钟桶、1小时桶），多实例的计数在桶中相加
+ * - 按窗口合并时间桶（ZUNIONSTORE）得到近1小时/24小时/7天的热搜，见 {@link Window}；
+ *   各窗口按自己的刷新周期由一个实例计算
+ * </p>
+ * <p>
+ * 每个时间桶只保留分数最高的 {@link #BUCKET_MAX_SIZE} 个词，
+ * 长尾词在单个桶内可能被截断，不影响头部热词的排序。
+ * </p>
+ * <p>
+ * 切换 Sketch 不加锁，是有损的：切换瞬间已取到旧 Sketch、尚未写入的少量搜索，
+ * 会在旧 Sketch 合并到 Redis 之后才写入而被丢弃。热搜只关心相对排序，这部分误差可以忽略，
+ * 换来记录搜索时不与切换竞争锁。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchTrendingService {
+
+    private final RedisUtil redisUtil;
+
+    /** 每分钟 Sketch 保留的候选词数 */
+    private static final int SKETCH_CAPACITY = 200;
+
+    /** Count-Min Sketch 行数 */
+    private static final int SKETCH_DEPTH = 4;
+
+    /** Count-Min Sketch 每行计数器个数 */
+    private static final int SKETCH_WIDTH = 2048;
+
+    /** 每个时间桶保留的最大词数 */
+    private static final long BUCKET_MAX_SIZE = 1000;
+
+    /** 窗口结果保留的词数 */
+    private static final int WINDOW_TOP_SIZE = 50;
+
+    /** 搜索词最大长度，超过的不计入热搜 */
+    private static final int MAX_KEYWORD_LENGTH = 30;
+
+    /**
+     * 时间桶粒度
+     */
+    @Getter
+    public enum Granularity {
+        FIVE_MINUTES("5m", 5, 3900),
+        HOUR("1h", 60, 608400);
+
+        private final String code;
+        /** 桶长度（分钟） */
+        private final int minutes;
+        /** 桶保留时间（秒），须覆盖使用它的最长窗口 */
+        private final long ttlSeconds;
+
+        Granularity(String code, int minutes, long ttlSeconds) {
+            this.code = code;
+            this.minutes = minutes;
+            this.ttlSeconds = ttlSeconds;
+        }
+    }
+
+    /**
+     * 统计窗口
+     */
+    @Getter
+    public enum Window {
+        HOUR("1h", Granularity.FIVE_MINUTES, 12, 60),
+        DAY("24h", Granularity.HOUR, 24, 300),
+        WEEK("7d", Granularity.HOUR, 168, 1800);
+
+        private final String code;
+        private final Granularity granularity;
+        /** 合并的时间桶数（含当前桶） */
+        private final int buckets;
+        /** 刷新周期（秒） */
+        private final long refreshSeconds;
+
+        Window(String code, Granularity granularity, int buckets, long refreshSeconds) {
+            this.code = code;
+            this.granularity = granularity;
+            this.buckets = buckets;
+            this.refreshSeconds = refreshSeconds;
+        }
+
+        /**
+         * 按编码查找窗口，未知编码返回null
+         */
+        public static Window of(String code) {
+            for (Window window : values()) {
+                if (window.code.equalsIgnoreCase(code)) {
+                    return window;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 当前分钟的统计
+     */
+    private record MinuteSketch(long epochMinute, TopKSketch sketch) {
+    }
+
+    private final AtomicReference<MinuteSketch> current = new AtomicReference<>(newSketch());
+
+    /**
+     * 记录一次搜索
+     */
+    public void recordSearch(String keyword) {
+        String normalized = normalize(keyword);
+        if (normalized != null) {
+            current.get().sketch().add(normalized);
+        }
+    }
+
+    /**
+     * 获取窗口内的热搜词（按搜索次数降序）
+     *
+     * @return 热搜词，窗口尚未计算时为空列表
+     */
+    public List<String> getTrending(Window window, int limit) {
+        return redisUtil.zReverseRange(RedisKeyConstants.SEARCH_TRENDING_WINDOW + window.getCode(), 0, limit - 1);
+    }
+
+    /**
+     * 获取窗口内的热搜词及搜索次数（按次数降序）
+     *
+     * @return 热搜词 -> 搜索次数，窗口尚未计算时为空
+     */
+    public Map<String, Double> getTrendingScores(Window window) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (ZSetOperations.TypedTuple<String> tuple : redisUtil.zReverseRangeWithScores(
+                RedisKeyConstants.SEARCH_TRENDING_WINDOW + window.getCode(), 0, WINDOW_TOP_SIZE - 1)) {
+            if (tuple.getValue() != null && tuple.getScore() != null) {
+                result.put(tuple.getValue(), tuple.getScore());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 每分钟把上一分钟的统计合并到 Redis 时间桶，并刷新到期的窗口（切换有损，见类注释）
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void flush() {
+        flushSketch(current.getAndSet(newSketch()));
+        refreshWindows();
+    }
+
+    /**
+     * 刷新到期的窗口（多实例部署时每个窗口每个周期只由一个实例计算）
+     */
+    private void refreshWindows() {
+        long epochMinute = System.currentTimeMillis() / 60_000L;
+        for (Window window : Window.values()) {
+            try {
+                if (!Boolean.TRUE.equals(redisUtil.setIfAbsent(RedisKeyConstants.SEARCH_TRENDING_LOCK
+                        + window.getCode(), "1", window.getRefreshSeconds()))) {
+                    continue;
+                }
+                Granularity granularity = window.getGranularity();
+                long currentBucket = epochMinute / granularity.getMinutes();
+                List<String> keys = new ArrayList<>(window.getBuckets());
+                for (int i = 0; i < window.getBuckets(); i++) {
+                    keys.add(bucketKey(granularity, currentBucket - i));
+                }
+                String windowKey = RedisKeyConstants.SEARCH_TRENDING_WINDOW + window.getCode();
+                // 结果保留两个刷新周期，负责刷新的实例异常时仍有数据可读
+                redisUtil.zUnionStore(windowKey, keys, window.getRefreshSeconds() * 2);
+                redisUtil.zRemoveRange(windowKey, 0, -WINDOW_TOP_SIZE - 1);
+            } catch (Exception e) {
+                log.warn("刷新热搜窗口失败: window={}, error={}", window.getCode(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 停机前合并当前分钟的统计
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushSketch(current.getAndSet(newSketch()));
+    }
+
+    private void flushSketch(MinuteSketch minute) {
+        if (minute.sketch().isEmpty()) {
+            return;
+        }
+        Map<String, Double> increments = new HashMap<>();
+        minute.sketch().top().forEach((keyword, count) -> increments.put(keyword, count.doubleValue()));
+        try {
+            for (Granularity granularity : Granularity.values()) {
+                redisUtil.zIncrementAll(bucketKey(granularity, minute.epochMinute() / granularity.getMinutes()),
+                        increments, BUCKET_MAX_SIZE, granularity.getTtlSeconds());
+            }
+        } catch (Exception e) {
+            // 丢失一分钟的本实例统计，不影响后续窗口
+            log.warn("合并热搜统计失败: keywords={}, error={}", increments.size(), e.getMessage());
+        }
+    }
+
+    private static String bucketKey(Granularity granularity, long bucket) {
+        return RedisKeyConstants.SEARCH_TRENDING_BUCKET + granularity.getCode() + ":" + bucket;
+    }
+
+    private static MinuteSketch newSketch() {
+        return new MinuteSketch(System.currentTimeMillis() / 60_000L,
+                new TopKSketch(SKETCH_CAPACITY, SKETCH_DEPTH, SKETCH_WIDTH));
+    }
+
+    /**
+     * 归一化搜索词：去除首尾空白、合并连续空白、转小写，空词和超长词返回null
+     */
+    private static String normalize(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String normalized = keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || normalized.length() > MAX_KEYWORD_LENGTH) {
+            return null;
+        }
+        return normalized;
+    }
+}
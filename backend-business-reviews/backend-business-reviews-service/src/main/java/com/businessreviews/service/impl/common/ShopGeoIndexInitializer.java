@@ -5,6 +5,7 @@ import com.businessreviews.constants.RedisKeyConstants;
 import com.businessreviews.mapper.ShopMapper;
 import com.businessreviews.model.dataobject.ShopDO;
 import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -22,6 +23,12 @@ import java.util.Map;
  * 在应用启动完成后，将所有商家的经纬度数据加载到 Redis GEO 索引中，
  * 以支持高性能的"附近商家"搜索功能。
  * </p>
+ * <p>
+ * 除全部商家的索引 {@link RedisKeyConstants#SHOP_GEO} 外，每个分类另有一个索引
+ * （{@link RedisKeyConstants#SHOP_GEO_CATEGORY} + 分类ID），按分类筛选附近商家时
+ * 半径查询直接在分类索引上进行，不必取回其他分类的商家再过滤。
+ * 商家创建、更新、状态变更、删除时由调用方同步两类索引，事务中调用时在事务提交后写入 Redis。
+ * </p>
  *
  * @author businessreviews
  */
@@ -33,6 +40,8 @@ public class ShopGeoIndexInitializer {
     private final ShopMapper shopMapper;
     private final RedisUtil redisUtil;
 
+    private static final String BUILDING_SUFFIX = ":building";
+
     /**
      * 应用启动完成后初始化 GEO 索引
      */
@@ -42,7 +51,8 @@ public class ShopGeoIndexInitializer {
         try {
             // 查询所有状态正常且有经纬度的商家
             LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
-            wrapper.eq(ShopDO::getStatus, 1)
+            wrapper.select(ShopDO::getId, ShopDO::getCategoryId, ShopDO::getLatitude, ShopDO::getLongitude)
+                    .eq(ShopDO::getStatus, 1)
                     .isNotNull(ShopDO::getLatitude)
                     .isNotNull(ShopDO::getLongitude);
             List<ShopDO> shops = shopMapper.selectList(wrapper);
@@ -52,19 +62,22 @@ public class ShopGeoIndexInitializer {
                 return;
             }
 
-            // 构建 GEO 位置映射
+            // 构建 GEO 位置映射（全部商家 + 按分类）
             Map<String, Point> locations = new HashMap<>();
+            Map<Integer, Map<String, Point>> categoryLocations = new HashMap<>();
             for (ShopDO shop : shops) {
-                if (shop.getLongitude() != null && shop.getLatitude() != null) {
-                    locations.put(
-                            shop.getId().toString(),
-                            new Point(shop.getLongitude().doubleValue(), shop.getLatitude().doubleValue()));
+                Point point = new Point(shop.getLongitude().doubleValue(), shop.getLatitude().doubleValue());
+                locations.put(shop.getId().toString(), point);
+                if (shop.getCategoryId() != null) {
+                    categoryLocations.computeIfAbsent(shop.getCategoryId(), key -> new HashMap<>())
+                            .put(shop.getId().toString(), point);
                 }
             }
 
-            // 批量添加到 Redis GEO
-            Long added = redisUtil.geoAddAll(RedisKeyConstants.SHOP_GEO, locations);
-            log.info("商家 GEO 索引初始化完成，共索引 {} 个商家", added);
+            // 写入临时Key后整体替换，重建期间查询仍使用旧索引，且不会残留已下架的商家
+            Long added = rebuildKey(RedisKeyConstants.SHOP_GEO, locations);
+            categoryLocations.forEach((categoryId, members) -> rebuildKey(categoryKey(categoryId), members));
+            log.info("商家 GEO 索引初始化完成，共索引 {} 个商家，{} 个分类", added, categoryLocations.size());
 
         } catch (Exception e) {
             log.error("商家 GEO 索引初始化失败: {}", e.getMessage(), e);
@@ -72,32 +85,81 @@ public class ShopGeoIndexInitializer {
     }
 
     /**
-     * 更新单个商家的 GEO 位置（当商家信息变更时调用）
+     * 同步单个商家的 GEO 位置（当商家创建或信息变更时调用）
+     * <p>
+     * 非营业中或没有经纬度的商家从索引中移除。事务中调用时在事务提交后生效。
+     * </p>
+     *
+     * @param shop               更新后的商家
+     * @param previousCategoryId 更新前的分类ID（分类变更时从原分类索引移除），新建商家传null
      */
-    public void updateShopGeo(Long shopId, Double longitude, Double latitude) {
-        if (shopId == null || longitude == null || latitude == null) {
+    public void updateShopGeo(ShopDO shop, Integer previousCategoryId) {
+        if (shop == null || shop.getId() == null) {
             return;
         }
+        TransactionUtil.afterCommit(() -> doUpdateShopGeo(shop, previousCategoryId));
+    }
+
+    private void doUpdateShopGeo(ShopDO shop, Integer previousCategoryId) {
         try {
-            redisUtil.geoAdd(RedisKeyConstants.SHOP_GEO, longitude, latitude, shopId.toString());
-            log.info("更新商家 GEO 位置: shopId={}", shopId);
+            String member = shop.getId().toString();
+            if (previousCategoryId != null && !previousCategoryId.equals(shop.getCategoryId())) {
+                redisUtil.geoRemove(categoryKey(previousCategoryId), member);
+            }
+            if (!Integer.valueOf(1).equals(shop.getStatus()) || shop.getLatitude() == null
+                    || shop.getLongitude() == null) {
+                doRemoveShopGeo(shop.getId(), shop.getCategoryId());
+                return;
+            }
+            double longitude = shop.getLongitude().doubleValue();
+            double latitude = shop.getLatitude().doubleValue();
+            redisUtil.geoAdd(RedisKeyConstants.SHOP_GEO, longitude, latitude, member);
+            if (shop.getCategoryId() != null) {
+                redisUtil.geoAdd(categoryKey(shop.getCategoryId()), longitude, latitude, member);
+            }
+            log.info("更新商家 GEO 位置: shopId={}", shop.getId());
         } catch (Exception e) {
-            log.error("更新商家 GEO 位置失败: shopId={}, error={}", shopId, e.getMessage());
+            log.error("更新商家 GEO 位置失败: shopId={}, error={}", shop.getId(), e.getMessage());
         }
     }
 
     /**
-     * 删除商家的 GEO 位置（当商家下架时调用）
+     * 删除商家的 GEO 位置（当商家下架或删除时调用，事务中调用时在事务提交后生效）
+     *
+     * @param shopId     商家ID
+     * @param categoryId 商家所属分类ID，可为空
      */
-    public void removeShopGeo(Long shopId) {
+    public void removeShopGeo(Long shopId, Integer categoryId) {
         if (shopId == null) {
             return;
         }
+        TransactionUtil.afterCommit(() -> doRemoveShopGeo(shopId, categoryId));
+    }
+
+    private void doRemoveShopGeo(Long shopId, Integer categoryId) {
         try {
             redisUtil.geoRemove(RedisKeyConstants.SHOP_GEO, shopId.toString());
+            if (categoryId != null) {
+                redisUtil.geoRemove(categoryKey(categoryId), shopId.toString());
+            }
             log.info("删除商家 GEO 位置: shopId={}", shopId);
         } catch (Exception e) {
             log.error("删除商家 GEO 位置失败: shopId={}, error={}", shopId, e.getMessage());
         }
     }
+
+    /**
+     * 分类 GEO 索引Key
+     */
+    public static String categoryKey(Number categoryId) {
+        return RedisKeyConstants.SHOP_GEO_CATEGORY + categoryId;
+    }
+
+    private Long rebuildKey(String key, Map<String, Point> locations) {
+        String buildingKey = key + BUILDING_SUFFIX;
+        redisUtil.delete(buildingKey);
+        Long added = redisUtil.geoAddAll(buildingKey, locations);
+        redisUtil.rename(buildingKey, key);
+        return added;
+    }
 }
@@ -0,0 +1,364 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.mapper.CategoryMapper;
+import com.businessreviews.mapper.ShopMapper;
+import com.businessreviews.model.dataobject.CategoryDO;
+import com.businessreviews.model.dataobject.ShopDO;
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 商家排行服务
+ * <p>
+ * 按 (排序方式, 分类) 在 Redis ZSet 中预先排好营业中的商家，商家列表的页码分页
+ * 只需一次 ZCARD 和一次区间读取，不再对 shops 表做 ORDER BY ... LIMIT offset 和 COUNT。
+ * 排序方式：
+ * - rating：评分降序，评分相同按人气降序（评分放大为整数后与人气合成一个分数）
+ * - popular：人气降序
+ * - price：人均价格，price_asc 正序读取、price_desc 倒序读取（无人均价格的商家排在正序最前）
+ * </p>
+ * <p>
+ * 商家创建、更新、状态变更、删除以及评分重新计算时，由调用方同步排行（事务中调用时在提交后生效）；
+ * 启动时和每小时全量重建一次（多实例部署时只由一个实例重建），修正直接修改数据库造成的偏差。
+ * </p>
+ * <p>
+ * 游标分页不按评分、人气定位（翻页期间会变化），而是按排序快照翻页，见 {@link #snapshotPage}。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShopRankingService {
+
+    private final ShopMapper shopMapper;
+    private final CategoryMapper categoryMapper;
+    private final RedisUtil redisUtil;
+
+    /** 全量重建时每批读取的商家数 */
+    private static final int BATCH_SIZE = 1000;
+
+    /** 重建锁过期时间（秒），期间其他实例跳过重建 */
+    private static final long REBUILD_LOCK_SECONDS = 600;
+
+    /** 评分排行中评分的权重（人气不超过该值时，评分高的商家一定排在前面） */
+    private static final long RATING_WEIGHT = 10_000_000_000L;
+
+    private static final String ALL_CATEGORIES = "all";
+
+    private static final String BUILDING_SUFFIX = ":building";
+
+    /** 单个排序快照包含的最大商家数 */
+    public static final int SNAPSHOT_SIZE = 1000;
+
+    /**
+     * 排序方式
+     */
+    private enum SortKey {
+        RATING("rating"),
+        POPULAR("popular"),
+        PRICE("price");
+
+        private final String code;
+
+        SortKey(String code) {
+            this.code = code;
+        }
+    }
+
+    /**
+     * 排行分页结果
+     *
+     * @param shopIds 当前页的商家ID（按排序）
+     * @param total   排行中的商家总数
+     */
+    public record RankedPage(List<Long> shopIds, long total) {
+    }
+
+    /**
+     * 排序快照分页结果
+     *
+     * @param snapshotId 快照ID（下一页游标中携带）
+     * @param shopIds    当前页的商家ID（按排序）
+     * @param total      快照中的商家总数
+     */
+    public record SnapshotPage(String snapshotId, List<Long> shopIds, long total) {
+    }
+
+    /**
+     * 应用启动完成后构建排行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initRanking() {
+        rebuildRanking();
+    }
+
+    /**
+     * 全量重建排行（每小时执行一次）
+     */
+    @Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+    public void rebuildRanking() {
+        String lockValue = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.setIfAbsent(RedisKeyConstants.SHOP_RANKING_REBUILD_LOCK, lockValue,
+                    REBUILD_LOCK_SECONDS))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("获取商家排行重建锁失败: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            Map<String, Map<String, Double>> rankings = new HashMap<>();
+            long lastId = 0L;
+            int count = 0;
+            while (true) {
+                LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(ShopDO::getId, ShopDO::getCategoryId, ShopDO::getRating, ShopDO::getPopularity,
+                                ShopDO::getAveragePrice)
+                        .eq(ShopDO::getStatus, 1)
+                        .gt(ShopDO::getId, lastId)
+                        .orderByAsc(ShopDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<ShopDO> shops = shopMapper.selectList(wrapper);
+                for (ShopDO shop : shops) {
+                    for (SortKey sortKey : SortKey.values()) {
+                        double score = score(shop, sortKey);
+                        String member = shop.getId().toString();
+                        rankings.computeIfAbsent(rankKey(sortKey, null), key -> new HashMap<>()).put(member, score);
+                        if (shop.getCategoryId() != null) {
+                            rankings.computeIfAbsent(rankKey(sortKey, shop.getCategoryId()), key -> new HashMap<>())
+                                    .put(member, score);
+                        }
+                    }
+                }
+                count += shops.size();
+                if (shops.size() < BATCH_SIZE) {
+                    break;
+                }
+                lastId = shops.get(shops.size() - 1).getId();
+            }
+
+            // 写入临时Key后整体替换，重建期间查询仍使用旧排行
+            rankings.forEach((key, members) -> {
+                String buildingKey = key + BUILDING_SUFFIX;
+                redisUtil.delete(buildingKey);
+                redisUtil.zAddAll(buildingKey, members);
+                redisUtil.rename(buildingKey, key);
+            });
+            // 已没有营业中商家的分类删除旧排行
+            List<String> staleKeys = new ArrayList<>();
+            for (CategoryDO category : categoryMapper.selectList(
+                    new LambdaQueryWrapper<CategoryDO>().select(CategoryDO::getId))) {
+                for (SortKey sortKey : SortKey.values()) {
+                    String key = rankKey(sortKey, category.getId());
+                    if (!rankings.containsKey(key)) {
+                        staleKeys.add(key);
+                    }
+                }
+            }
+            if (!staleKeys.isEmpty()) {
+                redisUtil.delete(staleKeys);
+            }
+            log.info("商家排行重建完成，共 {} 个商家", count);
+        } catch (Exception e) {
+            log.error("商家排行重建失败: {}", e.getMessage(), e);
+        } finally {
+            try {
+                redisUtil.deleteIfEquals(RedisKeyConstants.SHOP_RANKING_REBUILD_LOCK, lockValue);
+            } catch (Exception e) {
+                log.warn("释放商家排行重建锁失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 分页读取排行
+     *
+     * @param categoryId 分类ID（可选）
+     * @param sortBy     排序方式 (rating/popular/price_asc/price_desc)，其他值按评分排序
+     * @param pageNum    页码
+     * @param pageSize   每页数量
+     * @return 当前页的商家ID和总数；排行尚未构建或 Redis 不可用时返回null
+     */
+    public RankedPage page(Long categoryId, String sortBy, int pageNum, int pageSize) {
+        SortKey sortKey = "popular".equals(sortBy) ? SortKey.POPULAR
+                : "price_asc".equals(sortBy) || "price_desc".equals(sortBy) ? SortKey.PRICE : SortKey.RATING;
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.hasKey(rankKey(SortKey.RATING, null)))) {
+                return null;
+            }
+            String key = rankKey(sortKey, categoryId);
+            Long total = redisUtil.zSize(key);
+            if (total == null || total == 0) {
+                return new RankedPage(Collections.emptyList(), 0L);
+            }
+            long start = (long) (pageNum - 1) * pageSize;
+            long end = start + pageSize - 1;
+            List<String> members = "price_asc".equals(sortBy) ? redisUtil.zRange(key, start, end)
+                    : redisUtil.zReverseRange(key, start, end);
+            List<Long> shopIds = members.stream().map(Long::valueOf).collect(Collectors.toList());
+            return new RankedPage(shopIds, total);
+        } catch (Exception e) {
+            log.warn("读取商家排行失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 按排序快照分页（游标分页期间评分、人气变化不会造成重复或遗漏）
+     * <p>
+     * 同一列表每个快照周期共用一个快照，快照最多包含 {@link #SNAPSHOT_SIZE} 个商家；
+     * 客户端携带的快照过期后改用当前周期的快照，按原偏移量继续翻页。
+     * Redis 不可用时直接按加载结果分页。
+     * </p>
+     *
+     * @param listName   列表名称（含筛选条件和排序方式）
+     * @param snapshotId 客户端上一页返回的快照ID（首页传null）
+     * @param offset     偏移量
+     * @param limit      数量
+     * @param loader     快照不存在时按排序查询商家ID（最多 {@link #SNAPSHOT_SIZE} 个）
+     * @return 分页结果
+     */
+    public SnapshotPage snapshotPage(String listName, String snapshotId, long offset, int limit,
+            Supplier<List<Long>> loader) {
+        String resolvedId = snapshotId;
+        try {
+            if (resolvedId == null || !resolvedId.startsWith(listName + "-")
+                    || !Boolean.TRUE.equals(redisUtil.hasKey(RedisKeyConstants.SHOP_LIST_SNAPSHOT + resolvedId))) {
+                resolvedId = listName + "-" + Long.toString(
+                        System.currentTimeMillis() / (CacheExpireConstants.SHOP_LIST_SNAPSHOT_PERIOD * 1000L), 36);
+                String snapshotKey = RedisKeyConstants.SHOP_LIST_SNAPSHOT + resolvedId;
+                if (!Boolean.TRUE.equals(redisUtil.hasKey(snapshotKey))) {
+                    List<String> shopIds = loader.get().stream()
+                            .limit(SNAPSHOT_SIZE)
+                            .map(String::valueOf)
+                            .collect(Collectors.toList());
+                    if (shopIds.isEmpty()) {
+                        return new SnapshotPage(resolvedId, Collections.emptyList(), 0L);
+                    }
+                    // 写入临时Key后整体替换，并发生成同一快照时结果相同
+                    String buildingKey = snapshotKey + BUILDING_SUFFIX + ":" + UUID.randomUUID();
+                    redisUtil.rightPushAll(buildingKey, shopIds);
+                    redisUtil.expire(buildingKey, CacheExpireConstants.SHOP_LIST_SNAPSHOT);
+                    redisUtil.rename(buildingKey, snapshotKey);
+                }
+            }
+
+            String snapshotKey = RedisKeyConstants.SHOP_LIST_SNAPSHOT + resolvedId;
+            List<Long> shopIds = redisUtil.lRange(snapshotKey, offset, offset + limit - 1).stream()
+                    .map(Long::valueOf)
+                    .collect(Collectors.toList());
+            Long total = redisUtil.lSize(snapshotKey);
+            return new SnapshotPage(resolvedId, shopIds, total != null ? total : 0L);
+        } catch (Exception e) {
+            log.warn("读取商家列表快照失败，直接分页: list={}, error={}", listName, e.getMessage());
+            List<Long> shopIds = loader.get().stream().limit(SNAPSHOT_SIZE).collect(Collectors.toList());
+            int fromIndex = (int) Math.min(offset, shopIds.size());
+            int toIndex = (int) Math.min(offset + limit, shopIds.size());
+            return new SnapshotPage(listName + "-0", new ArrayList<>(shopIds.subList(fromIndex, toIndex)),
+                    shopIds.size());
+        }
+    }
+
+    /**
+     * 按商家最新数据同步排行（商家创建、更新、状态变更、评分重新计算时调用）
+     * <p>
+     * 营业中的商家写入排行，其他状态移出排行。
+     * </p>
+     *
+     * @param shop               更新后的商家
+     * @param previousCategoryId 更新前的分类ID（分类变更时从原分类排行移除），分类未变时传null
+     */
+    public void updateShop(ShopDO shop, Integer previousCategoryId) {
+        if (shop == null || shop.getId() == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            try {
+                String member = shop.getId().toString();
+                if (previousCategoryId != null && !previousCategoryId.equals(shop.getCategoryId())) {
+                    removeMember(member, previousCategoryId);
+                }
+                if (shop.getStatus() == null || shop.getStatus() != 1) {
+                    removeMember(member, shop.getCategoryId());
+                    return;
+                }
+                for (SortKey sortKey : SortKey.values()) {
+                    double score = score(shop, sortKey);
+                    redisUtil.zAdd(rankKey(sortKey, null), member, score);
+                    if (shop.getCategoryId() != null) {
+                        redisUtil.zAdd(rankKey(sortKey, shop.getCategoryId()), member, score);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("同步商家排行失败: shopId={}, error={}", shop.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 将商家移出排行（删除时调用）
+     *
+     * @param shopId     商家ID
+     * @param categoryId 商家所属分类ID，可为空
+     */
+    public void removeShop(Long shopId, Integer categoryId) {
+        if (shopId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            try {
+                removeMember(shopId.toString(), categoryId);
+            } catch (Exception e) {
+                log.warn("移除商家排行失败: shopId={}, error={}", shopId, e.getMessage());
+            }
+        });
+    }
+
+    private void removeMember(String member, Integer categoryId) {
+        for (SortKey sortKey : SortKey.values()) {
+            redisUtil.zRemove(rankKey(sortKey, null), member);
+            if (categoryId != null) {
+                redisUtil.zRemove(rankKey(sortKey, categoryId), member);
+            }
+        }
+    }
+
+    private static double score(ShopDO shop, SortKey sortKey) {
+        long popularity = shop.getPopularity() != null
+                ? Math.min(Math.max(shop.getPopularity(), 0), RATING_WEIGHT - 1) : 0L;
+        switch (sortKey) {
+            case POPULAR:
+                return popularity;
+            case PRICE:
+                return shop.getAveragePrice() != null ? shop.getAveragePrice().doubleValue() : -1D;
+            default:
+                BigDecimal rating = shop.getRating() != null ? shop.getRating() : BigDecimal.ZERO;
+                long scaledRating = rating.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+                return (double) (scaledRating * RATING_WEIGHT + popularity);
+        }
+    }
+
+    private static String rankKey(SortKey sortKey, Number categoryId) {
+        return RedisKeyConstants.SHOP_RANKING + sortKey.code + ":"
+                + (categoryId != null ? categoryId.toString() : ALL_CATEGORIES);
+    }
+}
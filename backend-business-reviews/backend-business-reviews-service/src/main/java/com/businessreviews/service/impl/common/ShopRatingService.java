@@ -0,0 +1,183 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.event.ShopChangedEvent;
+import com.businessreviews.mapper.ShopMapper;
+import com.businessreviews.mapper.ShopRatingStatsMapper;
+import com.businessreviews.model.dataobject.ShopDO;
+import com.businessreviews.model.dataobject.ShopRatingStatsDO;
+import com.businessreviews.model.dataobject.ShopReviewDO;
+import com.businessreviews.util.RedisUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 商家评分统计服务
+ * <p>
+ * 在 shop_rating_stats 表中按商家维护正常状态评价的评分累计值和评价数，
+ * 评价发表、删除时只累加一条评价的增量，再由累计值计算商家的各维度平均分，
+ * 不再每次查询商家的全部评价重新计算，耗时与评价数无关。
+ * </p>
+ * <p>
+ * 增量与评价写入在同一事务中执行，店铺缓存由调用方发布的评价变更事件刷新；每天对账一次，
+ * 按评价表重新统计并修正不一致的商家（如直接修改数据库造成的偏差）。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShopRatingService {
+
+    private final ShopRatingStatsMapper shopRatingStatsMapper;
+    private final ShopMapper shopMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShopRankingService shopRankingService;
+    private final RedisUtil redisUtil;
+
+    /** 对账时每批处理的商家数 */
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    /** 对账锁过期时间（秒） */
+    private static final long RECONCILE_LOCK_SECONDS = 3600;
+
+    /**
+     * 新增一条正常状态的评价（需在评价写入的事务中调用）
+     */
+    public void reviewAdded(ShopReviewDO review) {
+        applyReview(review, 1);
+    }
+
+    /**
+     * 一条正常状态的评价被删除或隐藏（需在评价更新的事务中调用）
+     */
+    public void reviewRemoved(ShopReviewDO review) {
+        applyReview(review, -1);
+    }
+
+    /**
+     * 按评价表重新统计商家评分
+     *
+     * @param shopId 商家ID
+     */
+    public void recalculate(Long shopId) {
+        shopRatingStatsMapper.recalculate(shopId);
+        syncShopRating(shopId);
+        eventPublisher.publishEvent(new ShopChangedEvent(this, shopId, ShopChangedEvent.ChangeType.UPDATED));
+    }
+
+    /**
+     * 评分统计对账（每天凌晨执行一次，多实例部署时只由一个实例执行）
+     */
+    @Scheduled(cron = "0 40 4 * * ?")
+    public void reconcile() {
+        try {
+            if (!Boolean.TRUE.equals(redisUtil.setIfAbsent(RedisKeyConstants.SHOP_RATING_RECONCILE_LOCK, "1",
+                    RECONCILE_LOCK_SECONDS))) {
+                return;
+            }
+            long lastId = 0L;
+            int checked = 0;
+            int fixed = 0;
+            while (true) {
+                LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(ShopDO::getId)
+                        .gt(ShopDO::getId, lastId)
+                        .orderByAsc(ShopDO::getId)
+                        .last("LIMIT " + RECONCILE_BATCH_SIZE);
+                List<Long> shopIds = shopMapper.selectList(wrapper).stream()
+                        .map(ShopDO::getId)
+                        .collect(Collectors.toList());
+                if (shopIds.isEmpty()) {
+                    break;
+                }
+
+                Map<Long, ShopRatingStatsDO> expected = shopRatingStatsMapper.aggregateByShopIds(shopIds).stream()
+                        .collect(Collectors.toMap(ShopRatingStatsDO::getShopId, Function.identity()));
+                Map<Long, ShopRatingStatsDO> actual = shopRatingStatsMapper.selectBatchIds(shopIds).stream()
+                        .collect(Collectors.toMap(ShopRatingStatsDO::getShopId, Function.identity()));
+                for (Long shopId : shopIds) {
+                    if (!sameStats(expected.get(shopId), actual.get(shopId))) {
+                        // 重新统计在单条语句中完成，不会覆盖对账期间新增评价的增量
+                        recalculate(shopId);
+                        fixed++;
+                        log.warn("商家评分统计不一致，已重新统计: shopId={}", shopId);
+                    }
+                }
+
+                checked += shopIds.size();
+                lastId = shopIds.get(shopIds.size() - 1);
+                if (shopIds.size() < RECONCILE_BATCH_SIZE) {
+                    break;
+                }
+            }
+            log.info("商家评分统计对账完成: 检查={}, 修正={}", checked, fixed);
+        } catch (Exception e) {
+            log.error("商家评分统计对账失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void applyReview(ShopReviewDO review, int sign) {
+        ShopRatingStatsDO delta = new ShopRatingStatsDO();
+        delta.setShopId(review.getShopId());
+        delta.setReviewCount(sign);
+        delta.setRatingSum(signed(review.getRating(), sign));
+        delta.setTasteSum(signed(review.getTasteScore(), sign));
+        delta.setTasteCount(review.getTasteScore() != null ? sign : 0);
+        delta.setEnvironmentSum(signed(review.getEnvironmentScore(), sign));
+        delta.setEnvironmentCount(review.getEnvironmentScore() != null ? sign : 0);
+        delta.setServiceSum(signed(review.getServiceScore(), sign));
+        delta.setServiceCount(review.getServiceScore() != null ? sign : 0);
+        shopRatingStatsMapper.addDelta(delta);
+        syncShopRating(review.getShopId());
+    }
+
+    private void syncShopRating(Long shopId) {
+        shopRatingStatsMapper.syncShopRating(shopId);
+        shopRankingService.updateShop(shopMapper.selectById(shopId), null);
+    }
+
+    private static BigDecimal signed(BigDecimal score, int sign) {
+        if (score == null) {
+            return BigDecimal.ZERO;
+        }
+        return sign < 0 ? score.negate() : score;
+    }
+
+    /**
+     * 比较统计值（没有统计行等同于没有评价）
+     */
+    private static boolean sameStats(ShopRatingStatsDO expected, ShopRatingStatsDO actual) {
+        if (expected == null || actual == null) {
+            return isEmpty(expected) && isEmpty(actual);
+        }
+        return Objects.equals(expected.getReviewCount(), actual.getReviewCount())
+                && Objects.equals(expected.getTasteCount(), actual.getTasteCount())
+                && Objects.equals(expected.getEnvironmentCount(), actual.getEnvironmentCount())
+                && Objects.equals(expected.getServiceCount(), actual.getServiceCount())
+                && sameAmount(expected.getRatingSum(), actual.getRatingSum())
+                && sameAmount(expected.getTasteSum(), actual.getTasteSum())
+                && sameAmount(expected.getEnvironmentSum(), actual.getEnvironmentSum())
+                && sameAmount(expected.getServiceSum(), actual.getServiceSum());
+    }
+
+    private static boolean isEmpty(ShopRatingStatsDO stats) {
+        return stats == null || stats.getReviewCount() == null || stats.getReviewCount() == 0;
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null || b == null ? a == b : a.compareTo(b) == 0;
+    }
+}
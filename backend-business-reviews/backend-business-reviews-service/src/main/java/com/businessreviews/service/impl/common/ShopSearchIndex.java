@@ -0,0 +1,460 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.mapper.CategoryMapper;
+import com.businessreviews.mapper.ShopMapper;
+import com.businessreviews.mapper.ShopTagMapper;
+import com.businessreviews.model.dataobject.CategoryDO;
+import com.businessreviews.model.dataobject.ShopDO;
+import com.businessreviews.model.dataobject.ShopTagDO;
+import com.businessreviews.util.SearchTokenizer;
+import com.businessreviews.util.TransactionUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 商家搜索索引
+ * <p>
+ * 在 JVM 内维护营业中商家的搜索索引，商家搜索不再对 shops 表做
+ * name/address LIKE '%kw%' 全表扫描。索引字段包括商家名称、地址、分类名称和标签。
+ * </p>
+ * <p>
+ * 匹配规则（查询词项全部命中才算匹配）：
+ * - 中文：单字/二元组精确匹配（见 {@link SearchTokenizer}）
+ * - 字母数字：前缀匹配，同时匹配英文单词、名称全拼和拼音首字母，如 "hdl" 命中"海底捞"
+ * 含字母数字的查询没有命中时（如地址"1288号"中的"88"、"walmart"中的"mart"）返回null，由调用方降级 LIKE 查询。
+ * </p>
+ * <p>
+ * 分类筛选和评分/人气/价格排序在索引内完成，调用方只需按ID回表当前页。
+ * 商家创建、更新、状态变更、删除时在事务提交后刷新，
+ * 并每分钟按 updated_at 水位增量同步评分和人气等字段（依赖 shops 表 idx_updated_at 索引）。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShopSearchIndex {
+
+    private final ShopMapper shopMapper;
+    private final ShopTagMapper shopTagMapper;
+    private final CategoryMapper categoryMapper;
+
+    /** 单次搜索最多返回的商家数 */
+    public static final int MAX_RESULTS = 1000;
+
+    /** 全量构建/增量同步时每批处理的商家数 */
+    private static final int BATCH_SIZE = 500;
+
+    /** 增量同步回看时长（秒），覆盖提交延迟和时钟偏差 */
+    private static final long SYNC_OVERLAP_SECONDS = 60L;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 中文词项 -> 商家ID集合（精确匹配） */
+    private Map<String, Set<Long>> terms = new HashMap<>();
+
+    /** 字母数字/拼音词项 -> 商家ID集合（有序，支持前缀匹配） */
+    private TreeMap<String, Set<Long>> prefixTerms = new TreeMap<>();
+
+    /** 商家ID -> 索引条目 */
+    private Map<Long, ShopEntry> entries = new HashMap<>();
+
+    /** 已同步到的 updated_at 水位 */
+    private volatile LocalDateTime watermark;
+
+    private volatile boolean ready;
+
+    /**
+     * 应用启动完成后构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndex() {
+        rebuildIndex();
+    }
+
+    /**
+     * 全量重建索引（每天凌晨执行一次，清理被物理删除的商家）
+     */
+    @Scheduled(cron = "0 10 4 * * ?")
+    public void rebuildIndex() {
+        log.info("开始构建商家搜索索引...");
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            Map<Integer, String> categoryNames = loadCategoryNames();
+            Map<String, Set<Long>> newTerms = new HashMap<>();
+            TreeMap<String, Set<Long>> newPrefixTerms = new TreeMap<>();
+            Map<Long, ShopEntry> newEntries = new HashMap<>();
+
+            long lastId = 0L;
+            while (true) {
+                LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.eq(ShopDO::getStatus, 1)
+                        .gt(ShopDO::getId, lastId)
+                        .orderByAsc(ShopDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<ShopDO> shops = shopMapper.selectList(wrapper);
+                if (shops.isEmpty()) {
+                    break;
+                }
+
+                List<Long> shopIds = shops.stream().map(ShopDO::getId).collect(Collectors.toList());
+                Map<Long, List<String>> tagMap = loadTags(shopIds);
+                for (ShopDO shop : shops) {
+                    ShopEntry entry = analyze(shop, categoryNames.get(shop.getCategoryId()),
+                            tagMap.getOrDefault(shop.getId(), Collections.emptyList()));
+                    newEntries.put(shop.getId(), entry);
+                    addTerms(newTerms, newPrefixTerms, entry);
+                }
+
+                lastId = shops.get(shops.size() - 1).getId();
+                if (shops.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                terms = newTerms;
+                prefixTerms = newPrefixTerms;
+                entries = newEntries;
+                watermark = startedAt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("商家搜索索引构建完成，共 {} 个商家", newEntries.size());
+        } catch (Exception e) {
+            log.error("商家搜索索引构建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按 updated_at 水位增量同步（每分钟执行一次）
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void syncIncrement() {
+        if (watermark == null) {
+            return;
+        }
+        try {
+            LocalDateTime lastTime = watermark.minusSeconds(SYNC_OVERLAP_SECONDS);
+            long lastId = 0L;
+            int synced = 0;
+            while (true) {
+                final LocalDateTime seekTime = lastTime;
+                final long seekId = lastId;
+                LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.and(w -> w.gt(ShopDO::getUpdatedAt, seekTime)
+                                .or(o -> o.eq(ShopDO::getUpdatedAt, seekTime).gt(ShopDO::getId, seekId)))
+                        .orderByAsc(ShopDO::getUpdatedAt)
+                        .orderByAsc(ShopDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<ShopDO> shops = shopMapper.selectList(wrapper);
+                if (shops.isEmpty()) {
+                    break;
+                }
+
+                updateShops(shops);
+                synced += shops.size();
+
+                ShopDO last = shops.get(shops.size() - 1);
+                lastTime = last.getUpdatedAt();
+                lastId = last.getId();
+                if (shops.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            if (synced > 0 && lastTime.isAfter(watermark)) {
+                watermark = lastTime;
+            }
+            log.debug("商家搜索索引增量同步完成: 同步={}", synced);
+        } catch (Exception e) {
+            log.warn("商家搜索索引增量同步失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按商家最新数据刷新索引（商家创建、更新、状态变更时调用，事务中调用时在提交后生效）
+     * <p>
+     * 营业中的商家重建词项，其他状态移出索引。分类名称和标签在提交后查询，不占用调用方的事务。
+     * </p>
+     */
+    public void updateShop(ShopDO shop) {
+        if (shop == null || shop.getId() == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            try {
+                updateShops(Collections.singletonList(shop));
+            } catch (Exception e) {
+                log.warn("刷新商家搜索索引失败: shopId={}, error={}", shop.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 将商家移出索引（删除时调用，事务中调用时在提交后生效）
+     */
+    public void removeShop(Long shopId) {
+        if (shopId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeEntry(shopId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 搜索商家
+     *
+     * @param keyword        关键词
+     * @param categoryId     分类ID（可选）
+     * @param registeredOnly 是否只返回已入驻商户（merchant_id 不为空）
+     * @param sortBy         排序方式 (rating/popular/price_asc/price_desc)
+     * @return 排序后的商家ID（最多 {@link #MAX_RESULTS} 个）；索引未就绪，或含字母数字的查询没有命中时返回null
+     */
+    public List<Long> search(String keyword, Long categoryId, boolean registeredOnly, String sortBy) {
+        if (!ready) {
+            return null;
+        }
+        List<String> queryTerms = SearchTokenizer.tokenizeQuery(keyword);
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 字母数字词项只做前缀匹配，没有命中时不能确定原文中间不包含
+        List<Long> noMatch = queryTerms.stream().anyMatch(term -> !SearchTokenizer.isCjk(term.codePointAt(0)))
+                ? null : Collections.emptyList();
+
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> matches = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Set<Long> ids = lookup(term);
+                if (ids.isEmpty()) {
+                    return noMatch;
+                }
+                matches.add(ids);
+            }
+            matches.sort(Comparator.comparingInt(Set::size));
+
+            List<ShopEntry> results = new ArrayList<>();
+            for (Long shopId : matches.get(0)) {
+                boolean matched = true;
+                for (int i = 1; i < matches.size(); i++) {
+                    if (!matches.get(i).contains(shopId)) {
+                        matched = false;
+                        break;
+                    }
+                }
+                ShopEntry entry = entries.get(shopId);
+                if (!matched || entry == null) {
+                    continue;
+                }
+                if (categoryId != null && (entry.getCategoryId() == null
+                        || entry.getCategoryId().longValue() != categoryId)) {
+                    continue;
+                }
+                if (registeredOnly && !entry.isRegistered()) {
+                    continue;
+                }
+                results.add(entry);
+            }
+
+            if (results.isEmpty()) {
+                return noMatch;
+            }
+            return results.stream()
+                    .sorted(comparator(sortBy))
+                    .limit(MAX_RESULTS)
+                    .map(ShopEntry::getShopId)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找词项对应的商家：中文精确匹配，字母数字前缀匹配
+     */
+    private Set<Long> lookup(String term) {
+        if (SearchTokenizer.isCjk(term.codePointAt(0))) {
+            return terms.getOrDefault(term, Collections.emptySet());
+        }
+        SortedMap<String, Set<Long>> range = prefixTerms.subMap(term, term + Character.MAX_VALUE);
+        if (range.size() == 1) {
+            return range.values().iterator().next();
+        }
+        Set<Long> ids = new HashSet<>();
+        range.values().forEach(ids::addAll);
+        return ids;
+    }
+
+    private Comparator<ShopEntry> comparator(String sortBy) {
+        Comparator<ShopEntry> byId = Comparator.comparing(ShopEntry::getShopId, Comparator.reverseOrder());
+        Comparator<ShopEntry> byRating = Comparator.comparing(ShopEntry::getRating,
+                Comparator.nullsLast(Comparator.reverseOrder()));
+        Comparator<ShopEntry> byPopularity = Comparator.comparing(ShopEntry::getPopularity,
+                Comparator.nullsLast(Comparator.reverseOrder()));
+        if ("popular".equals(sortBy)) {
+            return byPopularity.thenComparing(byId);
+        } else if ("price_asc".equals(sortBy)) {
+            return Comparator.comparing(ShopEntry::getAveragePrice,
+                    Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder())).thenComparing(byId);
+        } else if ("price_desc".equals(sortBy)) {
+            return Comparator.comparing(ShopEntry::getAveragePrice,
+                    Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder())).thenComparing(byId);
+        }
+        return byRating.thenComparing(byPopularity).thenComparing(byId);
+    }
+
+    /**
+     * 批量刷新商家（需要时查询分类和标签）
+     */
+    private void updateShops(List<ShopDO> shops) {
+        List<ShopDO> active = shops.stream()
+                .filter(shop -> shop.getStatus() != null && shop.getStatus() == 1)
+                .collect(Collectors.toList());
+        Map<Integer, String> categoryNames = active.isEmpty() ? Collections.emptyMap() : loadCategoryNames();
+        Map<Long, List<String>> tagMap = active.isEmpty() ? Collections.emptyMap()
+                : loadTags(active.stream().map(ShopDO::getId).collect(Collectors.toList()));
+
+        List<ShopEntry> newEntries = new ArrayList<>();
+        for (ShopDO shop : active) {
+            newEntries.add(analyze(shop, categoryNames.get(shop.getCategoryId()),
+                    tagMap.getOrDefault(shop.getId(), Collections.emptyList())));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (ShopDO shop : shops) {
+                removeEntry(shop.getId());
+            }
+            for (ShopEntry entry : newEntries) {
+                entries.put(entry.getShopId(), entry);
+                addTerms(terms, prefixTerms, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 分析商家，生成索引条目
+     */
+    private ShopEntry analyze(ShopDO shop, String categoryName, List<String> tags) {
+        Set<String> cjkTerms = new HashSet<>();
+        Set<String> wordTerms = new HashSet<>();
+        List<String> texts = new ArrayList<>();
+        texts.add(shop.getName());
+        texts.add(shop.getAddress());
+        texts.add(categoryName);
+        texts.addAll(tags);
+        for (String text : texts) {
+            for (String token : SearchTokenizer.tokenize(text)) {
+                if (SearchTokenizer.isCjk(token.codePointAt(0))) {
+                    cjkTerms.add(token);
+                } else {
+                    wordTerms.add(token);
+                }
+            }
+        }
+        wordTerms.addAll(SearchTokenizer.pinyinTokens(shop.getName()));
+
+        return new ShopEntry(shop.getId(), shop.getCategoryId(), shop.getMerchantId() != null,
+                shop.getRating(), shop.getPopularity(), shop.getAveragePrice(),
+                Collections.unmodifiableSet(cjkTerms), Collections.unmodifiableSet(wordTerms));
+    }
+
+    private static void addTerms(Map<String, Set<Long>> cjkIndex, Map<String, Set<Long>> wordIndex,
+            ShopEntry entry) {
+        for (String term : entry.getCjkTerms()) {
+            cjkIndex.computeIfAbsent(term, k -> new HashSet<>()).add(entry.getShopId());
+        }
+        for (String term : entry.getWordTerms()) {
+            wordIndex.computeIfAbsent(term, k -> new HashSet<>()).add(entry.getShopId());
+        }
+    }
+
+    /**
+     * 删除索引条目（调用方需持有写锁）
+     */
+    private void removeEntry(Long shopId) {
+        ShopEntry old = entries.remove(shopId);
+        if (old == null) {
+            return;
+        }
+        removeTerms(terms, old.getCjkTerms(), shopId);
+        removeTerms(prefixTerms, old.getWordTerms(), shopId);
+    }
+
+    private static void removeTerms(Map<String, Set<Long>> index, Set<String> termSet, Long shopId) {
+        for (String term : termSet) {
+            Set<Long> ids = index.get(term);
+            if (ids != null) {
+                ids.remove(shopId);
+                if (ids.isEmpty()) {
+                    index.remove(term);
+                }
+            }
+        }
+    }
+
+    private Map<Integer, String> loadCategoryNames() {
+        return categoryMapper.selectList(null).stream()
+                .filter(category -> category.getName() != null)
+                .collect(Collectors.toMap(CategoryDO::getId, CategoryDO::getName, (a, b) -> a));
+    }
+
+    private Map<Long, List<String>> loadTags(List<Long> shopIds) {
+        if (shopIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        LambdaQueryWrapper<ShopTagDO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(ShopTagDO::getShopId, ShopTagDO::getTagName)
+                .in(ShopTagDO::getShopId, shopIds);
+        return shopTagMapper.selectList(wrapper).stream()
+                .filter(tag -> tag.getTagName() != null)
+                .collect(Collectors.groupingBy(ShopTagDO::getShopId,
+                        Collectors.mapping(ShopTagDO::getTagName, Collectors.toList())));
+    }
+
+    /**
+     * 索引条目（不可变）
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class ShopEntry {
+        private final Long shopId;
+        private final Integer categoryId;
+        /** 是否已入驻商户 */
+        private final boolean registered;
+        private final BigDecimal rating;
+        private final Integer popularity;
+        private final BigDecimal averagePrice;
+        /** 中文词项 */
+        private final Set<String> cjkTerms;
+        /** 字母数字/拼音词项 */
+        private final Set<String> wordTerms;
+    }
+}
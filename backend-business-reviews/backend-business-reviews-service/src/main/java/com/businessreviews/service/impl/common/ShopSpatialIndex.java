@@ -0,0 +1,235 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.mapper.ShopMapper;
+import com.businessreviews.model.dataobject.ShopDO;
+import com.businessreviews.util.SpatialGrid;
+import com.businessreviews.util.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商家空间索引
+ * <p>
+ * 在 JVM 内用经纬度网格（见 {@link SpatialGrid}）维护营业中商家的位置和分类，
+ * 附近商家查询优先在本地完成：半径内的总数和当前页之前的最近（或最远）商家直接由索引给出，
+ * 不访问 Redis，也不对 shops 表全量查询后逐个计算距离。
+ * 索引未就绪（启动构建中或构建失败）时调用方再依次降级到 Redis GEO 和数据库。
+ * </p>
+ * <p>
+ * 商家创建、更新、状态变更、删除时在事务提交后刷新当前实例（事务回滚不会留下未提交的位置），
+ * 并每分钟按 updated_at 水位增量同步其他实例的修改，每天全量重建一次清理被物理删除的商家。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShopSpatialIndex {
+
+    private final ShopMapper shopMapper;
+
+    /** 网格步长（度），约 5.5 公里，与默认查询半径同一量级 */
+    private static final double CELL_DEGREES = 0.05;
+
+    /** 全量构建/增量同步时每批处理的商家数 */
+    private static final int BATCH_SIZE = 1000;
+
+    /** 增量同步回看时长（秒），覆盖提交延迟和时钟偏差 */
+    private static final long SYNC_OVERLAP_SECONDS = 60L;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private SpatialGrid grid = new SpatialGrid(CELL_DEGREES);
+
+    /** 已同步到的 updated_at 水位 */
+    private volatile LocalDateTime watermark;
+
+    private volatile boolean ready;
+
+    /**
+     * 应用启动完成后构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndex() {
+        rebuildIndex();
+    }
+
+    /**
+     * 全量重建索引（每天凌晨执行一次，清理被物理删除的商家）
+     */
+    @Scheduled(cron = "0 20 4 * * ?")
+    public void rebuildIndex() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            SpatialGrid newGrid = new SpatialGrid(CELL_DEGREES);
+            long lastId = 0L;
+            while (true) {
+                LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(ShopDO::getId, ShopDO::getCategoryId, ShopDO::getLatitude, ShopDO::getLongitude)
+                        .eq(ShopDO::getStatus, 1)
+                        .isNotNull(ShopDO::getLatitude)
+                        .isNotNull(ShopDO::getLongitude)
+                        .gt(ShopDO::getId, lastId)
+                        .orderByAsc(ShopDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<ShopDO> shops = shopMapper.selectList(wrapper);
+                for (ShopDO shop : shops) {
+                    put(newGrid, shop);
+                }
+                if (shops.size() < BATCH_SIZE) {
+                    break;
+                }
+                lastId = shops.get(shops.size() - 1).getId();
+            }
+
+            lock.writeLock().lock();
+            try {
+                grid = newGrid;
+                watermark = startedAt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("商家空间索引构建完成，共 {} 个商家", newGrid.size());
+        } catch (Exception e) {
+            log.error("商家空间索引构建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按 updated_at 水位增量同步（每分钟执行一次）
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void syncIncrement() {
+        if (watermark == null) {
+            return;
+        }
+        try {
+            LocalDateTime lastTime = watermark.minusSeconds(SYNC_OVERLAP_SECONDS);
+            long lastId = 0L;
+            int synced = 0;
+            while (true) {
+                final LocalDateTime seekTime = lastTime;
+                final long seekId = lastId;
+                LambdaQueryWrapper<ShopDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(ShopDO::getId, ShopDO::getCategoryId, ShopDO::getLatitude, ShopDO::getLongitude,
+                                ShopDO::getStatus, ShopDO::getUpdatedAt)
+                        .and(w -> w.gt(ShopDO::getUpdatedAt, seekTime)
+                                .or(o -> o.eq(ShopDO::getUpdatedAt, seekTime).gt(ShopDO::getId, seekId)))
+                        .orderByAsc(ShopDO::getUpdatedAt)
+                        .orderByAsc(ShopDO::getId)
+                        .last("LIMIT " + BATCH_SIZE);
+                List<ShopDO> shops = shopMapper.selectList(wrapper);
+                if (shops.isEmpty()) {
+                    break;
+                }
+
+                updateShops(shops);
+                synced += shops.size();
+
+                ShopDO last = shops.get(shops.size() - 1);
+                if (last.getUpdatedAt() != null) {
+                    lastTime = last.getUpdatedAt();
+                }
+                lastId = last.getId();
+                if (shops.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            if (synced > 0 && lastTime.isAfter(watermark)) {
+                watermark = lastTime;
+            }
+            log.debug("商家空间索引增量同步完成: 同步={}", synced);
+        } catch (Exception e) {
+            log.warn("商家空间索引增量同步失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按商家最新数据刷新索引（商家创建、更新、状态变更时调用）
+     * <p>
+     * 营业中且有经纬度的商家写入索引，其他商家移出索引。事务中调用时在事务提交后生效。
+     * </p>
+     */
+    public void updateShop(ShopDO shop) {
+        if (shop == null || shop.getId() == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> updateShops(Collections.singletonList(shop)));
+    }
+
+    /**
+     * 将商家移出索引（删除时调用，事务中调用时在事务提交后生效）
+     */
+    public void removeShop(Long shopId) {
+        if (shopId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                grid.remove(shopId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 查询半径内的商家
+     *
+     * @param latitude      中心点纬度
+     * @param longitude     中心点经度
+     * @param radiusKm      半径（公里）
+     * @param categoryId    分类ID（可选）
+     * @param limit         最多返回的商家数
+     * @param farthestFirst 是否从远到近
+     * @return 按距离排序的前 limit 个商家及半径内的商家总数；索引未就绪时返回null
+     */
+    public SpatialGrid.Result search(double latitude, double longitude, double radiusKm, Long categoryId,
+            int limit, boolean farthestFirst) {
+        if (!ready) {
+            return null;
+        }
+        int group = categoryId != null ? categoryId.intValue() : SpatialGrid.NO_GROUP;
+        lock.readLock().lock();
+        try {
+            return grid.within(latitude, longitude, radiusKm, group, limit, farthestFirst);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void updateShops(List<ShopDO> shops) {
+        lock.writeLock().lock();
+        try {
+            for (ShopDO shop : shops) {
+                if (shop.getStatus() != null && shop.getStatus() == 1 && shop.getLatitude() != null
+                        && shop.getLongitude() != null) {
+                    put(grid, shop);
+                } else {
+                    grid.remove(shop.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void put(SpatialGrid target, ShopDO shop) {
+        target.put(shop.getId(), shop.getLatitude().doubleValue(), shop.getLongitude().doubleValue(),
+                shop.getCategoryId() != null ? shop.getCategoryId() : SpatialGrid.NO_GROUP);
+    }
+}
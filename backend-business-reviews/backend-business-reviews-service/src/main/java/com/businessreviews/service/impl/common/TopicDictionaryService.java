@@ -0,0 +1,145 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.enums.TopicStatus;
+import com.businessreviews.mapper.TopicMapper;
+import com.businessreviews.model.dataobject.TopicDO;
+import com.businessreviews.util.TransactionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 话题字典服务（话题名称 -> 话题ID）
+ * <p>
+ * 发布笔记按名称关联话题时不再逐个 SELECT / INSERT：
+ * - 已知名称直接命中本地字典，不访问数据库
+ * - 未命中的名称合并为一条 {@code SELECT ... WHERE name IN (...)}
+ * - 仍不存在的名称合并为一条 {@code INSERT IGNORE}（依赖 topics.name 唯一索引），再查询一次取回ID
+ * </p>
+ * <p>
+ * 创建话题在调用方的发布事务中完成，不另开事务（避免一次发布占用两个数据库连接）：
+ * 并发发布同一个新话题时，后执行的 INSERT IGNORE 在唯一索引上等待先插入的事务结束，
+ * 对方提交则被跳过，随后的锁定读（LOCK IN SHARE MODE）读取最新已提交的行，双方得到同一个ID；
+ * 对方回滚则由本事务插入。新查到的话题在发布事务提交后才写入字典，发布事务回滚不会留下无效ID。
+ * </p>
+ * <p>
+ * 名称匹配不区分大小写（与 topics 表排序规则一致），已停用的话题不参与关联。
+ * 字典条目 {@link #DICTIONARY_TTL_MINUTES} 分钟后过期，话题停用后最多在该时间内仍可被关联。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TopicDictionaryService {
+
+    private final TopicMapper topicMapper;
+
+    /** 字典最大条目数 */
+    private static final int DICTIONARY_MAX_SIZE = 20000;
+
+    /** 字典条目过期时间（分钟） */
+    private static final long DICTIONARY_TTL_MINUTES = 10;
+
+    /** 小写话题名称 -> 话题ID */
+    private final Cache<String, Long> dictionary = Caffeine.newBuilder()
+            .maximumSize(DICTIONARY_MAX_SIZE)
+            .expireAfterWrite(Duration.ofMinutes(DICTIONARY_TTL_MINUTES))
+            .build();
+
+    /**
+     * 按名称查找话题ID，不存在的话题自动创建
+     *
+     * @param names 话题名称（忽略空白名称，重复名称只保留一个）
+     * @return 话题ID列表，顺序与名称首次出现的顺序一致，已停用的话题不包含在内
+     */
+    public List<Long> resolveOrCreate(Collection<String> names) {
+        Map<String, String> requested = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name != null && !name.trim().isEmpty()) {
+                requested.putIfAbsent(key(name), name.trim());
+            }
+        }
+        if (requested.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Long> resolved = new HashMap<>(dictionary.getAllPresent(requested.keySet()));
+        if (resolved.size() < requested.size()) {
+            List<String> missing = missingNames(requested, resolved);
+            Map<String, Long> loaded = loadByNames(missing, false);
+            resolved.putAll(loaded);
+
+            missing = missingNames(requested, resolved);
+            if (!missing.isEmpty()) {
+                int created = topicMapper.insertIgnoreBatch(missing);
+                if (created > 0) {
+                    log.info("创建新话题: {}, 新建 {} 个", missing, created);
+                }
+                Map<String, Long> inserted = loadByNames(missing, true);
+                resolved.putAll(inserted);
+                loaded.putAll(inserted);
+            }
+            cacheAfterCommit(loaded);
+        }
+
+        List<Long> topicIds = new ArrayList<>(requested.size());
+        for (String key : requested.keySet()) {
+            Long topicId = resolved.get(key);
+            if (topicId != null) {
+                topicIds.add(topicId);
+            }
+        }
+        return topicIds;
+    }
+
+    /**
+     * 查询启用状态的话题
+     *
+     * @param lockingRead 是否使用锁定读（读取最新已提交的行，而非事务快照）
+     * @return 小写话题名称 -> 话题ID
+     */
+    private Map<String, Long> loadByNames(Collection<String> names, boolean lockingRead) {
+        LambdaQueryWrapper<TopicDO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(TopicDO::getId, TopicDO::getName)
+                .in(TopicDO::getName, names)
+                .eq(TopicDO::getStatus, TopicStatus.NORMAL.getCode())
+                .last(lockingRead, "LOCK IN SHARE MODE");
+        Map<String, Long> result = new HashMap<>();
+        for (TopicDO topic : topicMapper.selectList(wrapper)) {
+            result.put(key(topic.getName()), topic.getId());
+        }
+        return result;
+    }
+
+    /**
+     * 写入字典：处于事务中时在事务提交后写入，事务回滚则不写入
+     */
+    private void cacheAfterCommit(Map<String, Long> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> dictionary.putAll(entries));
+    }
+
+    private static List<String> missingNames(Map<String, String> requested, Map<String, Long> resolved) {
+        List<String> missing = new ArrayList<>();
+        requested.forEach((key, name) -> {
+            if (!resolved.containsKey(key)) {
+                missing.add(name);
+            }
+        });
+        return missing;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,310 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.cache.WriteBehindFlusher;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.mapper.NoteTopicMapper;
+import com.businessreviews.mapper.TopicMapper;
+import com.businessreviews.model.dataobject.NoteTopicDO;
+import com.businessreviews.model.dataobject.TopicDO;
+import com.businessreviews.model.dto.CounterDeltaDTO;
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 话题热度服务（滑动窗口 + 时间衰减）
+ * <p>
+ * 热度信号及权重：发布笔记时使用话题 {@link #USAGE_WEIGHT}，
+ * 话题下笔记的评论、收藏、点赞、浏览分别按 {@link #COMMENT_WEIGHT} / {@link #FAVORITE_WEIGHT} /
+ * {@link #LIKE_WEIGHT} / {@link #VIEW_WEIGHT} 计分（互动增量取自 {@link NoteCounterService} 的落库批次）。
+ * </p>
+ * <p>
+ * 计分流程：
+ * - 信号先在本实例内存中累加，每10秒以 ZINCRBY 合并到 Redis 的小时桶
+ * - 每分钟由一个实例按权重合并近 {@link #WINDOW_HOURS} 小时的桶（ZUNIONSTORE WEIGHTS），
+ *   每个桶的权重为 0.5^(距今小时数 / {@link #HALF_LIFE_HOURS})，得到衰减后的热度排行
+ * - 各实例每分钟读取排行并加载话题信息，热门话题查询直接返回内存中的结果
+ * </p>
+ * <p>
+ * 话题笔记数：发布时不再逐个执行 {@code UPDATE topics SET note_count = note_count + 1}，
+ * 而是在事务提交后 HINCRBY 到 Redis Hash，每5秒合并为一条批量 UPDATE 写回，
+ * 落库方式（RENAME 为 flushing Key、提交后删除、启动时重放）见 {@link WriteBehindFlusher}。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TopicTrendingService {
+
+    private final TopicMapper topicMapper;
+    private final NoteTopicMapper noteTopicMapper;
+    private final WriteBehindFlusher writeBehindFlusher;
+    private final RedisUtil redisUtil;
+
+    /** 发布笔记使用话题的权重 */
+    private static final double USAGE_WEIGHT = 10D;
+
+    /** 话题下笔记被评论的权重 */
+    private static final double COMMENT_WEIGHT = 4D;
+
+    /** 话题下笔记被收藏的权重 */
+    private static final double FAVORITE_WEIGHT = 3D;
+
+    /** 话题下笔记被点赞的权重 */
+    private static final double LIKE_WEIGHT = 2D;
+
+    /** 话题下笔记被浏览的权重 */
+    private static final double VIEW_WEIGHT = 1D;
+
+    /** 热度半衰期（小时） */
+    private static final double HALF_LIFE_HOURS = 12D;
+
+    /** 参与计算的小时桶数 */
+    private static final int WINDOW_HOURS = 72;
+
+    /** 每个小时桶保留的最大话题数 */
+    private static final long BUCKET_MAX_SIZE = 5000;
+
+    /** 排行保留的话题数 */
+    private static final int RANKING_SIZE = 100;
+
+    /** 排行计算周期（秒） */
+    private static final long RANKING_REFRESH_SECONDS = 60;
+
+    /** 排行保留时间（秒），负责计算的实例异常时其他实例仍可读取 */
+    private static final long RANKING_TTL_SECONDS = 3600;
+
+    /** 查询笔记话题关联时每批的笔记数 */
+    private static final int NOTE_BATCH_SIZE = 500;
+
+    /** 笔记数落库锁过期时间（秒） */
+    private static final long FLUSH_LOCK_SECONDS = 60;
+
+    /** 本实例尚未合并到 Redis 的热度增量：话题ID -> 加权分数 */
+    private final AtomicReference<Map<Long, DoubleAdder>> pendingScores =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+
+    /** 热度排行（已加载话题信息，按热度降序） */
+    private volatile List<TopicDO> ranking = new ArrayList<>();
+
+    /**
+     * 记录笔记发布使用的话题：话题笔记数 +1 并计入热度
+     * <p>
+     * 处于事务中时在事务提交后才记录，事务回滚则不计数。
+     * </p>
+     */
+    public void recordTopicNotes(Collection<Long> topicIds) {
+        TransactionUtil.afterCommit(() -> {
+            Map<String, Long> increments = new HashMap<>();
+            topicIds.forEach(topicId -> increments.put(String.valueOf(topicId), 1L));
+            try {
+                redisUtil.hIncrementAll(RedisKeyConstants.TOPIC_NOTE_COUNT_DELTA, increments);
+            } catch (Exception e) {
+                // Redis 不可用时直接写库，保证计数不丢
+                log.warn("记录话题笔记数增量失败，直接写库: topics={}, error={}", topicIds, e.getMessage());
+                Map<Long, Integer> deltas = new HashMap<>();
+                topicIds.forEach(topicId -> deltas.put(topicId, 1));
+                topicMapper.batchAddNoteCounts(deltas);
+            }
+            topicIds.forEach(topicId -> addScore(topicId, USAGE_WEIGHT));
+        });
+    }
+
+    /**
+     * 记录笔记使用的话题（仅计入热度，不修改话题笔记数）
+     */
+    public void recordTopicUsage(Collection<Long> topicIds) {
+        TransactionUtil.afterCommit(() -> topicIds.forEach(topicId -> addScore(topicId, USAGE_WEIGHT)));
+    }
+
+    /**
+     * 将一批笔记的互动增量计入所属话题的热度
+     *
+     * @param deltas 笔记计数增量（负数增量不计分）
+     */
+    public void recordNoteEngagement(List<CounterDeltaDTO> deltas) {
+        Map<Long, Double> noteScores = new HashMap<>();
+        for (CounterDeltaDTO delta : deltas) {
+            double score = positive(delta.getCommentDelta()) * COMMENT_WEIGHT
+                    + positive(delta.getFavoriteDelta()) * FAVORITE_WEIGHT
+                    + positive(delta.getLikeDelta()) * LIKE_WEIGHT
+                    + positive(delta.getViewDelta()) * VIEW_WEIGHT;
+            if (score > 0) {
+                noteScores.put(delta.getId(), score);
+            }
+        }
+        List<Long> noteIds = new ArrayList<>(noteScores.keySet());
+        for (int i = 0; i < noteIds.size(); i += NOTE_BATCH_SIZE) {
+            LambdaQueryWrapper<NoteTopicDO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(NoteTopicDO::getNoteId, NoteTopicDO::getTopicId)
+                    .in(NoteTopicDO::getNoteId, noteIds.subList(i, Math.min(i + NOTE_BATCH_SIZE, noteIds.size())));
+            for (NoteTopicDO noteTopic : noteTopicMapper.selectList(wrapper)) {
+                addScore(noteTopic.getTopicId(), noteScores.get(noteTopic.getNoteId()));
+            }
+        }
+    }
+
+    /**
+     * 获取热度最高的话题（按热度降序）
+     *
+     * @return 话题列表，排行尚未计算时为空列表
+     */
+    public List<TopicDO> getTrendingTopics(int limit) {
+        List<TopicDO> current = ranking;
+        return new ArrayList<>(current.subList(0, Math.min(limit, current.size())));
+    }
+
+    /**
+     * 应用启动完成后重放未完成的笔记数落库并加载排行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initOnStartup() {
+        flushNoteCounts();
+        loadRanking();
+    }
+
+    /**
+     * 应用关闭前合并剩余的热度增量和笔记数增量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushScores();
+        flushNoteCounts();
+    }
+
+    /**
+     * 将本实例累加的热度合并到当前小时桶（每10秒执行一次）
+     */
+    @Scheduled(fixedDelay = 10000, initialDelay = 10000)
+    public void flushScores() {
+        Map<Long, DoubleAdder> scores = pendingScores.getAndSet(new ConcurrentHashMap<>());
+        if (scores.isEmpty()) {
+            return;
+        }
+        Map<String, Double> increments = new HashMap<>();
+        scores.forEach((topicId, score) -> increments.put(String.valueOf(topicId), score.sum()));
+        try {
+            redisUtil.zIncrementAll(bucketKey(System.currentTimeMillis() / 3_600_000L), increments,
+                    BUCKET_MAX_SIZE, (WINDOW_HOURS + 1) * 3600L);
+        } catch (Exception e) {
+            // 丢失本周期的热度增量，不影响后续排行
+            log.warn("合并话题热度失败: topics={}, error={}", increments.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 计算衰减热度排行并加载到本地（每分钟执行一次，多实例部署时只由一个实例计算）
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void refreshRanking() {
+        try {
+            if (Boolean.TRUE.equals(redisUtil.setIfAbsent(RedisKeyConstants.TOPIC_TRENDING_LOCK, "1",
+                    RANKING_REFRESH_SECONDS))) {
+                long currentHour = System.currentTimeMillis() / 3_600_000L;
+                List<String> keys = new ArrayList<>(WINDOW_HOURS);
+                double[] weights = new double[WINDOW_HOURS];
+                for (int i = 0; i < WINDOW_HOURS; i++) {
+                    keys.add(bucketKey(currentHour - i));
+                    weights[i] = Math.pow(0.5D, i / HALF_LIFE_HOURS);
+                }
+                redisUtil.zUnionStore(RedisKeyConstants.TOPIC_TRENDING_RANKING, keys, weights, RANKING_TTL_SECONDS);
+                redisUtil.zRemoveRange(RedisKeyConstants.TOPIC_TRENDING_RANKING, 0, -RANKING_SIZE - 1);
+            }
+        } catch (Exception e) {
+            log.warn("计算话题热度排行失败: {}", e.getMessage());
+        }
+        loadRanking();
+    }
+
+    /**
+     * 合并话题笔记数增量并批量写回数据库（每5秒执行一次）
+     */
+    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
+    public void flushNoteCounts() {
+        writeBehindFlusher.withLock(RedisKeyConstants.TOPIC_NOTE_COUNT_FLUSH_LOCK, FLUSH_LOCK_SECONDS,
+                () -> writeBehindFlusher.flushKey(RedisKeyConstants.TOPIC_NOTE_COUNT_DELTA, this::applyNoteCounts));
+    }
+
+    /**
+     * 将一批话题笔记数增量写回数据库
+     *
+     * @return 写入的行数
+     */
+    private int applyNoteCounts(Map<String, String> entries) {
+        Map<Long, Integer> deltas = new TreeMap<>();
+        entries.forEach((field, value) -> {
+            try {
+                int delta = Integer.parseInt(value);
+                if (delta != 0) {
+                    deltas.put(Long.parseLong(field), delta);
+                }
+            } catch (NumberFormatException e) {
+                log.warn("忽略无法解析的话题笔记数增量: {}={}", field, value);
+            }
+        });
+        if (!deltas.isEmpty()) {
+            topicMapper.batchAddNoteCounts(deltas);
+        }
+        return deltas.size();
+    }
+
+    /**
+     * 读取热度排行并加载话题信息（过滤已停用的话题）
+     */
+    private void loadRanking() {
+        try {
+            List<Long> topicIds = new ArrayList<>();
+            for (ZSetOperations.TypedTuple<String> tuple : redisUtil.zReverseRangeWithScores(
+                    RedisKeyConstants.TOPIC_TRENDING_RANKING, 0, RANKING_SIZE - 1)) {
+                if (tuple.getValue() != null) {
+                    topicIds.add(Long.parseLong(tuple.getValue()));
+                }
+            }
+            if (topicIds.isEmpty()) {
+                ranking = new ArrayList<>();
+                return;
+            }
+            Map<Long, TopicDO> topics = topicMapper.selectBatchIds(topicIds).stream()
+                    .filter(topic -> Integer.valueOf(1).equals(topic.getStatus()))
+                    .collect(Collectors.toMap(TopicDO::getId, Function.identity()));
+            ranking = topicIds.stream()
+                    .map(topics::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            // 保留上一次加载的排行
+            log.warn("加载话题热度排行失败: {}", e.getMessage());
+        }
+    }
+
+    private void addScore(Long topicId, Double score) {
+        if (topicId != null && score != null && score > 0) {
+            pendingScores.get().computeIfAbsent(topicId, key -> new DoubleAdder()).add(score);
+        }
+    }
+
+    private static String bucketKey(long epochHour) {
+        return RedisKeyConstants.TOPIC_TRENDING_BUCKET + epochHour;
+    }
+
+    private static int positive(Integer delta) {
+        return delta != null && delta > 0 ? delta : 0;
+    }
+}
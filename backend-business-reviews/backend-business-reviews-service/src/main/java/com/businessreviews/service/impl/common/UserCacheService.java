@@ -1,10 +1,14 @@
 package com.businessreviews.service.impl.common;
 
+import com.businessreviews.cache.TieredCache;
+import com.businessreviews.cache.TieredCacheManager;
+import com.businessreviews.cache.TieredCacheNames;
+import com.businessreviews.constants.CacheExpireConstants;
 import com.businessreviews.constants.RedisKeyConstants;
 import com.businessreviews.mapper.UserMapper;
 import com.businessreviews.model.dataobject.UserDO;
 import com.businessreviews.model.vo.UserBasicVO;
-import com.businessreviews.util.RedisUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,13 +19,13 @@ import java.util.stream.Collectors;
 /**
  * 用户基础信息缓存服务
  * <p>
- * 提供用户头像、昵称等高频访问字段的 Redis 缓存能力。
+ * 提供用户头像、昵称等高频访问字段的二级缓存（本地 + Redis）能力。
  * 采用 Cache-Aside 模式，支持单个和批量查询。
  * </p>
  * <p>
  * 缓存策略：
- * - TTL: 15分钟（用户信息变更频率低，但需要保持一定实时性）
- * - 失效：用户更新资料时主动清除缓存
+ * - TTL: Redis 15分钟，本地缓存见 {@link CacheExpireConstants#LOCAL_CACHE}
+ * - 失效：用户更新资料时主动清除缓存，并广播其他实例清除本地缓存
  * </p>
  *
  * @author businessreviews
@@ -31,11 +35,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserCacheService {
 
-    private final RedisUtil redisUtil;
+    private final TieredCacheManager tieredCacheManager;
     private final UserMapper userMapper;
 
-    /** 缓存过期时间：15分钟 */
-    private static final long CACHE_TTL_SECONDS = 900L;
+    /** 本地缓存最大用户数 */
+    private static final long LOCAL_MAX_SIZE = 10_000L;
+
+    private TieredCache<UserBasicVO> userBasicCache;
+
+    /**
+     * 初始化二级缓存
+     */
+    @PostConstruct
+    public void initCaches() {
+        userBasicCache = tieredCacheManager.create(TieredCacheNames.USER_BASIC, RedisKeyConstants.USER_BASIC_INFO,
+                UserBasicVO.class, CacheExpireConstants.USER_BASIC_INFO, LOCAL_MAX_SIZE,
+                CacheExpireConstants.LOCAL_CACHE);
+    }
 
     /**
      * 获取单个用户的基础信息（带缓存）
@@ -48,42 +64,19 @@ public class UserCacheService {
             return null;
         }
 
-        String cacheKey = RedisKeyConstants.USER_BASIC_INFO + userId;
-
-        // 1. 尝试从缓存获取
-        try {
-            UserBasicVO cached = redisUtil.getObject(cacheKey, UserBasicVO.class);
-            if (cached != null) {
-                return cached;
-            }
-        } catch (Exception e) {
-            log.warn("用户缓存读取失败: userId={}, error={}", userId, e.getMessage());
-        }
-
-        // 2. 缓存未命中，查询数据库
-        UserDO user = userMapper.selectById(userId);
-        if (user == null) {
-            return null;
-        }
-
-        // 3. 转换并写入缓存
-        UserBasicVO vo = convertToBasicVO(user);
-        try {
-            redisUtil.setObject(cacheKey, vo, CACHE_TTL_SECONDS);
-        } catch (Exception e) {
-            log.warn("用户缓存写入失败: userId={}, error={}", userId, e.getMessage());
-        }
-
-        return vo;
+        return userBasicCache.get(userId.toString(), () -> {
+            UserDO user = userMapper.selectById(userId);
+            return user != null ? convertToBasicVO(user) : null;
+        });
     }
 
     /**
      * 批量获取用户基础信息（带缓存）
      * <p>
      * 优化策略：
-     * 1. 批量从 Redis 获取已缓存的用户
-     * 2. 对未命中的用户ID进行批量数据库查询
-     * 3. 将新查询的数据写入缓存
+     * 1. 先从本地缓存获取
+     * 2. 本地未命中的用户通过一次 MGET 从 Redis 获取
+     * 3. 对仍未命中的用户ID进行批量数据库查询，并回填两级缓存
      * </p>
      *
      * @param userIds 用户ID集合
@@ -94,57 +87,20 @@ public class UserCacheService {
             return Collections.emptyMap();
         }
 
-        // 去重
-        Set<Long> uniqueIds = new HashSet<>(userIds);
-        Map<Long, UserBasicVO> result = new HashMap<>();
-
-        // 1. 构建缓存Key列表
-        List<Long> idList = new ArrayList<>(uniqueIds);
-        List<String> cacheKeys = idList.stream()
-                .map(id -> RedisKeyConstants.USER_BASIC_INFO + id)
+        List<String> keys = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(String::valueOf)
                 .collect(Collectors.toList());
 
-        // 2. 批量从Redis获取
-        List<Long> missedIds = new ArrayList<>();
-        try {
-            List<UserBasicVO> cachedList = redisUtil.multiGetObjects(cacheKeys, UserBasicVO.class);
-            for (int i = 0; i < idList.size(); i++) {
-                Long userId = idList.get(i);
-                UserBasicVO cached = cachedList.get(i);
-                if (cached != null) {
-                    result.put(userId, cached);
-                } else {
-                    missedIds.add(userId);
-                }
-            }
-
-            if (!missedIds.isEmpty()) {
-                log.debug("用户缓存批量查询: 总数={}, 命中={}, 未命中={}",
-                        idList.size(), result.size(), missedIds.size());
-            }
-        } catch (Exception e) {
-            log.warn("用户缓存批量读取失败: {}", e.getMessage());
-            missedIds = idList; // 缓存失败，全部从数据库查
-        }
-
-        // 3. 对未命中的ID进行数据库批量查询
-        if (!missedIds.isEmpty()) {
-            List<UserDO> users = userMapper.selectBatchIds(missedIds);
-
-            for (UserDO user : users) {
-                UserBasicVO vo = convertToBasicVO(user);
-                result.put(user.getId(), vo);
-
-                // 异步写入缓存（这里简单同步写入，生产环境可考虑异步）
-                try {
-                    String cacheKey = RedisKeyConstants.USER_BASIC_INFO + user.getId();
-                    redisUtil.setObject(cacheKey, vo, CACHE_TTL_SECONDS);
-                } catch (Exception e) {
-                    log.warn("用户缓存写入失败: userId={}", user.getId());
-                }
-            }
-        }
+        Map<String, UserBasicVO> cached = userBasicCache.getAll(keys, missedKeys -> {
+            List<Long> missedIds = missedKeys.stream().map(Long::valueOf).collect(Collectors.toList());
+            return userMapper.selectBatchIds(missedIds).stream()
+                    .collect(Collectors.toMap(user -> user.getId().toString(), this::convertToBasicVO));
+        });
 
+        Map<Long, UserBasicVO> result = new HashMap<>();
+        cached.forEach((key, vo) -> result.put(Long.valueOf(key), vo));
         return result;
     }
 
@@ -158,13 +114,8 @@ public class UserCacheService {
             return;
         }
 
-        String cacheKey = RedisKeyConstants.USER_BASIC_INFO + userId;
-        try {
-            redisUtil.delete(cacheKey);
-            log.info("清除用户缓存: userId={}", userId);
-        } catch (Exception e) {
-            log.warn("清除用户缓存失败: userId={}, error={}", userId, e.getMessage());
-        }
+        userBasicCache.evict(userId.toString());
+        log.info("清除用户缓存: userId={}", userId);
     }
 
     /**
@@ -179,13 +130,7 @@ public class UserCacheService {
 
         List<UserDO> users = userMapper.selectBatchIds(userIds);
         for (UserDO user : users) {
-            try {
-                String cacheKey = RedisKeyConstants.USER_BASIC_INFO + user.getId();
-                UserBasicVO vo = convertToBasicVO(user);
-                redisUtil.setObject(cacheKey, vo, CACHE_TTL_SECONDS);
-            } catch (Exception e) {
-                log.warn("缓存预热失败: userId={}", user.getId());
-            }
+            userBasicCache.put(user.getId().toString(), convertToBasicVO(user));
         }
 
         log.info("用户缓存预热完成: count={}", users.size());
@@ -0,0 +1,270 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.businessreviews.constants.CacheExpireConstants;
+import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.mapper.CommentLikeMapper;
+import com.businessreviews.mapper.UserFavoriteMapper;
+import com.businessreviews.mapper.UserFollowMapper;
+import com.businessreviews.mapper.UserNoteLikeMapper;
+import com.businessreviews.model.dataobject.CommentLikeDO;
+import com.businessreviews.model.dataobject.UserFavoriteDO;
+import com.businessreviews.model.dataobject.UserFollowDO;
+import com.businessreviews.model.dataobject.UserNoteLikeDO;
+import com.businessreviews.util.RedisUtil;
+import com.businessreviews.util.TransactionUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 用户互动状态服务
+ * <p>
+ * 在 Redis Set 中按用户维护"点赞的笔记、收藏的笔记、点赞的评论、关注的用户"四类集合，
+ * 替代每次判断时执行的 SELECT COUNT。详情页、列表页可通过 {@link #containsAll} 一次往返
+ * 判断一批目标的互动状态，{@link #containsAllByType} 可一次往返判断多类互动。
+ * </p>
+ * <p>
+ * 维护策略：
+ * - 懒加载：首次访问某用户的某类集合时从数据库整体加载，并写入占位成员以区分"空集合"和"未加载"
+ * - 写失效：点赞/取消点赞等操作在事务提交后删除集合并递增版本号，下次访问重新加载；
+ *   懒加载在查库前读取版本号，回填时版本号已变化则放弃回填，避免与写操作竞争后留下旧数据
+ * - 集合仅用于展示和批量判断，点赞/收藏的切换方向以数据库为准
+ * - 集合设置过期时间，不活跃用户的数据自然淘汰
+ * - Redis 不可用时降级为按目标ID批量查库
+ * </p>
+ *
+ * @author businessreviews
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserInteractionService {
+
+    private final UserNoteLikeMapper userNoteLikeMapper;
+    private final UserFavoriteMapper userFavoriteMapper;
+    private final CommentLikeMapper commentLikeMapper;
+    private final UserFollowMapper userFollowMapper;
+    private final RedisUtil redisUtil;
+
+    /** 集合占位成员（目标ID均为正数，不会冲突），表示集合已从数据库加载 */
+    private static final String LOADED_MARKER = "0";
+
+    /** 收藏类型：笔记 */
+    private static final int FAVORITE_TYPE_NOTE = 1;
+
+    /**
+     * 互动类型
+     */
+    @Getter
+    public enum InteractionType {
+        NOTE_LIKE(RedisKeyConstants.USER_NOTE_LIKES),
+        NOTE_BOOKMARK(RedisKeyConstants.USER_NOTE_BOOKMARKS),
+        COMMENT_LIKE(RedisKeyConstants.USER_COMMENT_LIKES),
+        FOLLOW(RedisKeyConstants.USER_FOLLOWINGS);
+
+        private final String keyPrefix;
+
+        InteractionType(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+    }
+
+    /**
+     * 判断用户是否与目标有互动
+     */
+    public boolean contains(Long userId, InteractionType type, Long targetId) {
+        if (userId == null || targetId == null) {
+            return false;
+        }
+        return containsAll(userId, type, Collections.singletonList(targetId)).contains(targetId);
+    }
+
+    /**
+     * 批量判断互动状态
+     *
+     * @param userId    用户ID（为空时返回空集合）
+     * @param type      互动类型
+     * @param targetIds 目标ID列表
+     * @return 有互动的目标ID子集
+     */
+    public Set<Long> containsAll(Long userId, InteractionType type, Collection<Long> targetIds) {
+        if (userId == null || targetIds == null || targetIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<Long> ids = targetIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        String key = type.getKeyPrefix() + userId;
+        try {
+            List<String> members = new ArrayList<>(ids.size() + 1);
+            members.add(LOADED_MARKER);
+            ids.forEach(id -> members.add(id.toString()));
+            Map<String, Boolean> result = redisUtil.sIsMembers(key, members);
+
+            if (Boolean.TRUE.equals(result.get(LOADED_MARKER))) {
+                return ids.stream()
+                        .filter(id -> Boolean.TRUE.equals(result.get(id.toString())))
+                        .collect(Collectors.toSet());
+            }
+
+            // 集合未加载：从数据库整体加载后在内存中判断，加载期间有写操作时不回填
+            String versionKey = key + RedisKeyConstants.USER_INTERACTION_VERSION_SUFFIX;
+            String version = redisUtil.get(versionKey);
+            Set<Long> all = loadAll(userId, type);
+            String[] values = new String[all.size() + 1];
+            values[0] = LOADED_MARKER;
+            int i = 1;
+            for (Long id : all) {
+                values[i++] = id.toString();
+            }
+            redisUtil.sAddIfVersion(key, versionKey, version, CacheExpireConstants.USER_INTERACTIONS, values);
+            return ids.stream().filter(all::contains).collect(Collectors.toSet());
+        } catch (Exception e) {
+            log.warn("读取用户互动集合失败，降级查库: key={}, error={}", key, e.getMessage());
+            return queryFromDb(userId, type, ids);
+        }
+    }
+
+    /**
+     * 一次往返批量判断多类互动状态（列表页叠加点赞、收藏、关注状态使用）
+     * <p>
+     * 各类集合的 SMISMEMBER 通过 Redis 管道合并发送；个别集合尚未加载时单独走懒加载。
+     * </p>
+     *
+     * @param userId  用户ID（为空时每类都返回空集合）
+     * @param targets 互动类型 -> 目标ID列表
+     * @return 互动类型 -> 有互动的目标ID子集
+     */
+    public Map<InteractionType, Set<Long>> containsAllByType(Long userId,
+            Map<InteractionType, ? extends Collection<Long>> targets) {
+        Map<InteractionType, Set<Long>> result = new EnumMap<>(InteractionType.class);
+        targets.keySet().forEach(type -> result.put(type, new HashSet<>()));
+        if (userId == null) {
+            return result;
+        }
+
+        Map<String, List<String>> keyMembers = new LinkedHashMap<>();
+        Map<String, InteractionType> keyTypes = new HashMap<>();
+        targets.forEach((type, ids) -> {
+            if (ids == null || ids.isEmpty()) {
+                return;
+            }
+            List<String> members = new ArrayList<>();
+            members.add(LOADED_MARKER);
+            ids.stream().filter(Objects::nonNull).distinct().forEach(id -> members.add(id.toString()));
+            String key = type.getKeyPrefix() + userId;
+            keyMembers.put(key, members);
+            keyTypes.put(key, type);
+        });
+        if (keyMembers.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Map<String, Boolean>> membership;
+        try {
+            membership = redisUtil.sIsMembersPipelined(keyMembers);
+        } catch (Exception e) {
+            log.warn("批量读取用户互动集合失败，降级查库: userId={}, error={}", userId, e.getMessage());
+            membership = Collections.emptyMap();
+        }
+
+        for (Map.Entry<String, List<String>> entry : keyMembers.entrySet()) {
+            InteractionType type = keyTypes.get(entry.getKey());
+            Map<String, Boolean> flags = membership.getOrDefault(entry.getKey(), Collections.emptyMap());
+            if (Boolean.TRUE.equals(flags.get(LOADED_MARKER))) {
+                entry.getValue().stream()
+                        .filter(member -> !LOADED_MARKER.equals(member) && Boolean.TRUE.equals(flags.get(member)))
+                        .forEach(member -> result.get(type).add(Long.parseLong(member)));
+            } else {
+                result.put(type, containsAll(userId, type, targets.get(type)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 记录互动（点赞、收藏、关注成功后调用，事务中调用时在提交后生效）
+     */
+    public void add(Long userId, InteractionType type, Long targetId) {
+        TransactionUtil.afterCommit(() -> invalidate(type.getKeyPrefix() + userId, targetId));
+    }
+
+    /**
+     * 取消互动（取消点赞、取消收藏、取消关注成功后调用，事务中调用时在提交后生效）
+     */
+    public void remove(Long userId, InteractionType type, Long targetId) {
+        TransactionUtil.afterCommit(() -> invalidate(type.getKeyPrefix() + userId, targetId));
+    }
+
+    /**
+     * 删除集合并递增版本号：不在原集合上增删成员，避免与并发的懒加载回填交错后留下旧数据
+     */
+    private void invalidate(String key, Long targetId) {
+        try {
+            redisUtil.deleteAndIncrVersion(key, key + RedisKeyConstants.USER_INTERACTION_VERSION_SUFFIX,
+                    CacheExpireConstants.USER_INTERACTIONS);
+        } catch (Exception e) {
+            log.warn("删除用户互动集合失败: key={}, targetId={}, error={}", key, targetId, e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库加载用户某类互动的全部目标ID
+     */
+    private Set<Long> loadAll(Long userId, InteractionType type) {
+        return queryFromDb(userId, type, null);
+    }
+
+    /**
+     * 从数据库查询互动目标ID
+     *
+     * @param targetIds 限定的目标ID范围，为null时查询全部
+     */
+    private Set<Long> queryFromDb(Long userId, InteractionType type, Collection<Long> targetIds) {
+        switch (type) {
+            case NOTE_LIKE -> {
+                LambdaQueryWrapper<UserNoteLikeDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(UserNoteLikeDO::getNoteId)
+                        .eq(UserNoteLikeDO::getUserId, userId)
+                        .in(targetIds != null, UserNoteLikeDO::getNoteId, targetIds);
+                return userNoteLikeMapper.selectList(wrapper).stream()
+                        .map(UserNoteLikeDO::getNoteId).collect(Collectors.toSet());
+            }
+            case NOTE_BOOKMARK -> {
+                LambdaQueryWrapper<UserFavoriteDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(UserFavoriteDO::getTargetId)
+                        .eq(UserFavoriteDO::getUserId, userId)
+                        .eq(UserFavoriteDO::getType, FAVORITE_TYPE_NOTE)
+                        .in(targetIds != null, UserFavoriteDO::getTargetId, targetIds);
+                return userFavoriteMapper.selectList(wrapper).stream()
+                        .map(UserFavoriteDO::getTargetId).collect(Collectors.toSet());
+            }
+            case COMMENT_LIKE -> {
+                LambdaQueryWrapper<CommentLikeDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(CommentLikeDO::getCommentId)
+                        .eq(CommentLikeDO::getUserId, userId)
+                        .in(targetIds != null, CommentLikeDO::getCommentId, targetIds);
+                return commentLikeMapper.selectList(wrapper).stream()
+                        .map(CommentLikeDO::getCommentId).collect(Collectors.toSet());
+            }
+            case FOLLOW -> {
+                LambdaQueryWrapper<UserFollowDO> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(UserFollowDO::getFollowUserId)
+                        .eq(UserFollowDO::getUserId, userId)
+                        .in(targetIds != null, UserFollowDO::getFollowUserId, targetIds);
+                return userFollowMapper.selectList(wrapper).stream()
+                        .map(UserFollowDO::getFollowUserId).collect(Collectors.toSet());
+            }
+            default -> {
+                return new HashSet<>();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.businessreviews.service.impl.merchant;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.businessreviews.model.dto.merchant.MerchantLoginDTO;
 import com.businessreviews.model.dto.merchant.MerchantRegisterDTO;
 import com.businessreviews.model.vo.merchant.MerchantLoginVO;
@@ -7,11 +8,15 @@ import com.businessreviews.model.vo.merchant.MerchantUserInfoVO;
 import com.businessreviews.model.dataobject.MerchantDO;
 import com.businessreviews.model.dataobject.ShopDO;
 import com.businessreviews.model.dataobject.UserDO;
+import com.businessreviews.event.ShopChangedEvent;
 import com.businessreviews.exception.BusinessException;
 import com.businessreviews.mapper.MerchantMapper;
 import com.businessreviews.mapper.ShopMapper;
 import com.businessreviews.mapper.UserMapper;
 import com.businessreviews.constants.RedisKeyConstants;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
+import com.businessreviews.service.impl.common.MerchantIdentityService;
+import com.businessreviews.service.impl.common.ShopRankingService;
 import com.businessreviews.service.merchant.MerchantAuthService;
 import com.businessreviews.util.JwtUtil;
 import com.businessreviews.util.RedisUtil;
@@ -21,12 +26,14 @@ import com.businessreviews.enums.UserStatus;
 import com.businessreviews.enums.ShopStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -53,6 +60,10 @@ public class MerchantAuthServiceImpl implements MerchantAuthService {
     private final ShopMapper shopMapper;
     private final RedisUtil redisUtil;
     private final JwtUtil jwtUtil;
+    private final EntityIdFilterService entityIdFilterService;
+    private final MerchantIdentityService merchantIdentityService;
+    private final ShopRankingService shopRankingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String CODE_CHARSET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
 
@@ -268,6 +279,9 @@ public class MerchantAuthServiceImpl implements MerchantAuthService {
         // 自动创建默认门店，将商家信息注入到门店管理中
         createDefaultShop(merchant, request);
 
+        // 已有同手机号用户时，其"非商家"身份缓存需要清除
+        merchantIdentityService.evictUsersByPhone(request.getPhone());
+
         // 删除验证码
         redisUtil.delete(RedisKeyConstants.MERCHANT_SMS_CODE + request.getPhone());
 
@@ -304,6 +318,7 @@ public class MerchantAuthServiceImpl implements MerchantAuthService {
         user.setUpdatedAt(LocalDateTime.now());
 
         userMapper.insert(user);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.USER, user.getId());
         log.info("自动创建UniApp用户成功: userId={}, phone={}, username={}", user.getId(), user.getPhone(), user.getUsername());
     }
 
@@ -331,6 +346,9 @@ public class MerchantAuthServiceImpl implements MerchantAuthService {
         shop.setUpdatedAt(LocalDateTime.now());
 
         shopMapper.insert(shop);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.SHOP, shop.getId());
+        shopRankingService.updateShop(shop, null);
+        eventPublisher.publishEvent(new ShopChangedEvent(this, shop.getId(), ShopChangedEvent.ChangeType.CREATED));
         log.info("自动创建默认门店成功: shopId={}, merchantId={}, name={}", shop.getId(), merchant.getId(), shop.getName());
     }
 
@@ -376,11 +394,17 @@ public class MerchantAuthServiceImpl implements MerchantAuthService {
         if (request.getLicenseImage() != null)
             merchant.setLicenseImage(request.getLicenseImage());
         // 允许修改手机号，但实际业务中通常需要验证码验证。此处直接修改。
+        String oldPhone = merchant.getContactPhone();
         if (request.getPhone() != null)
             merchant.setContactPhone(request.getPhone());
 
         merchant.setUpdatedAt(LocalDateTime.now());
         merchantMapper.updateById(merchant);
+        merchantIdentityService.evictMerchant(merchantId);
+        if (request.getPhone() != null && !request.getPhone().equals(oldPhone)) {
+            // 用户与商家按手机号关联，新旧手机号对应用户的商家身份都已变化
+            merchantIdentityService.evictUsersByPhone(oldPhone, request.getPhone());
+        }
 
         // 同步商家名称和联系电话到关联的门店
         if (request.getMerchantName() != null || request.getPhone() != null) {
@@ -400,6 +424,13 @@ public class MerchantAuthServiceImpl implements MerchantAuthService {
                 com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<ShopDO> updateWrapper = new com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<>();
                 updateWrapper.eq(ShopDO::getMerchantId, merchantId);
                 shopMapper.update(shopUpdate, updateWrapper);
+                List<ShopDO> syncedShops = shopMapper.selectList(new LambdaQueryWrapper<ShopDO>()
+                        .select(ShopDO::getId)
+                        .eq(ShopDO::getMerchantId, merchantId));
+                for (ShopDO syncedShop : syncedShops) {
+                    eventPublisher.publishEvent(new ShopChangedEvent(this, syncedShop.getId(),
+                            ShopChangedEvent.ChangeType.UPDATED));
+                }
                 log.info("同步商家信息到门店成功: merchantId={}", merchantId);
             }
         }
@@ -1,16 +1,20 @@
 package com.businessreviews.service.impl.merchant;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.businessreviews.common.DefaultAvatar;
 import com.businessreviews.common.PageResult;
+import com.businessreviews.event.ReviewChangedEvent;
 import com.businessreviews.model.vo.CommentVO;
 import com.businessreviews.model.dataobject.*;
 import com.businessreviews.exception.BusinessException;
 import com.businessreviews.mapper.*;
+import com.businessreviews.service.impl.common.ShopRatingService;
 import com.businessreviews.service.merchant.MerchantCommentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -19,7 +23,6 @@ import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * 商家评论服务实现类
@@ -44,6 +47,8 @@ public class MerchantCommentServiceImpl implements MerchantCommentService {
     private final ShopMapper shopMapper;
     private final MerchantMapper merchantMapper;
     private final UserMapper userMapper;
+    private final ShopRatingService shopRatingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 获取评论列表
@@ -166,7 +171,7 @@ public class MerchantCommentServiceImpl implements MerchantCommentService {
      * 回复评论
      * <p>
      * 商家对用户评论进行回复。
-     * 只能回复属于自己门店的评论。
+     * 只能回复属于自己门店、且处于正常状态的评论。
      * </p>
      *
      * @param merchantId 商家ID
@@ -193,11 +198,19 @@ public class MerchantCommentServiceImpl implements MerchantCommentService {
             throw new BusinessException(40300, "无权回复该评论");
         }
 
-        // 更新回复内容
-        review.setReply(content);
-        review.setReplyTime(LocalDateTime.now());
-        review.setUpdatedAt(LocalDateTime.now());
-        shopReviewMapper.updateById(review);
+        // 只更新回复列，并限定正常状态：不会用读到的旧状态覆盖并发删除，已删除的评论不能回复
+        LocalDateTime now = LocalDateTime.now();
+        int replied = shopReviewMapper.update(null, new LambdaUpdateWrapper<ShopReviewDO>()
+                .set(ShopReviewDO::getReply, content)
+                .set(ShopReviewDO::getReplyTime, now)
+                .set(ShopReviewDO::getUpdatedAt, now)
+                .eq(ShopReviewDO::getId, commentId)
+                .eq(ShopReviewDO::getStatus, 1));
+        if (replied == 0) {
+            throw new BusinessException(40404, "评论不存在");
+        }
+        eventPublisher.publishEvent(new ReviewChangedEvent(this, review.getId(), review.getShopId(),
+                ReviewChangedEvent.ChangeType.REPLIED));
 
         log.info("商家评论回复成功: reviewId={}", review.getId());
     }
@@ -207,7 +220,7 @@ public class MerchantCommentServiceImpl implements MerchantCommentService {
      * <p>
      * 软删除评论（状态置为2）。
      * 包含安全控制：每日最多只能删除2条评论。
-     * 删除后会重新计算门店评分。
+     * 删除后按该评论的增量更新门店评分。
      * </p>
      *
      * @param merchantId 商家ID
@@ -247,15 +260,32 @@ public class MerchantCommentServiceImpl implements MerchantCommentService {
             throw new BusinessException(40300, "无权删除该评论");
         }
 
-        // 软删除：更新状态为隐藏
+        // 软删除：条件更新正常状态的评论为隐藏，只有真正改变状态的请求扣减评分，并发删除不会重复扣减
+        LocalDateTime now = LocalDateTime.now();
+        int removed = shopReviewMapper.update(null, new LambdaUpdateWrapper<ShopReviewDO>()
+                .set(ShopReviewDO::getStatus, 2)
+                .set(ShopReviewDO::getUpdatedAt, now)
+                .eq(ShopReviewDO::getId, commentId)
+                .eq(ShopReviewDO::getStatus, 1));
+        if (removed == 0) {
+            // 非正常状态的评论（待审核等）只隐藏，不影响评分
+            shopReviewMapper.update(null, new LambdaUpdateWrapper<ShopReviewDO>()
+                    .set(ShopReviewDO::getStatus, 2)
+                    .set(ShopReviewDO::getUpdatedAt, now)
+                    .eq(ShopReviewDO::getId, commentId)
+                    .ne(ShopReviewDO::getStatus, 2));
+        }
         review.setStatus(2);
-        review.setUpdatedAt(LocalDateTime.now());
-        shopReviewMapper.updateById(review);
+        review.setUpdatedAt(now);
 
         log.info("商家评论删除成功: reviewId={}", commentId);
 
-        // 重新计算门店评分
-        recalculateShopRatings(review.getShopId());
+        // 按该评论的增量更新门店评分（仅本次从正常状态删除时）
+        if (removed == 1) {
+            shopRatingService.reviewRemoved(review);
+        }
+        eventPublisher.publishEvent(new ReviewChangedEvent(this, review.getId(), review.getShopId(),
+                ReviewChangedEvent.ChangeType.DELETED));
     }
 
     /**
@@ -749,46 +779,4 @@ public class MerchantCommentServiceImpl implements MerchantCommentService {
             throw new BusinessException(50000, "导出失败");
         }
     }
-
-    /**
-     * 重新计算门店评分
-     */
-    private void recalculateShopRatings(Long shopId) {
-        // 查询该门店所有正常显示的评论
-        LambdaQueryWrapper<ShopReviewDO> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ShopReviewDO::getShopId, shopId)
-                .eq(ShopReviewDO::getStatus, 1); // Only active reviews
-        List<ShopReviewDO> reviews = shopReviewMapper.selectList(queryWrapper);
-
-        if (reviews.isEmpty()) {
-            // 如果没有评论，重置为默认高分（5.0）
-            ShopDO shopUpdate = new ShopDO();
-            shopUpdate.setId(shopId);
-            shopUpdate.setRating(BigDecimal.valueOf(5.0));
-            shopUpdate.setTasteScore(BigDecimal.valueOf(5.0));
-            shopUpdate.setEnvironmentScore(BigDecimal.valueOf(5.0));
-            shopUpdate.setServiceScore(BigDecimal.valueOf(5.0));
-            shopUpdate.setReviewCount(0);
-            shopMapper.updateById(shopUpdate);
-            log.info("门店无有效评论，重置评分: shopId={}", shopId);
-            return;
-        }
-
-        // 计算平均分
-        double avgRating = reviews.stream().mapToDouble(r -> r.getRating().doubleValue()).average().orElse(5.0);
-        double avgTaste = reviews.stream().mapToDouble(r -> r.getTasteScore().doubleValue()).average().orElse(5.0);
-        double avgEnv = reviews.stream().mapToDouble(r -> r.getEnvironmentScore().doubleValue()).average().orElse(5.0);
-        double avgService = reviews.stream().mapToDouble(r -> r.getServiceScore().doubleValue()).average().orElse(5.0);
-
-        ShopDO shopUpdate = new ShopDO();
-        shopUpdate.setId(shopId);
-        shopUpdate.setRating(BigDecimal.valueOf(avgRating).setScale(2, RoundingMode.HALF_UP));
-        shopUpdate.setTasteScore(BigDecimal.valueOf(avgTaste).setScale(2, RoundingMode.HALF_UP));
-        shopUpdate.setEnvironmentScore(BigDecimal.valueOf(avgEnv).setScale(2, RoundingMode.HALF_UP));
-        shopUpdate.setServiceScore(BigDecimal.valueOf(avgService).setScale(2, RoundingMode.HALF_UP));
-        shopUpdate.setReviewCount(reviews.size());
-
-        shopMapper.updateById(shopUpdate);
-        log.info("重新计算门店评分完成: shopId={}, rating={}, count={}", shopId, avgRating, reviews.size());
-    }
 }
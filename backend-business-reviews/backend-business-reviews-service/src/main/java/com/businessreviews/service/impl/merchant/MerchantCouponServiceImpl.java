@@ -16,6 +16,7 @@ import com.businessreviews.mapper.MerchantMapper;
 import com.businessreviews.mapper.ShopMapper;
 import com.businessreviews.mapper.UserCouponMapper;
 import com.businessreviews.enums.CouponStatus;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
 import com.businessreviews.service.merchant.MerchantCouponService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -51,6 +52,7 @@ public class MerchantCouponServiceImpl implements MerchantCouponService {
     private final UserCouponMapper userCouponMapper;
     private final MerchantMapper merchantMapper;
     private final ShopMapper shopMapper;
+    private final EntityIdFilterService entityIdFilterService;
 
     /**
      * 获取优惠券列表
@@ -207,6 +209,7 @@ public class MerchantCouponServiceImpl implements MerchantCouponService {
         coupon.setUpdatedAt(LocalDateTime.now());
 
         couponMapper.insert(coupon);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.COUPON, coupon.getId());
         log.info("优惠券创建成功: couponId={}, title={}", coupon.getId(), coupon.getTitle());
 
         return coupon.getId();
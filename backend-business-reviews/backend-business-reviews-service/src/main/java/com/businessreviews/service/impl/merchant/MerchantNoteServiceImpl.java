@@ -20,6 +20,12 @@ import com.businessreviews.enums.NoteType;
 import com.businessreviews.enums.NoteStatus;
 import com.businessreviews.enums.UserStatus;
 import com.businessreviews.enums.CommentStatus;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
+import com.businessreviews.service.impl.common.NoteDetailCacheService;
+import com.businessreviews.service.impl.common.NoteGeoIndexService;
+import com.businessreviews.service.impl.common.NoteRankingService;
+import com.businessreviews.service.impl.common.NoteSearchIndex;
+import com.businessreviews.service.impl.common.NoteTimelineService;
 import com.businessreviews.service.merchant.MerchantNoteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -55,6 +61,12 @@ public class MerchantNoteServiceImpl implements MerchantNoteService {
     private final ShopMapper shopMapper;
     private final MerchantMapper merchantMapper;
     private final UserMapper userMapper;
+    private final NoteRankingService noteRankingService;
+    private final NoteTimelineService noteTimelineService;
+    private final NoteGeoIndexService noteGeoIndexService;
+    private final NoteSearchIndex noteSearchIndex;
+    private final NoteDetailCacheService noteDetailCacheService;
+    private final EntityIdFilterService entityIdFilterService;
 
     /**
      * 获取笔记列表
@@ -211,6 +223,11 @@ public class MerchantNoteServiceImpl implements MerchantNoteService {
         note.setUpdatedAt(LocalDateTime.now());
 
         noteMapper.insert(note);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.NOTE, note.getId());
+        noteRankingService.updateNote(note);
+        noteTimelineService.publishNote(note);
+        noteGeoIndexService.updateNote(note);
+        noteSearchIndex.updateNote(note);
         log.info("笔记创建成功: noteId={}, userId={}", note.getId(), userId);
 
         return note.getId();
@@ -263,6 +280,7 @@ public class MerchantNoteServiceImpl implements MerchantNoteService {
         user.setUpdatedAt(LocalDateTime.now());
 
         userMapper.insert(user);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.USER, user.getId());
         log.info("为商家创建用户账号: userId={}, username={}, phone={}", operatorId, user.getUsername(), phone);
 
         return operatorId;
@@ -325,6 +343,10 @@ public class MerchantNoteServiceImpl implements MerchantNoteService {
 
         note.setUpdatedAt(LocalDateTime.now());
         noteMapper.updateById(note);
+        noteRankingService.updateNote(note);
+        noteGeoIndexService.updateNote(note);
+        noteSearchIndex.updateNote(note);
+        noteDetailCacheService.invalidate(note.getId());
         log.info("笔记更新成功: noteId={}", noteId);
     }
 
@@ -353,6 +375,11 @@ public class MerchantNoteServiceImpl implements MerchantNoteService {
         note.setStatus(NoteStatus.NORMAL.getCode()); // 正常/已发布
         note.setUpdatedAt(LocalDateTime.now());
         noteMapper.updateById(note);
+        noteRankingService.updateNote(note);
+        noteTimelineService.publishNote(note);
+        noteGeoIndexService.updateNote(note);
+        noteSearchIndex.updateNote(note);
+        noteDetailCacheService.invalidate(note.getId());
         log.info("笔记发布成功: noteId={}", noteId);
     }
 
@@ -381,6 +408,11 @@ public class MerchantNoteServiceImpl implements MerchantNoteService {
         note.setStatus(NoteStatus.HIDDEN.getCode()); // 隐藏/已下线
         note.setUpdatedAt(LocalDateTime.now());
         noteMapper.updateById(note);
+        noteRankingService.removeNote(noteId);
+        noteTimelineService.removeNote(note.getUserId(), noteId);
+        noteGeoIndexService.removeNote(noteId);
+        noteSearchIndex.removeNote(noteId);
+        noteDetailCacheService.invalidate(noteId);
         log.info("笔记下线成功: noteId={}", noteId);
     }
 
@@ -404,6 +436,11 @@ public class MerchantNoteServiceImpl implements MerchantNoteService {
         }
 
         noteMapper.deleteById(noteId);
+        noteRankingService.removeNote(noteId);
+        noteTimelineService.removeNote(note.getUserId(), noteId);
+        noteGeoIndexService.removeNote(noteId);
+        noteSearchIndex.removeNote(noteId);
+        noteDetailCacheService.invalidate(noteId);
         log.info("笔记删除成功: noteId={}", noteId);
     }
 
@@ -3,6 +3,7 @@ package com.businessreviews.service.impl.merchant;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.businessreviews.common.PageResult;
+import com.businessreviews.event.ShopChangedEvent;
 import com.businessreviews.model.vo.ShopDetailVO;
 import com.businessreviews.model.vo.ShopItemVO;
 import com.businessreviews.model.dataobject.CategoryDO;
@@ -17,9 +18,16 @@ import com.businessreviews.mapper.NoteMapper;
 import com.businessreviews.mapper.ShopMapper;
 import com.businessreviews.mapper.ShopReviewMapper;
 import com.businessreviews.enums.ShopStatus;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
+import com.businessreviews.service.impl.common.MerchantIdentityService;
+import com.businessreviews.service.impl.common.ShopGeoIndexInitializer;
+import com.businessreviews.service.impl.common.ShopRankingService;
+import com.businessreviews.service.impl.common.ShopSearchIndex;
+import com.businessreviews.service.impl.common.ShopSpatialIndex;
 import com.businessreviews.service.merchant.MerchantShopService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -55,6 +63,13 @@ public class MerchantShopServiceImpl implements MerchantShopService {
     private final NoteMapper noteMapper;
     private final ShopReviewMapper shopReviewMapper;
     private final CategoryMapper categoryMapper;
+    private final ShopSearchIndex shopSearchIndex;
+    private final ShopGeoIndexInitializer shopGeoIndexInitializer;
+    private final ShopSpatialIndex shopSpatialIndex;
+    private final ShopRankingService shopRankingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityIdFilterService entityIdFilterService;
+    private final MerchantIdentityService merchantIdentityService;
 
     /**
      * 获取门店列表
@@ -146,6 +161,7 @@ public class MerchantShopServiceImpl implements MerchantShopService {
             shop.setUpdatedAt(LocalDateTime.now());
 
             shopMapper.insert(shop);
+            entityIdFilterService.add(EntityIdFilterService.EntityType.SHOP, shop.getId());
             log.info("为商家{}创建默认店铺成功: shopId={}", merchantId, shop.getId());
         } catch (Exception e) {
             log.error("为商家{}创建默认店铺失败", merchantId, e);
@@ -236,6 +252,12 @@ public class MerchantShopServiceImpl implements MerchantShopService {
         }
 
         shopMapper.insert(shop);
+        entityIdFilterService.add(EntityIdFilterService.EntityType.SHOP, shop.getId());
+        shopSearchIndex.updateShop(shop);
+        shopGeoIndexInitializer.updateShopGeo(shop, null);
+        shopSpatialIndex.updateShop(shop);
+        shopRankingService.updateShop(shop, null);
+        eventPublisher.publishEvent(new ShopChangedEvent(this, shop.getId(), ShopChangedEvent.ChangeType.CREATED));
         log.info("门店创建成功: shopId={}", shop.getId());
 
         return shop.getId();
@@ -268,6 +290,7 @@ public class MerchantShopServiceImpl implements MerchantShopService {
         if (!merchantId.equals(shop.getMerchantId())) {
             throw new BusinessException(40403, "无权限操作此门店");
         }
+        Integer previousCategoryId = shop.getCategoryId();
 
         // 更新门店信息
         if (request.get("name") != null) {
@@ -330,6 +353,11 @@ public class MerchantShopServiceImpl implements MerchantShopService {
         int updateResult = shopMapper.updateById(shop);
         if (updateResult > 0) {
             log.info("门店更新成功: shopId={}, 影响行数={}", shopId, updateResult);
+            shopSearchIndex.updateShop(shop);
+            shopGeoIndexInitializer.updateShopGeo(shop, previousCategoryId);
+            shopSpatialIndex.updateShop(shop);
+            shopRankingService.updateShop(shop, previousCategoryId);
+            eventPublisher.publishEvent(new ShopChangedEvent(this, shopId, ShopChangedEvent.ChangeType.UPDATED));
 
             // 同步门店名称和联系电话到商家基本信息
             // 注意：这里假设商家只有一个主门店，或者用户希望同步修改商家信息
@@ -348,7 +376,14 @@ public class MerchantShopServiceImpl implements MerchantShopService {
                 }
 
                 if (needSync) {
+                    MerchantDO current = request.containsKey("phone") ? merchantMapper.selectById(merchantId) : null;
                     merchantMapper.updateById(merchantUpdate);
+                    merchantIdentityService.evictMerchant(merchantId);
+                    if (current != null) {
+                        // 用户与商家按手机号关联，新旧手机号对应用户的商家身份都已变化
+                        merchantIdentityService.evictUsersByPhone(current.getContactPhone(),
+                                merchantUpdate.getContactPhone());
+                    }
                     log.info("同步门店信息到商家成功: merchantId={}, shopId={}", merchantId, shopId);
                 }
             }
@@ -392,6 +427,11 @@ public class MerchantShopServiceImpl implements MerchantShopService {
         shop.setStatus(status);
         shop.setUpdatedAt(LocalDateTime.now());
         shopMapper.updateById(shop);
+        shopSearchIndex.updateShop(shop);
+        shopGeoIndexInitializer.updateShopGeo(shop, null);
+        shopSpatialIndex.updateShop(shop);
+        shopRankingService.updateShop(shop, null);
+        eventPublisher.publishEvent(new ShopChangedEvent(this, shopId, ShopChangedEvent.ChangeType.STATUS_CHANGED));
         log.info("门店状态更新成功: shopId={}, status={}", shopId, status);
     }
 
@@ -423,6 +463,11 @@ public class MerchantShopServiceImpl implements MerchantShopService {
 
         // 删除门店（物理删除，也可以改为逻辑删除）
         shopMapper.deleteById(shopId);
+        shopSearchIndex.removeShop(shopId);
+        shopGeoIndexInitializer.removeShopGeo(shopId, shop.getCategoryId());
+        shopSpatialIndex.removeShop(shopId);
+        shopRankingService.removeShop(shopId, shop.getCategoryId());
+        eventPublisher.publishEvent(new ShopChangedEvent(this, shopId, ShopChangedEvent.ChangeType.DELETED));
         log.info("门店删除成功: shopId={}", shopId);
     }
 
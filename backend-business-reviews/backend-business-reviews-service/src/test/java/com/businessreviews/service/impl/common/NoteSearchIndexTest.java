@@ -0,0 +1,162 @@
+package com.businessreviews.service.impl.common;
+
+import com.businessreviews.enums.NoteStatus;
+import com.businessreviews.model.dataobject.NoteDO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * NoteSearchIndex单元测试
+ *
+ * 直接通过 updateNote/removeNote 维护索引（不查库），验证查询词项全部命中才匹配、
+ * BM25 排序、标题加权以及分页结果
+ */
+class NoteSearchIndexTest {
+
+    private NoteSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NoteSearchIndex(null);
+        ReflectionTestUtils.setField(index, "ready", true);
+    }
+
+    /**
+     * 索引就绪前返回null，由调用方降级查库
+     */
+    @Test
+    void searchReturnsNullBeforeReady() {
+        ReflectionTestUtils.setField(index, "ready", false);
+
+        assertThat(index.search("咖啡", 0, 10)).isNull();
+    }
+
+    /**
+     * 所有查询词项都命中的笔记才匹配
+     */
+    @Test
+    void allQueryTermsMustMatch() {
+        index.updateNote(note(1L, "咖啡", "拿铁"));
+        index.updateNote(note(2L, "咖啡", "蛋糕"));
+        index.updateNote(note(3L, "蛋糕", "奶油"));
+
+        NoteSearchIndex.SearchPage page = index.search("咖啡 蛋糕", 0, 10);
+
+        assertThat(page.getNoteIds()).containsExactly(2L);
+        assertThat(page.getTotal()).isEqualTo(1L);
+    }
+
+    /**
+     * 标题命中的权重高于正文命中
+     */
+    @Test
+    void titleMatchRanksAboveContentMatch() {
+        index.updateNote(note(1L, "周末探店", "这家咖啡不错"));
+        index.updateNote(note(2L, "咖啡", "周末探店"));
+
+        assertThat(index.search("咖啡", 0, 10).getNoteIds()).containsExactly(2L, 1L);
+    }
+
+    /**
+     * 词频相同时较短的文档得分更高（文档长度归一化）
+     */
+    @Test
+    void shorterDocumentRanksHigherForSameTermFrequency() {
+        index.updateNote(note(1L, "咖啡", "店里环境安静适合看书聊天"));
+        index.updateNote(note(2L, "咖啡", "安静"));
+
+        assertThat(index.search("咖啡", 0, 10).getNoteIds()).containsExactly(2L, 1L);
+    }
+
+    /**
+     * 分数相同时较新（ID较大）的笔记在前，分页按 offset/limit 截取，总数不受分页影响
+     */
+    @Test
+    void pagingKeepsTotalAndBreaksTiesByNewestId() {
+        for (long id = 1; id <= 5; id++) {
+            index.updateNote(note(id, "咖啡", "拿铁"));
+        }
+
+        NoteSearchIndex.SearchPage page = index.search("咖啡", 1, 2);
+
+        assertThat(page.getNoteIds()).containsExactly(4L, 3L);
+        assertThat(page.getTotal()).isEqualTo(5L);
+    }
+
+    /**
+     * 英文查询按单词前缀命中，不区分大小写
+     */
+    @Test
+    void latinQueryMatchesWordPrefix() {
+        index.updateNote(note(1L, "Coffee Time", "latte"));
+
+        assertThat(index.search("COFF", 0, 10).getNoteIds()).containsExactly(1L);
+    }
+
+    /**
+     * 纯中文查询没有命中时返回空页，含字母数字的查询没有命中时返回null由调用方降级查库
+     */
+    @Test
+    void missesOnlyFallBackForLatinQueries() {
+        index.updateNote(note(1L, "咖啡", "拿铁"));
+
+        NoteSearchIndex.SearchPage cjkMiss = index.search("火锅", 0, 10);
+        assertThat(cjkMiss.getNoteIds()).isEmpty();
+        assertThat(cjkMiss.getTotal()).isZero();
+        assertThat(index.search("espresso", 0, 10)).isNull();
+    }
+
+    /**
+     * 下线或删除的笔记移出索引，编辑后按新内容重建词项
+     */
+    @Test
+    void updatesAndRemovalsAreReflected() {
+        index.updateNote(note(1L, "咖啡", "拿铁"));
+        index.updateNote(note(2L, "咖啡", "摩卡"));
+
+        NoteDO hidden = note(1L, "咖啡", "拿铁");
+        hidden.setStatus(NoteStatus.HIDDEN.getCode());
+        index.updateNote(hidden);
+        index.updateNote(note(2L, "火锅", "毛肚"));
+
+        assertThat(index.search("咖啡", 0, 10).getNoteIds()).isEmpty();
+        assertThat(index.search("火锅", 0, 10).getNoteIds()).containsExactly(2L);
+
+        index.removeNote(2L);
+        assertThat(index.search("火锅", 0, 10).getNoteIds()).isEmpty();
+    }
+
+    /**
+     * 事务中的刷新在提交后才生效，事务回滚时索引不变
+     */
+    @Test
+    void updatesInsideTransactionWaitForCommit() {
+        index.updateNote(note(1L, "咖啡", "拿铁"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.updateNote(note(2L, "咖啡", "摩卡"));
+            index.removeNote(1L);
+
+            assertThat(index.search("咖啡", 0, 10).getNoteIds()).containsExactly(1L);
+        } finally {
+            // 不触发 afterCommit，相当于事务回滚
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.search("咖啡", 0, 10).getNoteIds()).containsExactly(1L);
+    }
+
+    private static NoteDO note(Long id, String title, String content) {
+        NoteDO note = new NoteDO();
+        note.setId(id);
+        note.setTitle(title);
+        note.setContent(content);
+        note.setStatus(NoteStatus.NORMAL.getCode());
+        return note;
+    }
+}
@@ -0,0 +1,123 @@
+package com.businessreviews.service.impl.common;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.businessreviews.mapper.CategoryMapper;
+import com.businessreviews.mapper.ShopMapper;
+import com.businessreviews.mapper.ShopTagMapper;
+import com.businessreviews.model.dataobject.ShopDO;
+import com.businessreviews.model.dataobject.ShopTagDO;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * ShopSearchIndex单元测试
+ *
+ * 分类和标签查询使用 Mock（返回空列表），验证中文与字母数字查询的命中规则、
+ * 字母数字查询未命中时降级，以及事务中的刷新在提交后才生效
+ */
+class ShopSearchIndexTest {
+
+    private ShopSearchIndex index;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), ShopTagDO.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ShopSearchIndex(mock(ShopMapper.class), mock(ShopTagMapper.class), mock(CategoryMapper.class));
+        ReflectionTestUtils.setField(index, "ready", true);
+        index.updateShop(shop(1L, "沃尔玛 Walmart", "中山路1288号"));
+        index.updateShop(shop(2L, "海底捞火锅", "王府井大街88号"));
+    }
+
+    /**
+     * 中文按单字/二元组命中，字母数字按前缀和拼音首字母命中
+     */
+    @Test
+    void matchesCjkTermsAndLatinPrefixes() {
+        assertThat(index.search("火锅", null, false, null)).containsExactly(2L);
+        assertThat(index.search("wal", null, false, null)).containsExactly(1L);
+        assertThat(index.search("hdl", null, false, null)).containsExactly(2L);
+        assertThat(index.search("88", null, false, null)).containsExactly(2L);
+    }
+
+    /**
+     * 纯中文查询没有命中时返回空列表，不降级查库
+     */
+    @Test
+    void cjkMissReturnsEmptyList() {
+        assertThat(index.search("烤鸭", null, false, null)).isEmpty();
+    }
+
+    /**
+     * 字母数字查询没有命中时（单词中间的片段）返回null，由调用方降级 LIKE 查询
+     */
+    @Test
+    void latinMissFallsBackToLike() {
+        assertThat(index.search("mart", null, false, null)).isNull();
+        assertThat(index.search("128", null, false, null)).containsExactly(1L);
+        assertThat(index.search("288", null, false, null)).isNull();
+        // 命中的词项被筛选条件全部过滤时同样降级
+        assertThat(index.search("wal", 99L, false, null)).isNull();
+    }
+
+    /**
+     * 非营业状态移出索引，删除后不再返回
+     */
+    @Test
+    void inactiveAndRemovedShopsLeaveIndex() {
+        ShopDO closed = shop(2L, "海底捞火锅", "王府井大街88号");
+        closed.setStatus(0);
+        index.updateShop(closed);
+        assertThat(index.search("火锅", null, false, null)).isEmpty();
+
+        index.removeShop(1L);
+        assertThat(index.search("沃尔玛", null, false, null)).isEmpty();
+    }
+
+    /**
+     * 事务中的刷新在提交后才生效，事务回滚时索引不变
+     */
+    @Test
+    void updatesInsideTransactionWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.updateShop(shop(3L, "全聚德烤鸭", "前门大街30号"));
+            index.removeShop(2L);
+
+            assertThat(index.search("烤鸭", null, false, null)).isEmpty();
+            assertThat(index.search("火锅", null, false, null)).containsExactly(2L);
+        } finally {
+            // 不触发 afterCommit，相当于事务回滚
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.search("烤鸭", null, false, null)).isEmpty();
+        assertThat(index.search("火锅", null, false, null)).containsExactly(2L);
+    }
+
+    private static ShopDO shop(Long id, String name, String address) {
+        ShopDO shop = new ShopDO();
+        shop.setId(id);
+        shop.setName(name);
+        shop.setAddress(address);
+        shop.setCategoryId(1);
+        shop.setStatus(1);
+        shop.setRating(BigDecimal.valueOf(4.5D));
+        shop.setPopularity(100);
+        shop.setAveragePrice(BigDecimal.valueOf(80));
+        return shop;
+    }
+}
@@ -1,6 +1,7 @@
 package com.businessreviews.config;
 
 import com.businessreviews.interceptor.AuthInterceptor;
+import com.businessreviews.interceptor.InternalAccessInterceptor;
 import com.businessreviews.merchant.interceptor.MerchantAuthInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
@@ -14,9 +15,11 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * Controller包结构（符合阿里巴巴Java开发手册规范）：
  * - web.app: 用户端/移动端控制器 (UniApp)
  * - web.merchant: 商户端控制器 (Web运营中心)
+ * - web.internal: 运维接口控制器（缓存指标等）
  * 
  * 拦截器配置基于URL路径：
  * - /merchant/** 路径由 MerchantAuthInterceptor 处理
+ * - /internal/** 路径由 InternalAccessInterceptor 处理
  * - 其他路径由 AuthInterceptor 处理
  */
 @Configuration
@@ -25,6 +28,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
 
     private final AuthInterceptor authInterceptor;
     private final MerchantAuthInterceptor merchantAuthInterceptor;
+    private final InternalAccessInterceptor internalAccessInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
@@ -38,12 +42,19 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         "/merchant/upload/public"
                 );
         
+        // 运维接口拦截器 - 只拦截 /internal/** 路径
+        registry.addInterceptor(internalAccessInterceptor)
+                .addPathPatterns("/internal/**");
+
         // 移动端拦截器 - 拦截除商家端外的所有路径
         registry.addInterceptor(authInterceptor)
                 .addPathPatterns("/**")
                 .excludePathPatterns(
                         // 商家端路径由商家拦截器处理
                         "/merchant/**",
+
+                        // 运维接口由运维接口拦截器处理
+                        "/internal/**",
                         
                         // WebSocket端点（注意：context-path是/api，所以这里用相对路径）
                         "/ws",
@@ -0,0 +1,48 @@
+package com.businessreviews.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 运维接口访问拦截器
+ * <p>
+ * /internal/** 下的接口（缓存指标等）只供运维和监控系统调用，不接受用户登录态，
+ * 请求头 X-Internal-Token 须与配置的 internal.access-token 一致；未配置令牌时拒绝所有请求。
+ * </p>
+ */
+@Slf4j
+@Component
+public class InternalAccessInterceptor implements HandlerInterceptor {
+
+    private static final String TOKEN_HEADER = "X-Internal-Token";
+
+    @Value("${internal.access-token:}")
+    private String accessToken;
+
+    @Override
+    public boolean preHandle(@org.springframework.lang.NonNull HttpServletRequest request,
+            @org.springframework.lang.NonNull HttpServletResponse response,
+            @org.springframework.lang.NonNull Object handler)
+            throws Exception {
+        String token = request.getHeader(TOKEN_HEADER);
+        if (StringUtils.hasText(accessToken) && StringUtils.hasText(token)
+                && MessageDigest.isEqual(accessToken.getBytes(StandardCharsets.UTF_8),
+                        token.getBytes(StandardCharsets.UTF_8))) {
+            return true;
+        }
+
+        log.warn("拒绝运维接口访问: uri={}, remote={}", request.getRequestURI(), request.getRemoteAddr());
+        response.setStatus(403);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"code\":403,\"message\":\"无权访问\",\"data\":null}");
+        return false;
+    }
+}
@@ -1,8 +1,7 @@
 package com.businessreviews.merchant.interceptor;
 
-import com.businessreviews.model.dataobject.MerchantDO;
-import com.businessreviews.mapper.MerchantMapper;
 import com.businessreviews.merchant.context.MerchantContext;
+import com.businessreviews.service.impl.common.MerchantIdentityService;
 import com.businessreviews.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -22,7 +21,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 public class MerchantAuthInterceptor implements HandlerInterceptor {
 
     private final JwtUtil jwtUtil;
-    private final MerchantMapper merchantMapper;
+    private final MerchantIdentityService merchantIdentityService;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
@@ -38,9 +37,8 @@ public class MerchantAuthInterceptor implements HandlerInterceptor {
                     // Token中存储的是商家ID（整合后userId和merchantId相同）
                     Long merchantId = jwtUtil.getUserIdFromToken(token);
                     
-                    // 查询商家信息（直接使用merchants表）
-                    MerchantDO merchant = merchantMapper.selectById(merchantId);
-                    if (merchant != null && merchant.getStatus() == 1) {
+                    // 校验商家状态（商家身份缓存）
+                    if (merchantIdentityService.isActiveMerchant(merchantId)) {
                         // 设置上下文（userId和merchantId现在相同）
                         MerchantContext.setUserId(merchantId);
                         MerchantContext.setMerchantId(merchantId);
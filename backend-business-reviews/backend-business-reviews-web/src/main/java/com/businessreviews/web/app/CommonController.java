@@ -112,6 +112,11 @@ public class CommonController {
 
         Map<String, Object> result = new HashMap<>();
 
+        // 只统计首页请求，翻页不重复计入热搜
+        if (pageNum == 1) {
+            commonService.recordSearch(keyword);
+        }
+
         if ("all".equals(type) || "note".equals(type)) {
             PageResult<NoteItemVO> notes = noteService.searchNotes(keyword, pageNum, pageSize);
             result.put("notes", notes);
@@ -140,11 +145,12 @@ public class CommonController {
     /**
      * 获取热门搜索
      *
+     * @param window 统计窗口（1h / 24h / 7d，可选）
      * @return 热门搜索词列表
      */
     @GetMapping("/search/hot")
-    public Result<List<String>> getHotSearches() {
-        List<String> hotSearches = commonService.getHotSearches();
+    public Result<List<String>> getHotSearches(@RequestParam(required = false) String window) {
+        List<String> hotSearches = commonService.getHotSearches(window);
         return Result.success(hotSearches);
     }
 
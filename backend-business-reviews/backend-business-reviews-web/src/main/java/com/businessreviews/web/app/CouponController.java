@@ -2,6 +2,7 @@ package com.businessreviews.web.app;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.businessreviews.common.PageCursor;
 import com.businessreviews.common.PageResult;
 import com.businessreviews.common.Result;
 import com.businessreviews.context.UserContext;
@@ -13,6 +14,7 @@ import com.businessreviews.mapper.CouponMapper;
 import com.businessreviews.mapper.ShopMapper;
 import com.businessreviews.mapper.UserCouponMapper;
 import com.businessreviews.enums.UserCouponStatus;
+import com.businessreviews.service.impl.common.EntityIdFilterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
@@ -38,6 +40,7 @@ public class CouponController {
     private final CouponMapper couponMapper;
     private final UserCouponMapper userCouponMapper;
     private final ShopMapper shopMapper;
+    private final EntityIdFilterService entityIdFilterService;
 
     /**
      * 获取所有可用优惠券列表（公开接口）
@@ -45,27 +48,40 @@ public class CouponController {
      * 使用批量查询优化，避免 N+1 问题。
      * </p>
      *
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 优惠券列表
      */
     @GetMapping
     public Result<PageResult<Map<String, Object>>> getCouponList(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "20") Integer pageSize) {
 
-        Page<CouponDO> page = new Page<>(pageNum, pageSize);
         LambdaQueryWrapper<CouponDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(CouponDO::getStatus, 1)
                 .gt(CouponDO::getEndTime, LocalDateTime.now())
-                .gt(CouponDO::getRemainCount, 0)
-                .orderByDesc(CouponDO::getCreatedAt);
+                .gt(CouponDO::getRemainCount, 0);
 
-        Page<CouponDO> couponPage = couponMapper.selectPage(page, wrapper);
-        List<CouponDO> coupons = couponPage.getRecords();
+        List<CouponDO> coupons;
+        String nextCursor = null;
+        Long total = null;
+        if (cursor != null) {
+            PageCursor.seek(wrapper, cursor, CouponDO::getCreatedAt, LocalDateTime::parse, CouponDO::getId, false,
+                    pageSize);
+            coupons = couponMapper.selectList(wrapper);
+            nextCursor = PageCursor.nextCursor(coupons, pageSize, CouponDO::getCreatedAt, CouponDO::getId);
+        } else {
+            wrapper.orderByDesc(CouponDO::getCreatedAt);
+            Page<CouponDO> couponPage = couponMapper.selectPage(new Page<>(pageNum, pageSize), wrapper);
+            coupons = couponPage.getRecords();
+            total = couponPage.getTotal();
+        }
 
         if (coupons.isEmpty()) {
-            return Result.success(PageResult.of(new ArrayList<>(), 0L, pageNum, pageSize));
+            return Result.success(cursor != null ? PageResult.ofCursor(new ArrayList<>(), null, pageSize)
+                    : PageResult.of(new ArrayList<>(), 0L, pageNum, pageSize));
         }
 
         // 批量查询优化
@@ -97,7 +113,10 @@ public class CouponController {
                 .map(c -> convertToCouponResponseOptimized(c, userId, finalShopMap, finalClaimedIds))
                 .collect(Collectors.toList());
 
-        return Result.success(PageResult.of(list, couponPage.getTotal(), pageNum, pageSize));
+        if (cursor != null) {
+            return Result.success(PageResult.ofCursor(list, nextCursor, pageSize));
+        }
+        return Result.success(PageResult.of(list, total, pageNum, pageSize));
     }
 
     /**
@@ -107,6 +126,7 @@ public class CouponController {
      * 使用批量查询优化，避免 N+1 问题。
      * </p>
      *
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @param keyword  关键词
@@ -115,12 +135,12 @@ public class CouponController {
      */
     @GetMapping("/available")
     public Result<PageResult<Map<String, Object>>> getAvailableCoupons(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "20") Integer pageSize,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Integer type) {
 
-        Page<CouponDO> page = new Page<>(pageNum, pageSize);
         LambdaQueryWrapper<CouponDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(CouponDO::getStatus, 1)
                 .gt(CouponDO::getEndTime, LocalDateTime.now())
@@ -136,13 +156,24 @@ public class CouponController {
             wrapper.eq(CouponDO::getType, type);
         }
 
-        wrapper.orderByDesc(CouponDO::getCreatedAt);
-
-        Page<CouponDO> couponPage = couponMapper.selectPage(page, wrapper);
-        List<CouponDO> coupons = couponPage.getRecords();
+        List<CouponDO> coupons;
+        String nextCursor = null;
+        Long total = null;
+        if (cursor != null) {
+            PageCursor.seek(wrapper, cursor, CouponDO::getCreatedAt, LocalDateTime::parse, CouponDO::getId, false,
+                    pageSize);
+            coupons = couponMapper.selectList(wrapper);
+            nextCursor = PageCursor.nextCursor(coupons, pageSize, CouponDO::getCreatedAt, CouponDO::getId);
+        } else {
+            wrapper.orderByDesc(CouponDO::getCreatedAt);
+            Page<CouponDO> couponPage = couponMapper.selectPage(new Page<>(pageNum, pageSize), wrapper);
+            coupons = couponPage.getRecords();
+            total = couponPage.getTotal();
+        }
 
         if (coupons.isEmpty()) {
-            return Result.success(PageResult.of(new ArrayList<>(), 0L, pageNum, pageSize));
+            return Result.success(cursor != null ? PageResult.ofCursor(new ArrayList<>(), null, pageSize)
+                    : PageResult.of(new ArrayList<>(), 0L, pageNum, pageSize));
         }
 
         // ========== 批量查询优化 (In-Memory Map Assembly) ==========
@@ -182,13 +213,17 @@ public class CouponController {
                 .map(c -> convertToCouponResponseOptimized(c, userId, finalShopMap, finalClaimedIds))
                 .collect(Collectors.toList());
 
-        return Result.success(PageResult.of(list, couponPage.getTotal(), pageNum, pageSize));
+        if (cursor != null) {
+            return Result.success(PageResult.ofCursor(list, nextCursor, pageSize));
+        }
+        return Result.success(PageResult.of(list, total, pageNum, pageSize));
     }
 
     /**
      * 获取我的优惠券列表
      *
      * @param status   状态 (all/unused/used/expired)
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 我的优惠券列表
@@ -196,12 +231,12 @@ public class CouponController {
     @GetMapping("/my")
     public Result<PageResult<Map<String, Object>>> getMyCoupons(
             @RequestParam(defaultValue = "all") String status,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "20") Integer pageSize) {
 
         Long userId = UserContext.requireUserId();
 
-        Page<UserCouponDO> page = new Page<>(pageNum, pageSize);
         LambdaQueryWrapper<UserCouponDO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(UserCouponDO::getUserId, userId);
 
@@ -214,9 +249,22 @@ public class CouponController {
             wrapper.eq(UserCouponDO::getStatus, 3);
         }
 
+        if (cursor != null) {
+            PageCursor.seek(wrapper, cursor, UserCouponDO::getReceiveTime, LocalDateTime::parse,
+                    UserCouponDO::getId, false, pageSize);
+            List<UserCouponDO> userCoupons = userCouponMapper.selectList(wrapper);
+            String nextCursor = PageCursor.nextCursor(userCoupons, pageSize, UserCouponDO::getReceiveTime,
+                    UserCouponDO::getId);
+            List<Map<String, Object>> list = userCoupons.stream()
+                    .map(this::convertToUserCouponResponse)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            return Result.success(PageResult.ofCursor(list, nextCursor, pageSize));
+        }
+
         wrapper.orderByDesc(UserCouponDO::getReceiveTime);
 
-        Page<UserCouponDO> userCouponPage = userCouponMapper.selectPage(page, wrapper);
+        Page<UserCouponDO> userCouponPage = userCouponMapper.selectPage(new Page<>(pageNum, pageSize), wrapper);
 
         List<Map<String, Object>> list = userCouponPage.getRecords().stream()
                 .map(this::convertToUserCouponResponse)
@@ -308,8 +356,13 @@ public class CouponController {
      */
     @GetMapping("/{couponId}")
     public Result<Map<String, Object>> getCouponDetail(@PathVariable Long couponId) {
+        // 不存在的优惠券ID直接拒绝，不查数据库
+        if (!entityIdFilterService.mightExist(EntityIdFilterService.EntityType.COUPON, couponId)) {
+            throw new BusinessException(40404, "优惠券不存在");
+        }
         CouponDO coupon = couponMapper.selectById(couponId);
         if (coupon == null) {
+            entityIdFilterService.markMissing(EntityIdFilterService.EntityType.COUPON, couponId);
             throw new BusinessException(40404, "优惠券不存在");
         }
 
@@ -62,6 +62,7 @@ public class MessageController {
      * 获取聊天记录
      *
      * @param targetUserId 目标用户ID
+     * @param cursor       分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum      页码
      * @param pageSize     每页数量
      * @return 聊天记录PageResult
@@ -69,10 +70,12 @@ public class MessageController {
     @GetMapping("/chat/{targetUserId}")
     public Result<PageResult<MessageVO>> getChatHistory(
             @PathVariable Long targetUserId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "20") Integer pageSize) {
         Long userId = UserContext.requireUserId();
-        PageResult<MessageVO> result = messageService.getChatHistory(userId, targetUserId, pageNum, pageSize);
+        PageResult<MessageVO> result = messageService.getChatHistory(userId, targetUserId, cursor, pageNum,
+                pageSize);
         return Result.success(result);
     }
 
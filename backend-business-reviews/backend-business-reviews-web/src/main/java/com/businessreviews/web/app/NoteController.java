@@ -45,47 +45,54 @@ public class NoteController {
     /**
      * 获取推荐笔记列表
      *
-     * @param pageNum  页码
-     * @param pageSize 每页数量
+     * @param snapshotId 推荐流快照ID（翻页时回传上一页返回的snapshotId）
+     * @param pageNum    页码
+     * @param pageSize   每页数量
      * @return 推荐笔记列表
      */
     @GetMapping("/recommended")
     public Result<PageResult<NoteItemVO>> getRecommendedNotes(
+            @RequestParam(required = false) String snapshotId,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize) {
-        PageResult<NoteItemVO> result = noteService.getRecommendedNotes(pageNum, pageSize);
+        PageResult<NoteItemVO> result = noteService.getRecommendedNotes(snapshotId, pageNum, pageSize);
+        noteService.annotateInteractionState(UserContext.getUserId(), result.getList());
         return Result.success(result);
     }
 
     /**
      * 获取我的笔记列表
      *
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 我的笔记列表
      */
     @GetMapping("/my")
     public Result<PageResult<NoteItemVO>> getMyNotes(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize) {
         Long userId = UserContext.requireUserId();
-        PageResult<NoteItemVO> result = noteService.getUserNotes(userId, pageNum, pageSize);
+        PageResult<NoteItemVO> result = noteService.getUserNotes(userId, cursor, pageNum, pageSize);
         return Result.success(result);
     }
 
     /**
      * 获取我点赞的笔记列表
      *
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 点赞笔记列表
      */
     @GetMapping("/liked")
     public Result<PageResult<NoteItemVO>> getLikedNotes(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize) {
         Long userId = UserContext.requireUserId();
-        PageResult<NoteItemVO> result = noteService.getLikedNotes(userId, pageNum, pageSize);
+        PageResult<NoteItemVO> result = noteService.getLikedNotes(userId, cursor, pageNum, pageSize);
         return Result.success(result);
     }
 
@@ -93,6 +100,7 @@ public class NoteController {
      * 获取指定用户的笔记列表
      *
      * @param userId   用户ID
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 用户笔记列表
@@ -100,9 +108,10 @@ public class NoteController {
     @GetMapping("/user/{userId}")
     public Result<PageResult<NoteItemVO>> getUserNotes(
             @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize) {
-        PageResult<NoteItemVO> result = noteService.getUserNotes(userId, pageNum, pageSize);
+        PageResult<NoteItemVO> result = noteService.getUserNotes(userId, cursor, pageNum, pageSize);
         return Result.success(result);
     }
 
@@ -111,6 +120,7 @@ public class NoteController {
      *
      * @param categoryId 分类ID
      * @param sortBy     排序方式
+     * @param cursor     分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum    页码
      * @param pageSize   每页数量
      * @return 探索笔记列表
@@ -119,9 +129,11 @@ public class NoteController {
     public Result<PageResult<NoteItemVO>> getExploreNotes(
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize) {
-        PageResult<NoteItemVO> result = noteService.getExploreNotes(categoryId, sortBy, pageNum, pageSize);
+        PageResult<NoteItemVO> result = noteService.getExploreNotes(categoryId, sortBy, cursor, pageNum, pageSize);
+        noteService.annotateInteractionState(UserContext.getUserId(), result.getList());
         return Result.success(result);
     }
 
@@ -162,6 +174,7 @@ public class NoteController {
             return Result.success(PageResult.empty(pageNum, pageSize));
         }
         PageResult<NoteItemVO> result = noteService.getFollowingNotes(userId, pageNum, pageSize);
+        noteService.annotateInteractionState(userId, result.getList());
         return Result.success(result);
     }
 
@@ -176,7 +189,7 @@ public class NoteController {
         Long userId = UserContext.getUserId();
         NoteDetailVO response = noteService.getNoteDetail(id, userId);
 
-        // 异步增加浏览量并记录浏览历史
+        // 提交浏览事件（批量累加浏览量并记录浏览历史）
         noteService.increaseViewCount(id, userId);
 
         return Result.success(response);
@@ -6,6 +6,7 @@ import com.businessreviews.context.UserContext;
 import com.businessreviews.model.vo.ShopDetailVO;
 import com.businessreviews.model.vo.ShopItemVO;
 import com.businessreviews.service.app.ShopService;
+import com.businessreviews.service.common.CommonService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,6 +35,7 @@ import org.springframework.web.bind.annotation.*;
 public class ShopController {
 
     private final ShopService shopService;
+    private final CommonService commonService;
 
     /**
      * 获取商家列表（支持分类筛选和关键词搜索）
@@ -41,6 +43,7 @@ public class ShopController {
      * @param categoryId 分类ID
      * @param keyword    关键词
      * @param sortBy     排序方式
+     * @param cursor     分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum    页码
      * @param pageSize   每页数量
      * @return 商家列表
@@ -50,9 +53,11 @@ public class ShopController {
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize) {
-        PageResult<ShopItemVO> result = shopService.getShopList(categoryId, keyword, sortBy, pageNum, pageSize);
+        PageResult<ShopItemVO> result = shopService.getShopList(categoryId, keyword, sortBy, cursor, pageNum,
+                pageSize);
         return Result.success(result);
     }
 
@@ -95,6 +100,10 @@ public class ShopController {
             @RequestParam String keyword,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize) {
+        // 只统计首页请求，翻页不重复计入热搜
+        if (pageNum == 1) {
+            commonService.recordSearch(keyword);
+        }
         PageResult<ShopItemVO> result = shopService.searchShops(keyword, pageNum, pageSize);
         return Result.success(result);
     }
@@ -116,6 +125,7 @@ public class ShopController {
      * 获取商家笔记列表
      *
      * @param id       商家ID
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 笔记列表
@@ -123,9 +133,10 @@ public class ShopController {
     @GetMapping("/{id}/notes")
     public Result<PageResult<Object>> getShopNotes(
             @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize) {
-        PageResult<Object> result = shopService.getShopNotes(id, pageNum, pageSize);
+        PageResult<Object> result = shopService.getShopNotes(id, cursor, pageNum, pageSize);
         return Result.success(result);
     }
 
@@ -159,6 +170,7 @@ public class ShopController {
      * 获取商家评价列表
      *
      * @param id       商家ID
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @param sortBy   排序方式
@@ -167,10 +179,11 @@ public class ShopController {
     @GetMapping("/{id}/reviews")
     public Result<PageResult<Object>> getShopReviews(
             @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(defaultValue = "latest") String sortBy) {
-        PageResult<Object> result = shopService.getShopReviews(id, pageNum, pageSize, sortBy);
+        PageResult<Object> result = shopService.getShopReviews(id, cursor, pageNum, pageSize, sortBy);
         return Result.success(result);
     }
 
@@ -217,6 +230,7 @@ public class ShopController {
      * </p>
      *
      * @param keyword  关键词
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 商户列表
@@ -224,9 +238,10 @@ public class ShopController {
     @GetMapping("/registered")
     public Result<PageResult<ShopItemVO>> getRegisteredShops(
             @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "50") Integer pageSize) {
-        PageResult<ShopItemVO> result = shopService.getRegisteredShops(keyword, pageNum, pageSize);
+        PageResult<ShopItemVO> result = shopService.getRegisteredShops(keyword, cursor, pageNum, pageSize);
         return Result.success(result);
     }
 }
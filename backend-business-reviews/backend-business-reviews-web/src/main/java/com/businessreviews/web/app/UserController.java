@@ -107,16 +107,18 @@ public class UserController {
     /**
      * 获取浏览历史
      *
+     * @param cursor   分页游标（传入即启用游标分页，首页传空字符串）
      * @param pageNum  页码
      * @param pageSize 每页数量
      * @return 浏览历史列表
      */
     @GetMapping("/history")
     public Result<PageResult<HistoryItemVO>> getBrowseHistory(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "1") Integer pageNum,
             @RequestParam(defaultValue = "20") Integer pageSize) {
         Long userId = UserContext.requireUserId();
-        PageResult<HistoryItemVO> result = userService.getBrowseHistory(userId, pageNum, pageSize);
+        PageResult<HistoryItemVO> result = userService.getBrowseHistory(userId, cursor, pageNum, pageSize);
         return Result.success(result);
     }
 
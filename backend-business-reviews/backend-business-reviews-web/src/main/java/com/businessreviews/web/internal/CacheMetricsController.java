@@ -0,0 +1,36 @@
+package com.businessreviews.web.internal;
+
+import com.businessreviews.common.Result;
+import com.businessreviews.model.vo.CacheMetricsVO;
+import com.businessreviews.service.common.CacheMetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 缓存指标控制器
+ * <p>
+ * 查询本实例的热点Key（已脱敏）、提升速率、二级缓存命中率和计数落库状态。
+ * 属于运维接口，不对用户开放，由 {@link com.businessreviews.interceptor.InternalAccessInterceptor} 校验内部访问令牌。
+ * </p>
+ *
+ * @author businessreviews
+ */
+@RestController
+@RequestMapping("/internal/metrics/cache")
+@RequiredArgsConstructor
+public class CacheMetricsController {
+
+    private final CacheMetricsService cacheMetricsService;
+
+    /**
+     * 获取缓存运行指标
+     *
+     * @return 缓存运行指标
+     */
+    @GetMapping
+    public Result<CacheMetricsVO> getCacheMetrics() {
+        return Result.success(cacheMetricsService.getCacheMetrics());
+    }
+}
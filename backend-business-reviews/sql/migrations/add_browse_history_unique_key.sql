@@ -0,0 +1,15 @@
+-- 为 user_browse_history 表添加 (用户, 类型, 目标) 唯一索引
+-- 浏览历史改为批量 INSERT ... ON DUPLICATE KEY UPDATE 写入，同一用户同一目标只保留一条记录
+
+-- 1. 清理重复记录，每组只保留浏览时间最新（相同时取ID最大）的一条
+DELETE h1 FROM `user_browse_history` h1
+JOIN `user_browse_history` h2
+  ON h1.user_id = h2.user_id
+ AND h1.target_type = h2.target_type
+ AND h1.target_id = h2.target_id
+ AND (h1.created_at < h2.created_at OR (h1.created_at = h2.created_at AND h1.id < h2.id));
+
+-- 2. 添加唯一索引（以 user_id 开头，可替代原 idx_user_id）
+ALTER TABLE `user_browse_history`
+ADD UNIQUE INDEX `uk_user_target`(`user_id` ASC, `target_type` ASC, `target_id` ASC) USING BTREE,
+DROP INDEX `idx_user_id`;
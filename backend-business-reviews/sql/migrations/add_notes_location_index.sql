@@ -0,0 +1,5 @@
+-- 为 notes 表添加经纬度联合索引
+-- 用于"附近笔记"在 Redis GEO 索引不可用时按经纬度矩形范围降级查询
+
+ALTER TABLE `notes`
+ADD INDEX `idx_latitude_longitude`(`latitude` ASC, `longitude` ASC) USING BTREE;
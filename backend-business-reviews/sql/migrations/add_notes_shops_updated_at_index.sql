@@ -0,0 +1,9 @@
+-- 为 notes、shops 表添加 (updated_at, id) 联合索引
+-- 笔记/商家搜索索引每分钟按 updated_at 水位增量同步，
+-- 查询条件 (updated_at, id) > (?, ?) ORDER BY updated_at, id LIMIT n 走该索引，避免全表扫描和文件排序
+
+ALTER TABLE `notes`
+ADD INDEX `idx_updated_at`(`updated_at` ASC, `id` ASC) USING BTREE;
+
+ALTER TABLE `shops`
+ADD INDEX `idx_updated_at`(`updated_at` ASC, `id` ASC) USING BTREE;
@@ -0,0 +1,32 @@
+-- 新建 shop_rating_stats 表，保存每个商家正常状态评价的评分累计值
+-- 发表、删除评价时按增量更新，商家评分 = 累计值 / 评价数，不再逐次全量扫描 shop_reviews
+
+CREATE TABLE `shop_rating_stats`  (
+  `shop_id` bigint NOT NULL COMMENT '商家ID',
+  `review_count` int NOT NULL DEFAULT 0 COMMENT '正常状态评价数',
+  `rating_sum` decimal(14, 2) NOT NULL DEFAULT 0.00 COMMENT '综合评分累计',
+  `taste_sum` decimal(14, 2) NOT NULL DEFAULT 0.00 COMMENT '口味评分累计',
+  `taste_count` int NOT NULL DEFAULT 0 COMMENT '有口味评分的评价数',
+  `environment_sum` decimal(14, 2) NOT NULL DEFAULT 0.00 COMMENT '环境评分累计',
+  `environment_count` int NOT NULL DEFAULT 0 COMMENT '有环境评分的评价数',
+  `service_sum` decimal(14, 2) NOT NULL DEFAULT 0.00 COMMENT '服务评分累计',
+  `service_count` int NOT NULL DEFAULT 0 COMMENT '有服务评分的评价数',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`shop_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '商家评分统计表' ROW_FORMAT = Dynamic;
+
+-- 按现有评价初始化
+INSERT INTO `shop_rating_stats` (`shop_id`, `review_count`, `rating_sum`, `taste_sum`, `taste_count`,
+  `environment_sum`, `environment_count`, `service_sum`, `service_count`)
+SELECT `shop_id`, COUNT(*), SUM(`rating`),
+  IFNULL(SUM(`taste_score`), 0), COUNT(`taste_score`),
+  IFNULL(SUM(`environment_score`), 0), COUNT(`environment_score`),
+  IFNULL(SUM(`service_score`), 0), COUNT(`service_score`)
+FROM `shop_reviews`
+WHERE `status` = 1
+GROUP BY `shop_id`;
+
+-- 评价按 (商家, 状态) 统计和对账
+ALTER TABLE `shop_reviews`
+ADD INDEX `idx_shop_status`(`shop_id` ASC, `status` ASC) USING BTREE,
+DROP INDEX `idx_shop_id`;